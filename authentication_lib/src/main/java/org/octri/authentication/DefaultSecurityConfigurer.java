@@ -5,11 +5,13 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import java.util.EnumSet;
 import java.util.Set;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.config.AuthenticationRouteProperties;
 import org.octri.authentication.config.ContentSecurityPolicyProperties;
 import org.octri.authentication.config.LdapContextProperties;
+import org.octri.authentication.config.RateLimitProperties;
 import org.octri.authentication.config.SamlAuthenticationConfiguration;
 import org.octri.authentication.config.SamlProperties;
 import org.octri.authentication.server.security.ApplicationAuthenticationFailureHandler;
@@ -18,6 +20,9 @@ import org.octri.authentication.server.security.AuthenticationUserDetailsService
 import org.octri.authentication.server.security.SessionDestroyedListener;
 import org.octri.authentication.server.security.TableBasedAuthenticationProvider;
 import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
+import org.octri.authentication.server.security.ratelimit.RateLimitStore;
+import org.octri.authentication.server.security.ratelimit.RateLimitingFilter;
 import org.octri.authentication.server.security.saml.SamlAuthenticationFailureHandler;
 import org.octri.authentication.server.security.saml.SamlAuthenticationSuccessHandler;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,10 +35,15 @@ import org.springframework.http.HttpMethod;
 import org.springframework.ldap.core.support.LdapContextSource;
 import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.ldap.authentication.BindAuthenticator;
+import org.springframework.security.ldap.authentication.LdapAuthenticationProvider;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+import org.springframework.security.ldap.search.LdapUserSearch;
 import org.springframework.security.ldap.userdetails.LdapAuthoritiesPopulator;
 import org.springframework.security.ldap.userdetails.UserDetailsContextMapper;
 import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider;
@@ -41,6 +51,7 @@ import org.springframework.security.saml2.provider.service.registration.RelyingP
 import org.springframework.security.saml2.provider.service.web.authentication.logout.Saml2LogoutRequestResolver;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 
@@ -55,6 +66,12 @@ public class DefaultSecurityConfigurer {
 
 	private static final Log log = LogFactory.getLog(DefaultSecurityConfigurer.class);
 
+	/**
+	 * Route that accepts login form submissions. The library's login templates post to this route, whatever the
+	 * configured login page is.
+	 */
+	public static final String LOGIN_PROCESSING_URL = "/login";
+
 	@Autowired
 	private Boolean ldapEnabled;
 
@@ -70,6 +87,15 @@ public class DefaultSecurityConfigurer {
 	@Autowired
 	private AuthenticationUserDetailsService userDetailsService;
 
+	@Autowired(required = false)
+	private RateLimitProperties rateLimitProperties;
+
+	@Autowired(required = false)
+	private RateLimitStore rateLimitStore;
+
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	// Table-based authentication beans
 
 	@Autowired
@@ -139,6 +165,7 @@ public class DefaultSecurityConfigurer {
 				.csrf(withDefaults());
 
 		configureContentSecurityPolicy(http);
+		configureRateLimiting(http);
 		configureFormLoginWithDefaults(http);
 		configureLogoutWithDefaults(http);
 		configureRouteSecurityWithDefaults(http);
@@ -249,14 +276,17 @@ public class DefaultSecurityConfigurer {
 		if (tableBasedEnabled) {
 			log.info("Enabling table-based authentication.");
 			authBuilder.userDetailsService(userDetailsService);
-			authBuilder.authenticationProvider(tableBasedAuthenticationProvider);
+			authBuilder.authenticationProvider(
+					observed(tableBasedAuthenticationProvider, AuthenticationMethod.TABLE_BASED));
 		} else {
 			log.info("Not enabling table-based authentication: octri.authentication.enable-table-based was false.");
 		}
 	}
 
 	/**
-	 * Adds support for LDAP authentication to the authentication manager.
+	 * Adds support for LDAP authentication to the authentication manager. Users are found with the configured search
+	 * and authenticated by binding as the user. Searches are timed, and authentications observed, when metrics are
+	 * available.
 	 *
 	 * @param authBuilder
 	 *            the authentication manager builder to modify
@@ -266,12 +296,22 @@ public class DefaultSecurityConfigurer {
 	public void configureAuthenticationManagerForLdap(AuthenticationManagerBuilder authBuilder) throws Exception {
 		if (ldapEnabled) {
 			log.info("Enabling LDAP authentication.");
-			authBuilder.ldapAuthentication()
-					.contextSource(ldapContextSource)
-					.userSearchBase(ldapContextProperties.getSearchBase())
-					.userSearchFilter(ldapContextProperties.getSearchFilter())
-					.ldapAuthoritiesPopulator(ldapAuthoritiesPopulator)
-					.userDetailsContextMapper(ldapUserDetailsContextMapper);
+			LdapUserSearch userSearch = new FilterBasedLdapUserSearch(
+					StringUtils.defaultString(ldapContextProperties.getSearchBase()),
+					ldapContextProperties.getSearchFilter(), ldapContextSource);
+			if (authenticationMetrics != null) {
+				userSearch = authenticationMetrics.timed(userSearch);
+			}
+			BindAuthenticator authenticator = new BindAuthenticator(ldapContextSource);
+			authenticator.setUserSearch(userSearch);
+
+			LdapAuthenticationProvider provider = ldapAuthoritiesPopulator != null
+					? new LdapAuthenticationProvider(authenticator, ldapAuthoritiesPopulator)
+					: new LdapAuthenticationProvider(authenticator);
+			if (ldapUserDetailsContextMapper != null) {
+				provider.setUserDetailsContextMapper(ldapUserDetailsContextMapper);
+			}
+			authBuilder.authenticationProvider(observed(provider, AuthenticationMethod.LDAP));
 		} else {
 			log.info("Not enabling LDAP authentication: octri.authentication.enable-ldap was false.");
 		}
@@ -341,6 +381,7 @@ public class DefaultSecurityConfigurer {
 		formAuthFailureHandler.setDefaultFailureUrl(routes.getLoginFailureRedirectUrl());
 
 		http.formLogin(formLogin -> formLogin
+				.loginProcessingUrl(LOGIN_PROCESSING_URL)
 				.permitAll()
 				.successHandler(formAuthSuccessHandler)
 				.failureHandler(formAuthFailureHandler));
@@ -413,6 +454,46 @@ public class DefaultSecurityConfigurer {
 		}));
 	}
 
+	/**
+	 * Installs a filter that rate limits login and forgotten password submissions if rate limiting is enabled. The
+	 * filter runs before form authentication, so throttled requests never reach the password encoder.
+	 *
+	 * @param http
+	 *            HttpSecurity builder
+	 * @throws Exception
+	 *             if an error occurs when configuring rate limiting
+	 * @see RateLimitProperties
+	 * @see RateLimitingFilter
+	 */
+	public void configureRateLimiting(HttpSecurity http) throws Exception {
+		if (rateLimitStore == null || rateLimitProperties == null
+				|| !Boolean.TRUE.equals(rateLimitProperties.getEnabled())) {
+			log.info("Rate limiting is disabled. Skipping.");
+			return;
+		}
+
+		log.info("Configuring rate limiting.");
+		log.debug(rateLimitProperties);
+		http.addFilterBefore(rateLimitingFilter(), UsernamePasswordAuthenticationFilter.class);
+	}
+
+	/**
+	 * Creates the rate limiting filter. Logins are throttled at the form login processing URL, which may differ from the
+	 * configured login page.
+	 *
+	 * @return filter that rate limits login and forgotten password submissions
+	 */
+	RateLimitingFilter rateLimitingFilter() {
+		return new RateLimitingFilter(rateLimitStore, rateLimitProperties, LOGIN_PROCESSING_URL);
+	}
+
+	/**
+	 * Wraps an authentication provider so that its authentications are observed, if metrics are available.
+	 */
+	private AuthenticationProvider observed(AuthenticationProvider provider, AuthenticationMethod method) {
+		return authenticationMetrics != null ? authenticationMetrics.observed(provider, method) : provider;
+	}
+
 	private boolean samlEnabled() {
 		return samlProperties != null && Boolean.TRUE.equals(samlProperties.getEnabled());
 	}
@@ -0,0 +1,65 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.service.OutboundEmailDispatcher;
+import org.octri.authentication.server.security.service.OutboundEmailQueue;
+import org.octri.messaging.service.MessageDeliveryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Configuration for queueing account emails in the database and sending them in the background.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(EmailQueueProperties.class)
+@ConditionalOnProperty(value = "octri.authentication.email-queue.enabled", havingValue = "true", matchIfMissing = false)
+public class EmailQueueConfiguration {
+
+	private static final Log log = LogFactory.getLog(EmailQueueConfiguration.class);
+
+	/**
+	 * Provides the queue that stores outbound email.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to read and write the queue
+	 * @param transactionManager
+	 *            transaction manager used to claim messages
+	 * @param emailQueueProperties
+	 *            email queue configuration
+	 * @return outbound email queue
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public OutboundEmailQueue outboundEmailQueue(JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager, EmailQueueProperties emailQueueProperties) {
+		log.debug("Creating outbound email queue: " + emailQueueProperties);
+		return new OutboundEmailQueue(jdbcTemplate, transactionManager, emailQueueProperties);
+	}
+
+	/**
+	 * Provides the dispatcher that sends queued email on a schedule.
+	 *
+	 * @param outboundEmailQueue
+	 *            queue of outbound messages
+	 * @param messageDeliveryService
+	 *            service used to deliver email messages
+	 * @param emailQueueProperties
+	 *            email queue configuration
+	 * @return outbound email dispatcher
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public OutboundEmailDispatcher outboundEmailDispatcher(OutboundEmailQueue outboundEmailQueue,
+			MessageDeliveryService messageDeliveryService, EmailQueueProperties emailQueueProperties) {
+		return new OutboundEmailDispatcher(outboundEmailQueue, messageDeliveryService, emailQueueProperties);
+	}
+
+}
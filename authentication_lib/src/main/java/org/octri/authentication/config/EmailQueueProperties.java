@@ -0,0 +1,245 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for queueing account emails in the database and sending them in the background.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.email-queue")
+public class EmailQueueProperties {
+
+	/**
+	 * Default interval between checks for messages to send.
+	 */
+	public static final String DEFAULT_POLL_INTERVAL = "5s";
+
+	/**
+	 * Whether account emails are queued in the database and sent by a background dispatcher. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Length of time between checks for messages to send. Defaults to 5 seconds.
+	 */
+	private Duration pollInterval = Duration.ofSeconds(5);
+
+	/**
+	 * Maximum number of messages claimed by each check. Defaults to 20.
+	 */
+	private Integer batchSize = 20;
+
+	/**
+	 * Maximum number of attempts to deliver a message before it is marked as failed. Defaults to 5.
+	 */
+	private Integer maxAttempts = 5;
+
+	/**
+	 * Length of time to wait before retrying a failed delivery. The wait doubles after each failed attempt. Defaults to
+	 * 30 seconds.
+	 */
+	private Duration initialBackoff = Duration.ofSeconds(30);
+
+	/**
+	 * Maximum length of time to wait before retrying a failed delivery. Defaults to 1 hour.
+	 */
+	private Duration maxBackoff = Duration.ofHours(1);
+
+	/**
+	 * Length of time a dispatcher may hold a message before another dispatcher may try to send it. Defaults to 5
+	 * minutes.
+	 */
+	private Duration claimTimeout = Duration.ofMinutes(5);
+
+	/**
+	 * Length of time during which an identical message to the same recipient is discarded. A zero value disables
+	 * deduplication. Defaults to 10 minutes.
+	 */
+	private Duration deduplicationWindow = Duration.ofMinutes(10);
+
+	/**
+	 * Maximum number of messages sent per minute. A zero value removes the limit. Defaults to 60.
+	 */
+	private Integer maxSendsPerMinute = 60;
+
+	/**
+	 * Gets whether account emails are queued.
+	 *
+	 * @return true if the email queue is enabled, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether account emails are queued.
+	 *
+	 * @param enabled
+	 *            true to enable the email queue, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the length of time between checks for messages to send.
+	 *
+	 * @return the poll interval
+	 */
+	public Duration getPollInterval() {
+		return pollInterval;
+	}
+
+	/**
+	 * Sets the length of time between checks for messages to send.
+	 *
+	 * @param pollInterval
+	 *            the poll interval
+	 */
+	public void setPollInterval(Duration pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * Gets the maximum number of messages claimed by each check.
+	 *
+	 * @return the batch size
+	 */
+	public Integer getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum number of messages claimed by each check.
+	 *
+	 * @param batchSize
+	 *            the batch size
+	 */
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the maximum number of delivery attempts.
+	 *
+	 * @return the maximum number of attempts
+	 */
+	public Integer getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Sets the maximum number of delivery attempts.
+	 *
+	 * @param maxAttempts
+	 *            the maximum number of attempts
+	 */
+	public void setMaxAttempts(Integer maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Gets the length of time to wait before the first retry.
+	 *
+	 * @return the initial backoff
+	 */
+	public Duration getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	/**
+	 * Sets the length of time to wait before the first retry.
+	 *
+	 * @param initialBackoff
+	 *            the initial backoff
+	 */
+	public void setInitialBackoff(Duration initialBackoff) {
+		this.initialBackoff = initialBackoff;
+	}
+
+	/**
+	 * Gets the maximum length of time to wait before a retry.
+	 *
+	 * @return the maximum backoff
+	 */
+	public Duration getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * Sets the maximum length of time to wait before a retry.
+	 *
+	 * @param maxBackoff
+	 *            the maximum backoff
+	 */
+	public void setMaxBackoff(Duration maxBackoff) {
+		this.maxBackoff = maxBackoff;
+	}
+
+	/**
+	 * Gets the length of time a dispatcher may hold a message.
+	 *
+	 * @return the claim timeout
+	 */
+	public Duration getClaimTimeout() {
+		return claimTimeout;
+	}
+
+	/**
+	 * Sets the length of time a dispatcher may hold a message.
+	 *
+	 * @param claimTimeout
+	 *            the claim timeout
+	 */
+	public void setClaimTimeout(Duration claimTimeout) {
+		this.claimTimeout = claimTimeout;
+	}
+
+	/**
+	 * Gets the length of time during which identical messages are discarded.
+	 *
+	 * @return the deduplication window
+	 */
+	public Duration getDeduplicationWindow() {
+		return deduplicationWindow;
+	}
+
+	/**
+	 * Sets the length of time during which identical messages are discarded.
+	 *
+	 * @param deduplicationWindow
+	 *            the deduplication window, or zero to disable deduplication
+	 */
+	public void setDeduplicationWindow(Duration deduplicationWindow) {
+		this.deduplicationWindow = deduplicationWindow;
+	}
+
+	/**
+	 * Gets the maximum number of messages sent per minute.
+	 *
+	 * @return the send rate limit, or zero if there is no limit
+	 */
+	public Integer getMaxSendsPerMinute() {
+		return maxSendsPerMinute;
+	}
+
+	/**
+	 * Sets the maximum number of messages sent per minute.
+	 *
+	 * @param maxSendsPerMinute
+	 *            the send rate limit, or zero for no limit
+	 */
+	public void setMaxSendsPerMinute(Integer maxSendsPerMinute) {
+		this.maxSendsPerMinute = maxSendsPerMinute;
+	}
+
+	@Override
+	public String toString() {
+		return "EmailQueueProperties [enabled=" + enabled + ", pollInterval=" + pollInterval + ", batchSize="
+				+ batchSize + ", maxAttempts=" + maxAttempts + ", initialBackoff=" + initialBackoff + ", maxBackoff="
+				+ maxBackoff + ", claimTimeout=" + claimTimeout + ", deduplicationWindow=" + deduplicationWindow
+				+ ", maxSendsPerMinute=" + maxSendsPerMinute + "]";
+	}
+
+}
@@ -1,6 +1,18 @@
 package org.octri.authentication.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.LdapBatchUserLookup;
 import org.octri.authentication.server.security.LdapUserDetailsContextMapper;
+import org.octri.authentication.server.security.LdapUserLookup;
+import org.octri.authentication.server.security.PooledLdapContextSource;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
+import org.octri.authentication.server.security.metrics.TimedLdapContextSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -22,6 +34,11 @@ import org.springframework.security.ldap.userdetails.UserDetailsContextMapper;
 @ConditionalOnProperty(value = "octri.authentication.enable-ldap", havingValue = "true", matchIfMissing = false)
 public class LdapAuthenticationConfiguration {
 
+	private static final Log log = LogFactory.getLog(LdapAuthenticationConfiguration.class);
+
+	static final String CONNECT_TIMEOUT_PROPERTY = "com.sun.jndi.ldap.connect.timeout";
+	static final String READ_TIMEOUT_PROPERTY = "com.sun.jndi.ldap.read.timeout";
+
 	private LdapContextProperties ldapContextProperties;
 
 	/**
@@ -55,35 +72,94 @@ public class LdapAuthenticationConfiguration {
 	}
 
 	/**
-	 * Provides a default context source for LDAP authentication.
+	 * Provides a default context source for LDAP authentication. Connections time out after the configured connect
+	 * and read timeouts. Binds that check users' passwords are timed when metrics are available.
 	 *
 	 * NOTE: Bean must be of type {@link LdapContextSource} to prevent Spring Boot's autoconfiguration from providing a
 	 * conflicting bean.
 	 *
+	 * @param authenticationMetrics
+	 *            metrics that bind times are recorded to, if available
 	 * @return default LDAP context source
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public LdapContextSource ldapContextSource() {
-		LdapContextSource contextSource = new LdapContextSource();
+	public LdapContextSource ldapContextSource(ObjectProvider<AuthenticationMetrics> authenticationMetrics) {
+		AuthenticationMetrics metrics = authenticationMetrics.getIfAvailable();
+		LdapContextSource contextSource = metrics != null ? new TimedLdapContextSource(metrics)
+				: new LdapContextSource();
 		contextSource.setUrl(ldapContextProperties.getUrl());
 		contextSource.setUserDn(ldapContextProperties.getUserDn());
 		contextSource.setPassword(ldapContextProperties.getPassword());
+		contextSource.setBaseEnvironmentProperties(timeoutEnvironment(ldapContextProperties));
 		return contextSource;
 	}
 
 	/**
-	 * Provides a default LDAP user search for LDAP authentication.
+	 * Provides a pool of connections used to search the directory.
+	 *
+	 * @param ldapContextSource
+	 *            LDAP context source used to open new connections
+	 * @return pooled LDAP context source
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "ldap.context-source.pool.enabled", havingValue = "true", matchIfMissing = false)
+	public PooledLdapContextSource pooledLdapContextSource(LdapContextSource ldapContextSource) {
+		log.debug("Creating LDAP connection pool: " + ldapContextProperties.getPool());
+		return new PooledLdapContextSource(ldapContextSource, ldapContextProperties.getPool());
+	}
+
+	/**
+	 * Provides a default LDAP user search for LDAP authentication. Searches use the connection pool if it is enabled.
 	 *
 	 * @param ldapContextSource
 	 *            LDAP context source
+	 * @param pooledLdapContextSource
+	 *            pooled LDAP context source, if connection pooling is enabled
 	 * @return LDAP search filter for finding user accounts
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public FilterBasedLdapUserSearch ldapSearch(BaseLdapPathContextSource ldapContextSource) {
+	public FilterBasedLdapUserSearch ldapSearch(LdapContextSource ldapContextSource,
+			ObjectProvider<PooledLdapContextSource> pooledLdapContextSource) {
+		BaseLdapPathContextSource contextSource = searchContextSource(ldapContextSource, pooledLdapContextSource);
 		return new FilterBasedLdapUserSearch(ldapContextProperties.getSearchBase(),
-				ldapContextProperties.getSearchFilter(), ldapContextSource);
+				ldapContextProperties.getSearchFilter(), contextSource);
+	}
+
+	/**
+	 * Provides the cached user lookup used when administrators create LDAP accounts.
+	 *
+	 * @param ldapSearch
+	 *            LDAP user search
+	 * @return LDAP user lookup
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public LdapUserLookup ldapUserLookup(FilterBasedLdapUserSearch ldapSearch) {
+		var lookupCache = ldapContextProperties.getLookupCache();
+		log.debug("Creating LDAP user lookup: " + lookupCache);
+		return new LdapUserLookup(ldapSearch, lookupCache.getMaximumSize(), lookupCache.getTimeToLive());
+	}
+
+	/**
+	 * Provides the lookup used to find many users in the directory at once. Searches use the connection pool if it is
+	 * enabled.
+	 *
+	 * @param ldapContextSource
+	 *            LDAP context source
+	 * @param pooledLdapContextSource
+	 *            pooled LDAP context source, if connection pooling is enabled
+	 * @return LDAP batch user lookup
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public LdapBatchUserLookup ldapBatchUserLookup(LdapContextSource ldapContextSource,
+			ObjectProvider<PooledLdapContextSource> pooledLdapContextSource) {
+		log.debug("Creating LDAP batch user lookup: " + ldapContextProperties.getBatchLookup());
+		return new LdapBatchUserLookup(searchContextSource(ldapContextSource, pooledLdapContextSource),
+				ldapContextProperties);
 	}
 
 	/**
@@ -112,4 +188,34 @@ public class LdapAuthenticationConfiguration {
 		return new NullLdapAuthoritiesPopulator();
 	}
 
+	/**
+	 * Builds the JNDI environment properties that set the connect and read timeouts.
+	 *
+	 * @param properties
+	 *            LDAP configuration properties
+	 * @return JNDI environment properties
+	 */
+	static Map<String, Object> timeoutEnvironment(LdapContextProperties properties) {
+		Map<String, Object> environment = new HashMap<>();
+		putTimeout(environment, CONNECT_TIMEOUT_PROPERTY, properties.getConnectTimeout());
+		putTimeout(environment, READ_TIMEOUT_PROPERTY, properties.getReadTimeout());
+		return environment;
+	}
+
+	private static void putTimeout(Map<String, Object> environment, String property, Duration timeout) {
+		if (timeout != null && !timeout.isNegative() && !timeout.isZero()) {
+			environment.put(property, String.valueOf(timeout.toMillis()));
+		}
+	}
+
+	/**
+	 * Gets the context source used for directory searches: the pooled context source if pooling is enabled, otherwise
+	 * the plain one.
+	 */
+	private static BaseLdapPathContextSource searchContextSource(LdapContextSource ldapContextSource,
+			ObjectProvider<PooledLdapContextSource> pooledLdapContextSource) {
+		PooledLdapContextSource pooled = pooledLdapContextSource.getIfAvailable();
+		return pooled != null ? pooled : ldapContextSource;
+	}
+
 }
@@ -1,5 +1,7 @@
 package org.octri.authentication.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -56,6 +58,31 @@ public class LdapContextProperties {
 	@NotNull
 	private String emailDomain;
 
+	/**
+	 * Maximum length of time to wait for a connection to the directory. Defaults to 5 seconds.
+	 */
+	private Duration connectTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * Maximum length of time to wait for the directory to respond to a request. Defaults to 30 seconds.
+	 */
+	private Duration readTimeout = Duration.ofSeconds(30);
+
+	/**
+	 * Pooling of connections used to search the directory.
+	 */
+	private Pool pool = new Pool();
+
+	/**
+	 * Caching of user lookups made by administrators.
+	 */
+	private LookupCache lookupCache = new LookupCache();
+
+	/**
+	 * Looking up many users at once.
+	 */
+	private BatchLookup batchLookup = new BatchLookup();
+
 	/**
 	 * Gets the URL of the LDAP directory.
 	 * 
@@ -189,11 +216,511 @@ public class LdapContextProperties {
 		this.emailDomain = emailDomain;
 	}
 
+	/**
+	 * Gets the maximum length of time to wait for a connection to the directory.
+	 *
+	 * @return the connect timeout
+	 */
+	public Duration getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Sets the maximum length of time to wait for a connection to the directory.
+	 *
+	 * @param connectTimeout
+	 *            the connect timeout, or null to wait indefinitely
+	 */
+	public void setConnectTimeout(Duration connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Gets the maximum length of time to wait for the directory to respond.
+	 *
+	 * @return the read timeout
+	 */
+	public Duration getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Sets the maximum length of time to wait for the directory to respond.
+	 *
+	 * @param readTimeout
+	 *            the read timeout, or null to wait indefinitely
+	 */
+	public void setReadTimeout(Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Gets the connection pool configuration.
+	 *
+	 * @return the connection pool configuration
+	 */
+	public Pool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the connection pool configuration.
+	 *
+	 * @param pool
+	 *            the connection pool configuration
+	 */
+	public void setPool(Pool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Gets the user lookup cache configuration.
+	 *
+	 * @return the user lookup cache configuration
+	 */
+	public LookupCache getLookupCache() {
+		return lookupCache;
+	}
+
+	/**
+	 * Sets the user lookup cache configuration.
+	 *
+	 * @param lookupCache
+	 *            the user lookup cache configuration
+	 */
+	public void setLookupCache(LookupCache lookupCache) {
+		this.lookupCache = lookupCache;
+	}
+
+	/**
+	 * Gets the batch lookup configuration.
+	 *
+	 * @return the batch lookup configuration
+	 */
+	public BatchLookup getBatchLookup() {
+		return batchLookup;
+	}
+
+	/**
+	 * Sets the batch lookup configuration.
+	 *
+	 * @param batchLookup
+	 *            the batch lookup configuration
+	 */
+	public void setBatchLookup(BatchLookup batchLookup) {
+		this.batchLookup = batchLookup;
+	}
+
 	@Override
 	public String toString() {
 		return "LdapContextProperties [emailDomain=" + emailDomain + ", organization=" + organization
 				+ ", password=FILTERED" + ", searchBase=" + searchBase + ", searchFilter=" + searchFilter + ", url="
-				+ url + ", userDn=" + userDn + "]";
+				+ url + ", userDn=" + userDn + ", connectTimeout=" + connectTimeout + ", readTimeout=" + readTimeout
+				+ ", pool=" + pool + ", lookupCache=" + lookupCache + ", batchLookup=" + batchLookup + "]";
+	}
+
+	/**
+	 * Configuration of the pool of connections used to search the directory. Connections that authenticate users are
+	 * never pooled, because each one binds as a different user.
+	 */
+	public static class Pool {
+
+		/**
+		 * Whether connections used to search the directory are pooled. Defaults to false.
+		 */
+		private Boolean enabled = false;
+
+		/**
+		 * Maximum number of pooled connections, both in use and idle. Defaults to 8.
+		 */
+		private Integer maxActive = 8;
+
+		/**
+		 * Maximum number of idle connections kept in the pool. Defaults to 8.
+		 */
+		private Integer maxIdle = 8;
+
+		/**
+		 * Minimum number of idle connections kept in the pool. Defaults to 0.
+		 */
+		private Integer minIdle = 0;
+
+		/**
+		 * Maximum length of time to wait for a connection when all are in use. Defaults to 5 seconds.
+		 */
+		private Duration maxWait = Duration.ofSeconds(5);
+
+		/**
+		 * Whether a connection is validated before it is borrowed from the pool. Defaults to true.
+		 */
+		private Boolean testOnBorrow = true;
+
+		/**
+		 * Whether idle connections are validated by the eviction thread. Defaults to true.
+		 */
+		private Boolean testWhileIdle = true;
+
+		/**
+		 * Length of time between runs of the thread that validates and evicts idle connections. Defaults to 1 minute.
+		 */
+		private Duration timeBetweenEvictionRuns = Duration.ofMinutes(1);
+
+		/**
+		 * Length of time a connection may sit idle before it is evicted. Defaults to 5 minutes.
+		 */
+		private Duration minEvictableIdleTime = Duration.ofMinutes(5);
+
+		/**
+		 * Gets whether search connections are pooled.
+		 *
+		 * @return true if connections are pooled, false if not
+		 */
+		public Boolean getEnabled() {
+			return enabled;
+		}
+
+		/**
+		 * Sets whether search connections are pooled.
+		 *
+		 * @param enabled
+		 *            true to pool connections, false if not
+		 */
+		public void setEnabled(Boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		/**
+		 * Gets the maximum number of pooled connections.
+		 *
+		 * @return the maximum number of connections
+		 */
+		public Integer getMaxActive() {
+			return maxActive;
+		}
+
+		/**
+		 * Sets the maximum number of pooled connections.
+		 *
+		 * @param maxActive
+		 *            the maximum number of connections
+		 */
+		public void setMaxActive(Integer maxActive) {
+			this.maxActive = maxActive;
+		}
+
+		/**
+		 * Gets the maximum number of idle connections.
+		 *
+		 * @return the maximum number of idle connections
+		 */
+		public Integer getMaxIdle() {
+			return maxIdle;
+		}
+
+		/**
+		 * Sets the maximum number of idle connections.
+		 *
+		 * @param maxIdle
+		 *            the maximum number of idle connections
+		 */
+		public void setMaxIdle(Integer maxIdle) {
+			this.maxIdle = maxIdle;
+		}
+
+		/**
+		 * Gets the minimum number of idle connections.
+		 *
+		 * @return the minimum number of idle connections
+		 */
+		public Integer getMinIdle() {
+			return minIdle;
+		}
+
+		/**
+		 * Sets the minimum number of idle connections.
+		 *
+		 * @param minIdle
+		 *            the minimum number of idle connections
+		 */
+		public void setMinIdle(Integer minIdle) {
+			this.minIdle = minIdle;
+		}
+
+		/**
+		 * Gets the maximum length of time to wait for a connection.
+		 *
+		 * @return the maximum wait
+		 */
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		/**
+		 * Sets the maximum length of time to wait for a connection.
+		 *
+		 * @param maxWait
+		 *            the maximum wait
+		 */
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		/**
+		 * Gets whether connections are validated before they are borrowed.
+		 *
+		 * @return true if connections are validated on borrow, false if not
+		 */
+		public Boolean getTestOnBorrow() {
+			return testOnBorrow;
+		}
+
+		/**
+		 * Sets whether connections are validated before they are borrowed.
+		 *
+		 * @param testOnBorrow
+		 *            true to validate connections on borrow, false if not
+		 */
+		public void setTestOnBorrow(Boolean testOnBorrow) {
+			this.testOnBorrow = testOnBorrow;
+		}
+
+		/**
+		 * Gets whether idle connections are validated.
+		 *
+		 * @return true if idle connections are validated, false if not
+		 */
+		public Boolean getTestWhileIdle() {
+			return testWhileIdle;
+		}
+
+		/**
+		 * Sets whether idle connections are validated.
+		 *
+		 * @param testWhileIdle
+		 *            true to validate idle connections, false if not
+		 */
+		public void setTestWhileIdle(Boolean testWhileIdle) {
+			this.testWhileIdle = testWhileIdle;
+		}
+
+		/**
+		 * Gets the length of time between eviction runs.
+		 *
+		 * @return the time between eviction runs
+		 */
+		public Duration getTimeBetweenEvictionRuns() {
+			return timeBetweenEvictionRuns;
+		}
+
+		/**
+		 * Sets the length of time between eviction runs.
+		 *
+		 * @param timeBetweenEvictionRuns
+		 *            the time between eviction runs
+		 */
+		public void setTimeBetweenEvictionRuns(Duration timeBetweenEvictionRuns) {
+			this.timeBetweenEvictionRuns = timeBetweenEvictionRuns;
+		}
+
+		/**
+		 * Gets the length of time a connection may sit idle before it is evicted.
+		 *
+		 * @return the minimum evictable idle time
+		 */
+		public Duration getMinEvictableIdleTime() {
+			return minEvictableIdleTime;
+		}
+
+		/**
+		 * Sets the length of time a connection may sit idle before it is evicted.
+		 *
+		 * @param minEvictableIdleTime
+		 *            the minimum evictable idle time
+		 */
+		public void setMinEvictableIdleTime(Duration minEvictableIdleTime) {
+			this.minEvictableIdleTime = minEvictableIdleTime;
+		}
+
+		@Override
+		public String toString() {
+			return "Pool [enabled=" + enabled + ", maxActive=" + maxActive + ", maxIdle=" + maxIdle + ", minIdle="
+					+ minIdle + ", maxWait=" + maxWait + ", testOnBorrow=" + testOnBorrow + ", testWhileIdle="
+					+ testWhileIdle + ", timeBetweenEvictionRuns=" + timeBetweenEvictionRuns
+					+ ", minEvictableIdleTime=" + minEvictableIdleTime + "]";
+		}
+
+	}
+
+	/**
+	 * Configuration of the cache of user lookups made by administrators when creating accounts.
+	 */
+	public static class LookupCache {
+
+		/**
+		 * Maximum number of usernames to cache. Defaults to 1000.
+		 */
+		private Integer maximumSize = 1000;
+
+		/**
+		 * Length of time a user that was found remains cached. Users that were not found are not cached. A zero value
+		 * disables the cache. Defaults to 5 minutes.
+		 */
+		private Duration timeToLive = Duration.ofMinutes(5);
+
+		/**
+		 * Gets the maximum number of usernames to cache.
+		 *
+		 * @return the maximum cache size
+		 */
+		public Integer getMaximumSize() {
+			return maximumSize;
+		}
+
+		/**
+		 * Sets the maximum number of usernames to cache.
+		 *
+		 * @param maximumSize
+		 *            the maximum cache size
+		 */
+		public void setMaximumSize(Integer maximumSize) {
+			this.maximumSize = maximumSize;
+		}
+
+		/**
+		 * Gets the length of time a lookup result remains valid.
+		 *
+		 * @return the time to live
+		 */
+		public Duration getTimeToLive() {
+			return timeToLive;
+		}
+
+		/**
+		 * Sets the length of time a lookup result remains valid.
+		 *
+		 * @param timeToLive
+		 *            the time to live, or zero to disable the cache
+		 */
+		public void setTimeToLive(Duration timeToLive) {
+			this.timeToLive = timeToLive;
+		}
+
+		@Override
+		public String toString() {
+			return "LookupCache [maximumSize=" + maximumSize + ", timeToLive=" + timeToLive + "]";
+		}
+
+	}
+
+	/**
+	 * Configuration for looking up many users with a few directory searches.
+	 */
+	public static class BatchLookup {
+
+		/**
+		 * Maximum number of usernames combined into the OR filter of one search. Defaults to 100.
+		 */
+		private Integer chunkSize = 100;
+
+		/**
+		 * Maximum number of searches run at the same time. Should not exceed the connection pool's max-active.
+		 * Defaults to 4.
+		 */
+		private Integer concurrency = 4;
+
+		/**
+		 * Maximum number of usernames accepted by one request to the batch lookup endpoint. Defaults to 10000.
+		 */
+		private Integer maxUsernames = 10000;
+
+		/**
+		 * Directory attribute that holds the username. Defaults to null, in which case it is read from a search
+		 * filter such as <code>(uid={0})</code>.
+		 */
+		private String usernameAttribute;
+
+		/**
+		 * Gets the maximum number of usernames in one search.
+		 *
+		 * @return the chunk size
+		 */
+		public Integer getChunkSize() {
+			return chunkSize;
+		}
+
+		/**
+		 * Sets the maximum number of usernames in one search.
+		 *
+		 * @param chunkSize
+		 *            the chunk size
+		 */
+		public void setChunkSize(Integer chunkSize) {
+			this.chunkSize = chunkSize;
+		}
+
+		/**
+		 * Gets the maximum number of concurrent searches.
+		 *
+		 * @return the concurrency
+		 */
+		public Integer getConcurrency() {
+			return concurrency;
+		}
+
+		/**
+		 * Sets the maximum number of concurrent searches.
+		 *
+		 * @param concurrency
+		 *            the concurrency
+		 */
+		public void setConcurrency(Integer concurrency) {
+			this.concurrency = concurrency;
+		}
+
+		/**
+		 * Gets the maximum number of usernames accepted by one request.
+		 *
+		 * @return the maximum number of usernames
+		 */
+		public Integer getMaxUsernames() {
+			return maxUsernames;
+		}
+
+		/**
+		 * Sets the maximum number of usernames accepted by one request.
+		 *
+		 * @param maxUsernames
+		 *            the maximum number of usernames
+		 */
+		public void setMaxUsernames(Integer maxUsernames) {
+			this.maxUsernames = maxUsernames;
+		}
+
+		/**
+		 * Gets the directory attribute that holds the username.
+		 *
+		 * @return the username attribute, or null to read it from the search filter
+		 */
+		public String getUsernameAttribute() {
+			return usernameAttribute;
+		}
+
+		/**
+		 * Sets the directory attribute that holds the username.
+		 *
+		 * @param usernameAttribute
+		 *            the username attribute, or null to read it from the search filter
+		 */
+		public void setUsernameAttribute(String usernameAttribute) {
+			this.usernameAttribute = usernameAttribute;
+		}
+
+		@Override
+		public String toString() {
+			return "BatchLookup [chunkSize=" + chunkSize + ", concurrency=" + concurrency + ", maxUsernames="
+					+ maxUsernames + ", usernameAttribute=" + usernameAttribute + "]";
+		}
+
 	}
 
 }
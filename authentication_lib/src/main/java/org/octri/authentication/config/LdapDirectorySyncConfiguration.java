@@ -0,0 +1,52 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.LdapBatchUserLookup;
+import org.octri.authentication.server.security.UserDetailsCache;
+import org.octri.authentication.server.security.service.LdapDirectorySyncJob;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for the scheduled update of LDAP users from the directory.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(LdapDirectorySyncProperties.class)
+@ConditionalOnProperty(value = { "octri.authentication.enable-ldap",
+		"octri.authentication.ldap-sync.enabled" }, havingValue = "true", matchIfMissing = false)
+public class LdapDirectorySyncConfiguration {
+
+	private static final Log log = LogFactory.getLog(LdapDirectorySyncConfiguration.class);
+
+	/**
+	 * Provides the job that updates LDAP users from the directory on a schedule.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to read and update users
+	 * @param ldapBatchUserLookup
+	 *            lookup used to find users in the directory
+	 * @param userDetailsCache
+	 *            cache of authentication user details, if configured
+	 * @param ldapDirectorySyncProperties
+	 *            directory sync configuration
+	 * @return directory sync job
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public LdapDirectorySyncJob ldapDirectorySyncJob(JdbcTemplate jdbcTemplate,
+			LdapBatchUserLookup ldapBatchUserLookup, ObjectProvider<UserDetailsCache> userDetailsCache,
+			LdapDirectorySyncProperties ldapDirectorySyncProperties) {
+		log.debug("Creating LDAP directory sync job: " + ldapDirectorySyncProperties);
+		return new LdapDirectorySyncJob(jdbcTemplate, ldapBatchUserLookup, userDetailsCache.getIfAvailable(),
+				ldapDirectorySyncProperties);
+	}
+
+}
@@ -0,0 +1,93 @@
+package org.octri.authentication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for copying names and email addresses from the directory to LDAP users.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.ldap-sync")
+public class LdapDirectorySyncProperties {
+
+	/**
+	 * Default cron expression for the sync job: every day at 2:30 AM.
+	 */
+	public static final String DEFAULT_CRON = "0 30 2 * * *";
+
+	/**
+	 * Whether LDAP users should be updated from the directory on a schedule. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Cron expression for the sync job. Defaults to every day at 2:30 AM.
+	 */
+	private String cron = DEFAULT_CRON;
+
+	/**
+	 * Number of users read from the database and looked up in the directory at a time. Defaults to 1000.
+	 */
+	private Integer pageSize = 1000;
+
+	/**
+	 * Gets whether LDAP users are updated from the directory on a schedule.
+	 *
+	 * @return true if the sync job is enabled, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether LDAP users are updated from the directory on a schedule.
+	 *
+	 * @param enabled
+	 *            true to enable the sync job, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the cron expression for the sync job.
+	 *
+	 * @return the cron expression
+	 */
+	public String getCron() {
+		return cron;
+	}
+
+	/**
+	 * Sets the cron expression for the sync job.
+	 *
+	 * @param cron
+	 *            the cron expression
+	 */
+	public void setCron(String cron) {
+		this.cron = cron;
+	}
+
+	/**
+	 * Gets the number of users synced at a time.
+	 *
+	 * @return the page size
+	 */
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the number of users synced at a time.
+	 *
+	 * @param pageSize
+	 *            the page size
+	 */
+	public void setPageSize(Integer pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	@Override
+	public String toString() {
+		return "LdapDirectorySyncProperties [enabled=" + enabled + ", cron=" + cron + ", pageSize=" + pageSize + "]";
+	}
+
+}
@@ -0,0 +1,40 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.service.AsyncLoginAttemptWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuration for asynchronous auditing of login attempts.
+ */
+@Configuration
+@EnableConfigurationProperties(LoginAttemptAuditProperties.class)
+@ConditionalOnProperty(value = "octri.authentication.audit.async-enabled", havingValue = "true", matchIfMissing = false)
+public class LoginAttemptAuditConfiguration {
+
+	private static final Log log = LogFactory.getLog(LoginAttemptAuditConfiguration.class);
+
+	/**
+	 * Provides a writer that records login attempts in batches on a background thread.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to insert login attempts
+	 * @param auditProperties
+	 *            login attempt audit configuration
+	 * @return asynchronous login attempt writer
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public AsyncLoginAttemptWriter asyncLoginAttemptWriter(JdbcTemplate jdbcTemplate,
+			LoginAttemptAuditProperties auditProperties) {
+		log.debug("Creating asynchronous login attempt writer: " + auditProperties);
+		return new AsyncLoginAttemptWriter(jdbcTemplate, auditProperties);
+	}
+
+}
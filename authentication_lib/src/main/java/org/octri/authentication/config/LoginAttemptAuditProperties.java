@@ -0,0 +1,214 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for auditing of login attempts.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.audit")
+public class LoginAttemptAuditProperties {
+
+	/**
+	 * What to do with a login attempt when the asynchronous audit queue is full.
+	 */
+	public static enum BackpressurePolicy {
+		/**
+		 * Wait up to the configured enqueue timeout for space in the queue, then drop the record.
+		 */
+		BLOCK,
+
+		/**
+		 * Drop the record immediately and log a warning.
+		 */
+		DROP,
+
+		/**
+		 * Write the record synchronously on the calling (request) thread.
+		 */
+		CALLER_RUNS
+	}
+
+	/**
+	 * Whether login attempts should be queued and written to the database in batches by a background thread. Defaults
+	 * to false (login attempts are saved synchronously during the login request).
+	 */
+	private Boolean asyncEnabled = false;
+
+	/**
+	 * Maximum number of login attempts that may be waiting to be written. Defaults to 10000.
+	 */
+	private Integer queueCapacity = 10000;
+
+	/**
+	 * Maximum number of login attempts written in a single JDBC batch. Defaults to 100.
+	 */
+	private Integer batchSize = 100;
+
+	/**
+	 * Maximum length of time a queued login attempt waits for a batch to fill before being written. Defaults to 1
+	 * second.
+	 */
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+	/**
+	 * What to do when the queue is full. Defaults to CALLER_RUNS, so that no records are lost.
+	 */
+	private BackpressurePolicy backpressurePolicy = BackpressurePolicy.CALLER_RUNS;
+
+	/**
+	 * Length of time to wait for space in the queue when the backpressure policy is BLOCK. Defaults to 1 second.
+	 */
+	private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+	/**
+	 * Length of time to wait for the background writer to finish when the application shuts down. Any records still
+	 * queued after this period are written by the shutdown thread. Defaults to 30 seconds.
+	 */
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+	/**
+	 * Gets whether login attempts are written asynchronously.
+	 *
+	 * @return true if login attempts are queued and written in batches, false if they are saved synchronously
+	 */
+	public Boolean getAsyncEnabled() {
+		return asyncEnabled;
+	}
+
+	/**
+	 * Sets whether login attempts are written asynchronously.
+	 *
+	 * @param asyncEnabled
+	 *            true to queue login attempts and write them in batches, false to save them synchronously
+	 */
+	public void setAsyncEnabled(Boolean asyncEnabled) {
+		this.asyncEnabled = asyncEnabled;
+	}
+
+	/**
+	 * Gets the maximum number of login attempts that may be waiting to be written.
+	 *
+	 * @return the queue capacity
+	 */
+	public Integer getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Sets the maximum number of login attempts that may be waiting to be written.
+	 *
+	 * @param queueCapacity
+	 *            the queue capacity
+	 */
+	public void setQueueCapacity(Integer queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Gets the maximum number of login attempts written in a single batch.
+	 *
+	 * @return the batch size
+	 */
+	public Integer getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum number of login attempts written in a single batch.
+	 *
+	 * @param batchSize
+	 *            the batch size
+	 */
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the maximum length of time a queued login attempt waits for a batch to fill.
+	 *
+	 * @return the flush interval
+	 */
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Sets the maximum length of time a queued login attempt waits for a batch to fill.
+	 *
+	 * @param flushInterval
+	 *            the flush interval
+	 */
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Gets the policy applied when the queue is full.
+	 *
+	 * @see BackpressurePolicy
+	 * @return the backpressure policy
+	 */
+	public BackpressurePolicy getBackpressurePolicy() {
+		return backpressurePolicy;
+	}
+
+	/**
+	 * Sets the policy applied when the queue is full.
+	 *
+	 * @see BackpressurePolicy
+	 * @param backpressurePolicy
+	 *            the backpressure policy
+	 */
+	public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+		this.backpressurePolicy = backpressurePolicy;
+	}
+
+	/**
+	 * Gets the length of time to wait for space in the queue when the backpressure policy is BLOCK.
+	 *
+	 * @return the enqueue timeout
+	 */
+	public Duration getEnqueueTimeout() {
+		return enqueueTimeout;
+	}
+
+	/**
+	 * Sets the length of time to wait for space in the queue when the backpressure policy is BLOCK.
+	 *
+	 * @param enqueueTimeout
+	 *            the enqueue timeout
+	 */
+	public void setEnqueueTimeout(Duration enqueueTimeout) {
+		this.enqueueTimeout = enqueueTimeout;
+	}
+
+	/**
+	 * Gets the length of time to wait for the background writer to finish on shutdown.
+	 *
+	 * @return the shutdown timeout
+	 */
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	/**
+	 * Sets the length of time to wait for the background writer to finish on shutdown.
+	 *
+	 * @param shutdownTimeout
+	 *            the shutdown timeout
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	@Override
+	public String toString() {
+		return "LoginAttemptAuditProperties [asyncEnabled=" + asyncEnabled + ", queueCapacity=" + queueCapacity
+				+ ", batchSize=" + batchSize + ", flushInterval=" + flushInterval + ", backpressurePolicy="
+				+ backpressurePolicy + ", enqueueTimeout=" + enqueueTimeout + ", shutdownTimeout=" + shutdownTimeout
+				+ "]";
+	}
+
+}
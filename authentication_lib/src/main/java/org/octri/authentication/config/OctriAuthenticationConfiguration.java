@@ -2,28 +2,42 @@ package org.octri.authentication.config;
 
 import static org.octri.authentication.config.OctriAuthenticationProperties.DEFAULT_BASE_URL;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.config.OctriAuthenticationProperties.RoleStyle;
+import org.octri.authentication.config.PasswordEncoderProperties.Algorithm;
 import org.octri.authentication.server.security.AuthenticationUrlHelper;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
+import org.octri.authentication.server.security.password.BCryptCostCalibrator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.observation.ObservationRegistry;
 
 /**
  * Configuration for the authentication library.
  */
 @Configuration
 @EnableConfigurationProperties({ AuthenticationRouteProperties.class, ContentSecurityPolicyProperties.class,
-		OctriAuthenticationProperties.class })
+		OctriAuthenticationProperties.class, PasswordEncoderProperties.class, UserImportProperties.class })
 public class OctriAuthenticationConfiguration {
 
 	private static final Log log = LogFactory.getLog(OctriAuthenticationConfiguration.class);
@@ -39,6 +53,11 @@ public class OctriAuthenticationConfiguration {
 
 	private static final String FALLBACK_EMAIL_PROPERTY = "octri.messaging.email.default-sender-address";
 
+	private static final String BCRYPT_ID = "bcrypt";
+	private static final String ARGON2_ID = "argon2";
+	private static final String PBKDF2_ID = "pbkdf2";
+	private static final String ARGON2_REQUIRED_CLASS = "org.bouncycastle.crypto.params.Argon2Parameters";
+
 	private final String contextPath;
 	private final OctriAuthenticationProperties authenticationProperties;
 
@@ -94,15 +113,81 @@ public class OctriAuthenticationConfiguration {
 	}
 
 	/**
-	 * Provides a default BCrypt password encoder unless overridden by the application.
+	 * Provides the metrics for login outcomes and authentication costs. Spring Boot binds them to the application's
+	 * meter registry. If the application has an observation registry, the steps of authentication are also observed.
+	 *
+	 * @param observationRegistry
+	 *            registry that observations are reported to, if available
+	 * @return authentication metrics
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public AuthenticationMetrics authenticationMetrics(ObjectProvider<ObservationRegistry> observationRegistry) {
+		var enabledMethods = EnumSet.noneOf(AuthenticationMethod.class);
+		if (Boolean.TRUE.equals(authenticationProperties.getEnableLdap())) {
+			enabledMethods.add(AuthenticationMethod.LDAP);
+		}
+		if (Boolean.TRUE.equals(authenticationProperties.getEnableTableBased())) {
+			enabledMethods.add(AuthenticationMethod.TABLE_BASED);
+		}
+		var metrics = new AuthenticationMetrics(enabledMethods);
+		observationRegistry.ifAvailable(metrics::setObservationRegistry);
+		return metrics;
+	}
+
+	/**
+	 * Provides a default delegating password encoder unless overridden by the application. New passwords are encoded
+	 * with the configured algorithm and stored with an algorithm prefix, e.g. "{bcrypt}". Stored BCrypt hashes without
+	 * a prefix, which earlier versions of the library produced, are still verified. Encoding and matching are timed.
 	 *
+	 * @param encoderProperties
+	 *            password encoder configuration
+	 * @param authenticationMetrics
+	 *            metrics that hashing times are recorded to
 	 * @return default password encoder
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public PasswordEncoder defaultPasswordEncoder() {
-		log.debug("No password encoder bean found. Providing default BCrypt encoder.");
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder defaultPasswordEncoder(PasswordEncoderProperties encoderProperties,
+			AuthenticationMetrics authenticationMetrics) {
+		log.debug("No password encoder bean found. Providing default delegating encoder: " + encoderProperties);
+
+		int bcryptStrength = encoderProperties.getBcryptStrength();
+		if (Boolean.TRUE.equals(encoderProperties.getCalibrate())) {
+			bcryptStrength = BCryptCostCalibrator.calibrate(encoderProperties.getCalibrationTarget(), bcryptStrength);
+			log.info("Calibrated BCrypt strength " + bcryptStrength + " for target hash time "
+					+ encoderProperties.getCalibrationTarget());
+		}
+
+		var bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+		Map<String, PasswordEncoder> encoders = new HashMap<>();
+		encoders.put(BCRYPT_ID, bcrypt);
+		encoders.put(PBKDF2_ID, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+		if (ClassUtils.isPresent(ARGON2_REQUIRED_CLASS, getClass().getClassLoader())) {
+			encoders.put(ARGON2_ID, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+		}
+
+		String idForEncode = encoderId(encoderProperties.getAlgorithm());
+		if (!encoders.containsKey(idForEncode)) {
+			throw new IllegalStateException("Password encoder algorithm " + encoderProperties.getAlgorithm()
+					+ " requires BouncyCastle (org.bouncycastle:bcprov-jdk18on) on the classpath.");
+		}
+
+		var encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+		encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+		return authenticationMetrics.timed(encoder);
+	}
+
+	private static String encoderId(Algorithm algorithm) {
+		switch (algorithm) {
+			case ARGON2:
+				return ARGON2_ID;
+			case PBKDF2:
+				return PBKDF2_ID;
+			case BCRYPT:
+			default:
+				return BCRYPT_ID;
+		}
 	}
 
 	/**
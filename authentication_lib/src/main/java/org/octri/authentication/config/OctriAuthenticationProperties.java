@@ -57,6 +57,217 @@ public class OctriAuthenticationProperties {
 		CUSTOM
 	}
 
+	/**
+	 * Rules that passwords for table-based accounts must satisfy. The defaults require at least 8 characters, including
+	 * a letter, a digit, and either a capital letter or a special character.
+	 */
+	public static class PasswordPolicy {
+
+		/**
+		 * Minimum password length. Defaults to 8.
+		 */
+		private Integer minimumLength = 8;
+
+		/**
+		 * Minimum number of alphabetical characters. Defaults to 1.
+		 */
+		private Integer requiredAlphabetical = 1;
+
+		/**
+		 * Minimum number of digits. Defaults to 1.
+		 */
+		private Integer requiredDigits = 1;
+
+		/**
+		 * Minimum number of lowercase letters. Defaults to 0 (not required).
+		 */
+		private Integer requiredLowercase = 0;
+
+		/**
+		 * Number of capital letters that counts as satisfying the capital letter characteristic. Defaults to 1.
+		 */
+		private Integer requiredUppercase = 1;
+
+		/**
+		 * Number of special characters that counts as satisfying the special character characteristic. Defaults to 1.
+		 */
+		private Integer requiredSpecial = 1;
+
+		/**
+		 * How many of the capital letter and special character characteristics must be satisfied. Defaults to 1 (either
+		 * one). Set to 2 to require both, or 0 to require neither.
+		 */
+		private Integer requiredCharacteristics = 1;
+
+		/**
+		 * Whether password validation should stop after the inexpensive checks if any of them fail, skipping the
+		 * password hash comparisons. Users see fewer errors at once, but invalid submissions are much cheaper. Defaults
+		 * to false (report every error).
+		 */
+		private Boolean failFast = false;
+
+		/**
+		 * Gets the minimum password length.
+		 *
+		 * @return the minimum length
+		 */
+		public Integer getMinimumLength() {
+			return minimumLength;
+		}
+
+		/**
+		 * Sets the minimum password length.
+		 *
+		 * @param minimumLength
+		 *            the minimum length
+		 */
+		public void setMinimumLength(Integer minimumLength) {
+			this.minimumLength = minimumLength;
+		}
+
+		/**
+		 * Gets the minimum number of alphabetical characters.
+		 *
+		 * @return the number of alphabetical characters required
+		 */
+		public Integer getRequiredAlphabetical() {
+			return requiredAlphabetical;
+		}
+
+		/**
+		 * Sets the minimum number of alphabetical characters.
+		 *
+		 * @param requiredAlphabetical
+		 *            the number of alphabetical characters required
+		 */
+		public void setRequiredAlphabetical(Integer requiredAlphabetical) {
+			this.requiredAlphabetical = requiredAlphabetical;
+		}
+
+		/**
+		 * Gets the minimum number of digits.
+		 *
+		 * @return the number of digits required
+		 */
+		public Integer getRequiredDigits() {
+			return requiredDigits;
+		}
+
+		/**
+		 * Sets the minimum number of digits.
+		 *
+		 * @param requiredDigits
+		 *            the number of digits required
+		 */
+		public void setRequiredDigits(Integer requiredDigits) {
+			this.requiredDigits = requiredDigits;
+		}
+
+		/**
+		 * Gets the minimum number of lowercase letters.
+		 *
+		 * @return the number of lowercase letters required
+		 */
+		public Integer getRequiredLowercase() {
+			return requiredLowercase;
+		}
+
+		/**
+		 * Sets the minimum number of lowercase letters.
+		 *
+		 * @param requiredLowercase
+		 *            the number of lowercase letters required
+		 */
+		public void setRequiredLowercase(Integer requiredLowercase) {
+			this.requiredLowercase = requiredLowercase;
+		}
+
+		/**
+		 * Gets the number of capital letters that satisfies the capital letter characteristic.
+		 *
+		 * @return the number of capital letters
+		 */
+		public Integer getRequiredUppercase() {
+			return requiredUppercase;
+		}
+
+		/**
+		 * Sets the number of capital letters that satisfies the capital letter characteristic.
+		 *
+		 * @param requiredUppercase
+		 *            the number of capital letters
+		 */
+		public void setRequiredUppercase(Integer requiredUppercase) {
+			this.requiredUppercase = requiredUppercase;
+		}
+
+		/**
+		 * Gets the number of special characters that satisfies the special character characteristic.
+		 *
+		 * @return the number of special characters
+		 */
+		public Integer getRequiredSpecial() {
+			return requiredSpecial;
+		}
+
+		/**
+		 * Sets the number of special characters that satisfies the special character characteristic.
+		 *
+		 * @param requiredSpecial
+		 *            the number of special characters
+		 */
+		public void setRequiredSpecial(Integer requiredSpecial) {
+			this.requiredSpecial = requiredSpecial;
+		}
+
+		/**
+		 * Gets how many of the capital letter and special character characteristics must be satisfied.
+		 *
+		 * @return the number of characteristics required
+		 */
+		public Integer getRequiredCharacteristics() {
+			return requiredCharacteristics;
+		}
+
+		/**
+		 * Sets how many of the capital letter and special character characteristics must be satisfied.
+		 *
+		 * @param requiredCharacteristics
+		 *            the number of characteristics required (0, 1, or 2)
+		 */
+		public void setRequiredCharacteristics(Integer requiredCharacteristics) {
+			this.requiredCharacteristics = requiredCharacteristics;
+		}
+
+		/**
+		 * Gets whether password validation stops after the inexpensive checks if any of them fail.
+		 *
+		 * @return true if validation fails fast, false if every error is reported
+		 */
+		public Boolean getFailFast() {
+			return failFast;
+		}
+
+		/**
+		 * Sets whether password validation stops after the inexpensive checks if any of them fail.
+		 *
+		 * @param failFast
+		 *            true to fail fast, false to report every error
+		 */
+		public void setFailFast(Boolean failFast) {
+			this.failFast = failFast;
+		}
+
+		@Override
+		public String toString() {
+			return "PasswordPolicy [minimumLength=" + minimumLength + ", requiredAlphabetical=" + requiredAlphabetical
+					+ ", requiredDigits=" + requiredDigits + ", requiredLowercase=" + requiredLowercase
+					+ ", requiredUppercase=" + requiredUppercase + ", requiredSpecial=" + requiredSpecial
+					+ ", requiredCharacteristics=" + requiredCharacteristics + ", failFast=" + failFast + "]";
+		}
+
+	}
+
 	/**
 	 * The default value of "octri.authentication.base-url".
 	 */
@@ -144,6 +355,11 @@ public class OctriAuthenticationProperties {
 	 */
 	private Boolean enablePasswordVisibilityToggle = true;
 
+	/**
+	 * Rules that table-based passwords must satisfy.
+	 */
+	private PasswordPolicy passwordPolicy = new PasswordPolicy();
+
 	/**
 	 * Gets whether LDAP authentication is enabled.
 	 *
@@ -399,6 +615,25 @@ public class OctriAuthenticationProperties {
 		this.enablePasswordVisibilityToggle = enablePasswordVisibilityToggle;
 	}
 
+	/**
+	 * Gets the rules that table-based passwords must satisfy.
+	 *
+	 * @return the password policy
+	 */
+	public PasswordPolicy getPasswordPolicy() {
+		return passwordPolicy;
+	}
+
+	/**
+	 * Sets the rules that table-based passwords must satisfy.
+	 *
+	 * @param passwordPolicy
+	 *            the password policy
+	 */
+	public void setPasswordPolicy(PasswordPolicy passwordPolicy) {
+		this.passwordPolicy = passwordPolicy;
+	}
+
 	@Override
 	public String toString() {
 		return "OctriAuthenticationProperties [enableLdap=" + enableLdap + ", enableTableBased=" + enableTableBased
@@ -406,7 +641,8 @@ public class OctriAuthenticationProperties {
 				+ credentialsExpirationPeriod + ", usernameStyle=" + usernameStyle + ", passwordTokenValidFor="
 				+ passwordTokenValidFor + ", emailRequired=" + emailRequired + ", emailDryRun=" + emailDryRun
 				+ ", roleStyle=" + roleStyle + ", customRoleScript=" + customRoleScript + ", accountMessageEmail="
-				+ accountMessageEmail + ", enablePasswordVisibilityToggle=" + enablePasswordVisibilityToggle + "]";
+				+ accountMessageEmail + ", enablePasswordVisibilityToggle=" + enablePasswordVisibilityToggle
+				+ ", passwordPolicy=" + passwordPolicy + "]";
 	}
 
 }
@@ -0,0 +1,164 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the default password encoder.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.password-encoder")
+public class PasswordEncoderProperties {
+
+	/**
+	 * Algorithms that may be used to encode new passwords. Passwords encoded with any of these algorithms can be
+	 * verified regardless of which one is selected.
+	 */
+	public static enum Algorithm {
+		/**
+		 * BCrypt, with a configurable cost factor.
+		 */
+		BCRYPT,
+
+		/**
+		 * Argon2id. Requires BouncyCastle (org.bouncycastle:bcprov-jdk18on) on the classpath.
+		 */
+		ARGON2,
+
+		/**
+		 * PBKDF2 with HMAC-SHA256.
+		 */
+		PBKDF2
+	}
+
+	/**
+	 * Algorithm used to encode new passwords. Defaults to BCRYPT.
+	 */
+	private Algorithm algorithm = Algorithm.BCRYPT;
+
+	/**
+	 * BCrypt cost factor (log rounds, 4-31). When calibration is enabled, this is the minimum cost. Defaults to 10.
+	 */
+	private Integer bcryptStrength = 10;
+
+	/**
+	 * Whether the BCrypt cost factor should be calibrated at startup to approach the target hash time on this host.
+	 * Defaults to false.
+	 */
+	private Boolean calibrate = false;
+
+	/**
+	 * Target time to hash one password when calibrating the BCrypt cost factor. Defaults to 250 milliseconds.
+	 */
+	private Duration calibrationTarget = Duration.ofMillis(250);
+
+	/**
+	 * Whether stored password hashes should be re-encoded on successful login if they use a different algorithm or a
+	 * lower cost than currently configured. Upgraded hashes use the prefixed format, which versions of AuthLib
+	 * before the delegating encoder cannot verify, so this is opt-in. Defaults to false.
+	 */
+	private Boolean upgradeOnLogin = false;
+
+	/**
+	 * Gets the algorithm used to encode new passwords.
+	 *
+	 * @return the encoding algorithm
+	 */
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Sets the algorithm used to encode new passwords.
+	 *
+	 * @param algorithm
+	 *            the encoding algorithm
+	 */
+	public void setAlgorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Gets the BCrypt cost factor, or the minimum cost when calibration is enabled.
+	 *
+	 * @return the BCrypt cost factor
+	 */
+	public Integer getBcryptStrength() {
+		return bcryptStrength;
+	}
+
+	/**
+	 * Sets the BCrypt cost factor, or the minimum cost when calibration is enabled.
+	 *
+	 * @param bcryptStrength
+	 *            the BCrypt cost factor
+	 */
+	public void setBcryptStrength(Integer bcryptStrength) {
+		this.bcryptStrength = bcryptStrength;
+	}
+
+	/**
+	 * Gets whether the BCrypt cost factor is calibrated at startup.
+	 *
+	 * @return true if the cost factor is calibrated, false if not
+	 */
+	public Boolean getCalibrate() {
+		return calibrate;
+	}
+
+	/**
+	 * Sets whether the BCrypt cost factor is calibrated at startup.
+	 *
+	 * @param calibrate
+	 *            true to calibrate the cost factor, false if not
+	 */
+	public void setCalibrate(Boolean calibrate) {
+		this.calibrate = calibrate;
+	}
+
+	/**
+	 * Gets the target time to hash one password when calibrating.
+	 *
+	 * @return the target hash time
+	 */
+	public Duration getCalibrationTarget() {
+		return calibrationTarget;
+	}
+
+	/**
+	 * Sets the target time to hash one password when calibrating.
+	 *
+	 * @param calibrationTarget
+	 *            the target hash time
+	 */
+	public void setCalibrationTarget(Duration calibrationTarget) {
+		this.calibrationTarget = calibrationTarget;
+	}
+
+	/**
+	 * Gets whether stored password hashes are re-encoded on successful login.
+	 *
+	 * @return true if hashes are upgraded on login, false if not
+	 */
+	public Boolean getUpgradeOnLogin() {
+		return upgradeOnLogin;
+	}
+
+	/**
+	 * Sets whether stored password hashes are re-encoded on successful login.
+	 *
+	 * @param upgradeOnLogin
+	 *            true to upgrade hashes on login, false if not
+	 */
+	public void setUpgradeOnLogin(Boolean upgradeOnLogin) {
+		this.upgradeOnLogin = upgradeOnLogin;
+	}
+
+	@Override
+	public String toString() {
+		return "PasswordEncoderProperties [algorithm=" + algorithm + ", bcryptStrength=" + bcryptStrength
+				+ ", calibrate=" + calibrate + ", calibrationTarget=" + calibrationTarget + ", upgradeOnLogin="
+				+ upgradeOnLogin + "]";
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.ratelimit.InMemoryRateLimitStore;
+import org.octri.authentication.server.security.ratelimit.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for rate limiting login and password reset requests. The filter itself is installed by
+ * {@link org.octri.authentication.DefaultSecurityConfigurer#configureRateLimiting}.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(value = "octri.authentication.rate-limit.enabled", havingValue = "true", matchIfMissing = false)
+public class RateLimitConfiguration {
+
+	private static final Log log = LogFactory.getLog(RateLimitConfiguration.class);
+
+	/**
+	 * Provides a default in-memory rate limit store unless overridden by the application.
+	 *
+	 * @param rateLimitProperties
+	 *            rate limit configuration
+	 * @return default rate limit store
+	 */
+	@Bean
+	@ConditionalOnMissingBean(RateLimitStore.class)
+	public InMemoryRateLimitStore defaultRateLimitStore(RateLimitProperties rateLimitProperties) {
+		log.debug("Creating in-memory rate limit store: " + rateLimitProperties);
+		return new InMemoryRateLimitStore(rateLimitProperties.getMaximumKeys());
+	}
+
+}
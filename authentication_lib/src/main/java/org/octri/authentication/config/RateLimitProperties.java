@@ -0,0 +1,140 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for rate limiting login and password reset requests.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.rate-limit")
+public class RateLimitProperties {
+
+	/**
+	 * Whether login and forgotten password requests should be rate limited. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Length of the sliding window requests are counted over. Defaults to 1 minute.
+	 */
+	private Duration window = Duration.ofMinutes(1);
+
+	/**
+	 * Maximum number of requests from a single client IP address within the window. Defaults to 30.
+	 */
+	private Integer maxRequestsPerIpAddress = 30;
+
+	/**
+	 * Maximum number of requests for a single username or email address within the window. Defaults to 10.
+	 */
+	private Integer maxRequestsPerUsername = 10;
+
+	/**
+	 * Maximum number of IP addresses, and separately of usernames, tracked by the in-memory store. Defaults to 100000.
+	 */
+	private Integer maximumKeys = 100000;
+
+	/**
+	 * Gets whether requests are rate limited.
+	 *
+	 * @return true if requests are rate limited, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether requests are rate limited.
+	 *
+	 * @param enabled
+	 *            true to rate limit requests, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the length of the sliding window.
+	 *
+	 * @return the window length
+	 */
+	public Duration getWindow() {
+		return window;
+	}
+
+	/**
+	 * Sets the length of the sliding window.
+	 *
+	 * @param window
+	 *            the window length
+	 */
+	public void setWindow(Duration window) {
+		this.window = window;
+	}
+
+	/**
+	 * Gets the maximum number of requests from a single IP address within the window.
+	 *
+	 * @return the per-IP limit
+	 */
+	public Integer getMaxRequestsPerIpAddress() {
+		return maxRequestsPerIpAddress;
+	}
+
+	/**
+	 * Sets the maximum number of requests from a single IP address within the window.
+	 *
+	 * @param maxRequestsPerIpAddress
+	 *            the per-IP limit
+	 */
+	public void setMaxRequestsPerIpAddress(Integer maxRequestsPerIpAddress) {
+		this.maxRequestsPerIpAddress = maxRequestsPerIpAddress;
+	}
+
+	/**
+	 * Gets the maximum number of requests for a single username or email address within the window.
+	 *
+	 * @return the per-username limit
+	 */
+	public Integer getMaxRequestsPerUsername() {
+		return maxRequestsPerUsername;
+	}
+
+	/**
+	 * Sets the maximum number of requests for a single username or email address within the window.
+	 *
+	 * @param maxRequestsPerUsername
+	 *            the per-username limit
+	 */
+	public void setMaxRequestsPerUsername(Integer maxRequestsPerUsername) {
+		this.maxRequestsPerUsername = maxRequestsPerUsername;
+	}
+
+	/**
+	 * Gets the maximum number of keys tracked by the in-memory store.
+	 *
+	 * @return the maximum number of keys
+	 */
+	public Integer getMaximumKeys() {
+		return maximumKeys;
+	}
+
+	/**
+	 * Sets the maximum number of keys tracked by the in-memory store.
+	 *
+	 * @param maximumKeys
+	 *            the maximum number of keys
+	 */
+	public void setMaximumKeys(Integer maximumKeys) {
+		this.maximumKeys = maximumKeys;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimitProperties [enabled=" + enabled + ", window=" + window + ", maxRequestsPerIpAddress="
+				+ maxRequestsPerIpAddress + ", maxRequestsPerUsername=" + maxRequestsPerUsername + ", maximumKeys="
+				+ maximumKeys + "]";
+	}
+
+}
@@ -0,0 +1,41 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.service.RetentionPurgeJob;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for the scheduled purge of old login attempts and session events.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(RetentionProperties.class)
+@ConditionalOnProperty(value = "octri.authentication.retention.enabled", havingValue = "true", matchIfMissing = false)
+public class RetentionConfiguration {
+
+	private static final Log log = LogFactory.getLog(RetentionConfiguration.class);
+
+	/**
+	 * Provides the job that purges old records on a schedule.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to delete records
+	 * @param retentionProperties
+	 *            retention configuration
+	 * @return retention purge job
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public RetentionPurgeJob retentionPurgeJob(JdbcTemplate jdbcTemplate, RetentionProperties retentionProperties) {
+		log.debug("Creating retention purge job: " + retentionProperties);
+		return new RetentionPurgeJob(jdbcTemplate, retentionProperties);
+	}
+
+}
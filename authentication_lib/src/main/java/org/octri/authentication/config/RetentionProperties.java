@@ -0,0 +1,197 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for purging old login attempts and session events.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.retention")
+public class RetentionProperties {
+
+	/**
+	 * Default cron expression for the purge job: every day at 3:00 AM.
+	 */
+	public static final String DEFAULT_CRON = "0 0 3 * * *";
+
+	/**
+	 * Whether old login attempts and session events should be purged on a schedule. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Cron expression for the purge job. Defaults to every day at 3:00 AM.
+	 */
+	private String cron = DEFAULT_CRON;
+
+	/**
+	 * Age after which login attempts are purged. A zero or negative value keeps login attempts indefinitely. Defaults
+	 * to 365 days.
+	 */
+	private Duration loginAttemptMaxAge = Duration.ofDays(365);
+
+	/**
+	 * Age after which session events are purged. A zero or negative value keeps session events indefinitely. Defaults
+	 * to 365 days.
+	 */
+	private Duration sessionEventMaxAge = Duration.ofDays(365);
+
+	/**
+	 * Maximum number of rows removed by a single DELETE statement. Defaults to 1000.
+	 */
+	private Integer chunkSize = 1000;
+
+	/**
+	 * Length of time to pause between DELETE statements, so that purging does not monopolize the database. Defaults to
+	 * 100 milliseconds.
+	 */
+	private Duration chunkPause = Duration.ofMillis(100);
+
+	/**
+	 * Directory where purged rows are written as CSV files before they are deleted. Defaults to null (purged rows are
+	 * not archived).
+	 */
+	private String archiveDirectory;
+
+	/**
+	 * Gets whether old records are purged on a schedule.
+	 *
+	 * @return true if the purge job is enabled, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether old records are purged on a schedule.
+	 *
+	 * @param enabled
+	 *            true to enable the purge job, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the cron expression for the purge job.
+	 *
+	 * @return the cron expression
+	 */
+	public String getCron() {
+		return cron;
+	}
+
+	/**
+	 * Sets the cron expression for the purge job.
+	 *
+	 * @param cron
+	 *            the cron expression
+	 */
+	public void setCron(String cron) {
+		this.cron = cron;
+	}
+
+	/**
+	 * Gets the age after which login attempts are purged.
+	 *
+	 * @return the maximum age of login attempts
+	 */
+	public Duration getLoginAttemptMaxAge() {
+		return loginAttemptMaxAge;
+	}
+
+	/**
+	 * Sets the age after which login attempts are purged.
+	 *
+	 * @param loginAttemptMaxAge
+	 *            the maximum age of login attempts
+	 */
+	public void setLoginAttemptMaxAge(Duration loginAttemptMaxAge) {
+		this.loginAttemptMaxAge = loginAttemptMaxAge;
+	}
+
+	/**
+	 * Gets the age after which session events are purged.
+	 *
+	 * @return the maximum age of session events
+	 */
+	public Duration getSessionEventMaxAge() {
+		return sessionEventMaxAge;
+	}
+
+	/**
+	 * Sets the age after which session events are purged.
+	 *
+	 * @param sessionEventMaxAge
+	 *            the maximum age of session events
+	 */
+	public void setSessionEventMaxAge(Duration sessionEventMaxAge) {
+		this.sessionEventMaxAge = sessionEventMaxAge;
+	}
+
+	/**
+	 * Gets the maximum number of rows removed by a single DELETE statement.
+	 *
+	 * @return the chunk size
+	 */
+	public Integer getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the maximum number of rows removed by a single DELETE statement.
+	 *
+	 * @param chunkSize
+	 *            the chunk size
+	 */
+	public void setChunkSize(Integer chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Gets the length of time to pause between DELETE statements.
+	 *
+	 * @return the pause between chunks
+	 */
+	public Duration getChunkPause() {
+		return chunkPause;
+	}
+
+	/**
+	 * Sets the length of time to pause between DELETE statements.
+	 *
+	 * @param chunkPause
+	 *            the pause between chunks
+	 */
+	public void setChunkPause(Duration chunkPause) {
+		this.chunkPause = chunkPause;
+	}
+
+	/**
+	 * Gets the directory where purged rows are archived.
+	 *
+	 * @return the archive directory, or null if purged rows are not archived
+	 */
+	public String getArchiveDirectory() {
+		return archiveDirectory;
+	}
+
+	/**
+	 * Sets the directory where purged rows are archived.
+	 *
+	 * @param archiveDirectory
+	 *            the archive directory, or null to skip archiving
+	 */
+	public void setArchiveDirectory(String archiveDirectory) {
+		this.archiveDirectory = archiveDirectory;
+	}
+
+	@Override
+	public String toString() {
+		return "RetentionProperties [enabled=" + enabled + ", cron=" + cron + ", loginAttemptMaxAge="
+				+ loginAttemptMaxAge + ", sessionEventMaxAge=" + sessionEventMaxAge + ", chunkSize=" + chunkSize
+				+ ", chunkPause=" + chunkPause + ", archiveDirectory=" + archiveDirectory + "]";
+	}
+
+}
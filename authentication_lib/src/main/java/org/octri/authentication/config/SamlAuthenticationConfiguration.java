@@ -6,8 +6,10 @@ import java.security.interfaces.RSAPrivateKey;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.saml.ApplicationSaml2AuthenticatedPrincipal;
 import org.octri.authentication.server.security.saml.GroupMembershipSamlAssertionValidator;
+import org.octri.authentication.server.security.saml.RefreshingRelyingPartyRegistrationRepository;
 import org.octri.authentication.server.security.saml.SamlResponseUserDetailsAuthenticationConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -20,9 +22,7 @@ import org.springframework.security.converter.RsaKeyConverters;
 import org.springframework.security.saml2.core.Saml2X509Credential;
 import org.springframework.security.saml2.core.Saml2X509Credential.Saml2X509CredentialType;
 import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider;
-import org.springframework.security.saml2.provider.service.registration.InMemoryRelyingPartyRegistrationRepository;
 import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistrationRepository;
-import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistrations;
 import org.springframework.security.saml2.provider.service.web.DefaultRelyingPartyRegistrationResolver;
 import org.springframework.security.saml2.provider.service.web.RelyingPartyRegistrationResolver;
 import org.springframework.security.saml2.provider.service.web.authentication.logout.OpenSaml4LogoutRequestResolver;
@@ -47,22 +47,29 @@ public class SamlAuthenticationConfiguration {
 	 *
 	 * TODO: Document the behavior of the default configuration and how to override it here
 	 *
+	 * @param authenticationMetrics
+	 *            metrics that validation and conversion times are recorded to
 	 * @return default SAML 2 authentication provider
 	 */
 	@Bean
 	@ConditionalOnMissingBean
-	public OpenSaml4AuthenticationProvider defaultSamlAuthenticationProvider() {
+	public OpenSaml4AuthenticationProvider defaultSamlAuthenticationProvider(
+			AuthenticationMetrics authenticationMetrics) {
 		log.debug("Creating default SAML authentication provider");
 		var authenticationConverter = new SamlResponseUserDetailsAuthenticationConverter(samlProperties);
 		var assertionValidator = new GroupMembershipSamlAssertionValidator(samlProperties);
 		var authenticationProvider = new OpenSaml4AuthenticationProvider();
-		authenticationProvider.setResponseAuthenticationConverter(authenticationConverter);
-		authenticationProvider.setAssertionValidator(assertionValidator);
+		authenticationProvider.setResponseAuthenticationConverter(
+				authenticationMetrics.timed(AuthenticationMetrics.SAML_CONVERT, authenticationConverter));
+		authenticationProvider.setAssertionValidator(
+				authenticationMetrics.timed(AuthenticationMetrics.SAML_VALIDATE, assertionValidator));
 		return authenticationProvider;
 	}
 
 	/**
-	 * Creates a default registration repository configured with credentials for the SP and IdP.
+	 * Creates a default registration repository configured with credentials for the SP and IdP. The IdP metadata is
+	 * refreshed in the background and, when octri.authentication.saml.idpMetadataCacheFile is set, cached so that
+	 * the application can start while the IdP is unreachable.
 	 *
 	 * @return default registration repository
 	 */
@@ -70,14 +77,14 @@ public class SamlAuthenticationConfiguration {
 	@ConditionalOnMissingBean
 	public RelyingPartyRegistrationRepository defaultRelyingPartyRegistrationRepository() {
 		log.debug("Creating default RelyingPartyRegistrationRepository");
-		var registration = RelyingPartyRegistrations
-				.fromMetadataLocation(samlProperties.getIdpMetadataUri())
+		var decryptionCredential = loadDecryptionCredential();
+		var signingCredential = loadSigningCredential();
+		return new RefreshingRelyingPartyRegistrationRepository(samlProperties, builder -> builder
 				.registrationId(samlProperties.getRegistrationId())
 				.singleLogoutServiceLocation(samlProperties.getLogoutPath())
-				.decryptionX509Credentials(c -> c.add(loadDecryptionCredential()))
-				.signingX509Credentials(c -> c.add(loadSigningCredential()))
-				.build();
-		return new InMemoryRelyingPartyRegistrationRepository(registration);
+				.decryptionX509Credentials(c -> c.add(decryptionCredential))
+				.signingX509Credentials(c -> c.add(signingCredential))
+				.build());
 	}
 
 	/**
@@ -1,5 +1,7 @@
 package org.octri.authentication.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.io.Resource;
 
@@ -56,6 +58,24 @@ public class SamlProperties {
 	 */
 	private String idpMetadataUri;
 
+	/**
+	 * Path of a local file where the last IdP metadata that was loaded successfully is kept. When the file exists, the
+	 * application starts from it without waiting for the IdP, and the metadata is refreshed in the background. Not set
+	 * by default.
+	 */
+	private String idpMetadataCacheFile;
+
+	/**
+	 * Maximum length of time between refreshes of the IdP metadata. Defaults to 6 hours.
+	 */
+	private Duration idpMetadataRefreshInterval = Duration.ofHours(6);
+
+	/**
+	 * Minimum length of time between refreshes of the IdP metadata. Caching headers that ask for an earlier refresh
+	 * are limited to this, and a failed refresh is retried after it. Defaults to 5 minutes.
+	 */
+	private Duration idpMetadataMinRefreshInterval = Duration.ofMinutes(5);
+
 	/**
 	 * Users must be a member of this group to access the application.
 	 */
@@ -226,6 +246,63 @@ public class SamlProperties {
 		this.idpMetadataUri = idpMetadataUri;
 	}
 
+	/**
+	 * Gets the path of the file where IdP metadata is cached.
+	 *
+	 * @return the path of the IdP metadata cache file, or null if metadata is not cached
+	 */
+	public String getIdpMetadataCacheFile() {
+		return idpMetadataCacheFile;
+	}
+
+	/**
+	 * Sets the path of the file where IdP metadata is cached.
+	 *
+	 * @param idpMetadataCacheFile
+	 *            the path of the IdP metadata cache file, or null to not cache metadata
+	 */
+	public void setIdpMetadataCacheFile(String idpMetadataCacheFile) {
+		this.idpMetadataCacheFile = idpMetadataCacheFile;
+	}
+
+	/**
+	 * Gets the maximum length of time between refreshes of the IdP metadata.
+	 *
+	 * @return the maximum refresh interval
+	 */
+	public Duration getIdpMetadataRefreshInterval() {
+		return idpMetadataRefreshInterval;
+	}
+
+	/**
+	 * Sets the maximum length of time between refreshes of the IdP metadata.
+	 *
+	 * @param idpMetadataRefreshInterval
+	 *            the maximum refresh interval
+	 */
+	public void setIdpMetadataRefreshInterval(Duration idpMetadataRefreshInterval) {
+		this.idpMetadataRefreshInterval = idpMetadataRefreshInterval;
+	}
+
+	/**
+	 * Gets the minimum length of time between refreshes of the IdP metadata.
+	 *
+	 * @return the minimum refresh interval
+	 */
+	public Duration getIdpMetadataMinRefreshInterval() {
+		return idpMetadataMinRefreshInterval;
+	}
+
+	/**
+	 * Sets the minimum length of time between refreshes of the IdP metadata.
+	 *
+	 * @param idpMetadataMinRefreshInterval
+	 *            the minimum refresh interval
+	 */
+	public void setIdpMetadataMinRefreshInterval(Duration idpMetadataMinRefreshInterval) {
+		this.idpMetadataMinRefreshInterval = idpMetadataMinRefreshInterval;
+	}
+
 	/**
 	 * Gets the name of the group required for login.
 	 * 
@@ -364,6 +441,8 @@ public class SamlProperties {
 		return "SamlProperties [decryptionCertLocation=" + decryptionCertLocation + ", decryptionKeyLocation="
 				+ decryptionKeyLocation + ", emailAttribute=" + emailAttribute + ", enabled=" + enabled
 				+ ", firstNameAttribute=" + firstNameAttribute + ", groupAttribute=" + groupAttribute
+				+ ", idpMetadataCacheFile=" + idpMetadataCacheFile + ", idpMetadataMinRefreshInterval="
+				+ idpMetadataMinRefreshInterval + ", idpMetadataRefreshInterval=" + idpMetadataRefreshInterval
 				+ ", idpMetadataUri=" + idpMetadataUri + ", lastNameAttribute=" + lastNameAttribute + ", logoutPath="
 				+ logoutPath + ", registrationId=" + registrationId + ", requiredGroup=" + requiredGroup
 				+ ", signingCertLocation=" + signingCertLocation + ", signingKeyLocation=" + signingKeyLocation
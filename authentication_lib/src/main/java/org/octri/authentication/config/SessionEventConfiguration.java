@@ -0,0 +1,60 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.service.AsyncSessionEventRecorder;
+import org.octri.authentication.server.security.service.LogoutEventSink;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuration for asynchronous recording of session events.
+ */
+@Configuration
+@EnableConfigurationProperties(SessionEventProperties.class)
+public class SessionEventConfiguration {
+
+	private static final Log log = LogFactory.getLog(SessionEventConfiguration.class);
+
+	/**
+	 * Provides a recorder that writes session events on a background thread.
+	 *
+	 * @param sessionEventProperties
+	 *            session event configuration
+	 * @return asynchronous session event recorder
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "octri.authentication.session-events.async-enabled", havingValue = "true", matchIfMissing = false)
+	public AsyncSessionEventRecorder asyncSessionEventRecorder(SessionEventProperties sessionEventProperties) {
+		log.debug("Creating asynchronous session event recorder: " + sessionEventProperties);
+		return new AsyncSessionEventRecorder(sessionEventProperties);
+	}
+
+	/**
+	 * Provides a sink that writes logout events in batches on a background thread.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to insert logout events
+	 * @param sessionEventRecorder
+	 *            asynchronous session event recorder, if enabled
+	 * @param sessionEventProperties
+	 *            session event configuration
+	 * @return logout event sink
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(value = "octri.authentication.session-events.logout-batching-enabled", havingValue = "true", matchIfMissing = false)
+	public LogoutEventSink logoutEventSink(JdbcTemplate jdbcTemplate,
+			ObjectProvider<AsyncSessionEventRecorder> sessionEventRecorder,
+			SessionEventProperties sessionEventProperties) {
+		log.debug("Creating logout event sink: " + sessionEventProperties);
+		return new LogoutEventSink(jdbcTemplate, sessionEventRecorder.getIfAvailable(), sessionEventProperties);
+	}
+
+}
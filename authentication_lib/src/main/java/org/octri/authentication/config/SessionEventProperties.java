@@ -0,0 +1,195 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for recording session events.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.session-events")
+public class SessionEventProperties {
+
+	/**
+	 * Whether session events should be written by a background thread instead of the request or session-destroy
+	 * thread. Defaults to false.
+	 */
+	private Boolean asyncEnabled = false;
+
+	/**
+	 * Maximum number of session events that may be waiting to be written. When the queue is full, events are written
+	 * on the calling thread. Defaults to 10000.
+	 */
+	private Integer queueCapacity = 10000;
+
+	/**
+	 * Whether logout events should be queued and written in multi-row batches by a background thread, so that
+	 * expiring sessions never waits on the database. Defaults to false.
+	 */
+	private Boolean logoutBatchingEnabled = false;
+
+	/**
+	 * Maximum number of logout events that may be waiting to be written. When the queue is full, further logout
+	 * events are dropped and counted. Defaults to 10000.
+	 */
+	private Integer logoutQueueCapacity = 10000;
+
+	/**
+	 * Maximum number of logout events written by a single INSERT statement. Defaults to 500.
+	 */
+	private Integer logoutBatchSize = 500;
+
+	/**
+	 * Maximum length of time a queued logout event waits for a batch to fill before being written. Defaults to 1
+	 * second.
+	 */
+	private Duration logoutFlushInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Length of time to wait for queued session events to be written when the application shuts down. Defaults to 30
+	 * seconds.
+	 */
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+	/**
+	 * Gets whether session events are written asynchronously.
+	 *
+	 * @return true if session events are written by a background thread, false if they are written synchronously
+	 */
+	public Boolean getAsyncEnabled() {
+		return asyncEnabled;
+	}
+
+	/**
+	 * Sets whether session events are written asynchronously.
+	 *
+	 * @param asyncEnabled
+	 *            true to write session events on a background thread, false to write them synchronously
+	 */
+	public void setAsyncEnabled(Boolean asyncEnabled) {
+		this.asyncEnabled = asyncEnabled;
+	}
+
+	/**
+	 * Gets the maximum number of session events that may be waiting to be written.
+	 *
+	 * @return the queue capacity
+	 */
+	public Integer getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Sets the maximum number of session events that may be waiting to be written.
+	 *
+	 * @param queueCapacity
+	 *            the queue capacity
+	 */
+	public void setQueueCapacity(Integer queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Gets whether logout events are written in batches by a background thread.
+	 *
+	 * @return true if logout events are batched, false if not
+	 */
+	public Boolean getLogoutBatchingEnabled() {
+		return logoutBatchingEnabled;
+	}
+
+	/**
+	 * Sets whether logout events are written in batches by a background thread.
+	 *
+	 * @param logoutBatchingEnabled
+	 *            true to batch logout events, false if not
+	 */
+	public void setLogoutBatchingEnabled(Boolean logoutBatchingEnabled) {
+		this.logoutBatchingEnabled = logoutBatchingEnabled;
+	}
+
+	/**
+	 * Gets the maximum number of logout events that may be waiting to be written.
+	 *
+	 * @return the logout queue capacity
+	 */
+	public Integer getLogoutQueueCapacity() {
+		return logoutQueueCapacity;
+	}
+
+	/**
+	 * Sets the maximum number of logout events that may be waiting to be written.
+	 *
+	 * @param logoutQueueCapacity
+	 *            the logout queue capacity
+	 */
+	public void setLogoutQueueCapacity(Integer logoutQueueCapacity) {
+		this.logoutQueueCapacity = logoutQueueCapacity;
+	}
+
+	/**
+	 * Gets the maximum number of logout events written by a single statement.
+	 *
+	 * @return the logout batch size
+	 */
+	public Integer getLogoutBatchSize() {
+		return logoutBatchSize;
+	}
+
+	/**
+	 * Sets the maximum number of logout events written by a single statement.
+	 *
+	 * @param logoutBatchSize
+	 *            the logout batch size
+	 */
+	public void setLogoutBatchSize(Integer logoutBatchSize) {
+		this.logoutBatchSize = logoutBatchSize;
+	}
+
+	/**
+	 * Gets the maximum length of time a queued logout event waits for a batch to fill.
+	 *
+	 * @return the logout flush interval
+	 */
+	public Duration getLogoutFlushInterval() {
+		return logoutFlushInterval;
+	}
+
+	/**
+	 * Sets the maximum length of time a queued logout event waits for a batch to fill.
+	 *
+	 * @param logoutFlushInterval
+	 *            the logout flush interval
+	 */
+	public void setLogoutFlushInterval(Duration logoutFlushInterval) {
+		this.logoutFlushInterval = logoutFlushInterval;
+	}
+
+	/**
+	 * Gets the length of time to wait for queued session events to be written on shutdown.
+	 *
+	 * @return the shutdown timeout
+	 */
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	/**
+	 * Sets the length of time to wait for queued session events to be written on shutdown.
+	 *
+	 * @param shutdownTimeout
+	 *            the shutdown timeout
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	@Override
+	public String toString() {
+		return "SessionEventProperties [asyncEnabled=" + asyncEnabled + ", queueCapacity=" + queueCapacity
+				+ ", logoutBatchingEnabled=" + logoutBatchingEnabled + ", logoutQueueCapacity=" + logoutQueueCapacity
+				+ ", logoutBatchSize=" + logoutBatchSize + ", logoutFlushInterval=" + logoutFlushInterval
+				+ ", shutdownTimeout=" + shutdownTimeout + "]";
+	}
+
+}
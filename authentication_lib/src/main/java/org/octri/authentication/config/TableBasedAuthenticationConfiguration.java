@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -26,15 +27,22 @@ public class TableBasedAuthenticationConfiguration {
 	 *            service used to look up user details
 	 * @param passwordEncoder
 	 *            encodes passwords for storage in the database
+	 * @param encoderProperties
+	 *            password encoder configuration
 	 * @return default authentication provider for table-based authentication
 	 */
 	@Bean
 	@ConditionalOnMissingBean
 	public TableBasedAuthenticationProvider tableBasedAuthenticationProvider(UserDetailsService userDetailsService,
-			PasswordEncoder passwordEncoder) {
+			PasswordEncoder passwordEncoder, PasswordEncoderProperties encoderProperties) {
 		log.debug("Creating default table-based authentication provider.");
 		var provider = new TableBasedAuthenticationProvider(userDetailsService);
 		provider.setPasswordEncoder(passwordEncoder);
+		if (Boolean.TRUE.equals(encoderProperties.getUpgradeOnLogin())
+				&& userDetailsService instanceof UserDetailsPasswordService) {
+			log.debug("Enabling password hash upgrade on login.");
+			provider.setUserDetailsPasswordService((UserDetailsPasswordService) userDetailsService);
+		}
 		return provider;
 	}
 
@@ -0,0 +1,37 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.InMemoryUserDetailsCache;
+import org.octri.authentication.server.security.UserDetailsCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for caching user details loaded during authentication.
+ */
+@Configuration
+@EnableConfigurationProperties(UserDetailsCacheProperties.class)
+@ConditionalOnProperty(value = "octri.authentication.user-details-cache.enabled", havingValue = "true", matchIfMissing = false)
+public class UserDetailsCacheConfiguration {
+
+	private static final Log log = LogFactory.getLog(UserDetailsCacheConfiguration.class);
+
+	/**
+	 * Provides a default in-memory user details cache unless overridden by the application.
+	 *
+	 * @param cacheProperties
+	 *            user details cache configuration
+	 * @return default user details cache
+	 */
+	@Bean
+	@ConditionalOnMissingBean(UserDetailsCache.class)
+	public InMemoryUserDetailsCache defaultUserDetailsCache(UserDetailsCacheProperties cacheProperties) {
+		log.debug("Creating in-memory user details cache: " + cacheProperties);
+		return new InMemoryUserDetailsCache(cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive());
+	}
+
+}
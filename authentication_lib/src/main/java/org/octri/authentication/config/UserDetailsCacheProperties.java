@@ -0,0 +1,91 @@
+package org.octri.authentication.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the user details cache.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.user-details-cache")
+public class UserDetailsCacheProperties {
+
+	/**
+	 * Whether user details loaded during authentication should be cached. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Maximum number of users to cache. Defaults to 1000.
+	 */
+	private Integer maximumSize = 1000;
+
+	/**
+	 * Length of time cached user details remain valid. Defaults to 5 minutes.
+	 */
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	/**
+	 * Gets whether user details are cached.
+	 *
+	 * @return true if user details are cached, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether user details are cached.
+	 *
+	 * @param enabled
+	 *            true to cache user details, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the maximum number of users to cache.
+	 *
+	 * @return the maximum cache size
+	 */
+	public Integer getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of users to cache.
+	 *
+	 * @param maximumSize
+	 *            the maximum cache size
+	 */
+	public void setMaximumSize(Integer maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Gets the length of time cached user details remain valid.
+	 *
+	 * @return the time to live
+	 */
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	/**
+	 * Sets the length of time cached user details remain valid.
+	 *
+	 * @param timeToLive
+	 *            the time to live
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public String toString() {
+		return "UserDetailsCacheProperties [enabled=" + enabled + ", maximumSize=" + maximumSize + ", timeToLive="
+				+ timeToLive + "]";
+	}
+
+}
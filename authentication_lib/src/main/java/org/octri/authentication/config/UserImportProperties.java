@@ -0,0 +1,64 @@
+package org.octri.authentication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for bulk user imports.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.user-import")
+public class UserImportProperties {
+
+	/**
+	 * Number of users inserted per JDBC batch and transaction. Defaults to 500.
+	 */
+	private Integer batchSize = 500;
+
+	/**
+	 * Maximum number of rows accepted in a single import. Defaults to 10000.
+	 */
+	private Integer maximumRows = 10000;
+
+	/**
+	 * Gets the number of users inserted per batch.
+	 *
+	 * @return the batch size
+	 */
+	public Integer getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the number of users inserted per batch.
+	 *
+	 * @param batchSize
+	 *            the batch size
+	 */
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the maximum number of rows accepted in a single import.
+	 *
+	 * @return the maximum number of rows
+	 */
+	public Integer getMaximumRows() {
+		return maximumRows;
+	}
+
+	/**
+	 * Sets the maximum number of rows accepted in a single import.
+	 *
+	 * @param maximumRows
+	 *            the maximum number of rows
+	 */
+	public void setMaximumRows(Integer maximumRows) {
+		this.maximumRows = maximumRows;
+	}
+
+	@Override
+	public String toString() {
+		return "UserImportProperties [batchSize=" + batchSize + ", maximumRows=" + maximumRows + "]";
+	}
+
+}
@@ -0,0 +1,43 @@
+package org.octri.authentication.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.service.BlockingTaskExecutor;
+import org.octri.authentication.utils.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for running blocking library work on virtual threads. Only applies on Java 21 or later.
+ *
+ * @see VirtualThreadEnvironmentPostProcessor
+ */
+@Configuration
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+@ConditionalOnJava(JavaVersion.TWENTY_ONE)
+@ConditionalOnProperty(value = "octri.authentication.virtual-threads.enabled", havingValue = "true", matchIfMissing = false)
+public class VirtualThreadConfiguration {
+
+	private static final Log log = LogFactory.getLog(VirtualThreadConfiguration.class);
+
+	/**
+	 * Provides an executor that runs blocking library work on virtual threads.
+	 *
+	 * @param virtualThreadProperties
+	 *            virtual thread configuration
+	 * @return blocking task executor
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	public BlockingTaskExecutor blockingTaskExecutor(VirtualThreadProperties virtualThreadProperties) {
+		log.debug("Creating virtual thread executor: " + virtualThreadProperties);
+		return new BlockingTaskExecutor(VirtualThreads.newThreadPerTaskExecutor("authlib-blocking-"),
+				virtualThreadProperties.getMaxConcurrentTasks());
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.octri.authentication.config;
+
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.octri.authentication.utils.VirtualThreads;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Turns on Spring Boot's virtual thread support when octri.authentication.virtual-threads.enabled is true, so that
+ * servlet requests, including logins that wait on the database or LDAP, are handled on virtual threads.
+ *
+ * The setting is added with the lowest precedence, so an explicit spring.threads.virtual.enabled in the application's
+ * configuration always wins. On Java versions before 21 a warning is logged and nothing is changed.
+ */
+public class VirtualThreadEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+	static final String ENABLED_PROPERTY = "octri.authentication.virtual-threads.enabled";
+	static final String SPRING_PROPERTY = "spring.threads.virtual.enabled";
+	static final String PROPERTY_SOURCE_NAME = "authlibVirtualThreads";
+
+	private final Log log;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param logFactory
+	 *            factory for logs that are written once logging has been initialized
+	 */
+	public VirtualThreadEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+		this.log = logFactory.getLog(VirtualThreadEnvironmentPostProcessor.class);
+	}
+
+	@Override
+	public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+		if (!environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+			return;
+		}
+		if (!VirtualThreads.isAvailable()) {
+			log.warn(ENABLED_PROPERTY + " is true, but virtual threads require Java 21 or later. Using platform threads.");
+			return;
+		}
+		environment.getPropertySources()
+				.addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of(SPRING_PROPERTY, "true")));
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.octri.authentication.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for running blocking work on virtual threads.
+ */
+@ConfigurationProperties(prefix = "octri.authentication.virtual-threads")
+public class VirtualThreadProperties {
+
+	/**
+	 * Whether blocking work should run on virtual threads. Requires Java 21 or later. Defaults to false.
+	 */
+	private Boolean enabled = false;
+
+	/**
+	 * Maximum number of blocking tasks the library runs at once on its own virtual-thread executor. Virtual threads
+	 * are cheap, but the LDAP server and connection pools behind them are not. Defaults to 50.
+	 */
+	private Integer maxConcurrentTasks = 50;
+
+	/**
+	 * Gets whether blocking work runs on virtual threads.
+	 *
+	 * @return true if virtual threads are enabled, false if not
+	 */
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether blocking work runs on virtual threads.
+	 *
+	 * @param enabled
+	 *            true to enable virtual threads, false if not
+	 */
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the maximum number of blocking tasks run at once on the library's executor.
+	 *
+	 * @return the maximum number of concurrent tasks
+	 */
+	public Integer getMaxConcurrentTasks() {
+		return maxConcurrentTasks;
+	}
+
+	/**
+	 * Sets the maximum number of blocking tasks run at once on the library's executor.
+	 *
+	 * @param maxConcurrentTasks
+	 *            the maximum number of concurrent tasks
+	 */
+	public void setMaxConcurrentTasks(Integer maxConcurrentTasks) {
+		this.maxConcurrentTasks = maxConcurrentTasks;
+	}
+
+	@Override
+	public String toString() {
+		return "VirtualThreadProperties [enabled=" + enabled + ", maxConcurrentTasks=" + maxConcurrentTasks + "]";
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.octri.authentication.server.controller;
+
+import java.time.LocalDate;
+
+import org.octri.authentication.MethodSecurityExpressions;
+import org.octri.authentication.server.security.export.ExportFormat;
+import org.octri.authentication.server.security.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller for downloading users, login attempts, and session events as CSV or JSON. The data is streamed to the
+ * client as it is read from the database, so exports of large tables do not need to fit in memory.
+ */
+@Controller
+public class ExportController {
+
+	@Autowired
+	private ExportService exportService;
+
+	/**
+	 * Downloads all user accounts.
+	 *
+	 * @param format
+	 *            "csv" (the default) or "json"
+	 * @return a streaming download of the user accounts
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@GetMapping("admin/export/users")
+	public ResponseEntity<StreamingResponseBody> exportUsers(
+			@RequestParam(name = "format", defaultValue = "csv") String format) {
+		var exportFormat = parseFormat(format);
+		return attachment("users", exportFormat, out -> exportService.exportUsers(exportFormat, out));
+	}
+
+	/**
+	 * Downloads all login attempts.
+	 *
+	 * @param format
+	 *            "csv" (the default) or "json"
+	 * @return a streaming download of the login attempts
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@GetMapping("admin/export/login-attempts")
+	public ResponseEntity<StreamingResponseBody> exportLoginAttempts(
+			@RequestParam(name = "format", defaultValue = "csv") String format) {
+		var exportFormat = parseFormat(format);
+		return attachment("login-attempts", exportFormat,
+				out -> exportService.exportLoginAttempts(exportFormat, out));
+	}
+
+	/**
+	 * Downloads all session events.
+	 *
+	 * @param format
+	 *            "csv" (the default) or "json"
+	 * @return a streaming download of the session events
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@GetMapping("admin/export/session-events")
+	public ResponseEntity<StreamingResponseBody> exportSessionEvents(
+			@RequestParam(name = "format", defaultValue = "csv") String format) {
+		var exportFormat = parseFormat(format);
+		return attachment("session-events", exportFormat,
+				out -> exportService.exportSessionEvents(exportFormat, out));
+	}
+
+	private static ExportFormat parseFormat(String format) {
+		try {
+			return ExportFormat.fromName(format);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+		}
+	}
+
+	/**
+	 * Wraps the body in a response that downloads as a file named after the export and today's date.
+	 */
+	private static ResponseEntity<StreamingResponseBody> attachment(String name, ExportFormat format,
+			StreamingResponseBody body) {
+		String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+		return ResponseEntity.ok()
+				.contentType(format.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build()
+						.toString())
+				.body(body);
+	}
+
+}
@@ -2,9 +2,12 @@ package org.octri.authentication.server.controller;
 
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -20,7 +23,9 @@ import org.octri.authentication.server.security.entity.AuthenticationMethod;
 import org.octri.authentication.server.security.entity.PasswordResetToken;
 import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.entity.UserRole;
+import org.octri.authentication.server.security.entity.UserStatus;
 import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.repository.UserSummaryProjection;
 import org.octri.authentication.server.security.service.PasswordGeneratorService;
 import org.octri.authentication.server.security.service.PasswordResetTokenService;
 import org.octri.authentication.server.security.service.UserRoleService;
@@ -31,6 +36,10 @@ import org.octri.common.view.OptionList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.propertyeditors.StringTrimmerEditor;
 import org.springframework.context.annotation.Scope;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
@@ -43,7 +52,9 @@ import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
@@ -62,6 +73,12 @@ public class UserController {
 	private static final Log log = LogFactory.getLog(UserController.class);
 	private static final String FORM_TEMPLATE = "admin/user/form";
 
+	/**
+	 * Columns of the user list, keyed by the property they are sorted by. Columns whose property is not in
+	 * {@link UserService#SORTABLE_PROPERTIES} are not sortable.
+	 */
+	private static final Map<String, String> LIST_COLUMNS = listColumns();
+
 	@Autowired
 	private AuthenticationUrlHelper urlHelper;
 
@@ -96,17 +113,55 @@ public class UserController {
 	private LdapContextProperties ldapContextProperties;
 
 	/**
-	 * Returns view for displaying a list of all users.
+	 * Returns view for displaying a page of users. Sorting, text search, and filtering by role or account status are
+	 * done in the database, and only the columns shown in the list are loaded.
 	 *
 	 * @param model
 	 *            Object holding view data
+	 * @param search
+	 *            text to match against username, email address, and name
+	 * @param role
+	 *            ID of a role the listed users must have
+	 * @param status
+	 *            account status the listed users must have
+	 * @param pageable
+	 *            requested page, page size, and sort order
 	 * @return List view
 	 */
 	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
 	@GetMapping("admin/user/list")
-	public ModelAndView listUsers(ModelMap model) {
-		model.addAttribute("users", users());
-		model.addAttribute("userRoles", userRoles());
+	public ModelAndView listUsers(ModelMap model, @RequestParam(name = "search", required = false) String search,
+			@RequestParam(name = "role", required = false) Long role,
+			@RequestParam(name = "status", required = false) UserStatus status,
+			@PageableDefault(size = 25, sort = "username") Pageable pageable) {
+		Page<UserSummaryProjection> page = userService.search(search, role, status, pageable);
+		Map<Long, List<String>> roles = userService.findRoleDescriptions(
+				page.getContent().stream().map(UserSummaryProjection::getId).collect(Collectors.toList()));
+		List<UserListItem> users = page.getContent().stream()
+				.map(user -> new UserListItem(user, roles.get(user.getId())))
+				.collect(Collectors.toList());
+
+		List<UserRole> allRoles = userRoles();
+		List<UserRole> selectedRoles = allRoles.stream().filter(userRole -> userRole.getId().equals(role))
+				.collect(Collectors.toList());
+
+		model.addAttribute("users", users);
+		model.addAttribute("search", search);
+		model.addAttribute("userRoles", OptionList.multiFromSearch(allRoles, selectedRoles));
+		model.addAttribute("statuses", OptionList.fromEnum(EnumSet.allOf(UserStatus.class), status));
+		model.addAttribute("filtered", StringUtils.isNotBlank(search) || role != null || status != null);
+		model.addAttribute("columns", listColumnHeaders(search, role, status, page));
+		model.addAttribute("pageNumber", page.getNumber() + 1);
+		model.addAttribute("totalPages", Math.max(page.getTotalPages(), 1));
+		model.addAttribute("totalElements", page.getTotalElements());
+		if (page.hasPrevious()) {
+			model.addAttribute("previousUrl",
+					listUrl(search, role, status, page.getNumber() - 1, page.getSize(), page.getSort()));
+		}
+		if (page.hasNext()) {
+			model.addAttribute("nextUrl",
+					listUrl(search, role, status, page.getNumber() + 1, page.getSize(), page.getSort()));
+		}
 		model.addAttribute("listView", true);
 		return new ModelAndView("admin/user/list", model);
 	}
@@ -286,11 +341,61 @@ public class UserController {
 	}
 
 	/**
-	 *
-	 * @return Returns a list of all {@link User}.
+	 * Builds the column headers of the user list. Each sortable header links to the first page sorted by its column,
+	 * in ascending order unless the list is already sorted that way.
+	 */
+	private List<Map<String, Object>> listColumnHeaders(String search, Long role, UserStatus status,
+			Page<UserSummaryProjection> page) {
+		return LIST_COLUMNS.entrySet().stream().map(column -> {
+			Map<String, Object> header = new LinkedHashMap<>();
+			header.put("label", column.getValue());
+			if (!UserService.SORTABLE_PROPERTIES.contains(column.getKey())) {
+				return header;
+			}
+
+			Sort.Order current = page.getSort().getOrderFor(column.getKey());
+			boolean ascending = current != null && current.isAscending();
+			var direction = ascending ? Sort.Direction.DESC : Sort.Direction.ASC;
+			header.put("url", listUrl(search, role, status, 0, page.getSize(), Sort.by(direction, column.getKey())));
+			header.put("sortedAscending", ascending);
+			header.put("sortedDescending", current != null && current.isDescending());
+			return header;
+		}).collect(Collectors.toList());
+	}
+
+	/**
+	 * Builds the query string of a user list page, preserving the search and filters.
 	 */
-	private List<User> users() {
-		return userService.findAll();
+	private static String listUrl(String search, Long role, UserStatus status, int page, int size, Sort sort) {
+		var builder = UriComponentsBuilder.newInstance();
+		if (StringUtils.isNotBlank(search)) {
+			builder.queryParam("search", search);
+		}
+		if (role != null) {
+			builder.queryParam("role", role);
+		}
+		if (status != null) {
+			builder.queryParam("status", status.name());
+		}
+		builder.queryParam("page", page).queryParam("size", size);
+		for (Sort.Order order : sort) {
+			builder.queryParam("sort", order.getProperty() + "," + order.getDirection().name().toLowerCase());
+		}
+		return builder.encode().build().toUriString();
+	}
+
+	private static Map<String, String> listColumns() {
+		Map<String, String> columns = new LinkedHashMap<>();
+		columns.put("username", "Username");
+		columns.put("roles", "Roles");
+		columns.put("email", "Email");
+		columns.put("firstName", "First Name");
+		columns.put("lastName", "Last Name");
+		columns.put("enabled", "Account Enabled");
+		columns.put("accountLocked", "Account Locked");
+		columns.put("accountExpirationDate", "Account Expired");
+		columns.put("credentialsExpirationDate", "Credentials Expired");
+		return columns;
 	}
 
 	/**
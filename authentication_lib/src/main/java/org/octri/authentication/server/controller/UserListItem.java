@@ -0,0 +1,100 @@
+package org.octri.authentication.server.controller;
+
+import java.util.List;
+
+import org.octri.authentication.server.security.repository.UserSummaryProjection;
+import org.springframework.util.Assert;
+
+/**
+ * A row of the admin user list: a {@link UserSummaryProjection} and the descriptions of the user's roles.
+ */
+public class UserListItem {
+
+	private final UserSummaryProjection user;
+	private final List<String> roles;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param user
+	 *            summary of the user account
+	 * @param roles
+	 *            descriptions of the roles granted to the user
+	 */
+	public UserListItem(UserSummaryProjection user, List<String> roles) {
+		Assert.notNull(user, "User is required");
+		this.user = user;
+		this.roles = roles == null ? List.of() : List.copyOf(roles);
+	}
+
+	/**
+	 * @return the user's unique ID
+	 */
+	public Long getId() {
+		return user.getId();
+	}
+
+	/**
+	 * @return the username
+	 */
+	public String getUsername() {
+		return user.getUsername();
+	}
+
+	/**
+	 * @return the user's email address
+	 */
+	public String getEmail() {
+		return user.getEmail();
+	}
+
+	/**
+	 * @return the user's first name
+	 */
+	public String getFirstName() {
+		return user.getFirstName();
+	}
+
+	/**
+	 * @return the user's last name
+	 */
+	public String getLastName() {
+		return user.getLastName();
+	}
+
+	/**
+	 * @return whether the account is enabled for login
+	 */
+	public Boolean getEnabled() {
+		return user.getEnabled();
+	}
+
+	/**
+	 * @return whether the account has been locked by failed login attempts
+	 */
+	public Boolean getAccountLocked() {
+		return user.getAccountLocked();
+	}
+
+	/**
+	 * @return whether the account has expired
+	 */
+	public Boolean getAccountExpired() {
+		return user.getAccountExpired();
+	}
+
+	/**
+	 * @return whether the user's credentials have expired
+	 */
+	public Boolean getCredentialsExpired() {
+		return user.getCredentialsExpired();
+	}
+
+	/**
+	 * @return descriptions of the roles granted to the user
+	 */
+	public List<String> getRoles() {
+		return roles;
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.octri.authentication.server.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.octri.authentication.MethodSecurityExpressions;
+import org.octri.authentication.server.security.service.OutboundEmailQueue;
+import org.octri.authentication.server.security.service.OutboundEmailQueue.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A REST controller that reports the status of the outbound email queue to administrators.
+ */
+@RestController
+public class EmailQueueApiController {
+
+	private static final int MAX_LIMIT = 200;
+
+	@Nullable
+	@Autowired
+	private OutboundEmailQueue outboundEmailQueue;
+
+	/**
+	 * Reports the number of queued messages in each status and the most recently failed messages. Message bodies are
+	 * never included.
+	 *
+	 * @param limit
+	 *            maximum number of failed messages to list, up to 200
+	 * @return counts by status and recent failures
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@GetMapping(path = "admin/email/queue", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, Object> status(@RequestParam(name = "limit", defaultValue = "20") int limit) {
+		if (outboundEmailQueue == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The email queue is not enabled");
+		}
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("counts", outboundEmailQueue.countByStatus());
+		out.put("failed", outboundEmailQueue.findRecent(Status.FAILED, Math.max(0, Math.min(limit, MAX_LIMIT))));
+		return out;
+	}
+
+}
@@ -1,23 +1,31 @@
 package org.octri.authentication.server.rest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.MethodSecurityExpressions;
+import org.octri.authentication.config.LdapContextProperties;
+import org.octri.authentication.server.security.LdapBatchUserLookup;
+import org.octri.authentication.server.security.LdapUserAttributes;
+import org.octri.authentication.server.security.LdapUserLookup;
 import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.service.BlockingTaskExecutor;
 import org.octri.authentication.server.security.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.ldap.core.DirContextOperations;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -36,12 +44,24 @@ public class UserApiController {
 
 	@Nullable
 	@Autowired
-	private FilterBasedLdapUserSearch ldapSearch;
+	private LdapUserLookup ldapUserLookup;
+
+	@Nullable
+	@Autowired
+	private LdapBatchUserLookup ldapBatchUserLookup;
+
+	@Nullable
+	@Autowired
+	private LdapContextProperties ldapContextProperties;
 
 	@Nullable
 	@Autowired
 	private String ldapOrganization;
 
+	@Nullable
+	@Autowired
+	private BlockingTaskExecutor blockingTaskExecutor;
+
 	/**
 	 * Searches the database for the username to determine whether it is taken
 	 *
@@ -60,7 +80,9 @@ public class UserApiController {
 	}
 
 	/**
-	 * Searches LDAP for the username and provides user information.
+	 * Searches LDAP for the username and provides user information. Recent results are cached. When virtual threads
+	 * are enabled, the search runs on a virtual thread and the request thread is released while it waits on the
+	 * directory.
 	 *
 	 * @param username
 	 *            username to search by
@@ -68,14 +90,50 @@ public class UserApiController {
 	 */
 	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
 	@PostMapping("admin/user/ldapLookup")
-	public Map<String, Object> ldapLookup(String username) {
+	public CompletableFuture<Map<String, Object>> ldapLookup(String username) {
+		if (blockingTaskExecutor != null) {
+			return blockingTaskExecutor.supply(() -> searchLdap(username));
+		}
+		return CompletableFuture.completedFuture(searchLdap(username));
+	}
+
+	/**
+	 * Searches LDAP for many usernames at once. The usernames are found with a few searches that each match a chunk of
+	 * usernames, rather than one search per username.
+	 *
+	 * @param usernames
+	 *            usernames to search by
+	 * @return the attributes of each user found, the usernames not found, and the usernames whose search failed, or an
+	 *         error message
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@PostMapping(path = "admin/user/ldapLookup/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public CompletableFuture<ResponseEntity<?>> ldapBatchLookup(@RequestBody List<String> usernames) {
+		if (ldapBatchUserLookup == null) {
+			log.error("ldapBatchLookup called, but LdapBatchUserLookup is null.");
+			return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+					.body(Map.of("ldapLookupError", "LDAP authentication is not enabled.")));
+		}
+		int maxUsernames = ldapContextProperties.getBatchLookup().getMaxUsernames();
+		if (usernames.size() > maxUsernames) {
+			return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
+					Map.of("ldapLookupError", "At most " + maxUsernames + " usernames may be looked up at once.")));
+		}
+		if (blockingTaskExecutor != null) {
+			return blockingTaskExecutor.supply(() -> ResponseEntity.ok(ldapBatchUserLookup.lookup(usernames)));
+		}
+		return CompletableFuture.completedFuture(ResponseEntity.ok(ldapBatchUserLookup.lookup(usernames)));
+	}
+
+	private Map<String, Object> searchLdap(String username) {
 		Map<String, Object> out = new HashMap<>();
-		if (ldapSearch != null) {
+		if (ldapUserLookup != null) {
 			try {
-				DirContextOperations ldapUser = ldapSearch.searchForUser(username);
-				out.put("firstName", ldapUser.getStringAttribute("givenName"));
-				out.put("lastName", ldapUser.getStringAttribute("sn"));
-				out.put("email", ldapUser.getStringAttribute("mail"));
+				LdapUserAttributes ldapUser = ldapUserLookup.lookup(username);
+				out.put("firstName", ldapUser.getFirstName());
+				out.put("lastName", ldapUser.getLastName());
+				out.put("email", ldapUser.getEmail());
 				out.put("institution", ldapOrganization);
 			} catch (UsernameNotFoundException e) {
 				out.put("ldapLookupError", "Could not find username in LDAP");
@@ -84,7 +142,7 @@ public class UserApiController {
 				out.put("ldapLookupError", "Error connecting to LDAP.");
 			}
 		} else {
-			log.error("ldapLookup called, but FilterBasedLdapUserSearch is null.");
+			log.error("ldapLookup called, but LdapUserLookup is null.");
 			out.put("ldapLookupError", "Error connecting to LDAP.");
 		}
 
@@ -0,0 +1,86 @@
+package org.octri.authentication.server.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.MethodSecurityExpressions;
+import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.export.ExportFormat;
+import org.octri.authentication.server.security.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * A REST controller for importing user accounts in bulk.
+ */
+@RestController
+public class UserImportApiController {
+
+	private static final Log log = LogFactory.getLog(UserImportApiController.class);
+
+	@Autowired
+	private UserImportService userImportService;
+
+	/**
+	 * Creates user accounts from an uploaded CSV or JSON file.
+	 *
+	 * @param file
+	 *            the uploaded file
+	 * @param format
+	 *            "csv" or "json". If omitted, the format is chosen from the file name extension, defaulting to CSV.
+	 * @param principal
+	 *            the administrator performing the import
+	 * @param request
+	 *            the request, passed to the application's user management customizer
+	 * @return a report of the rows imported and the errors for the others, or an error message if the file could not
+	 *         be read
+	 */
+	@PreAuthorize(MethodSecurityExpressions.ADMIN_OR_SUPER)
+	@PostMapping(path = "admin/user/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> importUsers(@RequestParam("file") MultipartFile file,
+			@RequestParam(name = "format", required = false) String format, Principal principal,
+			HttpServletRequest request) {
+		ExportFormat importFormat;
+		try {
+			importFormat = resolveFormat(file, format);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(Map.of("error", "Unsupported import format: " + format));
+		}
+
+		try (InputStream in = file.getInputStream()) {
+			return ResponseEntity.ok(userImportService.importUsers(in, importFormat, principal.getName(), request));
+		} catch (UserManagementException e) {
+			return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+		} catch (IOException e) {
+			log.error("Could not read user import file", e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+					.body(Map.of("error", "Could not read the import file."));
+		}
+	}
+
+	private static ExportFormat resolveFormat(MultipartFile file, String format) {
+		if (StringUtils.isNotBlank(format)) {
+			return ExportFormat.fromName(format);
+		}
+		String filename = Objects.toString(file.getOriginalFilename(), "").toLowerCase(Locale.ROOT);
+		return filename.endsWith(".json") ? ExportFormat.JSON : ExportFormat.CSV;
+	}
+
+}
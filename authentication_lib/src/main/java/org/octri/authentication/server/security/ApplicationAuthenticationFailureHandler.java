@@ -30,7 +30,7 @@ public class ApplicationAuthenticationFailureHandler extends AuditLoginAuthentic
 			AuthenticationException exception) throws IOException, ServletException {
 		String username = request.getParameter("username");
 
-		recordLoginFailure(username, exception.getMessage(), request);
+		recordLoginFailure(username, exception, request);
 		recordUserFailedAttempts(username, exception);
 
 		if (exception instanceof CredentialsExpiredException) {
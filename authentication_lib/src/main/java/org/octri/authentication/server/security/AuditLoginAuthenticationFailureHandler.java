@@ -2,8 +2,10 @@ package org.octri.authentication.server.security;
 
 import java.util.Date;
 
+import org.apache.commons.lang3.StringUtils;
 import org.octri.authentication.RequestUtils;
 import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.LoginAttemptService;
 import org.octri.authentication.server.security.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +39,26 @@ public class AuditLoginAuthenticationFailureHandler extends SimpleUrlAuthenticat
 	@Autowired
 	private UserService userService;
 
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
+	/**
+	 * Creates a new {@link LoginAttempt} record for an unsuccessful login and counts it in the login metrics.
+	 *
+	 * @param username
+	 *            the username provided
+	 * @param exception
+	 *            exception describing why authentication failed
+	 * @param request
+	 *            the login request
+	 */
+	protected void recordLoginFailure(String username, AuthenticationException exception, HttpServletRequest request) {
+		recordLoginFailure(username, exception.getMessage(), request);
+		if (authenticationMetrics != null) {
+			authenticationMetrics.recordLoginFailure(exception);
+		}
+	}
+
 	/**
 	 * Creates a new {@link LoginAttempt} record for an unsuccessful login
 	 *
@@ -54,11 +76,12 @@ public class AuditLoginAuthenticationFailureHandler extends SimpleUrlAuthenticat
 		attempt.setAttemptedAt(new Date());
 		attempt.setSuccessful(false);
 		attempt.setErrorType(error);
-		loginAttemptService.save(attempt);
+		loginAttemptService.record(attempt);
 	}
 
 	/**
-	 * Increments the failed attempts counter
+	 * Increments the failed attempts counter with a single atomic update. Does nothing if no account has the given
+	 * username.
 	 *
 	 * @param username
 	 *            username provided on login
@@ -66,10 +89,9 @@ public class AuditLoginAuthenticationFailureHandler extends SimpleUrlAuthenticat
 	 *            exception describing why authentication failed
 	 */
 	protected void recordUserFailedAttempts(String username, AuthenticationException exception) {
-		if (exception.getClass() == BadCredentialsException.class && userService.findByUsername(username) != null) {
-			userService.incrementFailedAttempts(username);
+		if (exception.getClass() == BadCredentialsException.class && StringUtils.isNotBlank(username)) {
+			userService.incrementFailedAttemptCount(username);
 		}
-
 	}
 
 }
@@ -4,8 +4,8 @@ import java.util.Date;
 
 import org.octri.authentication.RequestUtils;
 import org.octri.authentication.server.security.entity.LoginAttempt;
-import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.LoginAttemptService;
 import org.octri.authentication.server.security.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,8 +29,11 @@ public abstract class AuditLoginAuthenticationSuccessHandler extends SavedReques
 	@Autowired
 	private UserService userService;
 
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	/**
-	 * Records a successful login attempt.
+	 * Records a successful login attempt and counts it in the login metrics.
 	 *
 	 * @param auth
 	 *            authenticated principal
@@ -43,11 +46,14 @@ public abstract class AuditLoginAuthenticationSuccessHandler extends SavedReques
 		attempt.setAttemptedAt(new Date());
 		attempt.setSuccessful(true);
 		attempt.setIpAddress(RequestUtils.getClientIpAddr(request));
-		loginAttemptService.save(attempt);
+		loginAttemptService.record(attempt);
+		if (authenticationMetrics != null) {
+			authenticationMetrics.recordLoginSuccess(auth, request);
+		}
 	}
 
 	/**
-	 * Resets the failed login attempts for the given authenticated principal back to zero.
+	 * Resets the failed login attempts for the given authenticated principal back to zero with a single atomic update.
 	 *
 	 * @param auth
 	 *            authenticated principal
@@ -56,13 +62,7 @@ public abstract class AuditLoginAuthenticationSuccessHandler extends SavedReques
 	 */
 	protected void resetUserFailedAttempts(Authentication auth)
 			throws UserManagementException {
-		User user = userService.findByUsername(auth.getName());
-		if (user == null || !(user.getConsecutiveLoginFailures() > 0)) {
-			return;
-		}
-
-		user.setConsecutiveLoginFailures(0);
-		userService.save(user);
+		userService.resetFailedAttemptCount(auth.getName());
 	}
 
 }
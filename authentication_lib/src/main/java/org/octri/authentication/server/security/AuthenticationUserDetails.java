@@ -2,6 +2,7 @@ package org.octri.authentication.server.security;
 
 import java.util.Collection;
 
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,6 +22,11 @@ public class AuthenticationUserDetails extends User {
 	 */
 	private long userId;
 
+	/**
+	 * The method the user authenticates with, if known
+	 */
+	private AuthenticationMethod authenticationMethod;
+
 	/**
 	 * Constructor
 	 * 
@@ -35,6 +41,51 @@ public class AuthenticationUserDetails extends User {
 				user.isEnabled(), !user.getAccountExpired(), !user.getCredentialsExpired(), !user.getAccountLocked(),
 				authorities);
 		this.userId = user.getId();
+		this.authenticationMethod = user.getAuthenticationMethod();
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param userId
+	 *            the user's unique ID
+	 * @param username
+	 *            the user's username
+	 * @param password
+	 *            the user's encoded password
+	 * @param enabled
+	 *            whether the account is enabled
+	 * @param accountNonExpired
+	 *            whether the account is unexpired
+	 * @param credentialsNonExpired
+	 *            whether the credentials are unexpired
+	 * @param accountNonLocked
+	 *            whether the account is unlocked
+	 * @param authorities
+	 *            user authorities (e.g. roles)
+	 */
+	public AuthenticationUserDetails(long userId, String username, String password, boolean enabled,
+			boolean accountNonExpired, boolean credentialsNonExpired, boolean accountNonLocked,
+			Collection<? extends GrantedAuthority> authorities) {
+		super(username, password, enabled, accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
+		this.userId = userId;
+	}
+
+	/**
+	 * Creates a copy of the given user details. Used to hand out cached details without sharing an instance whose
+	 * credentials may be erased after authentication.
+	 *
+	 * @param userDetails
+	 *            the user details to copy
+	 * @return a new instance with the same values
+	 */
+	public static AuthenticationUserDetails copyOf(AuthenticationUserDetails userDetails) {
+		var copy = new AuthenticationUserDetails(userDetails.getUserId(), userDetails.getUsername(),
+				userDetails.getPassword(), userDetails.isEnabled(), userDetails.isAccountNonExpired(),
+				userDetails.isCredentialsNonExpired(), userDetails.isAccountNonLocked(),
+				userDetails.getAuthorities());
+		copy.setAuthenticationMethod(userDetails.getAuthenticationMethod());
+		return copy;
 	}
 
 	/**
@@ -56,4 +107,23 @@ public class AuthenticationUserDetails extends User {
 		this.userId = userId;
 	}
 
+	/**
+	 * Gets the method the user authenticates with
+	 *
+	 * @return the authentication method, or null if not known
+	 */
+	public AuthenticationMethod getAuthenticationMethod() {
+		return authenticationMethod;
+	}
+
+	/**
+	 * Sets the method the user authenticates with
+	 *
+	 * @param authenticationMethod
+	 *            the authentication method
+	 */
+	public void setAuthenticationMethod(AuthenticationMethod authenticationMethod) {
+		this.authenticationMethod = authenticationMethod;
+	}
+
 }
@@ -4,9 +4,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.octri.authentication.RequestUtils;
 import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.entity.UserRole;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.UserService;
 import org.octri.authentication.server.security.service.UserUserRoleService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +17,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -25,13 +28,14 @@ import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Custom {@link UserDetailsService} implementation that loads user details from the database via our
- * {@link UserService} and {@link UserUserRoleService}.
+ * {@link UserService} and {@link UserUserRoleService}. Also implements {@link UserDetailsPasswordService}, so that
+ * stored password hashes can be re-encoded after a successful login.
  *
  * @author harrelst
  *
  */
 @Service
-public class AuthenticationUserDetailsService implements UserDetailsService {
+public class AuthenticationUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
 	@Autowired
 	private UserService userService;
@@ -39,6 +43,12 @@ public class AuthenticationUserDetailsService implements UserDetailsService {
 	@Autowired
 	private UserUserRoleService userUserRoleService;
 
+	@Autowired(required = false)
+	private UserDetailsCache userDetailsCache;
+
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	/**
 	 *
 	 * @return - the current user, or null if there is no current authenticated user.
@@ -55,24 +65,73 @@ public class AuthenticationUserDetailsService implements UserDetailsService {
 	 */
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userService.findByUsername(username);
+		if (authenticationMetrics != null) {
+			return authenticationMetrics.observe(AuthenticationMetrics.USER_LOAD_OBSERVATION, () -> loadUser(username));
+		}
+		return loadUser(username);
+	}
+
+	private UserDetails loadUser(String username) {
+		if (userDetailsCache != null) {
+			UserDetails cached = userDetailsCache.get(username);
+			if (cached instanceof AuthenticationUserDetails) {
+				return AuthenticationUserDetails.copyOf((AuthenticationUserDetails) cached);
+			}
+		}
+
+		User user = userService.findByUsernameWithRoles(username);
 
 		if (user == null) {
 			throw new UsernameNotFoundException("Invalid username " + username);
 		}
 
-		return new AuthenticationUserDetails(user, getAuthorities(user));
+		AuthenticationUserDetails userDetails = new AuthenticationUserDetails(user, getAuthorities(user));
+		if (userDetailsCache != null) {
+			// Cache a copy, because the returned instance's credentials are erased after authentication
+			userDetailsCache.put(username, AuthenticationUserDetails.copyOf(userDetails));
+		}
+		return userDetails;
+	}
+
+	/**
+	 * Stores a re-encoded password hash for the user. Called by the authentication provider after a successful login
+	 * when the stored hash uses an outdated algorithm or cost.
+	 *
+	 * @param user
+	 *            the authenticated user
+	 * @param newPassword
+	 *            the password, encoded with the current password encoder
+	 * @return user details with the new password hash
+	 */
+	@Override
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		if (!userService.upgradePasswordHash(user.getUsername(), newPassword)) {
+			return user;
+		}
+
+		if (user instanceof AuthenticationUserDetails) {
+			var details = (AuthenticationUserDetails) user;
+			var updated = new AuthenticationUserDetails(details.getUserId(), details.getUsername(), newPassword,
+					details.isEnabled(), details.isAccountNonExpired(), details.isCredentialsNonExpired(),
+					details.isAccountNonLocked(), details.getAuthorities());
+			updated.setAuthenticationMethod(details.getAuthenticationMethod());
+			return updated;
+		}
+		return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
 	}
 
 	/**
-	 * Determines the user's security authorities. May be overridden.
+	 * Determines the user's security authorities. May be overridden. By default, authorities are built from the roles
+	 * fetched with the user, falling back on a separate query if they were not fetched.
 	 *
 	 * @param user
 	 *            the user for whom to calculate authorities
 	 * @return the list of authorities
 	 */
 	protected Collection<GrantedAuthority> getAuthorities(User user) {
-		List<UserRole> roles = userUserRoleService.findUserRolesByUser(user);
+		List<UserRole> roles = user.getUserRoles() != null && Hibernate.isInitialized(user.getUserRoles())
+				? user.getUserRoles()
+				: userUserRoleService.findUserRolesByUser(user);
 		List<GrantedAuthority> list = roles.stream().map(role -> new SimpleGrantedAuthority(role.getRoleName()))
 				.collect(Collectors.toList());
 		return list;
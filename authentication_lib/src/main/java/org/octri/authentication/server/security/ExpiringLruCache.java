@@ -0,0 +1,203 @@
+package org.octri.authentication.server.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A bounded in-memory cache whose entries expire after a fixed time-to-live. The least recently used entry is evicted
+ * when the cache is full. Access is synchronized, so callers should load values outside the cache and then
+ * {@link #put(Object, Object)} them, rather than holding the lock while a slow lookup runs.
+ *
+ * Hit, miss, eviction and size metrics are published to Micrometer using the same meter names as Spring's cache
+ * metrics (<code>cache.gets</code>, <code>cache.evictions</code>, <code>cache.size</code>), tagged with the cache name.
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the cached values
+ */
+class ExpiringLruCache<K, V> implements MeterBinder {
+
+	private final String name;
+	private final int maximumSize;
+	private final Duration timeToLive;
+	private final Clock clock;
+	private final Map<K, CacheEntry<V>> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param name
+	 *            name used to tag the cache's metrics
+	 * @param maximumSize
+	 *            maximum number of entries to hold
+	 * @param timeToLive
+	 *            length of time an entry remains valid after it is added
+	 * @param clock
+	 *            clock used to determine when entries expire
+	 */
+	ExpiringLruCache(String name, int maximumSize, Duration timeToLive, Clock clock) {
+		Assert.hasText(name, "Cache name is required");
+		Assert.isTrue(maximumSize > 0, "Maximum size must be greater than zero");
+		Assert.notNull(timeToLive, "Time to live is required");
+		Assert.notNull(clock, "Clock is required");
+		this.name = name;
+		this.maximumSize = maximumSize;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				if (size() > ExpiringLruCache.this.maximumSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * Gets a value that has not expired. An expired entry is removed and counted as evicted.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the cached value, or null if there is no valid entry
+	 */
+	synchronized V get(K key) {
+		CacheEntry<V> entry = entries.get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		if (entry.isExpired(clock.instant())) {
+			entries.remove(key);
+			evictionCount.incrementAndGet();
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Adds or replaces a value. It expires after the cache's time-to-live.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value to cache
+	 */
+	synchronized void put(K key, V value) {
+		Assert.notNull(value, "Value is required");
+		entries.put(key, new CacheEntry<>(value, clock.instant().plus(timeToLive)));
+	}
+
+	/**
+	 * Removes the entry for a key, if there is one.
+	 *
+	 * @param key
+	 *            the key
+	 */
+	synchronized void evict(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	synchronized void evictAll() {
+		entries.clear();
+	}
+
+	/**
+	 * Gets the number of entries currently held, including any that have expired but not yet been removed.
+	 *
+	 * @return the number of cached entries
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of lookups that found a valid entry
+	 */
+	long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a valid entry
+	 */
+	long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of entries removed because the cache was full or the entry had expired
+	 */
+	long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("cache.gets", this, ExpiringLruCache::getHitCount)
+				.tag("cache", name)
+				.tag("result", "hit")
+				.description("The number of times cache lookup methods have returned a cached value.")
+				.register(registry);
+		FunctionCounter.builder("cache.gets", this, ExpiringLruCache::getMissCount)
+				.tag("cache", name)
+				.tag("result", "miss")
+				.description("The number of times cache lookup methods have not returned a value.")
+				.register(registry);
+		FunctionCounter.builder("cache.evictions", this, ExpiringLruCache::getEvictionCount)
+				.tag("cache", name)
+				.description("The number of entries evicted because the cache was full or the entry expired.")
+				.register(registry);
+		Gauge.builder("cache.size", this, ExpiringLruCache::size)
+				.tag("cache", name)
+				.description("The number of entries in the cache.")
+				.register(registry);
+	}
+
+	/**
+	 * A cached value and the time it expires.
+	 */
+	private static class CacheEntry<V> {
+
+		private final V value;
+		private final Instant expiresAt;
+
+		CacheEntry(V value, Instant expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(Instant now) {
+			return !now.isBefore(expiresAt);
+		}
+
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.octri.authentication.server.security;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A {@link UserDetailsCache} that holds a bounded number of entries in memory. Entries expire after a fixed
+ * time-to-live, and the least recently used entry is evicted when the cache is full.
+ *
+ * Hit, miss, eviction and size metrics are published to Micrometer using the same meter names as Spring's cache
+ * metrics (<code>cache.gets</code>, <code>cache.evictions</code>, <code>cache.size</code>), tagged with
+ * <code>cache=userDetails</code>.
+ */
+public class InMemoryUserDetailsCache implements UserDetailsCache, MeterBinder {
+
+	/**
+	 * Name used to tag the cache's metrics.
+	 */
+	public static final String CACHE_NAME = "userDetails";
+
+	private final ExpiringLruCache<String, UserDetails> cache;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maximumSize
+	 *            maximum number of entries to hold
+	 * @param timeToLive
+	 *            length of time an entry remains valid after it is added
+	 */
+	public InMemoryUserDetailsCache(int maximumSize, Duration timeToLive) {
+		this(maximumSize, timeToLive, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maximumSize
+	 *            maximum number of entries to hold
+	 * @param timeToLive
+	 *            length of time an entry remains valid after it is added
+	 * @param clock
+	 *            clock used to determine when entries expire
+	 */
+	public InMemoryUserDetailsCache(int maximumSize, Duration timeToLive, Clock clock) {
+		this.cache = new ExpiringLruCache<>(CACHE_NAME, maximumSize, timeToLive, clock);
+	}
+
+	@Override
+	public UserDetails get(String username) {
+		return cache.get(username);
+	}
+
+	@Override
+	public void put(String username, UserDetails userDetails) {
+		cache.put(username, userDetails);
+	}
+
+	@Override
+	public void evict(String username) {
+		cache.evict(username);
+	}
+
+	@Override
+	public void evictAll() {
+		cache.evictAll();
+	}
+
+	/**
+	 * Gets the number of entries currently held, including any that have expired but not yet been removed.
+	 *
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the number of lookups that found a valid entry
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a valid entry
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * @return the number of entries removed because the cache was full or the entry had expired
+	 */
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		cache.bindTo(registry);
+	}
+
+}
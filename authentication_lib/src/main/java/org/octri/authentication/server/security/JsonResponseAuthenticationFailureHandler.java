@@ -25,7 +25,7 @@ public class JsonResponseAuthenticationFailureHandler extends AuditLoginAuthenti
 			AuthenticationException exception) throws IOException, ServletException {
 		String username = request.getParameter("username");
 
-		recordLoginFailure(username, exception.getMessage(), request);
+		recordLoginFailure(username, exception, request);
 		recordUserFailedAttempts(username, exception);
 
 		response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -0,0 +1,53 @@
+package org.octri.authentication.server.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of looking up many usernames in the directory.
+ *
+ * @see LdapBatchUserLookup
+ */
+public class LdapBatchLookupResult {
+
+	private final Map<String, LdapUserAttributes> found = new LinkedHashMap<>();
+	private final List<String> notFound = new ArrayList<>();
+	private final List<String> failed = new ArrayList<>();
+
+	void addFound(String username, LdapUserAttributes attributes) {
+		found.put(username, attributes);
+	}
+
+	void addNotFound(String username) {
+		notFound.add(username);
+	}
+
+	void addFailed(List<String> usernames) {
+		failed.addAll(usernames);
+	}
+
+	/**
+	 * @return the attributes of each user found in the directory, keyed by the username that was requested
+	 */
+	public Map<String, LdapUserAttributes> getFound() {
+		return Collections.unmodifiableMap(found);
+	}
+
+	/**
+	 * @return the usernames that are not in the directory
+	 */
+	public List<String> getNotFound() {
+		return Collections.unmodifiableList(notFound);
+	}
+
+	/**
+	 * @return the usernames that could not be looked up because a directory search failed
+	 */
+	public List<String> getFailed() {
+		return Collections.unmodifiableList(failed);
+	}
+
+}
@@ -0,0 +1,224 @@
+package org.octri.authentication.server.security;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.SearchControls;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.LdapContextProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.ldap.core.AttributesMapper;
+import org.springframework.ldap.core.ContextSource;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.support.LdapEncoder;
+import org.springframework.util.Assert;
+
+/**
+ * Looks up many usernames in the directory with a few searches. Usernames are split into chunks, and each chunk is
+ * found with a single search whose filter ORs together the configured search filter for each username, for example
+ * <code>(|(uid=a)(uid=b)(uid=c))</code>. Chunks are searched concurrently, so the connection pool should be enabled.
+ *
+ * Results are matched to the requested usernames using the username attribute, ignoring case as directories do. The
+ * attribute is read from the search filter unless it is configured.
+ *
+ * @see LdapContextProperties.BatchLookup
+ */
+public class LdapBatchUserLookup implements DisposableBean {
+
+	private static final Log log = LogFactory.getLog(LdapBatchUserLookup.class);
+
+	private static final Pattern USERNAME_ATTRIBUTE_PATTERN = Pattern.compile("\\(([\\w.;-]+)=\\{0\\}\\)");
+
+	private final LdapTemplate ldapTemplate;
+	private final String searchBase;
+	private final String searchFilter;
+	private final String usernameAttribute;
+	private final int chunkSize;
+	private final ExecutorService executor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param contextSource
+	 *            context source used to search the directory, preferably pooled
+	 * @param ldapContextProperties
+	 *            LDAP configuration properties
+	 */
+	public LdapBatchUserLookup(ContextSource contextSource, LdapContextProperties ldapContextProperties) {
+		var batchLookup = ldapContextProperties.getBatchLookup();
+		Assert.isTrue(batchLookup.getChunkSize() > 0, "LDAP batch lookup chunk size must be greater than zero");
+		Assert.isTrue(batchLookup.getConcurrency() > 0, "LDAP batch lookup concurrency must be greater than zero");
+		this.ldapTemplate = new LdapTemplate(contextSource);
+		this.ldapTemplate.setIgnorePartialResultException(true);
+		this.searchBase = ldapContextProperties.getSearchBase();
+		this.searchFilter = ldapContextProperties.getSearchFilter();
+		this.usernameAttribute = StringUtils.isNotBlank(batchLookup.getUsernameAttribute())
+				? batchLookup.getUsernameAttribute()
+				: usernameAttribute(searchFilter);
+		this.chunkSize = batchLookup.getChunkSize();
+		this.executor = Executors.newFixedThreadPool(batchLookup.getConcurrency(), new LookupThreadFactory());
+	}
+
+	/**
+	 * Looks up the given usernames. Blank and repeated usernames are ignored.
+	 *
+	 * @param usernames
+	 *            usernames to look up
+	 * @return the users found, the usernames not found, and the usernames whose search failed
+	 * @throws IllegalStateException
+	 *             if the username attribute is not configured and cannot be read from the search filter
+	 */
+	public LdapBatchLookupResult lookup(Iterable<String> usernames) {
+		Assert.state(usernameAttribute != null, "Could not determine the LDAP username attribute from the search "
+				+ "filter " + searchFilter + ". Set ldap.context-source.batch-lookup.username-attribute.");
+		List<String> unique = new ArrayList<>(distinct(usernames));
+		List<List<String>> chunks = new ArrayList<>();
+		for (int i = 0; i < unique.size(); i += chunkSize) {
+			chunks.add(unique.subList(i, Math.min(i + chunkSize, unique.size())));
+		}
+
+		List<CompletableFuture<Map<String, LdapUserAttributes>>> searches = chunks.stream()
+				.map(chunk -> CompletableFuture.supplyAsync(() -> search(chunk), executor))
+				.toList();
+
+		var result = new LdapBatchLookupResult();
+		for (int i = 0; i < chunks.size(); i++) {
+			List<String> chunk = chunks.get(i);
+			Map<String, LdapUserAttributes> found;
+			try {
+				found = searches.get(i).join();
+			} catch (RuntimeException e) {
+				log.error("LDAP batch lookup of " + chunk.size() + " username(s) failed", e);
+				result.addFailed(chunk);
+				continue;
+			}
+			for (String username : chunk) {
+				LdapUserAttributes attributes = found.get(key(username));
+				if (attributes != null) {
+					result.addFound(username, attributes);
+				} else {
+					result.addNotFound(username);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the filter that finds all of the given usernames.
+	 *
+	 * @param usernames
+	 *            usernames to find
+	 * @return an OR filter combining the search filter for each username
+	 */
+	String chunkFilter(List<String> usernames) {
+		var filter = new StringBuilder("(|");
+		for (String username : usernames) {
+			filter.append(searchFilter.replace("{0}", LdapEncoder.filterEncode(username)));
+		}
+		return filter.append(')').toString();
+	}
+
+	/**
+	 * Reads the username attribute from a search filter that contains a term such as <code>(uid={0})</code>.
+	 *
+	 * @param searchFilter
+	 *            the search filter
+	 * @return the name of the attribute compared with the username, or null if the filter has no such term
+	 */
+	static String usernameAttribute(String searchFilter) {
+		Matcher matcher = USERNAME_ATTRIBUTE_PATTERN.matcher(StringUtils.defaultString(searchFilter));
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
+	/**
+	 * Stops the search threads.
+	 */
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private Map<String, LdapUserAttributes> search(List<String> chunk) {
+		var controls = new SearchControls();
+		controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+		controls.setReturningAttributes(new String[] { usernameAttribute, "givenName", "sn", "mail" });
+
+		List<Map.Entry<String, LdapUserAttributes>> entries = ldapTemplate.search(searchBase, chunkFilter(chunk),
+				controls, (AttributesMapper<Map.Entry<String, LdapUserAttributes>>) attributes -> new SimpleEntry<>(
+						stringValue(attributes, usernameAttribute),
+						new LdapUserAttributes(stringValue(attributes, "givenName"), stringValue(attributes, "sn"),
+								stringValue(attributes, "mail"))));
+
+		Map<String, LdapUserAttributes> found = new HashMap<>();
+		for (var entry : entries) {
+			if (entry.getKey() == null) {
+				continue;
+			}
+			if (found.putIfAbsent(key(entry.getKey()), entry.getValue()) != null) {
+				log.warn("More than one directory entry matches username " + entry.getKey()
+						+ ". Using the first.");
+			}
+		}
+		return found;
+	}
+
+	private static String stringValue(Attributes attributes, String name) throws NamingException {
+		Attribute attribute = attributes.get(name);
+		if (attribute == null || attribute.size() == 0) {
+			return null;
+		}
+		Object value = attribute.get();
+		return value == null ? null : value.toString();
+	}
+
+	private static Collection<String> distinct(Iterable<String> usernames) {
+		Map<String, String> unique = new LinkedHashMap<>();
+		for (String username : usernames) {
+			if (StringUtils.isNotBlank(username)) {
+				unique.putIfAbsent(key(username), username);
+			}
+		}
+		return unique.values();
+	}
+
+	private static String key(String username) {
+		return username.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Creates named daemon threads for directory searches.
+	 */
+	private static class LookupThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "ldap-batch-lookup-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
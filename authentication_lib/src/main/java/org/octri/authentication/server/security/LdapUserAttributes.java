@@ -0,0 +1,63 @@
+package org.octri.authentication.server.security;
+
+import org.springframework.ldap.core.DirContextOperations;
+
+/**
+ * The directory attributes used to fill in a new user account.
+ */
+public class LdapUserAttributes {
+
+	private final String firstName;
+	private final String lastName;
+	private final String email;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param firstName
+	 *            the user's first name (givenName)
+	 * @param lastName
+	 *            the user's last name (sn)
+	 * @param email
+	 *            the user's email address (mail)
+	 */
+	public LdapUserAttributes(String firstName, String lastName, String email) {
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.email = email;
+	}
+
+	/**
+	 * Reads the attributes from a directory entry.
+	 *
+	 * @param entry
+	 *            directory entry for the user
+	 * @return the user's attributes
+	 */
+	public static LdapUserAttributes from(DirContextOperations entry) {
+		return new LdapUserAttributes(entry.getStringAttribute("givenName"), entry.getStringAttribute("sn"),
+				entry.getStringAttribute("mail"));
+	}
+
+	/**
+	 * @return the user's first name
+	 */
+	public String getFirstName() {
+		return firstName;
+	}
+
+	/**
+	 * @return the user's last name
+	 */
+	public String getLastName() {
+		return lastName;
+	}
+
+	/**
+	 * @return the user's email address
+	 */
+	public String getEmail() {
+		return email;
+	}
+
+}
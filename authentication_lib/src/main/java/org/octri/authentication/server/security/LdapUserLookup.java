@@ -0,0 +1,134 @@
+package org.octri.authentication.server.security;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.octri.authentication.config.LdapContextProperties;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Looks up users in the directory when an administrator creates an LDAP account. The administrator's form looks users
+ * up as the username is typed, so results are cached for a short time in a bounded, least recently used cache. Users
+ * that were not found are not cached, so a user added to the directory can be found straight away.
+ *
+ * Hit, miss, eviction and size metrics are published to Micrometer with the same meter names as
+ * {@link InMemoryUserDetailsCache}, tagged with <code>cache=ldapLookup</code>.
+ *
+ * @see LdapContextProperties.LookupCache
+ */
+public class LdapUserLookup implements MeterBinder {
+
+	/**
+	 * Name used to tag the cache's metrics.
+	 */
+	public static final String CACHE_NAME = "ldapLookup";
+
+	private final FilterBasedLdapUserSearch ldapSearch;
+	private final boolean caching;
+	private final ExpiringLruCache<String, LdapUserAttributes> cache;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param ldapSearch
+	 *            search used to find users in the directory
+	 * @param maximumSize
+	 *            maximum number of usernames to cache
+	 * @param timeToLive
+	 *            length of time a result remains valid, or zero to disable caching
+	 */
+	public LdapUserLookup(FilterBasedLdapUserSearch ldapSearch, int maximumSize, Duration timeToLive) {
+		this(ldapSearch, maximumSize, timeToLive, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param ldapSearch
+	 *            search used to find users in the directory
+	 * @param maximumSize
+	 *            maximum number of usernames to cache
+	 * @param timeToLive
+	 *            length of time a result remains valid, or zero to disable caching
+	 * @param clock
+	 *            clock used to determine when results expire
+	 */
+	public LdapUserLookup(FilterBasedLdapUserSearch ldapSearch, int maximumSize, Duration timeToLive, Clock clock) {
+		Assert.notNull(ldapSearch, "LDAP search is required");
+		Assert.notNull(timeToLive, "Time to live is required");
+		this.ldapSearch = ldapSearch;
+		this.caching = !timeToLive.isNegative() && !timeToLive.isZero();
+		this.cache = new ExpiringLruCache<>(CACHE_NAME, maximumSize, timeToLive, clock);
+	}
+
+	/**
+	 * Finds a user in the directory.
+	 *
+	 * @param username
+	 *            username to search for
+	 * @return the user's name and email address
+	 * @throws UsernameNotFoundException
+	 *             if the user is not in the directory
+	 */
+	public LdapUserAttributes lookup(String username) {
+		if (!caching) {
+			return LdapUserAttributes.from(ldapSearch.searchForUser(username));
+		}
+
+		// Search outside the cache's lock, so a slow search does not block lookups of other usernames
+		LdapUserAttributes attributes = cache.get(username);
+		if (attributes == null) {
+			attributes = LdapUserAttributes.from(ldapSearch.searchForUser(username));
+			cache.put(username, attributes);
+		}
+		return attributes;
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void evictAll() {
+		cache.evictAll();
+	}
+
+	/**
+	 * Gets the number of entries currently held, including any that have expired but not yet been removed.
+	 *
+	 * @return the number of cached entries
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	/**
+	 * @return the number of lookups that searched the directory
+	 */
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	/**
+	 * @return the number of entries removed because the cache was full or the entry had expired
+	 */
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		cache.bindTo(registry);
+	}
+
+}
@@ -0,0 +1,51 @@
+package org.octri.authentication.server.security;
+
+import org.octri.authentication.config.LdapContextProperties;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
+import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.ldap.pool2.factory.PoolingContextSource;
+import org.springframework.ldap.pool2.validation.DefaultDirContextValidator;
+
+/**
+ * A pool of read-only directory connections that bind as the configured service account. Used to search for users,
+ * so that each search reuses an open connection instead of connecting and binding again.
+ *
+ * {@link PoolingContextSource} already provides the base path of the wrapped context source. This subclass declares
+ * {@link BaseLdapPathContextSource} so it can be passed to Spring Security's user search. Authenticating a user binds
+ * with that user's credentials, which the pool does not support, so the unpooled {@link LdapContextSource} must still
+ * be used for authentication.
+ *
+ * @see LdapContextProperties.Pool
+ */
+public class PooledLdapContextSource extends PoolingContextSource implements BaseLdapPathContextSource {
+
+	/**
+	 * Constructor.
+	 *
+	 * @param contextSource
+	 *            context source used to open new connections
+	 * @param pool
+	 *            pool configuration
+	 */
+	public PooledLdapContextSource(LdapContextSource contextSource, LdapContextProperties.Pool pool) {
+		super(poolConfig(pool));
+		setContextSource(contextSource);
+		setDirContextValidator(new DefaultDirContextValidator());
+	}
+
+	private static PoolConfig poolConfig(LdapContextProperties.Pool pool) {
+		PoolConfig config = new PoolConfig();
+		config.setMaxTotal(pool.getMaxActive());
+		config.setMaxTotalPerKey(pool.getMaxActive());
+		config.setMaxIdlePerKey(pool.getMaxIdle());
+		config.setMinIdlePerKey(pool.getMinIdle());
+		config.setMaxWaitMillis(pool.getMaxWait().toMillis());
+		config.setTestOnBorrow(pool.getTestOnBorrow());
+		config.setTestWhileIdle(pool.getTestWhileIdle());
+		config.setTimeBetweenEvictionRunsMillis(pool.getTimeBetweenEvictionRuns().toMillis());
+		config.setMinEvictableIdleTimeMillis(pool.getMinEvictableIdleTime().toMillis());
+		return config;
+	}
+
+}
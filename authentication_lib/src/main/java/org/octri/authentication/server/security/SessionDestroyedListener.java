@@ -1,6 +1,7 @@
 package org.octri.authentication.server.security;
 
 import org.octri.authentication.server.security.entity.SessionEvent.EventType;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.SessionEventService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
@@ -8,7 +9,9 @@ import org.springframework.security.core.session.SessionDestroyedEvent;
 import org.springframework.stereotype.Component;
 
 /**
- * Listener that logs session destroyed events. Triggered by both user-initiated logout and session timeout.
+ * Listener that logs session destroyed events. Triggered by both user-initiated logout and session timeout. When many
+ * sessions expire at once, enable octri.authentication.session-events.logout-batching-enabled so that the thread
+ * destroying sessions only queues the logouts.
  */
 @Component
 public class SessionDestroyedListener implements ApplicationListener<SessionDestroyedEvent> {
@@ -16,8 +19,14 @@ public class SessionDestroyedListener implements ApplicationListener<SessionDest
 	@Autowired
 	private SessionEventService sessionEventService;
 
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	@Override
 	public void onApplicationEvent(SessionDestroyedEvent event) {
+		if (authenticationMetrics != null) {
+			authenticationMetrics.sessionDestroyed(event.getId());
+		}
 		sessionEventService.logEvent(EventType.LOGOUT, event.getId(), null);
 	}
 
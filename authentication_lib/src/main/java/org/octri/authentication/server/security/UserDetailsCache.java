@@ -0,0 +1,73 @@
+package org.octri.authentication.server.security;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A cache of {@link UserDetails} used by {@link AuthenticationUserDetailsService} to avoid loading the user and their
+ * roles from the database on every authentication.
+ *
+ * Implementations must be thread-safe. Entries are evicted by the library whenever a user account or its role grants
+ * change, so that locking or disabling an account takes effect immediately. Applications may provide their own bean
+ * implementing this interface, for example to share a cache between nodes.
+ *
+ * @see InMemoryUserDetailsCache
+ */
+public interface UserDetailsCache {
+
+	/**
+	 * Gets the cached user details for the given username.
+	 *
+	 * @param username
+	 *            the username to look up
+	 * @return the cached user details, or null if the username is not cached
+	 */
+	UserDetails get(String username);
+
+	/**
+	 * Adds user details to the cache.
+	 *
+	 * @param username
+	 *            the username the details were loaded for
+	 * @param userDetails
+	 *            the user details to cache
+	 */
+	void put(String username, UserDetails userDetails);
+
+	/**
+	 * Removes the entry for the given username, if present.
+	 *
+	 * @param username
+	 *            the username to evict
+	 */
+	void evict(String username);
+
+	/**
+	 * Removes the entry for the given username once the current transaction commits, or immediately if there is no
+	 * transaction. Evicting before the commit would let a concurrent login cache the row as it was before the change.
+	 *
+	 * @param username
+	 *            the username to evict
+	 */
+	default void evictAfterCommit(String username) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			evict(username);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				evict(username);
+			}
+
+		});
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	void evictAll();
+
+}
@@ -0,0 +1,229 @@
+package org.octri.authentication.server.security.bulkimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.export.ExportFormat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the rows of a bulk user import from CSV or JSON.
+ *
+ * CSV files must have a header row. JSON files must contain an array of objects. Columns (or properties) are matched
+ * ignoring case, spaces, dashes, and underscores: username, email, firstName, lastName, institution,
+ * authenticationMethod, and roles. Other columns are ignored. Roles are role names separated by semicolons, or a JSON
+ * array of role names.
+ */
+public final class UserImportParser {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final String USERNAME = "username";
+	private static final String EMAIL = "email";
+	private static final String FIRST_NAME = "firstname";
+	private static final String LAST_NAME = "lastname";
+	private static final String INSTITUTION = "institution";
+	private static final String AUTHENTICATION_METHOD = "authenticationmethod";
+	private static final String ROLES = "roles";
+
+	private UserImportParser() {
+		// utility class
+	}
+
+	/**
+	 * Reads the rows of an import file.
+	 *
+	 * @param in
+	 *            the file contents, encoded as UTF-8
+	 * @param format
+	 *            the file format
+	 * @param maximumRows
+	 *            the maximum number of rows allowed
+	 * @return the rows in the file
+	 * @throws UserManagementException
+	 *             if the file is malformed or has too many rows
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static List<UserImportRow> parse(InputStream in, ExportFormat format, int maximumRows)
+			throws UserManagementException, IOException {
+		return format == ExportFormat.JSON ? parseJson(in, maximumRows) : parseCsv(in, maximumRows);
+	}
+
+	private static List<UserImportRow> parseJson(InputStream in, int maximumRows)
+			throws UserManagementException, IOException {
+		List<UserImportRow> rows = new ArrayList<>();
+		try (JsonParser parser = OBJECT_MAPPER.createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new UserManagementException("The import file must contain a JSON array of users.");
+			}
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				checkRowCount(rows.size() + 1, maximumRows);
+				JsonNode node = parser.readValueAsTree();
+				Map<String, String> values = new HashMap<>();
+				List<String> roles = List.of();
+				for (Map.Entry<String, JsonNode> field : node.properties()) {
+					String key = normalizeKey(field.getKey());
+					JsonNode value = field.getValue();
+					if (ROLES.equals(key)) {
+						roles = value.isArray() ? splitRoles(value) : splitRoles(value.asText());
+					} else if (value.isValueNode() && !value.isNull()) {
+						values.put(key, value.asText());
+					}
+				}
+				rows.add(toRow(rows.size() + 1, values, roles));
+			}
+			if (parser.currentToken() != JsonToken.END_ARRAY) {
+				throw new UserManagementException("Each user in the import file must be a JSON object.");
+			}
+		} catch (JsonProcessingException e) {
+			throw new UserManagementException("The import file is not valid JSON: " + e.getOriginalMessage());
+		}
+		return rows;
+	}
+
+	private static List<UserImportRow> parseCsv(InputStream in, int maximumRows)
+			throws UserManagementException, IOException {
+		var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		reader.mark(1);
+		if (reader.read() != '\uFEFF') {
+			reader.reset();
+		}
+
+		List<String> header = readRecord(reader);
+		if (header == null) {
+			throw new UserManagementException("The import file is empty.");
+		}
+		List<String> keys = header.stream().map(UserImportParser::normalizeKey).collect(Collectors.toList());
+		if (!keys.contains(USERNAME)) {
+			throw new UserManagementException("The import file must have a header row with a username column.");
+		}
+
+		List<UserImportRow> rows = new ArrayList<>();
+		List<String> record;
+		while ((record = readRecord(reader)) != null) {
+			if (record.size() == 1 && record.get(0).isEmpty()) {
+				continue;
+			}
+			checkRowCount(rows.size() + 1, maximumRows);
+			Map<String, String> values = new HashMap<>();
+			for (int i = 0; i < Math.min(keys.size(), record.size()); i++) {
+				values.put(keys.get(i), record.get(i));
+			}
+			rows.add(toRow(rows.size() + 1, values, splitRoles(values.get(ROLES))));
+		}
+		return rows;
+	}
+
+	/**
+	 * Reads one RFC 4180 record. Fields may be quoted, and quoted fields may contain commas, doubled quotes, and line
+	 * breaks.
+	 *
+	 * @return the fields of the record, or null at the end of the input
+	 */
+	static List<String> readRecord(Reader reader) throws IOException, UserManagementException {
+		int c = reader.read();
+		if (c == -1) {
+			return null;
+		}
+
+		List<String> fields = new ArrayList<>();
+		var field = new StringBuilder();
+		boolean quoted = false;
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new UserManagementException("The import file has an unterminated quoted field.");
+				} else if (c == '"') {
+					reader.mark(1);
+					int next = reader.read();
+					if (next == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						reader.reset();
+					}
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				if (c == '\r') {
+					reader.mark(1);
+					if (reader.read() != '\n') {
+						reader.reset();
+					}
+				}
+				fields.add(field.toString());
+				return fields;
+			} else {
+				field.append((char) c);
+			}
+			c = reader.read();
+		}
+	}
+
+	private static void checkRowCount(int rowCount, int maximumRows) throws UserManagementException {
+		if (rowCount > maximumRows) {
+			throw new UserManagementException("The import file has more than " + maximumRows + " rows.");
+		}
+	}
+
+	private static UserImportRow toRow(int rowNumber, Map<String, String> values, List<String> roles) {
+		return new UserImportRow(rowNumber, value(values, USERNAME), value(values, EMAIL),
+				value(values, FIRST_NAME), value(values, LAST_NAME), value(values, INSTITUTION),
+				value(values, AUTHENTICATION_METHOD), roles);
+	}
+
+	private static String value(Map<String, String> values, String key) {
+		return StringUtils.trimToNull(values.get(key));
+	}
+
+	private static List<String> splitRoles(String roles) {
+		if (StringUtils.isBlank(roles)) {
+			return List.of();
+		}
+		return Arrays.stream(roles.split(";")).map(String::trim).filter(StringUtils::isNotEmpty)
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> splitRoles(JsonNode roles) {
+		List<String> names = new ArrayList<>();
+		roles.forEach(role -> {
+			if (StringUtils.isNotBlank(role.asText())) {
+				names.add(role.asText().trim());
+			}
+		});
+		return names;
+	}
+
+	/**
+	 * Normalizes a column or property name for matching: lower case, without spaces, dashes, or underscores.
+	 */
+	private static String normalizeKey(String key) {
+		return key.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+	}
+
+}
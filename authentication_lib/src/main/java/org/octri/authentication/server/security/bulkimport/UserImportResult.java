@@ -0,0 +1,58 @@
+package org.octri.authentication.server.security.bulkimport;
+
+import java.util.List;
+
+/**
+ * Report of a bulk user import: how many rows were read and imported, and why the others were not.
+ */
+public class UserImportResult {
+
+	private final int totalRows;
+	private final int importedCount;
+	private final List<UserImportRowError> errors;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param totalRows
+	 *            number of rows read from the file
+	 * @param importedCount
+	 *            number of users created
+	 * @param errors
+	 *            errors for the rows that were not imported, in row order
+	 */
+	public UserImportResult(int totalRows, int importedCount, List<UserImportRowError> errors) {
+		this.totalRows = totalRows;
+		this.importedCount = importedCount;
+		this.errors = List.copyOf(errors);
+	}
+
+	/**
+	 * @return the number of rows read from the file
+	 */
+	public int getTotalRows() {
+		return totalRows;
+	}
+
+	/**
+	 * @return the number of users created
+	 */
+	public int getImportedCount() {
+		return importedCount;
+	}
+
+	/**
+	 * @return the number of rows that were not imported
+	 */
+	public int getFailedCount() {
+		return errors.size();
+	}
+
+	/**
+	 * @return errors for the rows that were not imported, in row order
+	 */
+	public List<UserImportRowError> getErrors() {
+		return errors;
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.octri.authentication.server.security.bulkimport;
+
+import java.util.List;
+
+/**
+ * A row of a bulk user import, as read from the uploaded file. Blank values are null.
+ */
+public class UserImportRow {
+
+	private final int rowNumber;
+	private final String username;
+	private final String email;
+	private final String firstName;
+	private final String lastName;
+	private final String institution;
+	private final String authenticationMethod;
+	private final List<String> roles;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param rowNumber
+	 *            1-based number of the row in the file, not counting the CSV header
+	 * @param username
+	 *            username
+	 * @param email
+	 *            email address
+	 * @param firstName
+	 *            first name
+	 * @param lastName
+	 *            last name
+	 * @param institution
+	 *            institution
+	 * @param authenticationMethod
+	 *            name of the authentication method
+	 * @param roles
+	 *            names of the roles to grant
+	 */
+	public UserImportRow(int rowNumber, String username, String email, String firstName, String lastName,
+			String institution, String authenticationMethod, List<String> roles) {
+		this.rowNumber = rowNumber;
+		this.username = username;
+		this.email = email;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.institution = institution;
+		this.authenticationMethod = authenticationMethod;
+		this.roles = roles == null ? List.of() : List.copyOf(roles);
+	}
+
+	/**
+	 * @return the 1-based row number
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+
+	/**
+	 * @return the username
+	 */
+	public String getUsername() {
+		return username;
+	}
+
+	/**
+	 * @return the email address
+	 */
+	public String getEmail() {
+		return email;
+	}
+
+	/**
+	 * @return the first name
+	 */
+	public String getFirstName() {
+		return firstName;
+	}
+
+	/**
+	 * @return the last name
+	 */
+	public String getLastName() {
+		return lastName;
+	}
+
+	/**
+	 * @return the institution
+	 */
+	public String getInstitution() {
+		return institution;
+	}
+
+	/**
+	 * @return the name of the authentication method
+	 */
+	public String getAuthenticationMethod() {
+		return authenticationMethod;
+	}
+
+	/**
+	 * @return the names of the roles to grant
+	 */
+	public List<String> getRoles() {
+		return roles;
+	}
+
+}
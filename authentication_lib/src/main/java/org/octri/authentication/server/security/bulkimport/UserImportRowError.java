@@ -0,0 +1,51 @@
+package org.octri.authentication.server.security.bulkimport;
+
+import java.util.List;
+
+/**
+ * The reasons a row of a bulk user import was not imported.
+ */
+public class UserImportRowError {
+
+	private final int rowNumber;
+	private final String username;
+	private final List<String> messages;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param rowNumber
+	 *            1-based number of the row in the file
+	 * @param username
+	 *            username in the row, if any
+	 * @param messages
+	 *            reasons the row was not imported
+	 */
+	public UserImportRowError(int rowNumber, String username, List<String> messages) {
+		this.rowNumber = rowNumber;
+		this.username = username;
+		this.messages = List.copyOf(messages);
+	}
+
+	/**
+	 * @return the 1-based row number
+	 */
+	public int getRowNumber() {
+		return rowNumber;
+	}
+
+	/**
+	 * @return the username in the row, or null
+	 */
+	public String getUsername() {
+		return username;
+	}
+
+	/**
+	 * @return the reasons the row was not imported
+	 */
+	public List<String> getMessages() {
+		return messages;
+	}
+
+}
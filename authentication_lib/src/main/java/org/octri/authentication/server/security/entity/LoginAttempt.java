@@ -24,6 +24,9 @@ import jakarta.validation.constraints.NotNull;
  *
  * Adapted from Chimera's LoginAttempt.
  *
+ * The username and error type columns are TEXT and are indexed by prefix in the setup migrations. JPA index metadata
+ * can't express a prefix length, so those indexes are not declared here.
+ *
  * @author lawhead
  * @author harrelst
  *
@@ -8,8 +8,10 @@ import org.octri.common.domain.AbstractEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 
@@ -20,6 +22,8 @@ import jakarta.validation.constraints.NotNull;
  * @author sams
  */
 @Entity
+@Table(indexes = {
+		@Index(name = "password_reset_token_user_expiry_date_idx", columnList = "user, expiry_date") })
 public class PasswordResetToken extends AbstractEntity {
 
 	/**
@@ -10,6 +10,10 @@ import jakarta.validation.constraints.NotNull;
 
 /**
  * Entity for logging session events.
+ *
+ * A session may have at most one login and one logout event. This is enforced by a unique functional index in the
+ * setup migrations that excludes impersonation events and also serves lookups by session ID. JPA index metadata can't
+ * express it, so it is not declared here.
  */
 @Entity
 public class SessionEvent extends AbstractEntity {
@@ -0,0 +1,46 @@
+package org.octri.authentication.server.security.entity;
+
+import org.octri.common.view.Labelled;
+
+/**
+ * Account states that the admin user list can be filtered by.
+ */
+public enum UserStatus implements Labelled {
+
+	/**
+	 * The account is enabled for login
+	 */
+	ENABLED("Enabled"),
+
+	/**
+	 * The account is disabled
+	 */
+	DISABLED("Disabled"),
+
+	/**
+	 * The account has been locked by failed login attempts
+	 */
+	LOCKED("Locked"),
+
+	/**
+	 * The account expiration date has passed
+	 */
+	ACCOUNT_EXPIRED("Account Expired"),
+
+	/**
+	 * The credentials expiration date has passed
+	 */
+	CREDENTIALS_EXPIRED("Credentials Expired");
+
+	private String label;
+
+	UserStatus(String label) {
+		this.label = label;
+	}
+
+	@Override
+	public String getLabel() {
+		return this.label;
+	}
+
+}
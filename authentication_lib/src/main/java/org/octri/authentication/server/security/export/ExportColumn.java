@@ -0,0 +1,51 @@
+package org.octri.authentication.server.security.export;
+
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * A named column of an export, and the function that reads its value from a row.
+ *
+ * @param <T>
+ *            type of the exported rows
+ */
+public class ExportColumn<T> {
+
+	private final String name;
+	private final Function<T, ?> accessor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param name
+	 *            column name, used as the CSV header and JSON property name
+	 * @param accessor
+	 *            reads the column value from a row. May return null.
+	 */
+	public ExportColumn(String name, Function<T, ?> accessor) {
+		Assert.hasText(name, "Column name is required");
+		Assert.notNull(accessor, "Column accessor is required");
+		this.name = name;
+		this.accessor = accessor;
+	}
+
+	/**
+	 * @return the column name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Reads the column value from a row.
+	 *
+	 * @param row
+	 *            the exported row
+	 * @return the column value, or null
+	 */
+	public Object valueOf(T row) {
+		return accessor.apply(row);
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.octri.authentication.server.security.export;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats supported by the admin data exports and the bulk user import.
+ */
+public enum ExportFormat {
+
+	/**
+	 * Comma-separated values with a header row
+	 */
+	CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+
+	/**
+	 * A JSON array with one object per row
+	 */
+	JSON(MediaType.APPLICATION_JSON, "json");
+
+	private final MediaType mediaType;
+	private final String extension;
+
+	ExportFormat(MediaType mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	/**
+	 * Parses a format name, ignoring case.
+	 *
+	 * @param name
+	 *            format name, e.g. "csv" or "json"
+	 * @return the matching format
+	 * @throws IllegalArgumentException
+	 *             if the name does not match a supported format
+	 */
+	public static ExportFormat fromName(String name) {
+		return ExportFormat.valueOf(name.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * @return the content type of the exported file
+	 */
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * @return the file name extension of the exported file, without a leading dot
+	 */
+	public String getExtension() {
+		return extension;
+	}
+
+}
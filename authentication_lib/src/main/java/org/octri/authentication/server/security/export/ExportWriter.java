@@ -0,0 +1,187 @@
+package org.octri.authentication.server.security.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.util.Assert;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes a stream of rows to an output stream as CSV or JSON, one row at a time, so that memory use does not depend on
+ * the number of rows. Dates are written as ISO-8601 instants. The output stream is flushed but not closed.
+ *
+ * @param <T>
+ *            type of the exported rows
+ */
+public class ExportWriter<T> {
+
+	private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+			.build();
+
+	private final List<ExportColumn<T>> columns;
+	private final boolean defuseFormulas;
+
+	/**
+	 * Constructor for a writer whose CSV output is meant to be opened in a spreadsheet. Fields that a spreadsheet
+	 * would treat as a formula are prefixed with an apostrophe.
+	 *
+	 * @param columns
+	 *            the columns to write, in order
+	 */
+	public ExportWriter(List<ExportColumn<T>> columns) {
+		this(columns, true);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param columns
+	 *            the columns to write, in order
+	 * @param defuseFormulas
+	 *            whether to prefix CSV fields that a spreadsheet would treat as a formula with an apostrophe. If
+	 *            false, CSV fields are written unchanged, quoted as described in RFC 4180.
+	 */
+	public ExportWriter(List<ExportColumn<T>> columns, boolean defuseFormulas) {
+		Assert.notEmpty(columns, "At least one column is required");
+		this.columns = List.copyOf(columns);
+		this.defuseFormulas = defuseFormulas;
+	}
+
+	/**
+	 * Writes the rows in the given format. The stream is consumed but not closed.
+	 *
+	 * @param rows
+	 *            the rows to write
+	 * @param format
+	 *            the output format
+	 * @param out
+	 *            destination of the exported data
+	 * @return the number of rows written
+	 * @throws IOException
+	 *             if the data can't be written
+	 */
+	public long write(Stream<T> rows, ExportFormat format, OutputStream out) throws IOException {
+		Assert.notNull(format, "Export format is required");
+		return format == ExportFormat.JSON ? writeJson(rows.iterator(), out) : writeCsv(rows.iterator(), out, true);
+	}
+
+	/**
+	 * Writes the rows as CSV without a header row, to continue output that was started with
+	 * {@link #write(Stream, ExportFormat, OutputStream)}. The stream is consumed but not closed.
+	 *
+	 * @param rows
+	 *            the rows to write
+	 * @param out
+	 *            destination of the exported data
+	 * @return the number of rows written
+	 * @throws IOException
+	 *             if the data can't be written
+	 */
+	public long appendCsv(Stream<T> rows, OutputStream out) throws IOException {
+		return writeCsv(rows.iterator(), out, false);
+	}
+
+	private long writeCsv(Iterator<T> rows, OutputStream out, boolean header) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		if (header) {
+			for (int i = 0; i < columns.size(); i++) {
+				writer.write(i == 0 ? "" : ",");
+				writer.write(field(columns.get(i).getName()));
+			}
+			writer.write("\r\n");
+		}
+
+		long count = 0;
+		while (rows.hasNext()) {
+			T row = rows.next();
+			for (int i = 0; i < columns.size(); i++) {
+				writer.write(i == 0 ? "" : ",");
+				writer.write(field(format(columns.get(i).valueOf(row))));
+			}
+			writer.write("\r\n");
+			count++;
+		}
+		writer.flush();
+		return count;
+	}
+
+	private long writeJson(Iterator<T> rows, OutputStream out) throws IOException {
+		long count = 0;
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+			generator.writeStartArray();
+			while (rows.hasNext()) {
+				T row = rows.next();
+				generator.writeStartObject();
+				for (ExportColumn<T> column : columns) {
+					generator.writeFieldName(column.getName());
+					writeJsonValue(generator, column.valueOf(row));
+				}
+				generator.writeEndObject();
+				count++;
+			}
+			generator.writeEndArray();
+		}
+		return count;
+	}
+
+	private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+		if (value == null) {
+			generator.writeNull();
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (value instanceof Long || value instanceof Integer) {
+			generator.writeNumber(((Number) value).longValue());
+		} else {
+			generator.writeString(format(value));
+		}
+	}
+
+	private static String format(Object value) {
+		if (value == null) {
+			return "";
+		}
+		if (value instanceof Date) {
+			return ((Date) value).toInstant().toString();
+		}
+		return value.toString();
+	}
+
+	private String field(String value) {
+		return defuseFormulas ? csvField(value) : quoteCsv(value);
+	}
+
+	/**
+	 * Quotes a CSV field if needed. Fields that a spreadsheet would treat as a formula are prefixed with an apostrophe,
+	 * since usernames and error messages come from untrusted input.
+	 */
+	static String csvField(String value) {
+		if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+			return quoteCsv("'" + value);
+		}
+		return quoteCsv(value);
+	}
+
+	/**
+	 * Quotes a CSV field if it contains a comma, quote, or line break, as described in RFC 4180.
+	 */
+	static String quoteCsv(String value) {
+		if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+				|| value.indexOf('\r') >= 0) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+
+}
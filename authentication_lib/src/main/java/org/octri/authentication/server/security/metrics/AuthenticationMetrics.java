@@ -0,0 +1,390 @@
+package org.octri.authentication.server.security.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.octri.authentication.server.security.AuthenticationUserDetails;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.ldap.search.LdapUserSearch;
+import org.springframework.security.saml2.provider.service.authentication.Saml2Authentication;
+import org.springframework.security.saml2.provider.service.authentication.Saml2AuthenticationException;
+import org.springframework.util.Assert;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Publishes login outcomes and the time spent on the expensive steps of authentication to Micrometer, so that login
+ * latency can be broken down under load and lockout spikes can be alerted on.
+ *
+ * Logins are counted by the success and failure handlers, tagged with the authentication method and, for failures,
+ * the type of error. Timers are added by wrapping the password encoder, the LDAP context source and user search, and
+ * the SAML converters with the methods of this class. Every timer is tagged with an outcome of <code>success</code>
+ * or <code>failure</code>, where failure means an exception was thrown.
+ *
+ * Meters are registered once Spring Boot binds this class to the application's registry. Until then, and in
+ * applications without a registry, measurements are discarded.
+ *
+ * When an {@link ObservationRegistry} is set, each timed step, and each of the untimed steps observed with
+ * {@link #observe(String, Supplier, String...)}, is also reported as an {@link Observation} named
+ * <code>authlib.auth.*</code>. Observations started while another is in scope are nested inside it, so a configured
+ * tracer shows a login as a span for the authentication provider containing spans for loading the user, checking the
+ * password, and searching and binding to LDAP. Observations only carry low-cardinality key values, such as the
+ * method and outcome, and never the username.
+ */
+public class AuthenticationMetrics implements MeterBinder {
+
+	/**
+	 * Counter of completed logins, tagged with method, outcome and error.
+	 */
+	public static final String LOGINS = "authlib.logins";
+
+	/**
+	 * Counter of accounts locked after too many failed logins.
+	 */
+	public static final String LOCKOUTS = "authlib.lockouts";
+
+	/**
+	 * Gauge of sessions that have logged in on this instance and not yet ended.
+	 */
+	public static final String ACTIVE_SESSIONS = "authlib.sessions.active";
+
+	/**
+	 * Timer of password hashing, tagged with an operation of <code>encode</code> or <code>match</code>.
+	 */
+	public static final String PASSWORD_HASH = "authlib.password.hash";
+
+	/**
+	 * Timer of binds that check an LDAP user's password.
+	 */
+	public static final String LDAP_BIND = "authlib.ldap.bind";
+
+	/**
+	 * Timer of LDAP searches for the user logging in.
+	 */
+	public static final String LDAP_SEARCH = "authlib.ldap.search";
+
+	/**
+	 * Timer of SAML assertion validation.
+	 */
+	public static final String SAML_VALIDATE = "authlib.saml.validate";
+
+	/**
+	 * Timer of SAML response conversion.
+	 */
+	public static final String SAML_CONVERT = "authlib.saml.convert";
+
+	/**
+	 * Timer of account emails, tagged with the message type and a mode of <code>immediate</code> or
+	 * <code>queued</code>.
+	 */
+	public static final String EMAIL_SEND = "authlib.email.send";
+
+	/**
+	 * Observation of an authentication provider, with the authentication method as a key value.
+	 */
+	public static final String PROVIDER_OBSERVATION = "authlib.auth.provider";
+
+	/**
+	 * Observation of loading a user's details during authentication.
+	 */
+	public static final String USER_LOAD_OBSERVATION = "authlib.auth.user.load";
+
+	/**
+	 * Observation of recording a session event, with the event type as a key value.
+	 */
+	public static final String SESSION_EVENT_OBSERVATION = "authlib.auth.session.event";
+
+	/**
+	 * Observation of recording a login attempt, with a mode of <code>immediate</code> or <code>queued</code>.
+	 */
+	public static final String LOGIN_AUDIT_OBSERVATION = "authlib.auth.login.audit";
+
+	/**
+	 * Prefix of the observation names.
+	 */
+	static final String OBSERVATION_PREFIX = "authlib.auth.";
+
+	static final String OUTCOME = "outcome";
+	static final String SUCCESS = "success";
+	static final String FAILURE = "failure";
+
+	/**
+	 * Method tag used for form logins when both table-based and LDAP authentication are enabled, and the method that
+	 * failed cannot be known.
+	 */
+	static final String FORM_METHOD = "FORM";
+
+	static final String NO_ERROR = "none";
+
+	private final String formMethod;
+	private final Set<String> activeSessions = ConcurrentHashMap.newKeySet();
+
+	private volatile MeterRegistry registry = new CompositeMeterRegistry();
+	private volatile ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param enabledMethods
+	 *            the enabled authentication methods, used to tag form login failures
+	 */
+	public AuthenticationMetrics(Collection<AuthenticationMethod> enabledMethods) {
+		List<AuthenticationMethod> formMethods = new ArrayList<>(enabledMethods);
+		formMethods.remove(AuthenticationMethod.SAML);
+		this.formMethod = formMethods.size() == 1 ? formMethods.get(0).name() : FORM_METHOD;
+	}
+
+	/**
+	 * Sets the registry that observations are reported to. If not set, nothing is observed.
+	 *
+	 * @param observationRegistry
+	 *            observation registry
+	 */
+	public void setObservationRegistry(ObservationRegistry observationRegistry) {
+		Assert.notNull(observationRegistry, "Observation registry is required");
+		this.observationRegistry = observationRegistry;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder(ACTIVE_SESSIONS, activeSessions, Set::size)
+				.description("The number of sessions that have logged in on this instance and not yet ended.")
+				.register(registry);
+		this.registry = registry;
+	}
+
+	/**
+	 * Counts a successful login and adds the request's session to the active sessions.
+	 *
+	 * @param authentication
+	 *            the authenticated principal
+	 * @param request
+	 *            the login request
+	 */
+	public void recordLoginSuccess(Authentication authentication, HttpServletRequest request) {
+		loginCounter(methodOf(authentication), SUCCESS, NO_ERROR).increment();
+		HttpSession session = request.getSession(false);
+		if (session != null) {
+			activeSessions.add(session.getId());
+		}
+	}
+
+	/**
+	 * Counts a failed form login.
+	 *
+	 * @param exception
+	 *            the reason authentication failed
+	 */
+	public void recordLoginFailure(AuthenticationException exception) {
+		recordLoginFailure(null, exception);
+	}
+
+	/**
+	 * Counts a failed login.
+	 *
+	 * @param method
+	 *            the authentication method, or null for a form login
+	 * @param exception
+	 *            the reason authentication failed
+	 */
+	public void recordLoginFailure(AuthenticationMethod method, AuthenticationException exception) {
+		loginCounter(method == null ? formMethod : method.name(), FAILURE, errorOf(exception)).increment();
+	}
+
+	/**
+	 * Counts an account that was locked because of too many failed logins.
+	 */
+	public void recordLockout() {
+		Counter.builder(LOCKOUTS)
+				.description("The number of accounts locked after too many failed logins.")
+				.register(registry)
+				.increment();
+	}
+
+	/**
+	 * Removes an ended session from the active sessions.
+	 *
+	 * @param sessionId
+	 *            ID of the session that ended
+	 */
+	public void sessionDestroyed(String sessionId) {
+		activeSessions.remove(sessionId);
+	}
+
+	/**
+	 * Gets the number of sessions that have logged in on this instance and not yet ended.
+	 *
+	 * @return the number of active sessions
+	 */
+	public int getActiveSessionCount() {
+		return activeSessions.size();
+	}
+
+	/**
+	 * Runs a task and records its duration with the given timer name and tags, plus an outcome tag. The task is also
+	 * observed, with the timer's name under the <code>authlib.auth.</code> prefix.
+	 *
+	 * @param <T>
+	 *            the task's result type
+	 * @param name
+	 *            timer name
+	 * @param task
+	 *            the task to time
+	 * @param tags
+	 *            tag keys and values
+	 * @return the task's result
+	 */
+	public <T> T time(String name, Supplier<T> task, String... tags) {
+		Timer.Sample sample = Timer.start(registry);
+		String outcome = FAILURE;
+		try {
+			T result = observe(OBSERVATION_PREFIX + StringUtils.removeStart(name, "authlib."), task, tags);
+			outcome = SUCCESS;
+			return result;
+		} finally {
+			sample.stop(Timer.builder(name).tags(tags).tag(OUTCOME, outcome).register(registry));
+		}
+	}
+
+	/**
+	 * Runs a task inside an observation with the given name and low-cardinality key values, plus an outcome key value.
+	 * The task runs with the observation in scope, so that observations it starts are nested inside this one.
+	 *
+	 * @param <T>
+	 *            the task's result type
+	 * @param name
+	 *            observation name
+	 * @param task
+	 *            the task to observe
+	 * @param keyValues
+	 *            low-cardinality keys and values
+	 * @return the task's result
+	 */
+	public <T> T observe(String name, Supplier<T> task, String... keyValues) {
+		Observation observation = Observation.createNotStarted(name, observationRegistry)
+				.contextualName(StringUtils.removeStart(name, OBSERVATION_PREFIX).replace('.', ' '))
+				.lowCardinalityKeyValues(KeyValues.of(keyValues))
+				.start();
+		String outcome = FAILURE;
+		try (Observation.Scope scope = observation.openScope()) {
+			T result = task.get();
+			outcome = SUCCESS;
+			return result;
+		} catch (RuntimeException e) {
+			observation.error(e);
+			throw e;
+		} finally {
+			observation.lowCardinalityKeyValue(OUTCOME, outcome).stop();
+		}
+	}
+
+	/**
+	 * Wraps an authentication provider so that each authentication is observed, with the authentication method as a
+	 * key value.
+	 *
+	 * @param provider
+	 *            the provider to observe
+	 * @param method
+	 *            the authentication method the provider implements
+	 * @return an observed provider
+	 */
+	public AuthenticationProvider observed(AuthenticationProvider provider, AuthenticationMethod method) {
+		Assert.notNull(provider, "Authentication provider is required");
+		return new ObservedAuthenticationProvider(provider, method, this);
+	}
+
+	/**
+	 * Wraps a password encoder so that encoding and matching are timed.
+	 *
+	 * @param passwordEncoder
+	 *            the encoder to time
+	 * @return a timed encoder
+	 */
+	public PasswordEncoder timed(PasswordEncoder passwordEncoder) {
+		Assert.notNull(passwordEncoder, "Password encoder is required");
+		return new TimedPasswordEncoder(passwordEncoder, this);
+	}
+
+	/**
+	 * Wraps an LDAP user search so that searches are timed.
+	 *
+	 * @param userSearch
+	 *            the search to time
+	 * @return a timed search
+	 */
+	public LdapUserSearch timed(LdapUserSearch userSearch) {
+		Assert.notNull(userSearch, "User search is required");
+		return username -> time(LDAP_SEARCH, () -> userSearch.searchForUser(username));
+	}
+
+	/**
+	 * Wraps a SAML assertion validator or response converter so that each call is timed.
+	 *
+	 * @param <S>
+	 *            the source type
+	 * @param <T>
+	 *            the result type
+	 * @param name
+	 *            timer name, usually {@link #SAML_VALIDATE} or {@link #SAML_CONVERT}
+	 * @param converter
+	 *            the converter to time
+	 * @return a timed converter
+	 */
+	public <S, T> Converter<S, T> timed(String name, Converter<S, T> converter) {
+		Assert.notNull(converter, "Converter is required");
+		return source -> time(name, () -> converter.convert(source));
+	}
+
+	private Counter loginCounter(String method, String outcome, String error) {
+		return Counter.builder(LOGINS)
+				.tags(List.of(Tag.of("method", method), Tag.of("outcome", outcome), Tag.of("error", error)))
+				.description("The number of completed logins.")
+				.register(registry);
+	}
+
+	private String methodOf(Authentication authentication) {
+		if (authentication instanceof Saml2Authentication) {
+			return AuthenticationMethod.SAML.name();
+		}
+		if (authentication.getPrincipal() instanceof AuthenticationUserDetails userDetails
+				&& userDetails.getAuthenticationMethod() != null) {
+			return userDetails.getAuthenticationMethod().name();
+		}
+		return formMethod;
+	}
+
+	/**
+	 * Gets a low-cardinality description of the error: the SAML error code for SAML errors, otherwise the exception's
+	 * class name.
+	 */
+	private static String errorOf(AuthenticationException exception) {
+		if (exception instanceof Saml2AuthenticationException samlException
+				&& samlException.getSaml2Error() != null) {
+			return samlException.getSaml2Error().getErrorCode();
+		}
+		return StringUtils.defaultIfEmpty(exception.getClass().getSimpleName(), exception.getClass().getName());
+	}
+
+}
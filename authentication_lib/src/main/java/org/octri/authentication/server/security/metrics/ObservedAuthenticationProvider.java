@@ -0,0 +1,36 @@
+package org.octri.authentication.server.security.metrics;
+
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+
+/**
+ * An {@link AuthenticationProvider} that observes each authentication.
+ *
+ * @see AuthenticationMetrics#observed(AuthenticationProvider, AuthenticationMethod)
+ */
+class ObservedAuthenticationProvider implements AuthenticationProvider {
+
+	private final AuthenticationProvider delegate;
+	private final String method;
+	private final AuthenticationMetrics metrics;
+
+	ObservedAuthenticationProvider(AuthenticationProvider delegate, AuthenticationMethod method,
+			AuthenticationMetrics metrics) {
+		this.delegate = delegate;
+		this.method = method.name();
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Authentication authenticate(Authentication authentication) {
+		return metrics.observe(AuthenticationMetrics.PROVIDER_OBSERVATION, () -> delegate.authenticate(authentication),
+				"method", method);
+	}
+
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return delegate.supports(authentication);
+	}
+
+}
@@ -0,0 +1,32 @@
+package org.octri.authentication.server.security.metrics;
+
+import javax.naming.directory.DirContext;
+
+import org.springframework.ldap.core.support.LdapContextSource;
+
+/**
+ * An {@link LdapContextSource} that times binds made with a user's credentials, which is how LDAP users' passwords are
+ * checked. Connections opened with the configured service account are not timed.
+ *
+ * @see AuthenticationMetrics#LDAP_BIND
+ */
+public class TimedLdapContextSource extends LdapContextSource {
+
+	private final AuthenticationMetrics metrics;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param metrics
+	 *            metrics the bind times are recorded to
+	 */
+	public TimedLdapContextSource(AuthenticationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public DirContext getContext(String principal, String credentials) {
+		return metrics.time(AuthenticationMetrics.LDAP_BIND, () -> super.getContext(principal, credentials));
+	}
+
+}
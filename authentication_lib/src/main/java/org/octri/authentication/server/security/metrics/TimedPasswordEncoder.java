@@ -0,0 +1,37 @@
+package org.octri.authentication.server.security.metrics;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A {@link PasswordEncoder} that times encoding and matching.
+ *
+ * @see AuthenticationMetrics#timed(PasswordEncoder)
+ */
+class TimedPasswordEncoder implements PasswordEncoder {
+
+	private final PasswordEncoder delegate;
+	private final AuthenticationMetrics metrics;
+
+	TimedPasswordEncoder(PasswordEncoder delegate, AuthenticationMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return metrics.time(AuthenticationMetrics.PASSWORD_HASH, () -> delegate.encode(rawPassword), "operation",
+				"encode");
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return metrics.time(AuthenticationMetrics.PASSWORD_HASH, () -> delegate.matches(rawPassword, encodedPassword),
+				"operation", "match");
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+}
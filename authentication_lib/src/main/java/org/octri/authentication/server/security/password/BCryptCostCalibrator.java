@@ -0,0 +1,81 @@
+package org.octri.authentication.server.security.password;
+
+import java.time.Duration;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.Assert;
+
+/**
+ * Chooses a BCrypt cost factor for the current host. The time to hash a password is measured at the minimum cost, and
+ * the cost is raised while the estimated hash time stays within the target. Each additional round doubles the work,
+ * so a single measurement is enough to estimate the higher costs.
+ */
+public final class BCryptCostCalibrator {
+
+	/**
+	 * Highest cost the calibrator will choose. Each step doubles login time, so higher values are never useful for
+	 * interactive logins.
+	 */
+	public static final int MAXIMUM_STRENGTH = 20;
+
+	private static final int SAMPLES = 3;
+
+	private BCryptCostCalibrator() {
+		// utility class
+	}
+
+	/**
+	 * Measures BCrypt on this host and returns the highest cost whose estimated hash time does not exceed the target.
+	 *
+	 * @param target
+	 *            target time to hash one password
+	 * @param minimumStrength
+	 *            lowest cost that may be returned
+	 * @return the calibrated cost factor
+	 */
+	public static int calibrate(Duration target, int minimumStrength) {
+		Assert.notNull(target, "Calibration target is required");
+		Assert.isTrue(minimumStrength >= 4 && minimumStrength <= MAXIMUM_STRENGTH,
+				"Minimum strength must be between 4 and " + MAXIMUM_STRENGTH);
+		return strengthFor(target.toNanos(), measure(minimumStrength), minimumStrength);
+	}
+
+	/**
+	 * Estimates the highest cost whose hash time does not exceed the target, given a measurement at a known cost.
+	 *
+	 * @param targetNanos
+	 *            target time to hash one password, in nanoseconds
+	 * @param measuredNanos
+	 *            measured time to hash one password at the measured strength, in nanoseconds
+	 * @param measuredStrength
+	 *            cost factor that was measured
+	 * @return the highest suitable cost factor, never lower than the measured strength
+	 */
+	static int strengthFor(long targetNanos, long measuredNanos, int measuredStrength) {
+		int strength = measuredStrength;
+		long estimate = Math.max(1, measuredNanos);
+		while (strength < MAXIMUM_STRENGTH && estimate * 2 <= targetNanos) {
+			strength++;
+			estimate *= 2;
+		}
+		return strength;
+	}
+
+	/**
+	 * Measures the fastest of several hashes at the given cost, after one warm-up hash.
+	 */
+	private static long measure(int strength) {
+		var encoder = new BCryptPasswordEncoder(strength);
+		String sample = "calibration-sample-password";
+		encoder.encode(sample);
+
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < SAMPLES; i++) {
+			long start = System.nanoTime();
+			encoder.encode(sample);
+			fastest = Math.min(fastest, System.nanoTime() - start);
+		}
+		return fastest;
+	}
+
+}
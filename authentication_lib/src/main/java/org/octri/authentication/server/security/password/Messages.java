@@ -35,6 +35,11 @@ public class Messages {
 	 */
 	public static final String PASSWORD_INSUFFICIENT_DIGIT = "Missing a number.";
 
+	/**
+	 * Error message displayed when passwords must contain a lowercase letter, but one is not present.
+	 */
+	public static final String PASSWORD_INSUFFICIENT_LOWERCASE = "Missing a lowercase letter.";
+
 	/**
 	 * Error message displayed when passwords must contain a capital letter, but one is not present.
 	 */
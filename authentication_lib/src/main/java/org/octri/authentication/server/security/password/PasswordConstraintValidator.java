@@ -1,11 +1,13 @@
 package org.octri.authentication.server.security.password;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.OctriAuthenticationProperties;
+import org.octri.authentication.config.OctriAuthenticationProperties.PasswordPolicy;
 import org.passay.DefaultPasswordValidator;
 import org.passay.PasswordData;
 import org.passay.PasswordValidator;
@@ -15,12 +17,19 @@ import org.passay.data.EnglishCharacterData;
 import org.passay.rule.CharacterCharacteristicsRule;
 import org.passay.rule.CharacterRule;
 import org.passay.rule.LengthRule;
+import org.passay.rule.Rule;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
 import jakarta.validation.ConstraintValidatorContext;
 
 /**
- * A password constraint validator. Validates passwords against OHSU standards.
+ * A password constraint validator. Validates passwords against the configured {@link PasswordPolicy}, which defaults
+ * to OHSU standards.
+ *
+ * The Passay rules are built once when the validator is constructed. The validator is immutable and may be shared
+ * between threads.
  *
  * @see <a href="http://www.passay.org/reference/">Passay reference documentation</a>
  * @see <a href="http://www.baeldung.com/registration-password-strength-and-rules">baeldung.com - Password Strength and
@@ -32,6 +41,41 @@ public class PasswordConstraintValidator {
 
 	private static final Log log = LogFactory.getLog(PasswordConstraintValidator.class);
 
+	private static final String INSUFFICIENT_SPECIAL = Reason.ReasonKey.INSUFFICIENT_SPECIAL.toString();
+	private static final String INSUFFICIENT_UPPERCASE = Reason.ReasonKey.INSUFFICIENT_UPPERCASE.toString();
+
+	private final PasswordValidator validator;
+
+	/**
+	 * Constructs a validator using the default password policy.
+	 */
+	public PasswordConstraintValidator() {
+		this(new PasswordPolicy());
+	}
+
+	/**
+	 * Constructs a validator using the password policy in the library configuration.
+	 *
+	 * @param authenticationProperties
+	 *            authentication configuration
+	 */
+	@Autowired
+	public PasswordConstraintValidator(OctriAuthenticationProperties authenticationProperties) {
+		this(authenticationProperties.getPasswordPolicy());
+	}
+
+	/**
+	 * Constructs a validator using the given password policy.
+	 *
+	 * @param policy
+	 *            rules that passwords must satisfy
+	 */
+	public PasswordConstraintValidator(PasswordPolicy policy) {
+		Assert.notNull(policy, "Password policy is required");
+		this.validator = new DefaultPasswordValidator(buildRules(policy));
+		log.debug("Created password validator: " + policy);
+	}
+
 	/**
 	 * Get a list of validation error messages, or an empty list if the password passes validation.
 	 *
@@ -42,36 +86,53 @@ public class PasswordConstraintValidator {
 	 * @return a list of validation errors, ar an empty list if the password passes validation
 	 */
 	public List<String> validate(String password, ConstraintValidatorContext context) {
-		// Require at least one capital letter
-		CharacterRule capitalLetter = new CharacterRule(EnglishCharacterData.UpperCase, 1);
-
-		// Require at least one special character (catches punctuation)
-		CharacterRule specialCharacter = new CharacterRule(EnglishCharacterData.Special, 1);
-
-		// Require one of: capital letter, punctuation/special character
-		// CharacterCharacteristicsRule allows x out of n rules to be matched
-		CharacterCharacteristicsRule capsOrSpecial = new CharacterCharacteristicsRule(1, capitalLetter,
-				specialCharacter);
-
-		// Add all rules to the validator
-		PasswordValidator validator = new DefaultPasswordValidator(
-				Arrays.asList(
-						new LengthRule(8, Integer.MAX_VALUE),
-						new CharacterRule(EnglishCharacterData.Alphabetical, 1),
-						new CharacterRule(EnglishCharacterData.Digit, 1),
-						capsOrSpecial));
-
 		// Validate password
 		// Note: INSUFFICIENT_CHARACTERISTICS is returned when either INSUFFICIENT_UPPERCASE or INSUFFICIENT_SPECIAL is
 		// thrown. These two constraints are handled by {@link CharacterCharacteristicsRule}. Filter them out so we
 		// don't duplicate messages in the UI.
 		ValidationResult result = validator.validate(new PasswordData(password));
 		List<String> reasons = result.getDetails().stream().map(RuleResultDetail::getErrorCode)
-				.filter(key -> !Reason.ReasonKey.INSUFFICIENT_SPECIAL.toString().equals(key)
-						&& !Reason.ReasonKey.INSUFFICIENT_UPPERCASE.toString().equals(key))
+				.filter(key -> !INSUFFICIENT_SPECIAL.equals(key) && !INSUFFICIENT_UPPERCASE.equals(key))
 				.map(key -> Reason.message(key)).collect(Collectors.toList());
 
 		return reasons;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Builds the Passay rules for the given policy. Character rules with a required count of zero are omitted.
+	 *
+	 * @param policy
+	 *            rules that passwords must satisfy
+	 * @return the rules to validate passwords with
+	 */
+	private static List<Rule> buildRules(PasswordPolicy policy) {
+		List<Rule> rules = new ArrayList<>();
+		rules.add(new LengthRule(policy.getMinimumLength(), Integer.MAX_VALUE));
+		addCharacterRule(rules, EnglishCharacterData.Alphabetical, policy.getRequiredAlphabetical());
+		addCharacterRule(rules, EnglishCharacterData.Digit, policy.getRequiredDigits());
+		addCharacterRule(rules, EnglishCharacterData.LowerCase, policy.getRequiredLowercase());
+
+		// Require a number of: capital letter, punctuation/special character
+		// CharacterCharacteristicsRule allows x out of n rules to be matched
+		List<CharacterRule> characteristics = new ArrayList<>();
+		addCharacterRule(characteristics, EnglishCharacterData.UpperCase, policy.getRequiredUppercase());
+		addCharacterRule(characteristics, EnglishCharacterData.Special, policy.getRequiredSpecial());
+		int requiredCharacteristics = policy.getRequiredCharacteristics();
+		Assert.isTrue(requiredCharacteristics <= characteristics.size(),
+				"Required characteristics must not exceed the number of enabled characteristic rules");
+		if (requiredCharacteristics > 0) {
+			rules.add(new CharacterCharacteristicsRule(requiredCharacteristics,
+					characteristics.toArray(new CharacterRule[0])));
+		}
+
+		return List.copyOf(rules);
+	}
+
+	private static void addCharacterRule(List<? super CharacterRule> rules,
+			EnglishCharacterData characterData, Integer count) {
+		if (count != null && count > 0) {
+			rules.add(new CharacterRule(characterData, count));
+		}
+	}
+
+}
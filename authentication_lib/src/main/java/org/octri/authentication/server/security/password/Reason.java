@@ -25,6 +25,11 @@ public class Reason {
 		 */
 		INSUFFICIENT_DIGIT,
 
+		/**
+		 * Indicates the password contains too few lowercase characters
+		 */
+		INSUFFICIENT_LOWERCASE,
+
 		/**
 		 * Indicates the password contains too few uppercase characters
 		 */
@@ -56,6 +61,8 @@ public class Reason {
 					return Messages.PASSWORD_TOO_SHORT;
 				case INSUFFICIENT_DIGIT:
 					return Messages.PASSWORD_INSUFFICIENT_DIGIT;
+				case INSUFFICIENT_LOWERCASE:
+					return Messages.PASSWORD_INSUFFICIENT_LOWERCASE;
 				case INSUFFICIENT_UPPERCASE:
 					return Messages.PASSWORD_INSUFFICIENT_UPPERCASE;
 				case INSUFFICIENT_SPECIAL:
@@ -0,0 +1,262 @@
+package org.octri.authentication.server.security.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RateLimitStore} that keeps counts in memory using the sliding window counter algorithm. Each key holds the
+ * count for the current fixed window and the previous one, and the previous count is weighted by how much of it still
+ * overlaps the sliding window. This gives a close approximation of a true sliding window using constant memory per key.
+ *
+ * Counters are kept in a {@link ConcurrentHashMap}, which stripes updates across its bins, and each counter is updated
+ * with a compare-and-set loop, so requests never block one another. The number of keys in each partition is bounded
+ * separately, so that keys of one kind, such as spoofed IP addresses, cannot crowd out another, such as usernames.
+ * Every request is counted. When a partition is full, keys that have been idle for at least two windows are evicted,
+ * and if that does not free enough room, the least recently used keys are evicted until the partition is 90% full.
+ * Sweeping a tenth of the partition at once keeps its cost low when new keys arrive quickly. Keys that are still being
+ * used, including keys over their limit, are the last to be evicted.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+	private static final Log log = LogFactory.getLog(InMemoryRateLimitStore.class);
+
+	/**
+	 * Fraction of a full partition's keys kept when keys are evicted to make room.
+	 */
+	private static final double EVICTION_TARGET = 0.9;
+
+	private final int maximumKeys;
+	private final Clock clock;
+	private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+	private final AtomicLong activeEvictionCount = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maximumKeys
+	 *            maximum number of keys to track in each partition
+	 */
+	public InMemoryRateLimitStore(int maximumKeys) {
+		this(maximumKeys, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maximumKeys
+	 *            maximum number of keys to track in each partition
+	 * @param clock
+	 *            clock used to determine the current window
+	 */
+	public InMemoryRateLimitStore(int maximumKeys, Clock clock) {
+		Assert.isTrue(maximumKeys > 0, "Maximum keys must be greater than zero");
+		Assert.notNull(clock, "Clock is required");
+		this.maximumKeys = maximumKeys;
+		this.clock = clock;
+	}
+
+	@Override
+	public boolean tryAcquire(String partition, String key, int limit, Duration window) {
+		Assert.notNull(partition, "Partition is required");
+		Assert.notNull(key, "Key is required");
+		Assert.isTrue(!window.isNegative() && !window.isZero(), "Window must be positive");
+		return partitions.computeIfAbsent(partition, Partition::new).tryAcquire(key, limit, window.toMillis(),
+				clock.millis());
+	}
+
+	/**
+	 * Removes keys that have not been used for at least two of their windows. Their counts no longer affect any limit.
+	 */
+	public void evictIdle() {
+		long now = clock.millis();
+		partitions.values().forEach(partition -> partition.evictIdle(now));
+	}
+
+	/**
+	 * @return the number of keys currently tracked in all partitions
+	 */
+	public int size() {
+		return partitions.values().stream().mapToInt(partition -> partition.counters.size()).sum();
+	}
+
+	/**
+	 * @param partition
+	 *            name of the partition
+	 * @return the number of keys currently tracked in the partition
+	 */
+	public int size(String partition) {
+		Partition found = partitions.get(partition);
+		return found == null ? 0 : found.counters.size();
+	}
+
+	/**
+	 * @return the number of keys evicted while they were still in use because their partition was full
+	 */
+	public long getActiveEvictionCount() {
+		return activeEvictionCount.get();
+	}
+
+	/**
+	 * The bounded set of counters for one partition.
+	 */
+	private class Partition {
+
+		private final String name;
+		private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+		private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+		Partition(String name) {
+			this.name = name;
+		}
+
+		boolean tryAcquire(String key, int limit, long windowMillis, long now) {
+			Counter counter = counters.get(key);
+			if (counter == null) {
+				if (counters.size() >= maximumKeys) {
+					makeRoom(now);
+				}
+				counter = counters.computeIfAbsent(key, k -> new Counter(now, windowMillis));
+			}
+			return counter.tryAcquire(now, limit);
+		}
+
+		void evictIdle(long now) {
+			counters.values().removeIf(counter -> counter.isIdle(now));
+		}
+
+		/**
+		 * Evicts idle keys, then the least recently used keys until the partition is at the eviction target. Only one
+		 * thread sweeps at a time. Concurrent callers add their key without waiting, so the partition may briefly hold
+		 * a few more keys than the maximum.
+		 */
+		private void makeRoom(long now) {
+			if (!evicting.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				evictIdle(now);
+				int excess = counters.size() - (int) (maximumKeys * EVICTION_TARGET);
+				if (excess > 0) {
+					evictLeastRecentlyUsed(excess);
+				}
+			} finally {
+				evicting.set(false);
+			}
+		}
+
+		/**
+		 * Evicts at least the given number of keys, starting with the one used longest ago.
+		 */
+		private void evictLeastRecentlyUsed(int count) {
+			long[] lastAccessTimes = counters.values().stream().mapToLong(counter -> counter.lastAccess).toArray();
+			if (lastAccessTimes.length == 0) {
+				return;
+			}
+			Arrays.sort(lastAccessTimes);
+			long threshold = lastAccessTimes[Math.min(count, lastAccessTimes.length) - 1];
+			var evicted = new AtomicLong();
+			counters.values().removeIf(counter -> {
+				if (counter.lastAccess <= threshold) {
+					evicted.incrementAndGet();
+					return true;
+				}
+				return false;
+			});
+			activeEvictionCount.addAndGet(evicted.get());
+			log.warn("Rate limit store partition " + name + " reached " + maximumKeys + " keys. Evicted "
+					+ evicted.get() + " least recently used key(s).");
+		}
+
+	}
+
+	/**
+	 * Sliding window counter for a single key. The window length is fixed when the key is first seen.
+	 */
+	private static class Counter {
+
+		private final long windowMillis;
+		private final AtomicReference<Window> state;
+
+		/**
+		 * Time of the last request for the key, whether or not it was allowed.
+		 */
+		private volatile long lastAccess;
+
+		Counter(long now, long windowMillis) {
+			this.windowMillis = windowMillis;
+			this.state = new AtomicReference<>(new Window(now - now % windowMillis, 0, 0));
+			this.lastAccess = now;
+		}
+
+		boolean tryAcquire(long now, int limit) {
+			lastAccess = now;
+			while (true) {
+				Window current = state.get();
+				Window rolled = current.roll(now, windowMillis);
+				if (rolled.estimate(now, windowMillis) + 1 > limit) {
+					if (rolled != current) {
+						state.compareAndSet(current, rolled);
+					}
+					return false;
+				}
+				if (state.compareAndSet(current, rolled.increment())) {
+					return true;
+				}
+			}
+		}
+
+		boolean isIdle(long now) {
+			return now - lastAccess >= 2 * windowMillis;
+		}
+
+	}
+
+	/**
+	 * Immutable snapshot of a counter: the start of the current fixed window and the counts for the previous and
+	 * current windows.
+	 */
+	private static class Window {
+
+		private final long start;
+		private final long previous;
+		private final long current;
+
+		Window(long start, long previous, long current) {
+			this.start = start;
+			this.previous = previous;
+			this.current = current;
+		}
+
+		Window roll(long now, long windowMillis) {
+			long elapsed = (now - start) / windowMillis;
+			if (elapsed <= 0) {
+				return this;
+			}
+			if (elapsed == 1) {
+				return new Window(start + windowMillis, current, 0);
+			}
+			return new Window(now - now % windowMillis, 0, 0);
+		}
+
+		double estimate(long now, long windowMillis) {
+			double previousWeight = (double) (windowMillis - (now - start)) / windowMillis;
+			return previous * previousWeight + current;
+		}
+
+		Window increment() {
+			return new Window(start, previous, current + 1);
+		}
+
+	}
+
+}
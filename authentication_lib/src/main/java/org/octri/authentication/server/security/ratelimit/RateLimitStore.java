@@ -0,0 +1,34 @@
+package org.octri.authentication.server.security.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Tracks request counts used by {@link RateLimitingFilter} to throttle login and password reset requests.
+ *
+ * Implementations must be thread-safe, and must count every request. A store that bounds the number of keys it holds
+ * should bound each partition separately, and make room by evicting keys rather than by allowing requests it does not
+ * count. The library provides {@link InMemoryRateLimitStore}, which limits requests handled by a single node.
+ * Applications running several nodes may provide their own bean implementing this interface to share counts through a
+ * common backend.
+ *
+ * @see InMemoryRateLimitStore
+ */
+public interface RateLimitStore {
+
+	/**
+	 * Records a request for the given key if doing so would not exceed the limit.
+	 *
+	 * @param partition
+	 *            the kind of key, e.g. {@link RateLimitingFilter#IP_ADDRESS_PARTITION}. Keys in one partition must not
+	 *            be able to crowd keys in another out of the store.
+	 * @param key
+	 *            the key to count the request against, e.g. a client IP address or username
+	 * @param limit
+	 *            maximum number of requests allowed for the key within the window
+	 * @param window
+	 *            length of the sliding window
+	 * @return true if the request is allowed, false if the key has reached its limit
+	 */
+	boolean tryAcquire(String partition, String key, int limit, Duration window);
+
+}
@@ -0,0 +1,127 @@
+package org.octri.authentication.server.security.ratelimit;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.RequestUtils;
+import org.octri.authentication.config.RateLimitProperties;
+import org.springframework.core.log.LogMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Throttles login and forgotten password submissions by client IP address and by the submitted username or email
+ * address. Requests over the limit receive a 429 Too Many Requests response before authentication runs, so abusive
+ * traffic does not reach the password encoder or the database.
+ *
+ * Each endpoint has its own counters, so throttling logins does not prevent a user from resetting their password.
+ */
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+	private static final Log log = LogFactory.getLog(RateLimitingFilter.class);
+
+	/**
+	 * Route that accepts forgotten password submissions.
+	 */
+	public static final String FORGOT_PASSWORD_URL = "/user/password/forgot";
+
+	/**
+	 * Partition of the rate limit store holding client IP address counters.
+	 */
+	public static final String IP_ADDRESS_PARTITION = "ip";
+
+	/**
+	 * Partition of the rate limit store holding username and email address counters.
+	 */
+	public static final String USERNAME_PARTITION = "user";
+
+	private final RateLimitStore store;
+	private final RateLimitProperties rateLimitProperties;
+	private final RequestMatcher loginMatcher;
+	private final RequestMatcher forgotPasswordMatcher;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param store
+	 *            store used to count requests
+	 * @param rateLimitProperties
+	 *            rate limit configuration
+	 * @param loginUrl
+	 *            route that accepts login form submissions
+	 */
+	public RateLimitingFilter(RateLimitStore store, RateLimitProperties rateLimitProperties, String loginUrl) {
+		Assert.notNull(store, "Rate limit store is required");
+		Assert.notNull(rateLimitProperties, "Rate limit properties are required");
+		Assert.hasText(loginUrl, "Login URL is required");
+		this.store = store;
+		this.rateLimitProperties = rateLimitProperties;
+		this.loginMatcher = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, loginUrl);
+		this.forgotPasswordMatcher = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST,
+				FORGOT_PASSWORD_URL);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !loginMatcher.matches(request) && !forgotPasswordMatcher.matches(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		boolean login = loginMatcher.matches(request);
+		String endpoint = login ? "login" : "forgot";
+		String principal = request.getParameter(login ? "username" : "email");
+		String ipAddress = RequestUtils.getClientIpAddr(request);
+
+		if (!allowed(endpoint, ipAddress, principal)) {
+			log.warn(LogMessage.format("Rate limit exceeded for %s request from %s (username: %s)", endpoint,
+					ipAddress, principal));
+			response.setHeader(HttpHeaders.RETRY_AFTER,
+					String.valueOf(Math.max(1, rateLimitProperties.getWindow().toSeconds())));
+			response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+			return;
+		}
+
+		filterChain.doFilter(request, response);
+	}
+
+	/**
+	 * Checks the IP address limit first, then the username limit. The username is not counted when the IP address is
+	 * already over its limit.
+	 *
+	 * @param endpoint
+	 *            name of the endpoint, used to separate counters
+	 * @param ipAddress
+	 *            client IP address
+	 * @param principal
+	 *            submitted username or email address, which may be blank
+	 * @return true if the request is allowed
+	 */
+	private boolean allowed(String endpoint, String ipAddress, String principal) {
+		var window = rateLimitProperties.getWindow();
+		if (!store.tryAcquire(IP_ADDRESS_PARTITION, endpoint + ":" + ipAddress,
+				rateLimitProperties.getMaxRequestsPerIpAddress(), window)) {
+			return false;
+		}
+		if (StringUtils.isBlank(principal)) {
+			return true;
+		}
+		return store.tryAcquire(USERNAME_PARTITION, endpoint + ":" + principal.trim().toLowerCase(Locale.ROOT),
+				rateLimitProperties.getMaxRequestsPerUsername(), window);
+	}
+
+}
@@ -0,0 +1,50 @@
+package org.octri.authentication.server.security.repository;
+
+import java.util.Date;
+
+import org.octri.authentication.server.security.entity.LoginAttempt;
+
+/**
+ * Read-only projection of a {@link LoginAttempt}, used to stream login attempts without adding entities to the
+ * persistence context.
+ *
+ * @see LoginAttemptRepository#streamAllProjectedBy()
+ */
+public interface LoginAttemptProjection {
+
+	/**
+	 * @return the unique ID
+	 */
+	Long getId();
+
+	/**
+	 * @return the username provided
+	 */
+	String getUsername();
+
+	/**
+	 * @return the client IP address
+	 */
+	String getIpAddress();
+
+	/**
+	 * @return the request timestamp
+	 */
+	Date getAttemptedAt();
+
+	/**
+	 * @return true if the attempt was successful, false otherwise
+	 */
+	Boolean getSuccessful();
+
+	/**
+	 * @return the reason that the login attempt failed
+	 */
+	String getErrorType();
+
+	/**
+	 * @return the error message describing the failure
+	 */
+	String getErrorMessage();
+
+}
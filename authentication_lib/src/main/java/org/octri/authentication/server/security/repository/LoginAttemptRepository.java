@@ -1,7 +1,14 @@
 package org.octri.authentication.server.security.repository;
 
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.octri.authentication.server.security.entity.LoginAttempt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * {@link JpaRepository} for manipulating {@link LoginAttempt} entities.
@@ -28,4 +35,18 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long
 	 * @return the most recent login failure of the given type, or null if no login failure of the type has occurred
 	 */
 	public LoginAttempt findFirstByErrorTypeAndSuccessfulIsFalseOrderByAttemptedAtDesc(String errorType);
+
+	/**
+	 * Streams all login attempts in ID order as read-only projections. Rows are fetched from the database in batches of
+	 * {@link StreamingQueries#FETCH_SIZE}. Must be called within a transaction, and the stream must be closed.
+	 *
+	 * @return a stream of all login attempts
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select a.id as id, a.username as username, a.ipAddress as ipAddress, a.attemptedAt as attemptedAt, "
+			+ "a.successful as successful, a.errorType as errorType, a.errorMessage as errorMessage "
+			+ "from LoginAttempt a order by a.id")
+	public Stream<LoginAttemptProjection> streamAllProjectedBy();
+
 }
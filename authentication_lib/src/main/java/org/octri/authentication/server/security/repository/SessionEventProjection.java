@@ -0,0 +1,46 @@
+package org.octri.authentication.server.security.repository;
+
+import java.util.Date;
+
+import org.octri.authentication.server.security.entity.SessionEvent;
+import org.octri.authentication.server.security.entity.SessionEvent.EventType;
+
+/**
+ * Read-only projection of a {@link SessionEvent} with the usernames of the users involved, used to stream session
+ * events without loading entities.
+ *
+ * @see SessionEventRepository#streamAllProjectedBy()
+ */
+public interface SessionEventProjection {
+
+	/**
+	 * @return the unique ID
+	 */
+	Long getId();
+
+	/**
+	 * @return the time the event was recorded
+	 */
+	Date getCreatedAt();
+
+	/**
+	 * @return the session ID
+	 */
+	String getSessionId();
+
+	/**
+	 * @return the type of event
+	 */
+	EventType getEvent();
+
+	/**
+	 * @return the username of the user that triggered the event
+	 */
+	String getUsername();
+
+	/**
+	 * @return the username of the user being impersonated, or null if the event is not an impersonation
+	 */
+	String getAsUsername();
+
+}
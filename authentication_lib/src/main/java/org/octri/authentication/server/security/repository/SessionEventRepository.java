@@ -1,10 +1,20 @@
 package org.octri.authentication.server.security.repository;
 
+import java.util.Date;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.octri.authentication.server.security.entity.SessionEvent;
 import org.octri.authentication.server.security.entity.SessionEvent.EventType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * {@link JpaRepository} for manipulating {@link SessionEvent} entities.
@@ -22,4 +32,36 @@ public interface SessionEventRepository extends JpaRepository<SessionEvent, Long
 	 */
 	Optional<SessionEvent> findFirstBySessionIdAndEvent(String sessionId, EventType eventType);
 
+	/**
+	 * Records a logout event for the given session with a single statement. The user is copied from the session's
+	 * login event. Nothing is inserted if the session has no login event, and the unique index on session ID and event
+	 * type added by the setup migrations turns a repeated logout into a no-op.
+	 *
+	 * @param sessionId
+	 *            session ID
+	 * @param now
+	 *            creation time of the logout event
+	 */
+	@Modifying
+	@Transactional
+	@Query(nativeQuery = true, value = "INSERT INTO session_event "
+			+ "(version, created_at, updated_at, event, session_id, `user`) "
+			+ "SELECT 0, :now, :now, 'LOGOUT', login.session_id, login.`user` FROM session_event login "
+			+ "WHERE login.session_id = :sessionId AND login.event = 'LOGIN' ORDER BY login.id LIMIT 1 "
+			+ "ON DUPLICATE KEY UPDATE session_event.version = session_event.version")
+	void insertLogoutIfAbsent(@Param("sessionId") String sessionId, @Param("now") Date now);
+
+	/**
+	 * Streams all session events in ID order as read-only projections. Rows are fetched from the database in batches
+	 * of {@link StreamingQueries#FETCH_SIZE}. Must be called within a transaction, and the stream must be closed.
+	 *
+	 * @return a stream of all session events
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select e.id as id, e.createdAt as createdAt, e.sessionId as sessionId, e.event as event, "
+			+ "u.username as username, a.username as asUsername "
+			+ "from SessionEvent e join e.user u left join e.asUser a order by e.id")
+	Stream<SessionEventProjection> streamAllProjectedBy();
+
 }
@@ -0,0 +1,18 @@
+package org.octri.authentication.server.security.repository;
+
+/**
+ * Settings shared by repository methods that return a {@link java.util.stream.Stream} of rows.
+ */
+public final class StreamingQueries {
+
+	/**
+	 * JDBC fetch size used when streaming rows, so that the driver holds at most this many rows in memory. MySQL
+	 * Connector/J only honors it when the connection URL includes <code>useCursorFetch=true</code>.
+	 */
+	public static final String FETCH_SIZE = "500";
+
+	private StreamingQueries() {
+		// constants class
+	}
+
+}
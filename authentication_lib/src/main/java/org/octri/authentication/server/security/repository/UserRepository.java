@@ -1,16 +1,29 @@
 package org.octri.authentication.server.security.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.octri.authentication.server.security.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 /**
- * {@link JpaRepository} for manipulating {@link User} entities.
+ * {@link JpaRepository} for manipulating {@link User} entities. Also supports {@link UserSpecifications} for
+ * filtering, which may be combined with {@link UserSummaryProjection} to list users without loading entities.
  *
  * @author harrelst
  *
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
 
 	/**
 	 * Finds a user by their username.
@@ -30,4 +43,121 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	 */
 	public User findByEmail(@Param("email") String email);
 
+	/**
+	 * Finds a user by their username, fetching their roles in the same query.
+	 *
+	 * @param username
+	 *            username to search by
+	 * @return the user with the given username and their roles, or null if not found
+	 */
+	@EntityGraph(attributePaths = { "userRoles" })
+	public User findWithUserRolesByUsername(@Param("username") String username);
+
+	/**
+	 * Atomically increments the failed login counter for the given username, locking the account if the new count
+	 * reaches the maximum number of attempts. The lock is assigned first so that it is computed from the counter's
+	 * previous value on every database. The version and update time are bumped, so an administrator's concurrent save
+	 * of the same user fails its optimistic lock check instead of overwriting the counter or the lock.
+	 *
+	 * @param username
+	 *            username of the account
+	 * @param maxLoginAttempts
+	 *            number of failed attempts that locks the account
+	 * @return the number of rows updated (0 if no account has the given username)
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update User u set "
+			+ "u.accountLocked = case when coalesce(u.consecutiveLoginFailures, 0) + 1 >= :maxLoginAttempts "
+			+ "then true else u.accountLocked end, "
+			+ "u.consecutiveLoginFailures = coalesce(u.consecutiveLoginFailures, 0) + 1, "
+			+ "u.version = u.version + 1, u.updatedAt = current_timestamp "
+			+ "where u.username = :username")
+	public int incrementConsecutiveLoginFailures(@Param("username") String username,
+			@Param("maxLoginAttempts") int maxLoginAttempts);
+
+	/**
+	 * Atomically resets the failed login counter for the given username. Accounts that have no failed attempts are not
+	 * updated. The version and update time are bumped, as for
+	 * {@link #incrementConsecutiveLoginFailures(String, int)}.
+	 *
+	 * @param username
+	 *            username of the account
+	 * @return the number of rows updated
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update User u set u.consecutiveLoginFailures = 0, u.version = u.version + 1, "
+			+ "u.updatedAt = current_timestamp "
+			+ "where u.username = :username and u.consecutiveLoginFailures > 0")
+	public int resetConsecutiveLoginFailures(@Param("username") String username);
+
+	/**
+	 * Gets the current failed login counter for the given username.
+	 *
+	 * @param username
+	 *            username of the account
+	 * @return the number of consecutive failed logins, or null if no account has the given username
+	 */
+	@Query("select u.consecutiveLoginFailures from User u where u.username = :username")
+	public Integer findConsecutiveLoginFailuresByUsername(@Param("username") String username);
+
+	/**
+	 * Replaces the stored password hash for the given username. The version and update time are bumped, so a
+	 * concurrent save of the same user fails its optimistic lock check instead of restoring the old hash.
+	 *
+	 * @param username
+	 *            username of the account
+	 * @param password
+	 *            the new encoded password
+	 * @return the number of rows updated
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update User u set u.password = :password, u.version = u.version + 1, u.updatedAt = current_timestamp "
+			+ "where u.username = :username")
+	public int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
+
+	/**
+	 * Finds the descriptions of the roles granted to the given users, ordered by description.
+	 *
+	 * @param userIds
+	 *            IDs of the users
+	 * @return one row per role granted to each user
+	 */
+	@Query("select uur.user.id as userId, r.description as description from UserUserRole uur "
+			+ "join uur.userRole r where uur.user.id in :userIds order by r.description")
+	public List<UserRoleSummaryProjection> findRoleSummariesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+	/**
+	 * Streams summaries of all users in ID order. Rows are fetched from the database in batches of
+	 * {@link StreamingQueries#FETCH_SIZE}. Must be called within a transaction, and the stream must be closed.
+	 *
+	 * @return a stream of all user summaries
+	 */
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQueries.FETCH_SIZE),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select u.id as id, u.username as username, u.email as email, u.firstName as firstName, "
+			+ "u.lastName as lastName, u.enabled as enabled, u.accountLocked as accountLocked, "
+			+ "u.accountExpirationDate as accountExpirationDate, "
+			+ "u.credentialsExpirationDate as credentialsExpirationDate from User u order by u.id")
+	public Stream<UserSummaryProjection> streamAllSummariesBy();
+
+	/**
+	 * Finds which of the given usernames are already in use.
+	 *
+	 * @param usernames
+	 *            usernames to check
+	 * @return the usernames that belong to existing accounts
+	 */
+	@Query("select u.username from User u where u.username in :usernames")
+	public List<String> findUsernamesIn(@Param("usernames") Collection<String> usernames);
+
+	/**
+	 * Finds which of the given email addresses are already in use.
+	 *
+	 * @param emails
+	 *            email addresses to check
+	 * @return the email addresses that belong to existing accounts
+	 */
+	@Query("select u.email from User u where u.email in :emails")
+	public List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
 }
@@ -0,0 +1,20 @@
+package org.octri.authentication.server.security.repository;
+
+/**
+ * Projection of a role granted to a user, used to show roles in the admin user list without loading user entities.
+ *
+ * @see UserRepository#findRoleSummariesByUserIds(java.util.Collection)
+ */
+public interface UserRoleSummaryProjection {
+
+	/**
+	 * @return the ID of the user the role is granted to
+	 */
+	Long getUserId();
+
+	/**
+	 * @return the description of the role
+	 */
+	String getDescription();
+
+}
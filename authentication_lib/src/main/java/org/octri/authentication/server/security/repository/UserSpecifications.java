@@ -0,0 +1,109 @@
+package org.octri.authentication.server.security.repository;
+
+import java.util.Date;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.entity.UserStatus;
+import org.octri.authentication.server.security.entity.UserUserRole;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Specification} factories used to filter {@link User} entities in the admin user list.
+ */
+public final class UserSpecifications {
+
+	private static final char LIKE_ESCAPE = '\\';
+
+	private UserSpecifications() {
+		// utility class
+	}
+
+	/**
+	 * Matches users whose username, email, first name, or last name contains the given text, ignoring case. Returns
+	 * null (no restriction) if the text is blank.
+	 *
+	 * @param text
+	 *            text to search for
+	 * @return the specification, or null if the text is blank
+	 */
+	public static Specification<User> matchesText(String text) {
+		if (StringUtils.isBlank(text)) {
+			return null;
+		}
+
+		String pattern = "%" + escapeLike(text.trim().toLowerCase(Locale.ROOT)) + "%";
+		return (root, query, cb) -> cb.or(
+				cb.like(cb.lower(root.<String>get("username")), pattern, LIKE_ESCAPE),
+				cb.like(cb.lower(root.<String>get("email")), pattern, LIKE_ESCAPE),
+				cb.like(cb.lower(root.<String>get("firstName")), pattern, LIKE_ESCAPE),
+				cb.like(cb.lower(root.<String>get("lastName")), pattern, LIKE_ESCAPE));
+	}
+
+	/**
+	 * Matches users who have been granted the role with the given ID. Uses a subquery, so that users are not
+	 * duplicated and the page count is not affected. Returns null (no restriction) if the ID is null.
+	 *
+	 * @param roleId
+	 *            ID of the role
+	 * @return the specification, or null if the role ID is null
+	 */
+	public static Specification<User> hasRole(Long roleId) {
+		if (roleId == null) {
+			return null;
+		}
+
+		return (root, query, cb) -> {
+			var subquery = query.subquery(Long.class);
+			var grant = subquery.from(UserUserRole.class);
+			subquery.select(grant.<Long>get("id")).where(
+					cb.equal(grant.get("user"), root),
+					cb.equal(grant.get("userRole").get("id"), roleId));
+			return cb.exists(subquery);
+		};
+	}
+
+	/**
+	 * Matches users whose account is in the given state as of the given time. Returns null (no restriction) if the
+	 * status is null.
+	 *
+	 * @param status
+	 *            account state to match
+	 * @param now
+	 *            time used to evaluate expiration dates
+	 * @return the specification, or null if the status is null
+	 */
+	public static Specification<User> hasStatus(UserStatus status, Date now) {
+		if (status == null) {
+			return null;
+		}
+
+		Assert.notNull(now, "Current time is required");
+		return (root, query, cb) -> {
+			switch (status) {
+				case ENABLED:
+					return cb.isTrue(root.<Boolean>get("enabled"));
+				case DISABLED:
+					return cb.isFalse(root.<Boolean>get("enabled"));
+				case LOCKED:
+					return cb.isTrue(root.<Boolean>get("accountLocked"));
+				case ACCOUNT_EXPIRED:
+					return cb.lessThan(root.<Date>get("accountExpirationDate"), now);
+				case CREDENTIALS_EXPIRED:
+					return cb.lessThan(root.<Date>get("credentialsExpirationDate"), now);
+				default:
+					throw new IllegalArgumentException("Unsupported user status " + status);
+			}
+		};
+	}
+
+	/**
+	 * Escapes the LIKE wildcard characters in user-supplied text.
+	 */
+	static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.octri.authentication.server.security.repository;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.octri.authentication.server.security.entity.User;
+
+/**
+ * Projection of the {@link User} columns shown in the admin user list. Roles are not included; they are fetched
+ * separately for the users on the current page.
+ *
+ * @see UserRepository#findRoleSummariesByUserIds(java.util.Collection)
+ */
+public interface UserSummaryProjection {
+
+	/**
+	 * @return the user's unique ID
+	 */
+	Long getId();
+
+	/**
+	 * @return the username
+	 */
+	String getUsername();
+
+	/**
+	 * @return the user's email address
+	 */
+	String getEmail();
+
+	/**
+	 * @return the user's first name
+	 */
+	String getFirstName();
+
+	/**
+	 * @return the user's last name
+	 */
+	String getLastName();
+
+	/**
+	 * @return whether the account is enabled for login
+	 */
+	Boolean getEnabled();
+
+	/**
+	 * @return whether the account has been locked by failed login attempts
+	 */
+	Boolean getAccountLocked();
+
+	/**
+	 * @return the date the account expires, or null if it does not expire
+	 */
+	Date getAccountExpirationDate();
+
+	/**
+	 * @return the date the credentials expire, or null if they do not expire
+	 */
+	Date getCredentialsExpirationDate();
+
+	/**
+	 * @return true if the account expiration date is in the past, false if not
+	 */
+	default Boolean getAccountExpired() {
+		var expiration = getAccountExpirationDate();
+		return expiration != null && expiration.before(Date.from(Instant.now()));
+	}
+
+	/**
+	 * @return true if the credentials expiration date is in the past, false if not
+	 */
+	default Boolean getCredentialsExpired() {
+		var expiration = getCredentialsExpirationDate();
+		return expiration != null && expiration.before(Date.from(Instant.now()));
+	}
+
+}
@@ -24,7 +24,8 @@ import org.springframework.util.CollectionUtils;
 
 /**
  * A custom authentication response converter that looks up user details from the database using the username extracted
- * from the SAML response.
+ * from the SAML response. When used with {@link DatabaseUserSamlAssertionValidator}, the user and their roles found
+ * during validation are reused, so a login queries for the user only once.
  */
 public class DatabaseUserAuthenticationConverter implements Converter<ResponseToken, Saml2Authentication> {
 
@@ -56,18 +57,20 @@ public class DatabaseUserAuthenticationConverter implements Converter<ResponseTo
 		Response response = responseToken.getResponse();
 		Saml2AuthenticationToken token = responseToken.getToken();
 		Assertion assertion = CollectionUtils.firstElement(response.getAssertions());
-		Map<String, List<Object>> attributes = AssertionUtils.getAssertionAttributes(assertion);
+		SamlAttributeContext attributeContext = SamlAttributeContext.of(assertion);
+		Map<String, List<Object>> attributes = attributeContext.getAttributes();
 
-		String username = (String) CollectionUtils
-				.firstElement(attributes.get(samlProperties.getUseridAttribute()));
+		String username = attributeContext.getUsername(samlProperties.getUseridAttribute());
 		log.debug("Username extracted from assertion: " + username);
 
-		User user = userService.findByUsername(username);
+		User user = attributeContext.resolveUser(samlProperties.getUseridAttribute(),
+				userService::findByUsernameWithRoles);
 
 		// Logging the full user object with roles causes a LazyInitializationException
 		log.debug("User " + username + " " + (user == null ? "not found" : "found with ID " + user.getId()));
 
-		List<UserRole> userRoles = userUserRoleService.findUserRolesByUser(user);
+		List<UserRole> userRoles = user.getUserRoles() != null ? user.getUserRoles()
+				: userUserRoleService.findUserRolesByUser(user);
 		List<GrantedAuthority> authorities = userRoles.stream()
 				.map(role -> new SimpleGrantedAuthority(role.getRoleName()))
 				.collect(Collectors.toList());
@@ -1,28 +1,31 @@
 package org.octri.authentication.server.security.saml;
 
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.config.SamlProperties;
 import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.service.UserService;
-import org.opensaml.saml.saml2.core.Assertion;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.saml2.core.Saml2Error;
 import org.springframework.security.saml2.core.Saml2ErrorCodes;
 import org.springframework.security.saml2.core.Saml2ResponseValidatorResult;
-import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider;
 import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider.AssertionToken;
-import org.springframework.util.CollectionUtils;
 
 /**
  * A custom SAML assertion validator that verifies that the user is present in the database. The username is
  * extracted from the SAML response, and if an active user account with the given username is found in the database,
  * authentication is allowed. Otherwise authentication is denied.
+ *
+ * The user is loaded with their roles and kept in the assertion's {@link SamlAttributeContext}, so that the
+ * {@link DatabaseUserAuthenticationConverter} does not query for the user again.
+ *
+ * Used on its own, the validator also runs the default assertion validation. To combine it with other checks, see
+ * {@link SamlAssertionValidators#compose(SamlAssertionCheck...)}.
  */
-public class DatabaseUserSamlAssertionValidator implements Converter<AssertionToken, Saml2ResponseValidatorResult> {
+public class DatabaseUserSamlAssertionValidator
+		implements Converter<AssertionToken, Saml2ResponseValidatorResult>, SamlAssertionCheck {
 
 	private static final Log log = LogFactory.getLog(DatabaseUserSamlAssertionValidator.class);
 
@@ -43,19 +46,23 @@ public class DatabaseUserSamlAssertionValidator implements Converter<AssertionTo
 		this.samlProperties = samlProperties;
 	}
 
+	/**
+	 * Runs the default assertion validation and validates that the user has an active account.
+	 */
 	@Override
 	public Saml2ResponseValidatorResult convert(AssertionToken assertionToken) {
-		Saml2ResponseValidatorResult result = OpenSaml4AuthenticationProvider
-				.createDefaultAssertionValidator()
-				.convert(assertionToken);
+		return SamlAssertionValidators.validate(assertionToken, List.of(this));
+	}
 
-		Assertion assertion = assertionToken.getAssertion();
-		Map<String, List<Object>> attributeMap = AssertionUtils.getAssertionAttributes(assertion);
-		String username = (String) CollectionUtils
-				.firstElement(attributeMap.get(samlProperties.getUseridAttribute()));
+	/**
+	 * Validates that the user has an active account.
+	 */
+	@Override
+	public Saml2ResponseValidatorResult check(AssertionToken assertionToken, SamlAttributeContext attributes) {
+		String username = attributes.getUsername(samlProperties.getUseridAttribute());
 		log.debug("Username extracted from assertion: " + username);
 
-		User user = userService.findByUsername(username);
+		User user = attributes.resolveUser(samlProperties.getUseridAttribute(), userService::findByUsernameWithRoles);
 
 		// Logging the full user object with roles causes a LazyInitializationException
 		log.debug("User " + username + " " + (user == null ? "not found" : "found with ID " + user.getId()));
@@ -63,10 +70,10 @@ public class DatabaseUserSamlAssertionValidator implements Converter<AssertionTo
 		if (userMissingOrDisabled(user)) {
 			String message = username + " has not been granted access to this application.";
 			log.debug(message);
-			return result.concat(new Saml2Error(Saml2ErrorCodes.INVALID_ASSERTION, message));
+			return Saml2ResponseValidatorResult.failure(new Saml2Error(Saml2ErrorCodes.INVALID_ASSERTION, message));
 		}
 
-		return result;
+		return Saml2ResponseValidatorResult.success();
 	}
 
 	/**
@@ -8,21 +8,22 @@ import java.util.stream.Collectors;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.config.SamlProperties;
-import org.opensaml.saml.saml2.core.Assertion;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.saml2.core.Saml2Error;
 import org.springframework.security.saml2.core.Saml2ErrorCodes;
 import org.springframework.security.saml2.core.Saml2ResponseValidatorResult;
-import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider;
 import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider.AssertionToken;
-import org.springframework.util.CollectionUtils;
 
 /**
  * Creates a custom SAML assertion validator that verifies that the user is a member of the expected group. Group
  * membership information is extracted from the assertions included in the SAML response, and if the expected group is
  * found, authentication is allowed. Otherwise, authentication is denied.
+ *
+ * Used on its own, the validator also runs the default assertion validation. To combine it with other checks, see
+ * {@link SamlAssertionValidators#compose(SamlAssertionCheck...)}.
  */
-public class GroupMembershipSamlAssertionValidator implements Converter<AssertionToken, Saml2ResponseValidatorResult> {
+public class GroupMembershipSamlAssertionValidator
+		implements Converter<AssertionToken, Saml2ResponseValidatorResult>, SamlAssertionCheck {
 
 	private static final Log log = LogFactory.getLog(GroupMembershipSamlAssertionValidator.class);
 
@@ -39,29 +40,30 @@ public class GroupMembershipSamlAssertionValidator implements Converter<Assertio
 	}
 
 	/**
-	 * Validates that the user is a member of the expected group.
+	 * Runs the default assertion validation and validates that the user is a member of the expected group.
 	 */
 	@Override
 	public Saml2ResponseValidatorResult convert(AssertionToken assertionToken) {
-		Saml2ResponseValidatorResult result = OpenSaml4AuthenticationProvider
-				.createDefaultAssertionValidator()
-				.convert(assertionToken);
+		return SamlAssertionValidators.validate(assertionToken, List.of(this));
+	}
 
-		Assertion assertion = assertionToken.getAssertion();
-		Map<String, List<Object>> attributeMap = AssertionUtils.getAssertionAttributes(assertion);
-		String username = (String) CollectionUtils
-				.firstElement(attributeMap.get(samlProperties.getUseridAttribute()));
-		List<String> groups = getGroups(attributeMap);
+	/**
+	 * Validates that the user is a member of the expected group.
+	 */
+	@Override
+	public Saml2ResponseValidatorResult check(AssertionToken assertionToken, SamlAttributeContext attributes) {
+		List<String> groups = getGroups(attributes.getAttributes());
 		log.debug("Required group: " + samlProperties.getRequiredGroup());
 		log.debug("Groups extracted from assertion: " + groups);
 
 		if (!groups.contains(samlProperties.getRequiredGroup())) {
-			String message = username + " is not a member of " + samlProperties.getRequiredGroup();
+			String message = attributes.getUsername(samlProperties.getUseridAttribute()) + " is not a member of "
+					+ samlProperties.getRequiredGroup();
 			log.debug(message);
-			return result.concat(new Saml2Error(Saml2ErrorCodes.INVALID_ASSERTION, message));
+			return Saml2ResponseValidatorResult.failure(new Saml2Error(Saml2ErrorCodes.INVALID_ASSERTION, message));
 		}
 
-		return result;
+		return Saml2ResponseValidatorResult.success();
 	}
 
 	/**
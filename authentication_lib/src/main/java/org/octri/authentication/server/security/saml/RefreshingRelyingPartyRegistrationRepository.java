@@ -0,0 +1,407 @@
+package org.octri.authentication.server.security.saml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.SamlProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistration;
+import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistrationRepository;
+import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistrations;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RelyingPartyRegistrationRepository} for a single IdP whose metadata is refreshed in the background.
+ *
+ * When a cache file is configured, the last metadata that was loaded successfully is written to it, and the
+ * repository starts from the cached copy without waiting for the IdP. The application can therefore start while the
+ * IdP is unreachable. The cache file records the metadata location it was loaded from, and a copy loaded from a
+ * different location is ignored. Without a usable cached copy, the metadata is loaded when the bean is initialized,
+ * and startup fails if it cannot be loaded.
+ *
+ * Metadata is then refreshed on a background thread. HTTP(S) locations are requested with the ETag and Last-Modified
+ * values of the previous response, so that unchanged metadata is not downloaded again, and the Cache-Control max-age
+ * or Expires headers decide when the next refresh happens, within the configured minimum and maximum refresh
+ * intervals. Other locations, such as files, are read again after the maximum refresh interval. A failed refresh is
+ * logged and retried after the minimum refresh interval, and the current registration stays in use.
+ *
+ * A new registration is only built when the metadata changes, and it replaces the current one in a single write, so
+ * lookups never wait for a refresh and never see a partly built registration.
+ *
+ * @see SamlProperties
+ */
+public class RefreshingRelyingPartyRegistrationRepository
+		implements RelyingPartyRegistrationRepository, Iterable<RelyingPartyRegistration>, InitializingBean,
+		DisposableBean {
+
+	private static final Log log = LogFactory.getLog(RefreshingRelyingPartyRegistrationRepository.class);
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	/**
+	 * Prefix of the first line of the cache file, which holds the metadata location. The metadata follows it.
+	 */
+	static final String CACHE_SOURCE_PREFIX = "source=";
+
+	private final String metadataLocation;
+	private final Path cacheFile;
+	private final Duration refreshInterval;
+	private final Duration minRefreshInterval;
+	private final Function<RelyingPartyRegistration.Builder, RelyingPartyRegistration> registrationFactory;
+	private final Clock clock;
+	private final ExecutorService httpExecutor;
+	private final HttpClient httpClient;
+
+	private volatile RelyingPartyRegistration registration;
+	private byte[] metadata;
+	private String etag;
+	private String lastModified;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param samlProperties
+	 *            SAML configuration, including the IdP metadata location, cache file, and refresh intervals
+	 * @param registrationFactory
+	 *            function that completes a registration builder created from the IdP metadata, for example by adding
+	 *            the registration ID and the SP credentials, and builds the registration
+	 */
+	public RefreshingRelyingPartyRegistrationRepository(SamlProperties samlProperties,
+			Function<RelyingPartyRegistration.Builder, RelyingPartyRegistration> registrationFactory) {
+		this(samlProperties, registrationFactory, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor that uses the given clock to interpret the Expires header.
+	 */
+	RefreshingRelyingPartyRegistrationRepository(SamlProperties samlProperties,
+			Function<RelyingPartyRegistration.Builder, RelyingPartyRegistration> registrationFactory, Clock clock) {
+		Assert.hasText(samlProperties.getIdpMetadataUri(), "IdP metadata URI must be set");
+		Duration minRefresh = samlProperties.getIdpMetadataMinRefreshInterval();
+		Assert.isTrue(!minRefresh.isNegative() && !minRefresh.isZero(),
+				"IdP metadata minimum refresh interval must be greater than zero");
+		Assert.isTrue(samlProperties.getIdpMetadataRefreshInterval()
+				.compareTo(samlProperties.getIdpMetadataMinRefreshInterval()) >= 0,
+				"IdP metadata refresh interval must not be less than the minimum refresh interval");
+		this.metadataLocation = samlProperties.getIdpMetadataUri();
+		this.cacheFile = StringUtils.isBlank(samlProperties.getIdpMetadataCacheFile()) ? null
+				: Path.of(samlProperties.getIdpMetadataCacheFile());
+		this.refreshInterval = samlProperties.getIdpMetadataRefreshInterval();
+		this.minRefreshInterval = samlProperties.getIdpMetadataMinRefreshInterval();
+		this.registrationFactory = registrationFactory;
+		this.clock = clock;
+		// HttpClient cannot be closed on Java 17, so its executor is shut down when the bean is destroyed
+		this.httpExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "idp-metadata-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpClient = HttpClient.newBuilder()
+				.executor(httpExecutor)
+				.connectTimeout(CONNECT_TIMEOUT)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+	}
+
+	/**
+	 * Loads the registration from the cache file, or from the IdP if there is no usable cached copy, and starts the
+	 * background refresh.
+	 *
+	 * @throws IllegalStateException
+	 *             if there is no cached copy and the metadata cannot be loaded from the IdP
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		Duration firstRefresh = Duration.ZERO;
+		if (!loadCache()) {
+			try {
+				firstRefresh = refresh();
+			} catch (IOException | RuntimeException e) {
+				throw new IllegalStateException("Could not load IdP metadata from " + metadataLocation, e);
+			}
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "idp-metadata-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		schedule(firstRefresh);
+	}
+
+	/**
+	 * Stops the background refresh and the HTTP client's threads.
+	 */
+	@Override
+	public void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		httpExecutor.shutdownNow();
+	}
+
+	@Override
+	public RelyingPartyRegistration findByRegistrationId(String registrationId) {
+		RelyingPartyRegistration current = registration;
+		if (current != null && current.getRegistrationId().equals(registrationId)) {
+			return current;
+		}
+		return null;
+	}
+
+	@Override
+	public Iterator<RelyingPartyRegistration> iterator() {
+		RelyingPartyRegistration current = registration;
+		return current == null ? Collections.emptyIterator() : List.of(current).iterator();
+	}
+
+	/**
+	 * Loads the metadata from the IdP and replaces the registration and the cache file if the metadata has changed.
+	 *
+	 * @return the length of time until the next refresh
+	 * @throws IOException
+	 *             if the metadata could not be read
+	 * @throws RuntimeException
+	 *             if the metadata could not be parsed
+	 */
+	synchronized Duration refresh() throws IOException {
+		if (!isHttp()) {
+			try (InputStream inputStream = new DefaultResourceLoader().getResource(metadataLocation)
+					.getInputStream()) {
+				byte[] body = inputStream.readAllBytes();
+				if (update(body)) {
+					writeCache(body);
+				}
+			}
+			return refreshInterval;
+		}
+
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(metadataLocation))
+				.timeout(REQUEST_TIMEOUT)
+				.GET();
+		if (registration != null && etag != null) {
+			request.header("If-None-Match", etag);
+		}
+		if (registration != null && lastModified != null) {
+			request.header("If-Modified-Since", lastModified);
+		}
+		HttpResponse<byte[]> response;
+		try {
+			response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while loading IdP metadata from " + metadataLocation);
+		}
+
+		if (response.statusCode() == 304 && registration != null) {
+			log.debug("IdP metadata at " + metadataLocation + " has not changed");
+		} else if (response.statusCode() == 200) {
+			if (update(response.body())) {
+				writeCache(response.body());
+			}
+			etag = response.headers().firstValue("ETag").orElse(null);
+			lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+		} else {
+			throw new IOException("Request for IdP metadata at " + metadataLocation + " returned status "
+					+ response.statusCode());
+		}
+		return nextRefresh(cacheLifetime(response.headers(), clock.instant()));
+	}
+
+	/**
+	 * Gets the length of time until the next refresh, given how long the IdP says its metadata may be cached.
+	 *
+	 * @param lifetime
+	 *            how long the metadata may be cached, or null if the response did not say
+	 * @return the lifetime limited to the minimum and maximum refresh intervals, or the maximum refresh interval if the
+	 *         lifetime is not known
+	 */
+	Duration nextRefresh(Duration lifetime) {
+		if (lifetime == null || lifetime.compareTo(refreshInterval) > 0) {
+			return refreshInterval;
+		}
+		return lifetime.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : lifetime;
+	}
+
+	/**
+	 * Gets how long a response may be cached from its Cache-Control or Expires header.
+	 *
+	 * @param headers
+	 *            response headers
+	 * @param now
+	 *            time the response was received
+	 * @return how long the response may be cached, zero if it must not be cached, or null if the headers do not say
+	 */
+	static Duration cacheLifetime(HttpHeaders headers, Instant now) {
+		for (String cacheControl : headers.allValues("Cache-Control")) {
+			for (String directive : cacheControl.split(",")) {
+				String[] parts = directive.trim().split("=", 2);
+				String name = parts[0].trim().toLowerCase();
+				if (name.equals("no-cache") || name.equals("no-store")) {
+					return Duration.ZERO;
+				}
+				if (name.equals("max-age") && parts.length == 2) {
+					try {
+						long seconds = Long.parseLong(StringUtils.strip(parts[1].trim(), "\""));
+						return Duration.ofSeconds(Math.max(seconds, 0));
+					} catch (NumberFormatException e) {
+						log.debug("Ignoring invalid max-age in IdP metadata response: " + parts[1]);
+					}
+				}
+			}
+		}
+		String expires = headers.firstValue("Expires").orElse(null);
+		if (expires != null) {
+			try {
+				Instant expiresAt = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+				return expiresAt.isAfter(now) ? Duration.between(now, expiresAt) : Duration.ZERO;
+			} catch (DateTimeParseException e) {
+				// An invalid date means the response has already expired
+				return Duration.ZERO;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds a registration from the cache file, if there is one and it was loaded from the configured location.
+	 *
+	 * @return true if the registration was loaded from the cache file
+	 */
+	private boolean loadCache() {
+		if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+			return false;
+		}
+		try {
+			byte[] cached = Files.readAllBytes(cacheFile);
+			byte[] sourceLine = cacheSourceLine();
+			if (cached.length < sourceLine.length
+					|| !Arrays.equals(cached, 0, sourceLine.length, sourceLine, 0, sourceLine.length)) {
+				log.info("Ignoring cached IdP metadata in " + cacheFile + " because it was not loaded from "
+						+ metadataLocation);
+				return false;
+			}
+			update(Arrays.copyOfRange(cached, sourceLine.length, cached.length));
+			log.info("Loaded IdP metadata from " + cacheFile + ". Refreshing from " + metadataLocation
+					+ " in the background.");
+			return true;
+		} catch (IOException | RuntimeException e) {
+			log.warn("Could not load cached IdP metadata from " + cacheFile + ". Loading it from " + metadataLocation
+					+ " instead.", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Builds a registration from the metadata and makes it current, unless the metadata has not changed.
+	 *
+	 * @return true if the registration was replaced
+	 */
+	private boolean update(byte[] newMetadata) {
+		if (Arrays.equals(metadata, newMetadata)) {
+			log.debug("IdP metadata at " + metadataLocation + " has not changed");
+			return false;
+		}
+		RelyingPartyRegistration newRegistration = registrationFactory
+				.apply(RelyingPartyRegistrations.fromMetadata(new ByteArrayInputStream(newMetadata)));
+		metadata = newMetadata;
+		registration = newRegistration;
+		log.info("Updated SAML registration " + newRegistration.getRegistrationId() + " from IdP metadata for "
+				+ newRegistration.getAssertingPartyMetadata().getEntityId());
+		return true;
+	}
+
+	/**
+	 * Replaces the cache file with the metadata location and the given metadata. They are written to a temporary file
+	 * that is then moved into place, so that the cache file is never partly written.
+	 */
+	private void writeCache(byte[] newMetadata) {
+		if (cacheFile == null) {
+			return;
+		}
+		try {
+			Path directory = cacheFile.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path temporaryFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+			try {
+				try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+					outputStream.write(cacheSourceLine());
+					outputStream.write(newMetadata);
+				}
+				Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporaryFile);
+			}
+		} catch (IOException e) {
+			log.warn("Could not write IdP metadata to " + cacheFile, e);
+		}
+	}
+
+	/**
+	 * Schedules a refresh after the given delay. Each refresh schedules the next one.
+	 */
+	private void schedule(Duration delay) {
+		scheduler.schedule(() -> {
+			Duration nextDelay;
+			try {
+				nextDelay = refresh();
+			} catch (IOException | RuntimeException e) {
+				if (scheduler.isShutdown()) {
+					return;
+				}
+				log.warn("Could not refresh IdP metadata from " + metadataLocation + ". Retrying in "
+						+ minRefreshInterval + ".", e);
+				nextDelay = minRefreshInterval;
+			}
+			if (!scheduler.isShutdown()) {
+				schedule(nextDelay);
+			}
+		}, delay.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the first line of the cache file, which records where the cached metadata was loaded from.
+	 */
+	private byte[] cacheSourceLine() {
+		return (CACHE_SOURCE_PREFIX + metadataLocation + "\n").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private boolean isHttp() {
+		return StringUtils.startsWithAny(metadataLocation.toLowerCase(), "http://", "https://");
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.octri.authentication.server.security.saml;
+
+import org.springframework.security.saml2.core.Saml2ResponseValidatorResult;
+import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider.AssertionToken;
+
+/**
+ * A check made on a SAML assertion in addition to Spring Security's default assertion validation. Checks are combined
+ * into an assertion validator with {@link SamlAssertionValidators#compose(SamlAssertionCheck...)}.
+ */
+@FunctionalInterface
+public interface SamlAssertionCheck {
+
+	/**
+	 * Checks the assertion.
+	 *
+	 * @param assertionToken
+	 *            the assertion and the authentication token it was received with
+	 * @param attributes
+	 *            the assertion's attributes, shared with the other checks and the response converter
+	 * @return the errors found, if any
+	 */
+	Saml2ResponseValidatorResult check(AssertionToken assertionToken, SamlAttributeContext attributes);
+
+}
@@ -0,0 +1,70 @@
+package org.octri.authentication.server.security.saml;
+
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.saml2.core.Saml2ResponseValidatorResult;
+import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider;
+import org.springframework.security.saml2.provider.service.authentication.OpenSaml4AuthenticationProvider.AssertionToken;
+
+/**
+ * Builds SAML assertion validators from {@link SamlAssertionCheck}s.
+ *
+ * Every validator built here runs Spring Security's default assertion validation once, then each check in order. One
+ * default validator is shared by all of them rather than created for each assertion, and the checks share the
+ * assertion's {@link SamlAttributeContext}. For example, to require both group membership and a database account:
+ *
+ * <pre>
+ * provider.setAssertionValidator(SamlAssertionValidators.compose(
+ * 		new GroupMembershipSamlAssertionValidator(samlProperties),
+ * 		new DatabaseUserSamlAssertionValidator(userService, samlProperties)));
+ * </pre>
+ */
+public class SamlAssertionValidators {
+
+	private static final Converter<AssertionToken, Saml2ResponseValidatorResult> DEFAULT_VALIDATOR =
+			OpenSaml4AuthenticationProvider.createDefaultAssertionValidator();
+
+	private SamlAssertionValidators() {
+	}
+
+	/**
+	 * Gets the shared default assertion validator.
+	 *
+	 * @return Spring Security's default assertion validator
+	 */
+	public static Converter<AssertionToken, Saml2ResponseValidatorResult> defaultValidator() {
+		return DEFAULT_VALIDATOR;
+	}
+
+	/**
+	 * Combines checks into an assertion validator that runs the default validation followed by each check.
+	 *
+	 * @param checks
+	 *            the checks to make, in order
+	 * @return assertion validator
+	 */
+	public static Converter<AssertionToken, Saml2ResponseValidatorResult> compose(SamlAssertionCheck... checks) {
+		List<SamlAssertionCheck> checkList = List.of(checks);
+		return assertionToken -> validate(assertionToken, checkList);
+	}
+
+	/**
+	 * Runs the default validation followed by each check.
+	 *
+	 * @param assertionToken
+	 *            the assertion to validate
+	 * @param checks
+	 *            the checks to make, in order
+	 * @return the errors found by the default validation and by the checks
+	 */
+	static Saml2ResponseValidatorResult validate(AssertionToken assertionToken, List<SamlAssertionCheck> checks) {
+		Saml2ResponseValidatorResult result = DEFAULT_VALIDATOR.convert(assertionToken);
+		SamlAttributeContext attributes = SamlAttributeContext.of(assertionToken.getAssertion());
+		for (SamlAssertionCheck check : checks) {
+			result = result.concat(check.check(assertionToken, attributes));
+		}
+		return result;
+	}
+
+}
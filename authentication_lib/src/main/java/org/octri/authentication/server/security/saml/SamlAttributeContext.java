@@ -0,0 +1,114 @@
+package org.octri.authentication.server.security.saml;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.octri.authentication.server.security.entity.User;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * The attributes of one SAML assertion, extracted the first time they are needed and reused for the rest of the
+ * authentication.
+ *
+ * A SAML login validates each assertion and then converts the response, and both steps need the assertion's
+ * attributes. Extracting them walks every attribute value, which is costly when the IdP sends hundreds of group
+ * memberships. The context is stored in the assertion's OpenSAML object metadata, so the validators and the converter
+ * share it, and it is discarded with the response.
+ *
+ * The context also holds the database user found for the assertion, so that a validator that looks up the user can
+ * hand it to the converter instead of the converter querying again.
+ */
+public class SamlAttributeContext {
+
+	private final Assertion assertion;
+	private Map<String, List<Object>> attributes;
+	private String usernameAttribute;
+	private String username;
+	private boolean userResolved;
+	private User user;
+
+	private SamlAttributeContext(Assertion assertion) {
+		this.assertion = assertion;
+	}
+
+	/**
+	 * Gets the attribute context of the given assertion, creating it the first time.
+	 *
+	 * @param assertion
+	 *            SAML assertion
+	 * @return the assertion's attribute context
+	 */
+	public static SamlAttributeContext of(Assertion assertion) {
+		Assert.notNull(assertion, "Assertion is required");
+		List<SamlAttributeContext> contexts = assertion.getObjectMetadata().get(SamlAttributeContext.class);
+		if (!contexts.isEmpty()) {
+			return contexts.get(0);
+		}
+		SamlAttributeContext context = new SamlAttributeContext(assertion);
+		assertion.getObjectMetadata().put(context);
+		return context;
+	}
+
+	/**
+	 * Gets the assertion's attributes.
+	 *
+	 * @return an unmodifiable map of attribute names to values
+	 * @see AssertionUtils#getAssertionAttributes(Assertion)
+	 */
+	public Map<String, List<Object>> getAttributes() {
+		if (attributes == null) {
+			attributes = Collections.unmodifiableMap(AssertionUtils.getAssertionAttributes(assertion));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Gets the first value of the given attribute.
+	 *
+	 * @param attributeName
+	 *            attribute name
+	 * @return the first value, or null if the attribute is missing or empty
+	 */
+	public String getAttributeValue(String attributeName) {
+		return AssertionUtils.getAttributeValue(getAttributes(), attributeName);
+	}
+
+	/**
+	 * Gets the username, which is the first value of the user ID attribute.
+	 *
+	 * @param useridAttribute
+	 *            name of the attribute that holds the username
+	 * @return the username, or null if the attribute is missing
+	 */
+	public String getUsername(String useridAttribute) {
+		if (!Objects.equals(useridAttribute, usernameAttribute)) {
+			username = (String) CollectionUtils.firstElement(getAttributes().get(useridAttribute));
+			usernameAttribute = useridAttribute;
+		}
+		return username;
+	}
+
+	/**
+	 * Gets the database user with this assertion's username. The user is found with the given function the first time,
+	 * and the same result, including a missing user, is returned afterwards.
+	 *
+	 * @param useridAttribute
+	 *            name of the attribute that holds the username
+	 * @param finder
+	 *            function that finds a user by username, returning null if there is none
+	 * @return the user, or null if not found
+	 */
+	public User resolveUser(String useridAttribute, Function<String, User> finder) {
+		if (!userResolved) {
+			user = finder.apply(getUsername(useridAttribute));
+			userResolved = true;
+		}
+		return user;
+	}
+
+}
@@ -4,7 +4,9 @@ import java.io.IOException;
 import java.util.Date;
 
 import org.octri.authentication.RequestUtils;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
 import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.LoginAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
@@ -27,6 +29,9 @@ public class SamlAuthenticationFailureHandler extends SimpleUrlAuthenticationFai
 	@Autowired
 	private LoginAttemptService loginAttemptService;
 
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	@Override
 	public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
 			AuthenticationException exception) throws IOException, ServletException {
@@ -51,7 +56,10 @@ public class SamlAuthenticationFailureHandler extends SimpleUrlAuthenticationFai
 			attempt.setErrorType(exception.getMessage());
 		}
 
-		loginAttemptService.save(attempt);
+		loginAttemptService.record(attempt);
+		if (authenticationMetrics != null) {
+			authenticationMetrics.recordLoginFailure(AuthenticationMethod.SAML, exception);
+		}
 	}
 
 }
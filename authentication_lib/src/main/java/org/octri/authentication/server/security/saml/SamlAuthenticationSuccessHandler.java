@@ -7,6 +7,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.octri.authentication.RequestUtils;
 import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.service.LoginAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -29,6 +30,9 @@ public class SamlAuthenticationSuccessHandler extends SavedRequestAwareAuthentic
 	@Autowired
 	private LoginAttemptService loginAttemptService;
 
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	@Override
 	public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
 			Authentication authentication) throws IOException, ServletException {
@@ -45,7 +49,10 @@ public class SamlAuthenticationSuccessHandler extends SavedRequestAwareAuthentic
 		attempt.setAttemptedAt(new Date());
 		attempt.setSuccessful(true);
 		attempt.setIpAddress(RequestUtils.getClientIpAddr(request));
-		loginAttemptService.save(attempt);
+		loginAttemptService.record(attempt);
+		if (authenticationMetrics != null) {
+			authenticationMetrics.recordLoginSuccess(auth, request);
+		}
 	}
 
 }
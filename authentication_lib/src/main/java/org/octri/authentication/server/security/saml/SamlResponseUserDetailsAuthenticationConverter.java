@@ -46,16 +46,17 @@ public class SamlResponseUserDetailsAuthenticationConverter implements Converter
 		Response response = responseToken.getResponse();
 		Saml2AuthenticationToken token = responseToken.getToken();
 		Assertion assertion = CollectionUtils.firstElement(response.getAssertions());
-		Map<String, List<Object>> attributes = AssertionUtils.getAssertionAttributes(assertion);
+		SamlAttributeContext attributeContext = SamlAttributeContext.of(assertion);
+		Map<String, List<Object>> attributes = attributeContext.getAttributes();
 
 		NameID nameId = assertion.getSubject().getNameID();
 
 		User user = new User();
 		user.setId(SAML_USER_SENTINEL);
-		user.setUsername(AssertionUtils.getAttributeValue(attributes, samlProperties.getUseridAttribute()));
-		user.setFirstName(AssertionUtils.getAttributeValue(attributes, samlProperties.getFirstNameAttribute()));
-		user.setLastName(AssertionUtils.getAttributeValue(attributes, samlProperties.getLastNameAttribute()));
-		user.setEmail(AssertionUtils.getAttributeValue(attributes, samlProperties.getEmailAttribute()));
+		user.setUsername(attributeContext.getUsername(samlProperties.getUseridAttribute()));
+		user.setFirstName(attributeContext.getAttributeValue(samlProperties.getFirstNameAttribute()));
+		user.setLastName(attributeContext.getAttributeValue(samlProperties.getLastNameAttribute()));
+		user.setEmail(attributeContext.getAttributeValue(samlProperties.getEmailAttribute()));
 		user.setInstitution(token.getRelyingPartyRegistration().getRegistrationId());
 		log.debug("Stub user: " + user);
 
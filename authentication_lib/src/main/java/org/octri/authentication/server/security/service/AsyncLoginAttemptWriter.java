@@ -0,0 +1,190 @@
+package org.octri.authentication.server.security.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.LoginAttemptAuditProperties;
+import org.octri.authentication.config.LoginAttemptAuditProperties.BackpressurePolicy;
+import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Writes {@link LoginAttempt} records to the database in batches on a background thread, so that auditing does not
+ * add a database round-trip to every login request.
+ *
+ * Login attempts are placed in a bounded queue and collected into batches by a {@link BatchingQueueWriter}. Each batch
+ * is inserted with a single JDBC batch statement. When the queue is full, the configured {@link BackpressurePolicy} is
+ * applied. Records still queued when the application shuts down are written before the bean is destroyed.
+ *
+ * @see LoginAttemptAuditProperties
+ */
+public class AsyncLoginAttemptWriter implements InitializingBean, DisposableBean {
+
+	private static final Log log = LogFactory.getLog(AsyncLoginAttemptWriter.class);
+
+	static final String INSERT_SQL = "INSERT INTO login_attempt "
+			+ "(username, ip_address, attempted_at, successful, error_type, error_message, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final BatchingQueueWriter<LoginAttempt> queue;
+	private final int batchSize;
+	private final Duration flushInterval;
+	private final BackpressurePolicy backpressurePolicy;
+	private final Duration enqueueTimeout;
+	private final Duration shutdownTimeout;
+
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to insert login attempts
+	 * @param auditProperties
+	 *            login attempt audit configuration
+	 */
+	public AsyncLoginAttemptWriter(JdbcTemplate jdbcTemplate, LoginAttemptAuditProperties auditProperties) {
+		Assert.isTrue(auditProperties.getQueueCapacity() > 0, "Audit queue capacity must be greater than zero");
+		Assert.isTrue(auditProperties.getBatchSize() > 0, "Audit batch size must be greater than zero");
+		this.jdbcTemplate = jdbcTemplate;
+		this.queue = new BatchingQueueWriter<>("login-attempt-audit-writer", auditProperties.getQueueCapacity(),
+				auditProperties.getBatchSize(), auditProperties.getFlushInterval(), this::writeBatch);
+		this.batchSize = auditProperties.getBatchSize();
+		this.flushInterval = auditProperties.getFlushInterval();
+		this.backpressurePolicy = auditProperties.getBackpressurePolicy();
+		this.enqueueTimeout = auditProperties.getEnqueueTimeout();
+		this.shutdownTimeout = auditProperties.getShutdownTimeout();
+	}
+
+	/**
+	 * Starts the background writer thread.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		queue.start();
+		log.info("Started asynchronous login attempt writer with batch size " + batchSize + " and flush interval "
+				+ flushInterval);
+	}
+
+	/**
+	 * Stops the background writer and writes any login attempts that are still queued.
+	 */
+	@Override
+	public void destroy() {
+		queue.stop(shutdownTimeout);
+		log.info("Stopped asynchronous login attempt writer. Dropped: " + droppedCount.get() + ", failed: "
+				+ failedCount.get());
+	}
+
+	/**
+	 * Queues a login attempt to be written. If the queue is full, the configured {@link BackpressurePolicy} is
+	 * applied. If the writer has been stopped, the record is written immediately.
+	 *
+	 * @param attempt
+	 *            the login attempt to record
+	 * @return true if the record was queued or written, false if it was dropped
+	 */
+	public boolean submit(LoginAttempt attempt) {
+		if (!queue.isRunning()) {
+			return writeBatch(List.of(attempt));
+		}
+
+		if (queue.offer(attempt)) {
+			return true;
+		}
+
+		switch (backpressurePolicy) {
+			case BLOCK:
+				try {
+					if (queue.offer(attempt, enqueueTimeout)) {
+						return true;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return drop(attempt);
+			case DROP:
+				return drop(attempt);
+			case CALLER_RUNS:
+			default:
+				return writeBatch(List.of(attempt));
+		}
+	}
+
+	/**
+	 * Gets the number of login attempts waiting to be written.
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets the number of login attempts dropped because the queue was full.
+	 *
+	 * @return the number of dropped records
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Gets the number of login attempts that could not be written because of a database error.
+	 *
+	 * @return the number of records that failed to be written
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * Inserts the given login attempts using a single JDBC batch.
+	 *
+	 * @param batch
+	 *            login attempts to insert
+	 * @return true if the batch was written, false if a database error occurred
+	 */
+	private boolean writeBatch(List<LoginAttempt> batch) {
+		try {
+			jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, attempt) -> {
+				ps.setString(1, attempt.getUsername());
+				ps.setString(2, attempt.getIpAddress());
+				ps.setTimestamp(3, new Timestamp(attempt.getAttemptedAt().getTime()));
+				ps.setBoolean(4, Boolean.TRUE.equals(attempt.getSuccessful()));
+				ps.setString(5, attempt.getErrorType());
+				ps.setString(6, attempt.getErrorMessage());
+			});
+			return true;
+		} catch (DataAccessException e) {
+			failedCount.addAndGet(batch.size());
+			log.error("Failed to write " + batch.size() + " login attempt(s)", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Drops a login attempt that could not be queued.
+	 *
+	 * @param attempt
+	 *            the dropped login attempt
+	 * @return always false
+	 */
+	private boolean drop(LoginAttempt attempt) {
+		long dropped = droppedCount.incrementAndGet();
+		log.warn("Login attempt queue is full. Dropped attempt for username '" + attempt.getUsername()
+				+ "' (" + dropped + " dropped in total)");
+		return false;
+	}
+
+}
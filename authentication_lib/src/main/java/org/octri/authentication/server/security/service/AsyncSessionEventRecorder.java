@@ -0,0 +1,116 @@
+package org.octri.authentication.server.security.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.SessionEventProperties;
+import org.octri.authentication.server.security.entity.SessionEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.util.Assert;
+
+/**
+ * Runs {@link SessionEvent} writes on a single background thread, so that recording an event does not add database
+ * round-trips to the login request or to the thread that destroys expired sessions.
+ *
+ * A single thread is used so that events are written in the order they were submitted. A session's logout is copied
+ * from its login, so the login must be written first. When the queue is full, the write runs on the calling thread.
+ * The caller's security context is propagated to the background thread so that auditing fields are populated as if
+ * the event had been written synchronously.
+ *
+ * @see SessionEventProperties
+ */
+public class AsyncSessionEventRecorder implements InitializingBean, DisposableBean {
+
+	private static final Log log = LogFactory.getLog(AsyncSessionEventRecorder.class);
+
+	private final int queueCapacity;
+	private final Duration shutdownTimeout;
+
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sessionEventProperties
+	 *            session event configuration
+	 */
+	public AsyncSessionEventRecorder(SessionEventProperties sessionEventProperties) {
+		Assert.isTrue(sessionEventProperties.getQueueCapacity() > 0,
+				"Session event queue capacity must be greater than zero");
+		this.queueCapacity = sessionEventProperties.getQueueCapacity();
+		this.shutdownTimeout = sessionEventProperties.getShutdownTimeout();
+	}
+
+	/**
+	 * Starts the background thread.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+				runnable -> {
+					Thread thread = new Thread(runnable, "session-event-recorder");
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		log.info("Started asynchronous session event recorder with queue capacity " + queueCapacity);
+	}
+
+	/**
+	 * Stops accepting events and waits for queued events to be written.
+	 */
+	@Override
+	public void destroy() {
+		if (executor == null) {
+			return;
+		}
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				log.warn("Session event recorder did not finish within " + shutdownTimeout + ". "
+						+ executor.getQueue().size() + " event(s) were not written.");
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Queues a session event write. Errors are logged rather than propagated. If the recorder has been stopped, the
+	 * write runs immediately on the calling thread.
+	 *
+	 * @param write
+	 *            the operation that writes the event
+	 */
+	public void submit(Runnable write) {
+		Runnable task = new DelegatingSecurityContextRunnable(() -> {
+			try {
+				write.run();
+			} catch (RuntimeException e) {
+				log.error("Failed to record session event", e);
+			}
+		});
+		if (executor == null || executor.isShutdown()) {
+			task.run();
+		} else {
+			executor.execute(task);
+		}
+	}
+
+	/**
+	 * Gets the number of session events waiting to be written.
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return executor == null ? 0 : executor.getQueue().size();
+	}
+
+}
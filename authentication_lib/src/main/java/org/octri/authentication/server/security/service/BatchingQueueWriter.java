@@ -0,0 +1,228 @@
+package org.octri.authentication.server.security.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Collects items from a bounded queue on a background thread and passes them to a callback in batches, so that the
+ * threads submitting items never wait on the database.
+ *
+ * The writer thread waits for the first queued item, then collects items until either the batch size is reached or
+ * the flush interval has elapsed, and passes the batch to the callback. Items still queued when the writer is stopped
+ * are passed to the callback before {@link #stop(Duration)} returns. If the writer thread does not finish in time, the
+ * remaining items are written on the stopping thread, so the callback must be safe to call from more than one thread.
+ * An item queued while the writer is stopping is written on the thread that queued it, so no item is left in a queue
+ * that nobody reads.
+ *
+ * @param <T>
+ *            type of the queued items
+ */
+class BatchingQueueWriter<T> {
+
+	private static final Log log = LogFactory.getLog(BatchingQueueWriter.class);
+
+	private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final String threadName;
+	private final BlockingQueue<T> queue;
+	private final int batchSize;
+	private final Duration flushInterval;
+	private final Consumer<List<T>> batchWriter;
+
+	private volatile boolean running = false;
+	private volatile boolean stopped = false;
+	private Thread writerThread;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param threadName
+	 *            name of the writer thread
+	 * @param capacity
+	 *            maximum number of queued items
+	 * @param batchSize
+	 *            maximum number of items passed to the callback at once
+	 * @param flushInterval
+	 *            maximum time to wait for a batch to fill once it has an item
+	 * @param batchWriter
+	 *            callback that writes a batch. It is given a copy of the batch, so it may keep the list.
+	 */
+	BatchingQueueWriter(String threadName, int capacity, int batchSize, Duration flushInterval,
+			Consumer<List<T>> batchWriter) {
+		Assert.isTrue(capacity > 0, "Queue capacity must be greater than zero");
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than zero");
+		this.threadName = threadName;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.batchWriter = batchWriter;
+	}
+
+	/**
+	 * Starts the writer thread.
+	 */
+	void start() {
+		running = true;
+		writerThread = new Thread(this::writeLoop, threadName);
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Stops the writer thread and writes any items that are still queued.
+	 *
+	 * @param timeout
+	 *            how long to wait for the writer thread before writing the remaining items on the calling thread
+	 */
+	void stop(Duration timeout) {
+		stopped = true;
+		running = false;
+		if (writerThread != null) {
+			try {
+				writerThread.join(timeout.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (writerThread.isAlive()) {
+				log.warn(threadName + " did not finish within " + timeout
+						+ ". Writing remaining items on the shutdown thread.");
+			}
+		}
+		drainQueue();
+	}
+
+	/**
+	 * Whether the writer thread has been started and not stopped. Callers write items directly when it is not.
+	 *
+	 * @return true if queued items will be written by the writer thread
+	 */
+	boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Queues an item without waiting.
+	 *
+	 * @param item
+	 *            the item to write
+	 * @return true if the item was queued, false if the queue is full
+	 */
+	boolean offer(T item) {
+		if (!queue.offer(item)) {
+			return false;
+		}
+		writeIfStopped();
+		return true;
+	}
+
+	/**
+	 * Queues an item, waiting up to the given time for space in the queue.
+	 *
+	 * @param item
+	 *            the item to write
+	 * @param timeout
+	 *            how long to wait for space
+	 * @return true if the item was queued, false if the queue is still full
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	boolean offer(T item, Duration timeout) throws InterruptedException {
+		if (!queue.offer(item, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+			return false;
+		}
+		writeIfStopped();
+		return true;
+	}
+
+	/**
+	 * Gets the number of items waiting to be written.
+	 *
+	 * @return the current queue depth
+	 */
+	int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Main loop of the writer thread. Collects batches until the writer is stopped, then drains the queue.
+	 */
+	private void writeLoop() {
+		List<T> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				collectBatch(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			} finally {
+				if (!batch.isEmpty()) {
+					batchWriter.accept(List.copyOf(batch));
+					batch.clear();
+				}
+			}
+		}
+		drainQueue();
+	}
+
+	/**
+	 * Waits for the first item, then keeps collecting items until the batch is full or the flush interval has
+	 * elapsed. Waits are capped at {@link #MAX_WAIT_NANOS} so the writer notices promptly when it is stopped.
+	 *
+	 * @param batch
+	 *            list to add items to
+	 * @throws InterruptedException
+	 *             if the writer thread is interrupted while waiting
+	 */
+	private void collectBatch(List<T> batch) throws InterruptedException {
+		T first = queue.poll(Math.min(flushInterval.toNanos(), MAX_WAIT_NANOS), TimeUnit.NANOSECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+
+		long deadline = System.nanoTime() + flushInterval.toNanos();
+		while (batch.size() < batchSize && running) {
+			queue.drainTo(batch, batchSize - batch.size());
+			long remaining = deadline - System.nanoTime();
+			if (batch.size() >= batchSize || remaining <= 0) {
+				return;
+			}
+			T next = queue.poll(Math.min(remaining, MAX_WAIT_NANOS), TimeUnit.NANOSECONDS);
+			if (next != null) {
+				batch.add(next);
+			}
+		}
+	}
+
+	/**
+	 * Writes the queue on the calling thread if the writer has been stopped. A caller that saw the writer running may
+	 * queue its item after {@link #stop(Duration)} has drained the queue, and the item would otherwise never be
+	 * written.
+	 */
+	private void writeIfStopped() {
+		if (stopped) {
+			drainQueue();
+		}
+	}
+
+	/**
+	 * Writes everything remaining in the queue.
+	 */
+	private void drainQueue() {
+		List<T> batch = new ArrayList<>(batchSize);
+		while (queue.drainTo(batch, batchSize) > 0) {
+			batchWriter.accept(List.copyOf(batch));
+			batch.clear();
+		}
+	}
+
+}
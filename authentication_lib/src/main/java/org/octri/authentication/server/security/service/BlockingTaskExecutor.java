@@ -0,0 +1,88 @@
+package org.octri.authentication.server.security.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import org.octri.authentication.config.VirtualThreadProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * Runs blocking library work, such as directory lookups, off the servlet request thread. Controllers return the
+ * resulting {@link CompletableFuture}, so the request thread is released while the work waits on I/O.
+ *
+ * Tasks run on the given executor, normally one virtual thread per task. A semaphore limits how many tasks run at
+ * once, so that a burst of requests queues in cheap virtual threads instead of exhausting the LDAP server or a
+ * connection pool.
+ *
+ * This class deliberately does not implement {@link java.util.concurrent.Executor}, so that registering it as a bean
+ * does not replace Spring Boot's default application task executor.
+ *
+ * @see VirtualThreadProperties
+ */
+public class BlockingTaskExecutor implements DisposableBean {
+
+	private final ExecutorService executor;
+	private final Semaphore permits;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executor
+	 *            executor that runs the tasks
+	 * @param maxConcurrentTasks
+	 *            maximum number of tasks that may run at once
+	 */
+	public BlockingTaskExecutor(ExecutorService executor, int maxConcurrentTasks) {
+		Assert.notNull(executor, "Executor is required");
+		Assert.isTrue(maxConcurrentTasks > 0, "Maximum concurrent tasks must be greater than zero");
+		this.executor = executor;
+		this.permits = new Semaphore(maxConcurrentTasks);
+	}
+
+	/**
+	 * Runs the task asynchronously once a permit is available.
+	 *
+	 * @param <T>
+	 *            type of the task's result
+	 * @param task
+	 *            the blocking task
+	 * @return a future that completes with the task's result
+	 */
+	public <T> CompletableFuture<T> supply(Supplier<T> task) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(e);
+			}
+			try {
+				return task.get();
+			} finally {
+				permits.release();
+			}
+		}, executor);
+	}
+
+	/**
+	 * Gets the number of tasks that may start without waiting.
+	 *
+	 * @return the number of available permits
+	 */
+	public int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+
+	/**
+	 * Stops the executor. Running tasks are allowed to finish.
+	 */
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+}
@@ -1,5 +1,7 @@
 package org.octri.authentication.server.security.service;
 
+import java.util.function.Supplier;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -8,7 +10,9 @@ import org.octri.authentication.config.OctriAuthenticationProperties;
 import org.octri.authentication.server.security.AuthenticationUrlHelper;
 import org.octri.authentication.server.security.entity.PasswordResetToken;
 import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.messaging.service.MessageDeliveryService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -16,7 +20,9 @@ import org.springframework.util.Assert;
 import jakarta.servlet.http.HttpServletRequest;
 
 /**
- * This service is responsible for constructing emails to send to table-based users for account management
+ * This service is responsible for constructing emails to send to table-based users for account management. When the
+ * email queue is enabled, messages are queued in the database and sent in the background by
+ * {@link OutboundEmailDispatcher}. Otherwise they are sent immediately.
  */
 @Service
 public class EmailNotificationService {
@@ -28,6 +34,8 @@ public class EmailNotificationService {
     private final AuthenticationUrlHelper urlHelper;
     private final MessageDeliveryService messageDeliveryService;
     private final PasswordResetTokenService passwordResetTokenService;
+    private OutboundEmailQueue outboundEmailQueue;
+    private AuthenticationMetrics authenticationMetrics;
 
     /**
      * Constructor.
@@ -53,6 +61,28 @@ public class EmailNotificationService {
         this.passwordResetTokenService = passwordResetTokenService;
     }
 
+    /**
+     * Sets the queue used to send email in the background. If not set, email is sent immediately.
+     *
+     * @param outboundEmailQueue
+     *            queue of outbound messages
+     */
+    @Autowired(required = false)
+    public void setOutboundEmailQueue(OutboundEmailQueue outboundEmailQueue) {
+        this.outboundEmailQueue = outboundEmailQueue;
+    }
+
+    /**
+     * Sets the metrics that the time taken to send or queue each email is recorded to.
+     *
+     * @param authenticationMetrics
+     *            authentication metrics
+     */
+    @Autowired(required = false)
+    public void setAuthenticationMetrics(AuthenticationMetrics authenticationMetrics) {
+        this.authenticationMetrics = authenticationMetrics;
+    }
+
     /**
      * Send email confirmation to user. If the user is new, a welcome email is sent. Otherwise a password
      * reset is sent.
@@ -120,12 +150,26 @@ public class EmailNotificationService {
             if (Boolean.TRUE.equals(authenticationProperties.getEmailRequired())) {
                 throw new IllegalArgumentException("Users must have an email address, but the user's email is blank.");
             }
+        } else if (outboundEmailQueue != null) {
+            var result = timeEmail(messageType, "queued",
+                    () -> outboundEmailQueue.enqueue(messageType, fromAddress, toAddress, subject, body));
+            log.debug("Queued " + messageType + " email to " + toAddress + ": " + result);
         } else {
-            messageDeliveryService.sendEmail(fromAddress, toAddress, subject, body);
+            timeEmail(messageType, "immediate", () -> {
+                messageDeliveryService.sendEmail(fromAddress, toAddress, subject, body);
+                return null;
+            });
             log.debug("Sent " + messageType + " email to " + toAddress);
         }
     }
 
+    private <T> T timeEmail(String messageType, String mode, Supplier<T> send) {
+        if (authenticationMetrics == null) {
+            return send.get();
+        }
+        return authenticationMetrics.time(AuthenticationMetrics.EMAIL_SEND, send, "type", messageType, "mode", mode);
+    }
+
     private static void logDryRunEmail(String fromAddress, String toAddress, String subject, String body) {
         final String format = "DRY RUN, would have sent email to %s from %s with subject \"%s\" and contents \"%s\"";
         log.warn(DeprecationMessages.EMAIL_DRY_RUN);
@@ -0,0 +1,134 @@
+package org.octri.authentication.server.security.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.export.ExportColumn;
+import org.octri.authentication.server.security.export.ExportFormat;
+import org.octri.authentication.server.security.export.ExportWriter;
+import org.octri.authentication.server.security.repository.LoginAttemptProjection;
+import org.octri.authentication.server.security.repository.LoginAttemptRepository;
+import org.octri.authentication.server.security.repository.SessionEventProjection;
+import org.octri.authentication.server.security.repository.SessionEventRepository;
+import org.octri.authentication.server.security.repository.UserRepository;
+import org.octri.authentication.server.security.repository.UserSummaryProjection;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Exports users, login attempts, and session events as CSV or JSON. Rows are streamed from the database with a bounded
+ * fetch size and written as they are read, so memory use does not depend on the size of the table.
+ */
+@Service
+public class ExportService {
+
+	private static final Log log = LogFactory.getLog(ExportService.class);
+
+	private static final ExportWriter<UserSummaryProjection> USER_WRITER = new ExportWriter<>(List.of(
+			new ExportColumn<>("id", UserSummaryProjection::getId),
+			new ExportColumn<>("username", UserSummaryProjection::getUsername),
+			new ExportColumn<>("email", UserSummaryProjection::getEmail),
+			new ExportColumn<>("firstName", UserSummaryProjection::getFirstName),
+			new ExportColumn<>("lastName", UserSummaryProjection::getLastName),
+			new ExportColumn<>("enabled", UserSummaryProjection::getEnabled),
+			new ExportColumn<>("accountLocked", UserSummaryProjection::getAccountLocked),
+			new ExportColumn<>("accountExpirationDate", UserSummaryProjection::getAccountExpirationDate),
+			new ExportColumn<>("credentialsExpirationDate", UserSummaryProjection::getCredentialsExpirationDate)));
+
+	private static final ExportWriter<LoginAttemptProjection> LOGIN_ATTEMPT_WRITER = new ExportWriter<>(List.of(
+			new ExportColumn<>("id", LoginAttemptProjection::getId),
+			new ExportColumn<>("username", LoginAttemptProjection::getUsername),
+			new ExportColumn<>("ipAddress", LoginAttemptProjection::getIpAddress),
+			new ExportColumn<>("attemptedAt", LoginAttemptProjection::getAttemptedAt),
+			new ExportColumn<>("successful", LoginAttemptProjection::getSuccessful),
+			new ExportColumn<>("errorType", LoginAttemptProjection::getErrorType),
+			new ExportColumn<>("errorMessage", LoginAttemptProjection::getErrorMessage)));
+
+	private static final ExportWriter<SessionEventProjection> SESSION_EVENT_WRITER = new ExportWriter<>(List.of(
+			new ExportColumn<>("id", SessionEventProjection::getId),
+			new ExportColumn<>("createdAt", SessionEventProjection::getCreatedAt),
+			new ExportColumn<>("sessionId", SessionEventProjection::getSessionId),
+			new ExportColumn<>("event", SessionEventProjection::getEvent),
+			new ExportColumn<>("username", SessionEventProjection::getUsername),
+			new ExportColumn<>("asUsername", SessionEventProjection::getAsUsername)));
+
+	private final UserRepository userRepository;
+	private final LoginAttemptRepository loginAttemptRepository;
+	private final SessionEventRepository sessionEventRepository;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param userRepository
+	 *            user repository
+	 * @param loginAttemptRepository
+	 *            login attempt repository
+	 * @param sessionEventRepository
+	 *            session event repository
+	 */
+	public ExportService(UserRepository userRepository, LoginAttemptRepository loginAttemptRepository,
+			SessionEventRepository sessionEventRepository) {
+		this.userRepository = userRepository;
+		this.loginAttemptRepository = loginAttemptRepository;
+		this.sessionEventRepository = sessionEventRepository;
+	}
+
+	/**
+	 * Writes all user accounts to the given output stream. Passwords and roles are not included.
+	 *
+	 * @param format
+	 *            the output format
+	 * @param out
+	 *            destination of the exported data. Flushed but not closed.
+	 * @throws IOException
+	 *             if the data can't be written
+	 */
+	@Transactional(readOnly = true)
+	public void exportUsers(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<UserSummaryProjection> rows = userRepository.streamAllSummariesBy()) {
+			long count = USER_WRITER.write(rows, format, out);
+			log.info("Exported " + count + " users as " + format);
+		}
+	}
+
+	/**
+	 * Writes all login attempts to the given output stream.
+	 *
+	 * @param format
+	 *            the output format
+	 * @param out
+	 *            destination of the exported data. Flushed but not closed.
+	 * @throws IOException
+	 *             if the data can't be written
+	 */
+	@Transactional(readOnly = true)
+	public void exportLoginAttempts(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<LoginAttemptProjection> rows = loginAttemptRepository.streamAllProjectedBy()) {
+			long count = LOGIN_ATTEMPT_WRITER.write(rows, format, out);
+			log.info("Exported " + count + " login attempts as " + format);
+		}
+	}
+
+	/**
+	 * Writes all session events to the given output stream.
+	 *
+	 * @param format
+	 *            the output format
+	 * @param out
+	 *            destination of the exported data. Flushed but not closed.
+	 * @throws IOException
+	 *             if the data can't be written
+	 */
+	@Transactional(readOnly = true)
+	public void exportSessionEvents(ExportFormat format, OutputStream out) throws IOException {
+		try (Stream<SessionEventProjection> rows = sessionEventRepository.streamAllProjectedBy()) {
+			long count = SESSION_EVENT_WRITER.write(rows, format, out);
+			log.info("Exported " + count + " session events as " + format);
+		}
+	}
+
+}
@@ -0,0 +1,257 @@
+package org.octri.authentication.server.security.service;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.LdapDirectorySyncProperties;
+import org.octri.authentication.server.security.LdapBatchLookupResult;
+import org.octri.authentication.server.security.LdapBatchUserLookup;
+import org.octri.authentication.server.security.LdapUserAttributes;
+import org.octri.authentication.server.security.UserDetailsCache;
+import org.octri.authentication.server.security.entity.User;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.Assert;
+
+/**
+ * Copies first names, last names, and email addresses from the directory to LDAP {@link User} records.
+ *
+ * LDAP users are read from the database one page at a time in ID order, and each page is found in the directory with
+ * {@link LdapBatchUserLookup}. Users whose attributes differ are updated with a single JDBC batch per page. Each update
+ * checks the row version, so a user edited while the sync runs is left alone until the next run. If the batch fails,
+ * for example because a new email address is already used by another account, the page is retried one user at a time
+ * so that one bad row does not prevent the others from being updated.
+ *
+ * Blank directory values, and values longer than the database columns allow, are not copied. Users that are not found
+ * in the directory are counted and left unchanged.
+ *
+ * @see LdapDirectorySyncProperties
+ */
+public class LdapDirectorySyncJob {
+
+	private static final Log log = LogFactory.getLog(LdapDirectorySyncJob.class);
+
+	static final String SELECT_SQL = "SELECT id, version, username, first_name, last_name, email FROM `user` "
+			+ "WHERE authentication_method = 'LDAP' AND id > ? ORDER BY id LIMIT ?";
+	static final String UPDATE_SQL = "UPDATE `user` SET first_name = ?, last_name = ?, email = ?, "
+			+ "version = version + 1, updated_at = ?, updated_by = ? WHERE id = ? AND version = ?";
+
+	/**
+	 * Value recorded in the updated_by column of users changed by the sync.
+	 */
+	static final String UPDATED_BY = "ldap-directory-sync";
+
+	private static final int MAX_NAME_LENGTH = 50;
+	private static final int MAX_EMAIL_LENGTH = 320;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final LdapBatchUserLookup ldapBatchUserLookup;
+	private final UserDetailsCache userDetailsCache;
+	private final int pageSize;
+	private final Clock clock;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to read and update users
+	 * @param ldapBatchUserLookup
+	 *            lookup used to find users in the directory
+	 * @param userDetailsCache
+	 *            cache of authentication user details, or null if not configured. Updated users are evicted.
+	 * @param ldapDirectorySyncProperties
+	 *            directory sync configuration
+	 */
+	public LdapDirectorySyncJob(JdbcTemplate jdbcTemplate, LdapBatchUserLookup ldapBatchUserLookup,
+			UserDetailsCache userDetailsCache, LdapDirectorySyncProperties ldapDirectorySyncProperties) {
+		this(jdbcTemplate, ldapBatchUserLookup, userDetailsCache, ldapDirectorySyncProperties, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor that uses the given clock to set the updated_at column.
+	 */
+	LdapDirectorySyncJob(JdbcTemplate jdbcTemplate, LdapBatchUserLookup ldapBatchUserLookup,
+			UserDetailsCache userDetailsCache, LdapDirectorySyncProperties ldapDirectorySyncProperties, Clock clock) {
+		Assert.isTrue(ldapDirectorySyncProperties.getPageSize() > 0,
+				"LDAP directory sync page size must be greater than zero");
+		this.jdbcTemplate = jdbcTemplate;
+		this.ldapBatchUserLookup = ldapBatchUserLookup;
+		this.userDetailsCache = userDetailsCache;
+		this.pageSize = ldapDirectorySyncProperties.getPageSize();
+		this.clock = clock;
+	}
+
+	/**
+	 * Updates LDAP users from the directory. Runs on the schedule given by octri.authentication.ldap-sync.cron.
+	 */
+	@Scheduled(cron = "${octri.authentication.ldap-sync.cron:" + LdapDirectorySyncProperties.DEFAULT_CRON + "}")
+	public void run() {
+		try {
+			sync();
+		} catch (RuntimeException e) {
+			log.error("Failed to sync LDAP users from the directory", e);
+		}
+	}
+
+	/**
+	 * Updates every LDAP user whose name or email address differs from the directory.
+	 *
+	 * @return the number of users updated
+	 */
+	public long sync() {
+		long checked = 0;
+		long updated = 0;
+		long notFound = 0;
+		long failed = 0;
+		long lastId = 0;
+		List<SyncedUser> page;
+		do {
+			page = jdbcTemplate.query(SELECT_SQL,
+					(rs, rowNum) -> new SyncedUser(rs.getLong("id"), rs.getLong("version"), rs.getString("username"),
+							rs.getString("first_name"), rs.getString("last_name"), rs.getString("email")),
+					lastId, pageSize);
+			if (page.isEmpty()) {
+				break;
+			}
+			lastId = page.get(page.size() - 1).id;
+			checked += page.size();
+
+			List<String> usernames = page.stream().map(user -> user.username).toList();
+			LdapBatchLookupResult result = ldapBatchUserLookup.lookup(usernames);
+			notFound += result.getNotFound().size();
+			failed += result.getFailed().size();
+
+			List<SyncedUser> changed = new ArrayList<>();
+			for (SyncedUser user : page) {
+				LdapUserAttributes attributes = result.getFound().get(user.username);
+				if (attributes != null && user.merge(attributes)) {
+					changed.add(user);
+				}
+			}
+			updated += update(changed);
+		} while (page.size() >= pageSize);
+
+		log.info("Synced LDAP users from the directory. Checked: " + checked + ", updated: " + updated
+				+ ", not found: " + notFound + ", lookup failed: " + failed);
+		return updated;
+	}
+
+	/**
+	 * Writes the changed users in one batch, falling back to one statement per user if the batch fails. Rows the failed
+	 * batch already wrote are counted from the batch's update counts and not retried, because the retry would fail the
+	 * version check.
+	 *
+	 * @return the number of users updated
+	 */
+	private long update(List<SyncedUser> changed) {
+		if (changed.isEmpty()) {
+			return 0;
+		}
+		Timestamp now = Timestamp.from(clock.instant());
+		List<Object[]> rows = changed.stream().map(user -> user.updateArgs(now)).toList();
+		long updated = 0;
+		try {
+			for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, rows)) {
+				updated += Math.max(count, 0);
+			}
+		} catch (DataAccessException e) {
+			log.warn("Batch update of " + rows.size() + " LDAP user(s) failed. Retrying one user at a time.", e);
+			int[] batchCounts = batchUpdateCounts(e);
+			for (int i = 0; i < rows.size(); i++) {
+				if (i < batchCounts.length && batchCounts[i] != Statement.EXECUTE_FAILED) {
+					updated += Math.max(batchCounts[i], 0);
+					continue;
+				}
+				try {
+					updated += jdbcTemplate.update(UPDATE_SQL, rows.get(i));
+				} catch (DataAccessException userException) {
+					log.warn("Could not update LDAP user " + changed.get(i).username + " from the directory: "
+							+ userException.getMessage());
+				}
+			}
+		}
+		if (userDetailsCache != null) {
+			changed.forEach(user -> userDetailsCache.evict(user.username));
+		}
+		return updated;
+	}
+
+	/**
+	 * Gets the update counts reported by a failed batch. Drivers report counts for the statements run before the
+	 * failure, and some also for the statements after it, marking those that failed {@link Statement#EXECUTE_FAILED}.
+	 *
+	 * @return the update counts, or an empty array if the driver did not report them
+	 */
+	private static int[] batchUpdateCounts(DataAccessException e) {
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof BatchUpdateException batchException && batchException.getUpdateCounts() != null) {
+				return batchException.getUpdateCounts();
+			}
+		}
+		return new int[0];
+	}
+
+	/**
+	 * Copies a directory value unless it is blank or too long for its column.
+	 */
+	private static String directoryValue(String current, String directoryValue, int maxLength) {
+		if (StringUtils.isBlank(directoryValue) || directoryValue.trim().length() > maxLength) {
+			return current;
+		}
+		return directoryValue.trim();
+	}
+
+	/**
+	 * The columns of an LDAP user that are read and written by the sync.
+	 */
+	private static class SyncedUser {
+
+		private final long id;
+		private final long version;
+		private final String username;
+		private String firstName;
+		private String lastName;
+		private String email;
+
+		SyncedUser(long id, long version, String username, String firstName, String lastName, String email) {
+			this.id = id;
+			this.version = version;
+			this.username = username;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.email = email;
+		}
+
+		/**
+		 * Applies the directory attributes.
+		 *
+		 * @return true if any column changed
+		 */
+		boolean merge(LdapUserAttributes attributes) {
+			String newFirstName = directoryValue(firstName, attributes.getFirstName(), MAX_NAME_LENGTH);
+			String newLastName = directoryValue(lastName, attributes.getLastName(), MAX_NAME_LENGTH);
+			String newEmail = directoryValue(email, attributes.getEmail(), MAX_EMAIL_LENGTH);
+			boolean changed = !Objects.equals(firstName, newFirstName) || !Objects.equals(lastName, newLastName)
+					|| !Objects.equals(email, newEmail);
+			firstName = newFirstName;
+			lastName = newLastName;
+			email = newEmail;
+			return changed;
+		}
+
+		Object[] updateArgs(Timestamp now) {
+			return new Object[] { firstName, lastName, email, now, UPDATED_BY, id, version };
+		}
+
+	}
+
+}
@@ -3,7 +3,9 @@ package org.octri.authentication.server.security.service;
 import java.util.List;
 
 import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.repository.LoginAttemptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,12 @@ public class LoginAttemptService {
 	@Resource
 	LoginAttemptRepository loginAttemptRepository;
 
+	@Autowired(required = false)
+	AsyncLoginAttemptWriter asyncLoginAttemptWriter;
+
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	/**
 	 * Gets the login attempt with the given ID.
 	 *
@@ -45,6 +53,34 @@ public class LoginAttemptService {
 		return loginAttemptRepository.save(loginAttempt);
 	}
 
+	/**
+	 * Records the given login attempt. When asynchronous auditing is enabled
+	 * (octri.authentication.audit.async-enabled), the attempt is queued and written in the background by the
+	 * {@link AsyncLoginAttemptWriter}. Otherwise it is saved immediately. Recording is observed when metrics are
+	 * available.
+	 *
+	 * @param loginAttempt
+	 *            the login attempt to record
+	 */
+	public void record(LoginAttempt loginAttempt) {
+		if (authenticationMetrics != null) {
+			authenticationMetrics.observe(AuthenticationMetrics.LOGIN_AUDIT_OBSERVATION, () -> {
+				write(loginAttempt);
+				return null;
+			}, "mode", asyncLoginAttemptWriter != null ? "queued" : "immediate");
+		} else {
+			write(loginAttempt);
+		}
+	}
+
+	private void write(LoginAttempt loginAttempt) {
+		if (asyncLoginAttemptWriter != null) {
+			asyncLoginAttemptWriter.submit(loginAttempt);
+		} else {
+			loginAttemptRepository.save(loginAttempt);
+		}
+	}
+
 	/**
 	 * Gets a list of all existing login attempts.
 	 *
@@ -67,14 +103,12 @@ public class LoginAttemptService {
 	}
 
 	/**
-	 * Deletes all existing login attempts.
+	 * Deletes all existing login attempts with a single bulk delete, without loading them. To remove old login attempts
+	 * on a schedule, see {@link RetentionPurgeJob}.
 	 */
 	@Transactional
 	public void deleteAll() {
-		List<LoginAttempt> allAttempts = loginAttemptRepository.findAll();
-		for (LoginAttempt attempt : allAttempts) {
-			loginAttemptRepository.delete(attempt);
-		}
+		loginAttemptRepository.deleteAllInBatch();
 	}
 
 	/**
@@ -0,0 +1,257 @@
+package org.octri.authentication.server.security.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.SessionEventProperties;
+import org.octri.authentication.server.security.SessionDestroyedListener;
+import org.octri.authentication.server.security.entity.SessionEvent.EventType;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Writes {@link EventType#LOGOUT} events in batches on a background thread, so that the container thread that
+ * destroys expired sessions never waits on the database. When many sessions expire together, their logouts are
+ * coalesced into a few multi-row INSERT statements.
+ *
+ * Logouts are placed in a bounded queue and collected into batches by a {@link BatchingQueueWriter}, as the
+ * {@link AsyncLoginAttemptWriter} does for login attempts. Each batch is inserted with one statement
+ * that copies the user from each session's login event, as {@link SessionEventService} does for a single logout. When
+ * the queue is full, the logout is dropped and counted rather than blocking the {@link SessionDestroyedListener}.
+ * Logouts still queued when the application shuts down are written before the bean is destroyed.
+ *
+ * If login events are written asynchronously, each batch is handed to the {@link AsyncSessionEventRecorder} so that
+ * it is written after any login that was queued before it.
+ *
+ * Queue depth and the numbers of written, dropped, and failed logouts are published to Micrometer.
+ *
+ * @see SessionEventProperties
+ */
+public class LogoutEventSink implements InitializingBean, DisposableBean, MeterBinder {
+
+	private static final Log log = LogFactory.getLog(LogoutEventSink.class);
+
+	static final String INSERT_PREFIX = "INSERT INTO session_event "
+			+ "(version, created_at, updated_at, event, session_id, `user`) "
+			+ "SELECT 0, logout.logged_out_at, logout.logged_out_at, 'LOGOUT', login.session_id, login.`user` FROM (";
+	static final String FIRST_ROW = "SELECT ? AS session_id, ? AS logged_out_at";
+	static final String NEXT_ROW = " UNION ALL SELECT ?, ?";
+	static final String INSERT_SUFFIX = ") logout JOIN session_event login ON login.session_id = logout.session_id "
+			+ "WHERE login.event = 'LOGIN' "
+			+ "ON DUPLICATE KEY UPDATE session_event.version = session_event.version";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final AsyncSessionEventRecorder sessionEventRecorder;
+	private final BatchingQueueWriter<Logout> queue;
+	private final int batchSize;
+	private final Duration flushInterval;
+	private final Duration shutdownTimeout;
+
+	private final AtomicLong writtenCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to insert logout events
+	 * @param sessionEventRecorder
+	 *            recorder that writes login events asynchronously, or null if login events are written synchronously
+	 * @param sessionEventProperties
+	 *            session event configuration
+	 */
+	public LogoutEventSink(JdbcTemplate jdbcTemplate, AsyncSessionEventRecorder sessionEventRecorder,
+			SessionEventProperties sessionEventProperties) {
+		Assert.isTrue(sessionEventProperties.getLogoutQueueCapacity() > 0,
+				"Logout queue capacity must be greater than zero");
+		Assert.isTrue(sessionEventProperties.getLogoutBatchSize() > 0,
+				"Logout batch size must be greater than zero");
+		this.jdbcTemplate = jdbcTemplate;
+		this.sessionEventRecorder = sessionEventRecorder;
+		this.queue = new BatchingQueueWriter<>("logout-event-writer", sessionEventProperties.getLogoutQueueCapacity(),
+				sessionEventProperties.getLogoutBatchSize(), sessionEventProperties.getLogoutFlushInterval(),
+				this::write);
+		this.batchSize = sessionEventProperties.getLogoutBatchSize();
+		this.flushInterval = sessionEventProperties.getLogoutFlushInterval();
+		this.shutdownTimeout = sessionEventProperties.getShutdownTimeout();
+	}
+
+	/**
+	 * Starts the background writer thread.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		queue.start();
+		log.info("Started logout event writer with batch size " + batchSize + " and flush interval "
+				+ flushInterval);
+	}
+
+	/**
+	 * Stops the background writer and writes any logouts that are still queued.
+	 */
+	@Override
+	public void destroy() {
+		queue.stop(shutdownTimeout);
+		log.info("Stopped logout event writer. Written: " + writtenCount.get() + ", dropped: " + droppedCount.get()
+				+ ", failed: " + failedCount.get());
+	}
+
+	/**
+	 * Queues a logout to be written. Never blocks. If the queue is full, the logout is dropped. If the writer has been
+	 * stopped, the logout is written immediately.
+	 *
+	 * @param sessionId
+	 *            ID of the session that ended
+	 * @param loggedOutAt
+	 *            time the session ended
+	 * @return true if the logout was queued or written, false if it was dropped
+	 */
+	public boolean submit(String sessionId, Date loggedOutAt) {
+		Assert.notNull(sessionId, "Must provide a session id");
+		Logout logout = new Logout(sessionId, new Timestamp(loggedOutAt.getTime()));
+		if (!queue.isRunning()) {
+			return insert(List.of(logout));
+		}
+		if (queue.offer(logout)) {
+			return true;
+		}
+		long dropped = droppedCount.incrementAndGet();
+		log.warn("Logout event queue is full. Dropped logout for session id " + sessionId + " (" + dropped
+				+ " dropped in total)");
+		return false;
+	}
+
+	/**
+	 * Gets the number of logouts waiting to be written.
+	 *
+	 * @return the current queue depth
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets the number of logouts passed to the database. Logouts for sessions without a recorded login and repeated
+	 * logouts are counted, although they do not add rows.
+	 *
+	 * @return the number of logouts written
+	 */
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	/**
+	 * Gets the number of logouts dropped because the queue was full.
+	 *
+	 * @return the number of dropped logouts
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Gets the number of logouts that could not be written because of a database error.
+	 *
+	 * @return the number of logouts that failed to be written
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("authlib.session.logout.queue.size", this, LogoutEventSink::getQueueDepth)
+				.description("The number of logout events waiting to be written.")
+				.register(registry);
+		FunctionCounter.builder("authlib.session.logout.written", this, LogoutEventSink::getWrittenCount)
+				.description("The number of logout events passed to the database.")
+				.register(registry);
+		FunctionCounter.builder("authlib.session.logout.dropped", this, LogoutEventSink::getDroppedCount)
+				.description("The number of logout events dropped because the queue was full.")
+				.register(registry);
+		FunctionCounter.builder("authlib.session.logout.failed", this, LogoutEventSink::getFailedCount)
+				.description("The number of logout events that could not be written because of a database error.")
+				.register(registry);
+	}
+
+	/**
+	 * Builds the INSERT statement for a batch of the given size.
+	 *
+	 * @param size
+	 *            number of logouts in the batch
+	 * @return SQL with two parameters per logout
+	 */
+	static String insertSql(int size) {
+		var sql = new StringBuilder(INSERT_PREFIX.length() + INSERT_SUFFIX.length() + size * NEXT_ROW.length());
+		sql.append(INSERT_PREFIX).append(FIRST_ROW);
+		for (int i = 1; i < size; i++) {
+			sql.append(NEXT_ROW);
+		}
+		return sql.append(INSERT_SUFFIX).toString();
+	}
+
+	/**
+	 * Writes a batch, after any queued login events if login events are written asynchronously.
+	 */
+	private void write(List<Logout> batch) {
+		if (sessionEventRecorder != null) {
+			sessionEventRecorder.submit(() -> insert(batch));
+		} else {
+			insert(batch);
+		}
+	}
+
+	/**
+	 * Inserts the given logouts using a single statement.
+	 *
+	 * @param batch
+	 *            logouts to insert
+	 * @return true if the batch was written, false if a database error occurred
+	 */
+	private boolean insert(List<Logout> batch) {
+		Object[] args = new Object[batch.size() * 2];
+		for (int i = 0; i < batch.size(); i++) {
+			args[2 * i] = batch.get(i).sessionId;
+			args[2 * i + 1] = batch.get(i).loggedOutAt;
+		}
+		try {
+			jdbcTemplate.update(insertSql(batch.size()), args);
+			writtenCount.addAndGet(batch.size());
+			return true;
+		} catch (DataAccessException e) {
+			failedCount.addAndGet(batch.size());
+			log.error("Failed to write " + batch.size() + " logout event(s)", e);
+			return false;
+		}
+	}
+
+	/**
+	 * A session that ended and the time it ended.
+	 */
+	private static class Logout {
+
+		private final String sessionId;
+		private final Timestamp loggedOutAt;
+
+		Logout(String sessionId, Timestamp loggedOutAt) {
+			this.sessionId = sessionId;
+			this.loggedOutAt = loggedOutAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,135 @@
+package org.octri.authentication.server.security.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.EmailQueueProperties;
+import org.octri.authentication.server.security.service.OutboundEmailQueue.QueuedEmail;
+import org.octri.messaging.service.MessageDeliveryService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.Assert;
+
+/**
+ * Sends messages from the {@link OutboundEmailQueue} in the background, so that requests that send account emails do
+ * not wait on the mail server.
+ *
+ * Each run claims the messages that are due, up to the batch size and the remaining send rate allowance, and sends
+ * them one at a time. The allowance is computed in the same transaction as the claim, so it is shared by all
+ * application instances. See {@link OutboundEmailQueue#claim(int, Duration, int)}. A message that cannot be
+ * delivered is retried after an exponential backoff until the maximum number of attempts is reached, then marked as
+ * failed.
+ *
+ * @see EmailQueueProperties
+ */
+public class OutboundEmailDispatcher {
+
+	private static final Log log = LogFactory.getLog(OutboundEmailDispatcher.class);
+
+	private final OutboundEmailQueue queue;
+	private final MessageDeliveryService messageDeliveryService;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final Duration claimTimeout;
+	private final int maxSendsPerMinute;
+	private final Clock clock;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param queue
+	 *            queue of outbound messages
+	 * @param messageDeliveryService
+	 *            service used to deliver email messages
+	 * @param emailQueueProperties
+	 *            email queue configuration
+	 */
+	public OutboundEmailDispatcher(OutboundEmailQueue queue, MessageDeliveryService messageDeliveryService,
+			EmailQueueProperties emailQueueProperties) {
+		this(queue, messageDeliveryService, emailQueueProperties, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor that uses the given clock to schedule retries.
+	 */
+	OutboundEmailDispatcher(OutboundEmailQueue queue, MessageDeliveryService messageDeliveryService,
+			EmailQueueProperties emailQueueProperties, Clock clock) {
+		Assert.isTrue(emailQueueProperties.getBatchSize() > 0, "Email queue batch size must be greater than zero");
+		Assert.isTrue(emailQueueProperties.getMaxAttempts() > 0,
+				"Email queue maximum attempts must be greater than zero");
+		this.queue = queue;
+		this.messageDeliveryService = messageDeliveryService;
+		this.batchSize = emailQueueProperties.getBatchSize();
+		this.maxAttempts = emailQueueProperties.getMaxAttempts();
+		this.initialBackoff = emailQueueProperties.getInitialBackoff();
+		this.maxBackoff = emailQueueProperties.getMaxBackoff();
+		this.claimTimeout = emailQueueProperties.getClaimTimeout();
+		this.maxSendsPerMinute = emailQueueProperties.getMaxSendsPerMinute();
+		this.clock = clock;
+	}
+
+	/**
+	 * Sends the messages that are due. Runs at the interval given by octri.authentication.email-queue.poll-interval.
+	 *
+	 * @return the number of messages sent
+	 */
+	@Scheduled(fixedDelayString = "${octri.authentication.email-queue.poll-interval:"
+			+ EmailQueueProperties.DEFAULT_POLL_INTERVAL + "}")
+	public int dispatch() {
+		int expired = queue.failExpiredClaims(maxAttempts);
+		if (expired > 0) {
+			log.warn("Marked " + expired + " email(s) as failed after their final claim expired");
+		}
+
+		List<QueuedEmail> claimed = queue.claim(batchSize, claimTimeout, maxSendsPerMinute);
+		int sent = 0;
+		for (QueuedEmail email : claimed) {
+			if (send(email)) {
+				sent++;
+			}
+		}
+		return sent;
+	}
+
+	/**
+	 * Computes how long to wait before retrying after the given attempt.
+	 *
+	 * @param attempt
+	 *            number of the attempt that failed, starting at 1
+	 * @return the initial backoff doubled for each earlier attempt, limited to the maximum backoff
+	 */
+	Duration backoff(int attempt) {
+		int doublings = Math.min(Math.max(attempt - 1, 0), 30);
+		Duration delay = initialBackoff.multipliedBy(1L << doublings);
+		return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+	}
+
+	private boolean send(QueuedEmail email) {
+		try {
+			messageDeliveryService.sendEmail(email.getFromAddress(), email.getToAddress(), email.getSubject(),
+					email.getBody());
+		} catch (RuntimeException e) {
+			String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+			if (email.getAttempt() >= maxAttempts) {
+				log.error("Failed to send " + email.getMessageType() + " email to " + email.getToAddress()
+						+ " after " + email.getAttempt() + " attempt(s)", e);
+				queue.markFailed(email.getId(), error);
+			} else {
+				Instant nextAttemptAt = clock.instant().plus(backoff(email.getAttempt()));
+				log.warn("Failed to send " + email.getMessageType() + " email to " + email.getToAddress()
+						+ " (attempt " + email.getAttempt() + "). Retrying at " + nextAttemptAt + ": " + error);
+				queue.markForRetry(email.getId(), nextAttemptAt, error);
+			}
+			return false;
+		}
+		queue.markSent(email.getId());
+		log.debug("Sent " + email.getMessageType() + " email to " + email.getToAddress());
+		return true;
+	}
+
+}
@@ -0,0 +1,429 @@
+package org.octri.authentication.server.security.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.octri.authentication.config.EmailQueueProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Stores outbound email in the outbound_email table until {@link OutboundEmailDispatcher} delivers it.
+ *
+ * Messages are inserted on the request thread, within the caller's transaction if there is one. Two kinds of
+ * duplicate are suppressed per recipient:
+ * <ul>
+ * <li>If a message of the same type to the same recipient is still waiting to be sent, its content is replaced rather
+ * than queueing a second message. A user who requests several password resets receives one email with the newest
+ * link.</li>
+ * <li>If a message with identical content was queued for the same recipient within the deduplication window and has
+ * not failed, the new message is discarded.</li>
+ * </ul>
+ *
+ * Several application instances may dispatch from the same table. Messages are claimed with SELECT ... FOR UPDATE SKIP
+ * LOCKED, so each message is claimed by one dispatcher. A claim expires after the claim timeout, after which another
+ * dispatcher may retry the message. When the send rate is limited, each claim first locks the single row of the
+ * outbound_email_claim_lock table, so that claims are made one at a time and each one counts the messages sent or
+ * claimed by every instance.
+ *
+ * Message bodies may contain password reset links, so the body is cleared once a message is sent or has failed, and is
+ * never included in the status shown to administrators.
+ *
+ * @see EmailQueueProperties
+ */
+public class OutboundEmailQueue {
+
+	/**
+	 * The delivery status of a queued message.
+	 */
+	public enum Status {
+		/**
+		 * Waiting to be sent or retried
+		 */
+		PENDING,
+
+		/**
+		 * Claimed by a dispatcher
+		 */
+		SENDING,
+
+		/**
+		 * Delivered to the mail server
+		 */
+		SENT,
+
+		/**
+		 * Could not be delivered within the maximum number of attempts
+		 */
+		FAILED
+	}
+
+	/**
+	 * The result of queueing a message.
+	 */
+	public enum EnqueueResult {
+		/**
+		 * The message was added to the queue
+		 */
+		QUEUED,
+
+		/**
+		 * The message replaced the content of a waiting message of the same type to the same recipient
+		 */
+		COALESCED,
+
+		/**
+		 * An identical message was recently queued for the same recipient, so the message was discarded
+		 */
+		DUPLICATE
+	}
+
+	static final int MAX_ERROR_LENGTH = 1000;
+
+	static final Duration RATE_PERIOD = Duration.ofMinutes(1);
+
+	private static final String COALESCE_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "from_address = ?, subject = ?, body = ?, content_hash = ?, next_attempt_at = ? "
+			+ "WHERE to_address = ? AND message_type = ? AND status = 'PENDING'";
+
+	private static final String DUPLICATE_SQL = "SELECT COUNT(*) FROM outbound_email "
+			+ "WHERE to_address = ? AND content_hash = ? AND created_at >= ? AND status <> 'FAILED'";
+
+	private static final String INSERT_SQL = "INSERT INTO outbound_email (version, created_at, updated_at, "
+			+ "message_type, from_address, to_address, subject, body, content_hash, status, attempts, next_attempt_at) "
+			+ "VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, 'PENDING', 0, ?)";
+
+	private static final String EXPIRE_CLAIMS_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "status = 'FAILED', body = NULL, last_error = 'Not sent before the claim expired' "
+			+ "WHERE status = 'SENDING' AND next_attempt_at <= ? AND attempts >= ?";
+
+	static final String CLAIM_LOCK_SQL = "SELECT id FROM outbound_email_claim_lock WHERE id = 1 FOR UPDATE";
+
+	static final String SENT_OR_CLAIMED_SQL = "SELECT COUNT(*) FROM outbound_email "
+			+ "WHERE (status = 'SENT' AND sent_at >= ?) OR (status = 'SENDING' AND next_attempt_at > ?)";
+
+	static final String CLAIM_SELECT_SQL = "SELECT id, message_type, from_address, to_address, subject, body, "
+			+ "attempts FROM outbound_email WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ? "
+			+ "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+	private static final String CLAIM_UPDATE_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "status = 'SENDING', attempts = attempts + 1, next_attempt_at = ? WHERE id = ?";
+
+	private static final String SENT_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "status = 'SENT', sent_at = ?, body = NULL, last_error = NULL WHERE id = ?";
+
+	private static final String RETRY_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "status = 'PENDING', next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+	private static final String FAILED_SQL = "UPDATE outbound_email SET version = version + 1, updated_at = ?, "
+			+ "status = 'FAILED', body = NULL, last_error = ? WHERE id = ?";
+
+	private static final String COUNT_BY_STATUS_SQL = "SELECT status, COUNT(*) AS message_count "
+			+ "FROM outbound_email GROUP BY status";
+
+	private static final String RECENT_SQL = "SELECT id, message_type, to_address, subject, status, attempts, "
+			+ "next_attempt_at, sent_at, last_error, created_at, updated_at FROM outbound_email "
+			+ "WHERE status = ? ORDER BY updated_at DESC, id DESC LIMIT ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration deduplicationWindow;
+	private final Clock clock;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to read and write the queue
+	 * @param transactionManager
+	 *            transaction manager used to claim messages
+	 * @param emailQueueProperties
+	 *            email queue configuration
+	 */
+	public OutboundEmailQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			EmailQueueProperties emailQueueProperties) {
+		this(jdbcTemplate, transactionManager, emailQueueProperties, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor that uses the given clock for timestamps.
+	 */
+	OutboundEmailQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			EmailQueueProperties emailQueueProperties, Clock clock) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.deduplicationWindow = emailQueueProperties.getDeduplicationWindow();
+		this.clock = clock;
+	}
+
+	/**
+	 * Queues a message to be sent as soon as possible.
+	 *
+	 * @param messageType
+	 *            short description of the message, such as "password reset token"
+	 * @param fromAddress
+	 *            sender address
+	 * @param toAddress
+	 *            recipient address
+	 * @param subject
+	 *            message subject
+	 * @param body
+	 *            message body
+	 * @return whether the message was queued, merged into a waiting message, or discarded as a duplicate
+	 */
+	public EnqueueResult enqueue(String messageType, String fromAddress, String toAddress, String subject,
+			String body) {
+		Assert.hasText(messageType, "Must provide a message type");
+		Assert.hasText(toAddress, "Must provide a recipient address");
+		Timestamp now = Timestamp.from(clock.instant());
+		String contentHash = contentHash(subject, body);
+
+		// The coalesced message is new content, so it is due now even if the waiting message was backing off
+		if (jdbcTemplate.update(COALESCE_SQL, now, fromAddress, subject, body, contentHash, now, toAddress,
+				messageType) > 0) {
+			return EnqueueResult.COALESCED;
+		}
+
+		if (deduplicationWindow != null && !deduplicationWindow.isNegative() && !deduplicationWindow.isZero()) {
+			Timestamp windowStart = Timestamp.from(now.toInstant().minus(deduplicationWindow));
+			Long duplicates = jdbcTemplate.queryForObject(DUPLICATE_SQL, Long.class, toAddress, contentHash,
+					windowStart);
+			if (duplicates != null && duplicates > 0) {
+				return EnqueueResult.DUPLICATE;
+			}
+		}
+
+		jdbcTemplate.update(INSERT_SQL, now, now, messageType, fromAddress, toAddress, subject, body, contentHash,
+				now);
+		return EnqueueResult.QUEUED;
+	}
+
+	/**
+	 * Claims messages that are due to be sent. Claimed messages are not claimed again until the claim expires.
+	 *
+	 * If the send rate is limited, the claim lock is held while the messages sent in the last minute and the messages
+	 * with an unexpired claim are counted, and only the remaining allowance is claimed. The lock is held until the
+	 * claim commits, so the limit applies across all application instances.
+	 *
+	 * @param limit
+	 *            maximum number of messages to claim
+	 * @param claimTimeout
+	 *            length of time before the claim expires
+	 * @param maxSendsPerMinute
+	 *            maximum number of messages sent or claimed in any minute, or 0 for no limit
+	 * @return the claimed messages
+	 */
+	public List<QueuedEmail> claim(int limit, Duration claimTimeout, int maxSendsPerMinute) {
+		Instant now = clock.instant();
+		Timestamp nowTimestamp = Timestamp.from(now);
+		Timestamp claimExpiry = Timestamp.from(now.plus(claimTimeout));
+		return transactionTemplate.execute(status -> {
+			int allowed = limit;
+			if (maxSendsPerMinute > 0) {
+				jdbcTemplate.queryForObject(CLAIM_LOCK_SQL, Integer.class);
+				Long sentOrClaimed = jdbcTemplate.queryForObject(SENT_OR_CLAIMED_SQL, Long.class,
+						Timestamp.from(now.minus(RATE_PERIOD)), nowTimestamp);
+				allowed = (int) Math.min(limit, maxSendsPerMinute - (sentOrClaimed == null ? 0 : sentOrClaimed));
+				if (allowed <= 0) {
+					return List.<QueuedEmail> of();
+				}
+			}
+
+			List<QueuedEmail> claimed = jdbcTemplate.query(CLAIM_SELECT_SQL,
+					(rs, rowNum) -> new QueuedEmail(rs.getLong("id"), rs.getString("message_type"),
+							rs.getString("from_address"), rs.getString("to_address"), rs.getString("subject"),
+							rs.getString("body"), rs.getInt("attempts") + 1),
+					nowTimestamp, allowed);
+			if (!claimed.isEmpty()) {
+				jdbcTemplate.batchUpdate(CLAIM_UPDATE_SQL, claimed.stream()
+						.map(email -> new Object[] { nowTimestamp, claimExpiry, email.getId() })
+						.toList());
+			}
+			return claimed;
+		});
+	}
+
+	/**
+	 * Marks messages whose claim expired after their final attempt as failed. This happens when an application
+	 * instance stops while sending.
+	 *
+	 * @param maxAttempts
+	 *            maximum number of delivery attempts
+	 * @return the number of messages marked as failed
+	 */
+	public int failExpiredClaims(int maxAttempts) {
+		Timestamp now = Timestamp.from(clock.instant());
+		return jdbcTemplate.update(EXPIRE_CLAIMS_SQL, now, now, maxAttempts);
+	}
+
+	/**
+	 * Marks a message as sent.
+	 *
+	 * @param id
+	 *            message ID
+	 */
+	public void markSent(Long id) {
+		Timestamp now = Timestamp.from(clock.instant());
+		jdbcTemplate.update(SENT_SQL, now, now, id);
+	}
+
+	/**
+	 * Returns a message to the queue to be retried later.
+	 *
+	 * @param id
+	 *            message ID
+	 * @param nextAttemptAt
+	 *            earliest time to retry the message
+	 * @param error
+	 *            description of the delivery error
+	 */
+	public void markForRetry(Long id, Instant nextAttemptAt, String error) {
+		jdbcTemplate.update(RETRY_SQL, Timestamp.from(clock.instant()), Timestamp.from(nextAttemptAt),
+				truncate(error), id);
+	}
+
+	/**
+	 * Marks a message as failed. It will not be retried.
+	 *
+	 * @param id
+	 *            message ID
+	 * @param error
+	 *            description of the delivery error
+	 */
+	public void markFailed(Long id, String error) {
+		jdbcTemplate.update(FAILED_SQL, Timestamp.from(clock.instant()), truncate(error), id);
+	}
+
+	/**
+	 * Counts messages in each status.
+	 *
+	 * @return the number of messages in each status, including statuses with no messages
+	 */
+	public Map<Status, Long> countByStatus() {
+		Map<Status, Long> counts = new LinkedHashMap<>();
+		for (Status status : Status.values()) {
+			counts.put(status, 0L);
+		}
+		jdbcTemplate.query(COUNT_BY_STATUS_SQL, rs -> {
+			counts.put(Status.valueOf(rs.getString("status")), rs.getLong("message_count"));
+		});
+		return counts;
+	}
+
+	/**
+	 * Finds the most recently updated messages in the given status. Message bodies are not included.
+	 *
+	 * @param status
+	 *            message status
+	 * @param limit
+	 *            maximum number of messages to return
+	 * @return the matching messages, most recently updated first
+	 */
+	public List<Map<String, Object>> findRecent(Status status, int limit) {
+		return jdbcTemplate.queryForList(RECENT_SQL, status.name(), limit);
+	}
+
+	static String contentHash(String subject, String body) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(StringUtils.defaultString(subject).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(StringUtils.defaultString(body).getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String truncate(String error) {
+		return StringUtils.abbreviate(error, MAX_ERROR_LENGTH);
+	}
+
+	/**
+	 * A message claimed for delivery.
+	 */
+	public static class QueuedEmail {
+
+		private final Long id;
+		private final String messageType;
+		private final String fromAddress;
+		private final String toAddress;
+		private final String subject;
+		private final String body;
+		private final int attempt;
+
+		QueuedEmail(Long id, String messageType, String fromAddress, String toAddress, String subject, String body,
+				int attempt) {
+			this.id = id;
+			this.messageType = messageType;
+			this.fromAddress = fromAddress;
+			this.toAddress = toAddress;
+			this.subject = subject;
+			this.body = body;
+			this.attempt = attempt;
+		}
+
+		/**
+		 * @return the message ID
+		 */
+		public Long getId() {
+			return id;
+		}
+
+		/**
+		 * @return short description of the message
+		 */
+		public String getMessageType() {
+			return messageType;
+		}
+
+		/**
+		 * @return the sender address
+		 */
+		public String getFromAddress() {
+			return fromAddress;
+		}
+
+		/**
+		 * @return the recipient address
+		 */
+		public String getToAddress() {
+			return toAddress;
+		}
+
+		/**
+		 * @return the message subject
+		 */
+		public String getSubject() {
+			return subject;
+		}
+
+		/**
+		 * @return the message body
+		 */
+		public String getBody() {
+			return body;
+		}
+
+		/**
+		 * @return the number of this delivery attempt, starting at 1
+		 */
+		public int getAttempt() {
+			return attempt;
+		}
+
+	}
+
+}
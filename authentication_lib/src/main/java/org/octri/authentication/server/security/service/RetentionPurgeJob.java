@@ -0,0 +1,225 @@
+package org.octri.authentication.server.security.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.RetentionProperties;
+import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.octri.authentication.server.security.entity.SessionEvent;
+import org.octri.authentication.server.security.export.ExportColumn;
+import org.octri.authentication.server.security.export.ExportFormat;
+import org.octri.authentication.server.security.export.ExportWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.Assert;
+
+/**
+ * Deletes {@link LoginAttempt} and {@link SessionEvent} records that are older than the configured retention period.
+ *
+ * Rows are removed with bulk DELETE statements of at most the configured chunk size, each committed on its own, with a
+ * pause between statements. This keeps locks short and lets replication and other queries keep up while a large
+ * backlog is purged. Chunks are deleted in ID order. When an archive directory is configured, each chunk is first
+ * selected in ID order and appended to a CSV file, and only the archived rows are deleted. Archives are plain RFC 4180
+ * CSV, so values are kept exactly as stored rather than prepared for opening in a spreadsheet.
+ *
+ * @see RetentionProperties
+ */
+public class RetentionPurgeJob {
+
+	private static final Log log = LogFactory.getLog(RetentionPurgeJob.class);
+
+	static final String LOGIN_ATTEMPT_TABLE = "login_attempt";
+	static final String SESSION_EVENT_TABLE = "session_event";
+
+	private static final DateTimeFormatter ARCHIVE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+			.withZone(ZoneOffset.UTC);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Duration loginAttemptMaxAge;
+	private final Duration sessionEventMaxAge;
+	private final int chunkSize;
+	private final Duration chunkPause;
+	private final Path archiveDirectory;
+	private final Clock clock;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param jdbcTemplate
+	 *            template used to delete records
+	 * @param retentionProperties
+	 *            retention configuration
+	 */
+	public RetentionPurgeJob(JdbcTemplate jdbcTemplate, RetentionProperties retentionProperties) {
+		this(jdbcTemplate, retentionProperties, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor that uses the given clock to compute cutoff dates and archive file names.
+	 */
+	RetentionPurgeJob(JdbcTemplate jdbcTemplate, RetentionProperties retentionProperties, Clock clock) {
+		Assert.isTrue(retentionProperties.getChunkSize() > 0, "Retention chunk size must be greater than zero");
+		this.jdbcTemplate = jdbcTemplate;
+		this.loginAttemptMaxAge = retentionProperties.getLoginAttemptMaxAge();
+		this.sessionEventMaxAge = retentionProperties.getSessionEventMaxAge();
+		this.chunkSize = retentionProperties.getChunkSize();
+		this.chunkPause = retentionProperties.getChunkPause();
+		this.archiveDirectory = StringUtils.isBlank(retentionProperties.getArchiveDirectory()) ? null
+				: Paths.get(retentionProperties.getArchiveDirectory());
+		this.clock = clock;
+	}
+
+	/**
+	 * Purges login attempts and session events older than their configured maximum ages. Runs on the schedule given by
+	 * octri.authentication.retention.cron. A failure purging one table is logged and does not prevent the other from
+	 * being purged.
+	 */
+	@Scheduled(cron = "${octri.authentication.retention.cron:" + RetentionProperties.DEFAULT_CRON + "}")
+	public void run() {
+		Instant now = clock.instant();
+		if (hasMaxAge(loginAttemptMaxAge)) {
+			try {
+				purgeLoginAttempts(Date.from(now.minus(loginAttemptMaxAge)));
+			} catch (RuntimeException e) {
+				log.error("Failed to purge login attempts", e);
+			}
+		}
+		if (hasMaxAge(sessionEventMaxAge)) {
+			try {
+				purgeSessionEvents(Date.from(now.minus(sessionEventMaxAge)));
+			} catch (RuntimeException e) {
+				log.error("Failed to purge session events", e);
+			}
+		}
+	}
+
+	/**
+	 * Deletes login attempts made before the given date.
+	 *
+	 * @param cutoff
+	 *            attempts before this date are deleted
+	 * @return the number of login attempts deleted
+	 */
+	public long purgeLoginAttempts(Date cutoff) {
+		return purge(LOGIN_ATTEMPT_TABLE, "attempted_at", cutoff);
+	}
+
+	/**
+	 * Deletes session events created before the given date.
+	 *
+	 * @param cutoff
+	 *            events before this date are deleted
+	 * @return the number of session events deleted
+	 */
+	public long purgeSessionEvents(Date cutoff) {
+		return purge(SESSION_EVENT_TABLE, "created_at", cutoff);
+	}
+
+	private long purge(String table, String timestampColumn, Date cutoff) {
+		Assert.notNull(cutoff, "Cutoff date is required");
+		Timestamp threshold = new Timestamp(cutoff.getTime());
+		long deleted;
+		try {
+			deleted = archiveDirectory == null ? deleteChunks(table, timestampColumn, threshold)
+					: archiveAndDeleteChunks(table, timestampColumn, threshold);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not archive rows from " + table, e);
+		}
+		log.info("Purged " + deleted + " row(s) from " + table + " older than " + cutoff.toInstant());
+		return deleted;
+	}
+
+	/**
+	 * Deletes matching rows in chunks, oldest ID first, until a chunk removes fewer rows than the chunk size. The
+	 * ORDER BY makes each chunk deterministic, which statement-based replication requires for DELETE with LIMIT.
+	 */
+	private long deleteChunks(String table, String timestampColumn, Timestamp threshold) {
+		String sql = "DELETE FROM " + table + " WHERE " + timestampColumn + " < ? ORDER BY id LIMIT ?";
+		long total = 0;
+		int deleted;
+		do {
+			deleted = jdbcTemplate.update(sql, threshold, chunkSize);
+			total += deleted;
+		} while (deleted >= chunkSize && pause());
+		return total;
+	}
+
+	/**
+	 * Selects matching rows in ID order one chunk at a time, appends each chunk to a CSV file, then deletes the
+	 * matching rows up to the last archived ID. IDs only increase, so rows inserted while the purge runs are never
+	 * deleted without being archived.
+	 */
+	private long archiveAndDeleteChunks(String table, String timestampColumn, Timestamp threshold)
+			throws IOException {
+		String selectSql = "SELECT * FROM " + table + " WHERE " + timestampColumn + " < ? ORDER BY id LIMIT ?";
+		String deleteSql = "DELETE FROM " + table + " WHERE " + timestampColumn + " < ? AND id <= ?";
+
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(selectSql, threshold, chunkSize);
+		if (rows.isEmpty()) {
+			return 0;
+		}
+
+		Files.createDirectories(archiveDirectory);
+		Path file = archiveDirectory.resolve(table + "-" + ARCHIVE_TIMESTAMP.format(clock.instant()) + ".csv");
+		ExportWriter<Map<String, Object>> writer = new ExportWriter<>(rows.get(0).keySet().stream()
+				.map(name -> new ExportColumn<Map<String, Object>>(name, row -> row.get(name)))
+				.toList(), false);
+
+		long total = 0;
+		try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW)) {
+			writer.write(rows.stream(), ExportFormat.CSV, out);
+			while (true) {
+				Object lastId = rows.get(rows.size() - 1).get("id");
+				total += jdbcTemplate.update(deleteSql, threshold, lastId);
+				if (rows.size() < chunkSize || !pause()) {
+					break;
+				}
+				rows = jdbcTemplate.queryForList(selectSql, threshold, chunkSize);
+				if (rows.isEmpty()) {
+					break;
+				}
+				writer.appendCsv(rows.stream(), out);
+			}
+		}
+		log.info("Archived " + total + " row(s) from " + table + " to " + file);
+		return total;
+	}
+
+	/**
+	 * Pauses between chunks.
+	 *
+	 * @return true to continue purging, false if the thread was interrupted
+	 */
+	private boolean pause() {
+		try {
+			Thread.sleep(Math.max(0, chunkPause.toMillis()));
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.warn("Purge interrupted. Remaining rows will be purged on the next run.");
+			return false;
+		}
+	}
+
+	private static boolean hasMaxAge(Duration maxAge) {
+		return maxAge != null && !maxAge.isZero() && !maxAge.isNegative();
+	}
+
+}
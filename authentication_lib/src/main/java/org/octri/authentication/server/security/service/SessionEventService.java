@@ -1,15 +1,20 @@
 package org.octri.authentication.server.security.service;
 
+import java.util.Date;
 import java.util.Optional;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.server.security.AuthenticationUserDetails;
 import org.octri.authentication.server.security.SecurityHelper;
 import org.octri.authentication.server.security.entity.SessionEvent;
 import org.octri.authentication.server.security.entity.SessionEvent.EventType;
 import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.repository.SessionEventRepository;
+import org.octri.authentication.server.security.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -18,6 +23,9 @@ import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * Service wrapper for {@link SessionEventRepository}.
+ *
+ * Logins and logouts are each written with a single statement. A unique index on session ID and event type makes a
+ * repeated login or logout for the same session a no-op, so the service does not look for an existing event first.
  */
 @Service
 public class SessionEventService {
@@ -27,9 +35,21 @@ public class SessionEventService {
 	@Autowired
 	private SessionEventRepository sessionEventRepository;
 
+	@Autowired
+	private UserRepository userRepository;
+
 	@Autowired
 	private UserService userService;
 
+	@Autowired(required = false)
+	private AsyncSessionEventRecorder asyncSessionEventRecorder;
+
+	@Autowired(required = false)
+	private LogoutEventSink logoutEventSink;
+
+	@Autowired(required = false)
+	private AuthenticationMetrics authenticationMetrics;
+
 	/**
 	 * Log {@link SessionEvent} for the currently authenticated user. Event saved to database. Session id acquired from
 	 * {@link RequestContextHolder}. Use {@link #logEvent(EventType, String, User)} to manually specify the session id.
@@ -51,7 +71,12 @@ public class SessionEventService {
 	}
 
 	/**
-	 * Log {@link SessionEvent} for the currently authenticated user. Event saved to database.
+	 * Log {@link SessionEvent} for the currently authenticated user. Event saved to database. A login is recorded only
+	 * once per session, and a logout only for a session with a recorded login. When asynchronous recording is enabled
+	 * (octri.authentication.session-events.async-enabled), the event is written by the {@link AsyncSessionEventRecorder}
+	 * instead of the calling thread. When logout batching is enabled
+	 * (octri.authentication.session-events.logout-batching-enabled), logouts are queued in the {@link LogoutEventSink}.
+	 * The event is observed when metrics are available.
 	 *
 	 * @param event
 	 *            the type of event to log
@@ -63,29 +88,36 @@ public class SessionEventService {
 	public void logEvent(final EventType event, final String sessionId, final User asUser) {
 		log.debug("Logging " + event.toString() + " for session id " + sessionId + ".");
 		Assert.notNull(sessionId, "Must provide a session id");
-		final SecurityHelper helper = new SecurityHelper(SecurityContextHolder.getContext());
 
-		final Optional<SessionEvent> login = findLoginEvent(sessionId);
+		if (authenticationMetrics != null) {
+			authenticationMetrics.observe(AuthenticationMetrics.SESSION_EVENT_OBSERVATION, () -> {
+				writeEvent(event, sessionId, asUser);
+				return null;
+			}, "event", event.name());
+		} else {
+			writeEvent(event, sessionId, asUser);
+		}
+	}
+
+	private void writeEvent(final EventType event, final String sessionId, final User asUser) {
 		switch (event) {
 			case LOGIN:
-				if (helper.isLoggedIn() && !login.isPresent()) {
-					sessionEventRepository.save(new SessionEvent(sessionId, event, findUser(), null));
+				final SecurityHelper helper = new SecurityHelper(SecurityContextHolder.getContext());
+				if (helper.isLoggedIn()) {
+					final long userId = authenticatedUserId(helper);
+					record(() -> recordLogin(sessionId, userId));
 				}
 				break;
 			case LOGOUT:
-				final Optional<SessionEvent> logout = findLogoutEvent(sessionId);
-				if (login.isPresent() && !logout.isPresent()) {
-					sessionEventRepository.save(new SessionEvent(sessionId, event, login.get().getUser(), null));
+				final Date loggedOutAt = new Date();
+				if (logoutEventSink != null) {
+					logoutEventSink.submit(sessionId, loggedOutAt);
+				} else {
+					record(() -> sessionEventRepository.insertLogoutIfAbsent(sessionId, loggedOutAt));
 				}
 				break;
 			case IMPERSONATION:
-				if (login.isPresent()) {
-					sessionEventRepository.save(new SessionEvent(sessionId, event, login.get().getUser(), asUser));
-				} else {
-					// If for some reason the session can't be found, we should still log the impersonation!
-					log.error("A user is being impersonated, but the original login session was not recorded!");
-					sessionEventRepository.save(new SessionEvent(sessionId, event, asUser, asUser));
-				}
+				record(() -> recordImpersonation(sessionId, asUser));
 				break;
 			default:
 				throw new IllegalArgumentException(
@@ -116,17 +148,54 @@ public class SessionEventService {
 	}
 
 	/**
-	 * Find authenticated {@link User}, otherwise throw exception.
+	 * Gets the ID of the authenticated user, otherwise throw exception.
 	 *
-	 * @return the authenticated user
+	 * @param helper
+	 *            security helper for the current security context
+	 * @return the authenticated user's ID
 	 * @throws IllegalArgumentException
-	 *             if a user could not be found
+	 *             if the user details could not be found
+	 */
+	private long authenticatedUserId(SecurityHelper helper) {
+		AuthenticationUserDetails userDetails = helper.authenticationUserDetails();
+		Assert.notNull(userDetails, "Could not find an authenticated user for logging a session event.");
+		return userDetails.getUserId();
+	}
+
+	/**
+	 * Saves a login event that references the user by ID, without loading the user. If the session's login has
+	 * already been recorded, the unique index rejects the insert and it is ignored.
 	 */
-	private User findUser() {
-		SecurityHelper helper = new SecurityHelper(SecurityContextHolder.getContext());
-		User user = userService.find(helper.authenticationUserDetails().getUserId());
-		Assert.notNull(user, "Could not find an authenticated user for logging a session event.");
-		return user;
+	private void recordLogin(String sessionId, long userId) {
+		try {
+			sessionEventRepository.save(
+					new SessionEvent(sessionId, EventType.LOGIN, userRepository.getReferenceById(userId), null));
+		} catch (DataIntegrityViolationException e) {
+			log.debug("Login not recorded for session id " + sessionId + ": " + e.getMostSpecificCause().getMessage());
+		}
+	}
+
+	private void recordImpersonation(String sessionId, User asUser) {
+		final Optional<SessionEvent> login = findLoginEvent(sessionId);
+		if (login.isPresent()) {
+			sessionEventRepository.save(new SessionEvent(sessionId, EventType.IMPERSONATION, login.get().getUser(),
+					asUser));
+		} else {
+			// If for some reason the session can't be found, we should still log the impersonation!
+			log.error("A user is being impersonated, but the original login session was not recorded!");
+			sessionEventRepository.save(new SessionEvent(sessionId, EventType.IMPERSONATION, asUser, asUser));
+		}
+	}
+
+	/**
+	 * Writes an event on the background recorder if asynchronous recording is enabled, otherwise on this thread.
+	 */
+	private void record(Runnable write) {
+		if (asyncSessionEventRecorder != null) {
+			asyncSessionEventRecorder.submit(write);
+		} else {
+			write.run();
+		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,468 @@
+package org.octri.authentication.server.security.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.octri.authentication.config.OctriAuthenticationProperties;
+import org.octri.authentication.config.OctriAuthenticationProperties.RoleStyle;
+import org.octri.authentication.config.UserImportProperties;
+import org.octri.authentication.server.customizer.UserManagementCustomizer;
+import org.octri.authentication.server.security.bulkimport.UserImportParser;
+import org.octri.authentication.server.security.bulkimport.UserImportResult;
+import org.octri.authentication.server.security.bulkimport.UserImportRow;
+import org.octri.authentication.server.security.bulkimport.UserImportRowError;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.entity.UserRole;
+import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.export.ExportFormat;
+import org.octri.authentication.server.security.repository.UserRepository;
+import org.octri.authentication.validation.Emailable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.ModelMap;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.ModelAndView;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+
+/**
+ * Creates user accounts in bulk from a CSV or JSON file.
+ *
+ * Rows are converted and validated in parallel. Usernames and email addresses are then checked for repeats within the
+ * file and, using set-based IN queries, against existing accounts. Valid rows are inserted with JDBC batches of
+ * {@link UserImportProperties#getBatchSize()} users, one transaction per batch. If a batch fails, its rows are
+ * retried one at a time so that the failure can be reported for the row that caused it.
+ *
+ * Like the user form, the import calls the application's {@link UserManagementCustomizer}. Its
+ * {@link UserManagementCustomizer#beforeSaveAction(User, ModelMap, HttpServletRequest) beforeSaveAction} is called for
+ * each valid row before it is inserted, and a row is rejected if it returns a view. Its
+ * {@link UserManagementCustomizer#postCreateAction(User, ModelMap, HttpServletRequest) postCreateAction} is called
+ * for each account after its batch is committed, and the view it returns is ignored.
+ *
+ * Imported accounts have no password. Users of table-based accounts can set one with a password reset link.
+ */
+@Service
+public class UserImportService {
+
+	private static final Log log = LogFactory.getLog(UserImportService.class);
+
+	/**
+	 * Maximum number of values in the IN clause of a uniqueness check.
+	 */
+	static final int IN_QUERY_CHUNK_SIZE = 1000;
+
+	private static final String INSERT_USER_SQL = "insert into `user` (authentication_method, username, email, "
+			+ "first_name, last_name, institution, enabled, account_locked, consecutive_login_failures, version, "
+			+ "created_at, updated_at, updated_by) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String INSERT_USER_ROLE_SQL = "insert into user_user_role (`user`, user_role) values (?, ?)";
+
+	private final OctriAuthenticationProperties authenticationProperties;
+	private final UserImportProperties importProperties;
+	private final UserRepository userRepository;
+	private final UserRoleService userRoleService;
+	private final Set<AuthenticationMethod> enabledAuthenticationMethods;
+	private final Validator validator;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	private UserManagementCustomizer userManagementCustomizer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param authenticationProperties
+	 *            authentication configuration
+	 * @param importProperties
+	 *            bulk import configuration
+	 * @param userRepository
+	 *            user repository, used to check for existing usernames and email addresses
+	 * @param userRoleService
+	 *            service used to look up roles
+	 * @param enabledAuthenticationMethods
+	 *            authentication methods that imported accounts may use
+	 * @param validator
+	 *            bean validator for user accounts
+	 * @param jdbcTemplate
+	 *            template used for batch inserts
+	 * @param transactionManager
+	 *            transaction manager used for each batch
+	 */
+	public UserImportService(OctriAuthenticationProperties authenticationProperties,
+			UserImportProperties importProperties, UserRepository userRepository, UserRoleService userRoleService,
+			Set<AuthenticationMethod> enabledAuthenticationMethods, Validator validator, JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager) {
+		this.authenticationProperties = authenticationProperties;
+		this.importProperties = importProperties;
+		this.userRepository = userRepository;
+		this.userRoleService = userRoleService;
+		this.enabledAuthenticationMethods = Set.copyOf(enabledAuthenticationMethods);
+		this.validator = validator;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Sets the customizer whose hooks are called for each imported account.
+	 *
+	 * @param userManagementCustomizer
+	 *            the application's user management customizer
+	 */
+	@Autowired(required = false)
+	public void setUserManagementCustomizer(UserManagementCustomizer userManagementCustomizer) {
+		this.userManagementCustomizer = userManagementCustomizer;
+	}
+
+	/**
+	 * Reads an import file and creates an account for each valid row.
+	 *
+	 * @param in
+	 *            the file contents, encoded as UTF-8
+	 * @param format
+	 *            the file format
+	 * @param importedBy
+	 *            username of the administrator performing the import
+	 * @param request
+	 *            the import request, passed to the user management customizer
+	 * @return a report of the rows imported and the errors for the others
+	 * @throws UserManagementException
+	 *             if the file is malformed or has too many rows. No accounts are created.
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public UserImportResult importUsers(InputStream in, ExportFormat format, String importedBy,
+			HttpServletRequest request) throws UserManagementException, IOException {
+		List<UserImportRow> rows = UserImportParser.parse(in, format, importProperties.getMaximumRows());
+		return importRows(rows, importedBy, request);
+	}
+
+	/**
+	 * Creates an account for each valid row.
+	 *
+	 * @param rows
+	 *            the rows to import
+	 * @param importedBy
+	 *            username of the administrator performing the import
+	 * @param request
+	 *            the import request, passed to the user management customizer
+	 * @return a report of the rows imported and the errors for the others
+	 */
+	public UserImportResult importRows(List<UserImportRow> rows, String importedBy, HttpServletRequest request) {
+		Assert.notNull(rows, "Rows are required");
+
+		// Roles are looked up once per import rather than once per row
+		Map<String, UserRole> roles = new HashMap<>();
+		for (UserRole role : userRoleService.findAll()) {
+			roles.putIfAbsent(normalizeName(role.getDescription()), role);
+			roles.put(normalizeName(role.getRoleName()), role);
+		}
+
+		List<PendingUser> pending = rows.parallelStream()
+				.map(row -> prepare(row, roles))
+				.collect(Collectors.toList());
+
+		checkRepeatedValues(pending, User::getUsername, "Username");
+		checkRepeatedValues(pending, User::getEmail, "Email address");
+		checkExistingValues(pending, User::getUsername, userRepository::findUsernamesIn, "Username");
+		checkExistingValues(pending, User::getEmail, userRepository::findEmailsIn, "Email address");
+
+		// The customizer is called from this thread, one row at a time, as it would be from the user form
+		pending.stream().filter(PendingUser::isValid).forEach(user -> beforeSave(user, request));
+
+		List<PendingUser> valid = pending.stream().filter(PendingUser::isValid).collect(Collectors.toList());
+		int imported = persist(valid, importedBy, request);
+		log.info(importedBy + " imported " + imported + " of " + rows.size() + " users");
+
+		List<UserImportRowError> errors = pending.stream()
+				.filter(Predicate.not(PendingUser::isValid))
+				.map(user -> new UserImportRowError(user.row.getRowNumber(), user.row.getUsername(), user.errors))
+				.collect(Collectors.toList());
+		return new UserImportResult(rows.size(), imported, errors);
+	}
+
+	/**
+	 * Converts a row to a user account and validates it. Safe to call concurrently.
+	 */
+	private PendingUser prepare(UserImportRow row, Map<String, UserRole> roles) {
+		var pending = new PendingUser(row);
+		var user = pending.user;
+		user.setUsername(row.getUsername());
+		user.setEmail(row.getEmail());
+		user.setFirstName(row.getFirstName());
+		user.setLastName(row.getLastName());
+		user.setInstitution(row.getInstitution());
+		user.setAuthenticationMethod(resolveAuthenticationMethod(row.getAuthenticationMethod(), pending.errors));
+
+		List<UserRole> userRoles = new ArrayList<>();
+		for (String roleName : row.getRoles()) {
+			UserRole role = roles.get(normalizeName(roleName));
+			if (role == null) {
+				pending.errors.add("Unknown role: " + roleName);
+			} else if (!userRoles.contains(role)) {
+				userRoles.add(role);
+			}
+		}
+		if (authenticationProperties.getRoleStyle() == RoleStyle.SINGLE && userRoles.size() > 1) {
+			pending.errors.add("Only one role may be assigned");
+		}
+		user.setUserRoles(userRoles);
+
+		Class<?> group = !authenticationProperties.getEmailRequired() && user.getEmail() == null ? Default.class
+				: Emailable.class;
+		validator.validate(user, group).stream()
+				.sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+				.map(ConstraintViolation::getMessage)
+				.forEach(pending.errors::add);
+		return pending;
+	}
+
+	private AuthenticationMethod resolveAuthenticationMethod(String name, List<String> errors) {
+		if (name == null) {
+			if (enabledAuthenticationMethods.size() == 1) {
+				return enabledAuthenticationMethods.iterator().next();
+			}
+			errors.add("Authentication method is required");
+			return null;
+		}
+
+		for (AuthenticationMethod method : AuthenticationMethod.values()) {
+			if (normalizeName(method.name()).equals(normalizeName(name))
+					|| normalizeName(method.getLabel()).equals(normalizeName(name))) {
+				if (!enabledAuthenticationMethods.contains(method)) {
+					errors.add("Authentication method is not enabled: " + name);
+				}
+				return method;
+			}
+		}
+		errors.add("Unknown authentication method: " + name);
+		return null;
+	}
+
+	/**
+	 * Rejects rows that repeat a username or email address from an earlier row.
+	 */
+	private static void checkRepeatedValues(List<PendingUser> pending, Function<User, String> property,
+			String label) {
+		Map<String, Integer> firstRows = new HashMap<>();
+		for (PendingUser user : pending) {
+			String value = property.apply(user.user);
+			if (value == null) {
+				continue;
+			}
+			Integer firstRow = firstRows.putIfAbsent(normalize(value), user.row.getRowNumber());
+			if (firstRow != null) {
+				user.errors.add(label + " is repeated from row " + firstRow);
+			}
+		}
+	}
+
+	/**
+	 * Rejects valid rows whose username or email address belongs to an existing account, querying the values in
+	 * chunks of {@link #IN_QUERY_CHUNK_SIZE}.
+	 */
+	private static void checkExistingValues(List<PendingUser> pending, Function<User, String> property,
+			Function<Collection<String>, List<String>> findExisting, String label) {
+		List<String> values = pending.stream()
+				.filter(PendingUser::isValid)
+				.map(user -> property.apply(user.user))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+
+		Set<String> existing = new HashSet<>();
+		for (int start = 0; start < values.size(); start += IN_QUERY_CHUNK_SIZE) {
+			var chunk = values.subList(start, Math.min(start + IN_QUERY_CHUNK_SIZE, values.size()));
+			findExisting.apply(chunk).forEach(value -> existing.add(normalize(value)));
+		}
+
+		if (!existing.isEmpty()) {
+			pending.stream()
+					.filter(PendingUser::isValid)
+					.filter(user -> {
+						String value = property.apply(user.user);
+						return value != null && existing.contains(normalize(value));
+					})
+					.forEach(user -> user.errors.add(label + " is already in use"));
+		}
+	}
+
+	/**
+	 * Calls the customizer's before save hook, rejecting the row if it returns a view.
+	 */
+	private void beforeSave(PendingUser user, HttpServletRequest request) {
+		if (userManagementCustomizer == null) {
+			return;
+		}
+		Optional<ModelAndView> view = userManagementCustomizer.beforeSaveAction(user.user, new ModelMap(), request);
+		if (view.isPresent()) {
+			user.errors.add("Rejected by the application");
+		}
+	}
+
+	/**
+	 * Calls the customizer's post create hook for a committed user. The account already exists, so a failure is
+	 * logged rather than reported for the row.
+	 */
+	private void afterCreate(PendingUser user, HttpServletRequest request) {
+		if (userManagementCustomizer == null) {
+			return;
+		}
+		try {
+			userManagementCustomizer.postCreateAction(user.user, new ModelMap(), request);
+		} catch (RuntimeException e) {
+			log.error("Post create action failed for imported user " + user.user.getUsername(), e);
+		}
+	}
+
+	/**
+	 * Inserts the users in batches, retrying the rows of a failed batch one at a time, and calls the post create hook
+	 * for each user once it is committed.
+	 *
+	 * @return the number of users inserted
+	 */
+	private int persist(List<PendingUser> valid, String importedBy, HttpServletRequest request) {
+		int batchSize = Math.max(1, importProperties.getBatchSize());
+		int imported = 0;
+		for (int start = 0; start < valid.size(); start += batchSize) {
+			List<PendingUser> batch = valid.subList(start, Math.min(start + batchSize, valid.size()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> insert(batch, importedBy));
+				imported += batch.size();
+				batch.forEach(user -> afterCreate(user, request));
+			} catch (RuntimeException e) {
+				log.warn("Failed to insert a batch of " + batch.size() + " users. Retrying individually.", e);
+				for (PendingUser user : batch) {
+					try {
+						transactionTemplate.executeWithoutResult(status -> insert(List.of(user), importedBy));
+						imported++;
+						afterCreate(user, request);
+					} catch (RuntimeException rowException) {
+						user.errors.add("Could not save user: "
+								+ NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+					}
+				}
+			}
+		}
+		return imported;
+	}
+
+	/**
+	 * Inserts the users and their role grants with one JDBC batch each, and sets the generated ID on each user.
+	 */
+	private void insert(List<PendingUser> batch, String importedBy) {
+		var now = Timestamp.from(Instant.now());
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(
+				connection -> connection.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS),
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						User user = batch.get(i).user;
+						ps.setString(1, user.getAuthenticationMethod().name());
+						ps.setString(2, user.getUsername());
+						ps.setString(3, user.getEmail());
+						ps.setString(4, user.getFirstName());
+						ps.setString(5, user.getLastName());
+						ps.setString(6, user.getInstitution());
+						ps.setBoolean(7, user.getEnabled());
+						ps.setBoolean(8, user.getAccountLocked());
+						ps.setInt(9, 0);
+						ps.setInt(10, 0);
+						ps.setTimestamp(11, now);
+						ps.setTimestamp(12, now);
+						ps.setString(13, importedBy);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return batch.size();
+					}
+
+				}, keyHolder);
+
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		if (keys.size() != batch.size()) {
+			throw new IllegalStateException(
+					"Expected " + batch.size() + " generated keys, but the database returned " + keys.size());
+		}
+
+		List<Object[]> grants = new ArrayList<>();
+		for (int i = 0; i < batch.size(); i++) {
+			long userId = ((Number) keys.get(i).values().iterator().next()).longValue();
+			batch.get(i).user.setId(userId);
+			for (UserRole role : batch.get(i).user.getUserRoles()) {
+				grants.add(new Object[] { userId, role.getId() });
+			}
+		}
+		if (!grants.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, grants);
+		}
+	}
+
+	/**
+	 * Normalizes a username or email address for case-insensitive comparison, matching the database collation.
+	 */
+	private static String normalize(String value) {
+		return value.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Normalizes a role or authentication method name, so that e.g. "Table Based" matches TABLE_BASED.
+	 */
+	private static String normalizeName(String name) {
+		return name == null ? "" : name.trim().replace(' ', '_').toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A row being imported, the account built from it, and any errors found so far.
+	 */
+	private static class PendingUser {
+
+		private final UserImportRow row;
+		private final User user = new User();
+		private final List<String> errors = new ArrayList<>();
+
+		PendingUser(UserImportRow row) {
+			this.row = row;
+		}
+
+		boolean isValid() {
+			return errors.isEmpty();
+		}
+
+	}
+
+}
@@ -3,21 +3,37 @@ package org.octri.authentication.server.security.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.octri.authentication.config.OctriAuthenticationProperties;
+import org.octri.authentication.server.security.UserDetailsCache;
 import org.octri.authentication.server.security.entity.PasswordResetToken;
 import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.entity.UserStatus;
 import org.octri.authentication.server.security.exception.DuplicateEmailException;
 import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.password.Messages;
 import org.octri.authentication.server.security.password.PasswordConstraintValidator;
 import org.octri.authentication.server.security.repository.UserRepository;
+import org.octri.authentication.server.security.repository.UserRoleSummaryProjection;
+import org.octri.authentication.server.security.repository.UserSpecifications;
+import org.octri.authentication.server.security.repository.UserSummaryProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,17 +48,70 @@ import org.springframework.util.Assert;
 @Service
 public class UserService {
 
+	/**
+	 * Largest page size allowed when listing users.
+	 */
+	public static final int MAXIMUM_PAGE_SIZE = 100;
+
+	/**
+	 * Properties that the user list may be sorted by.
+	 */
+	public static final Set<String> SORTABLE_PROPERTIES = Set.of("username", "email", "firstName", "lastName",
+			"enabled", "accountLocked", "accountExpirationDate", "credentialsExpirationDate");
+
+	private static final Sort DEFAULT_SORT = Sort.by("username");
+
 	private final OctriAuthenticationProperties authenticationProperties;
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
 	private final PasswordResetTokenService passwordResetTokenService;
+	private final PasswordConstraintValidator passwordConstraintValidator;
+	private final UserDetailsCache userDetailsCache;
+	private AuthenticationMetrics authenticationMetrics;
 
 	public UserService(OctriAuthenticationProperties authenticationProperties, UserRepository userRepository,
 			Optional<PasswordEncoder> optPasswordEncoder, PasswordResetTokenService passwordResetTokenService) {
+		this(authenticationProperties, userRepository, optPasswordEncoder, passwordResetTokenService,
+				new PasswordConstraintValidator(authenticationProperties), Optional.empty());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param authenticationProperties
+	 *            authentication configuration
+	 * @param userRepository
+	 *            user repository
+	 * @param optPasswordEncoder
+	 *            encoder for table-based passwords, if configured
+	 * @param passwordResetTokenService
+	 *            service for managing password reset tokens
+	 * @param passwordConstraintValidator
+	 *            validator for the configured password policy
+	 * @param optUserDetailsCache
+	 *            cache of authentication user details, if configured. Entries are evicted when accounts change.
+	 */
+	@Autowired
+	public UserService(OctriAuthenticationProperties authenticationProperties, UserRepository userRepository,
+			Optional<PasswordEncoder> optPasswordEncoder, PasswordResetTokenService passwordResetTokenService,
+			PasswordConstraintValidator passwordConstraintValidator, Optional<UserDetailsCache> optUserDetailsCache) {
 		this.authenticationProperties = authenticationProperties;
 		this.userRepository = userRepository;
 		this.passwordEncoder = optPasswordEncoder.orElse(null);
 		this.passwordResetTokenService = passwordResetTokenService;
+		this.passwordConstraintValidator = passwordConstraintValidator;
+		this.userDetailsCache = optUserDetailsCache.orElse(null);
+	}
+
+	/**
+	 * Sets the metrics that account lockouts are counted in.
+	 *
+	 * @param authenticationMetrics
+	 *            authentication metrics
+	 */
+	@Autowired(required = false)
+	public void setAuthenticationMetrics(AuthenticationMetrics authenticationMetrics) {
+		this.authenticationMetrics = authenticationMetrics;
 	}
 
 	/**
@@ -69,6 +138,18 @@ public class UserService {
 		return userRepository.findByUsername(username);
 	}
 
+	/**
+	 * Get the user account with the given username, fetching their roles in the same query.
+	 *
+	 * @param username
+	 *            the username of the user to find
+	 * @return the user with the given username and their roles if it exists, otherwise null
+	 */
+	@Transactional(readOnly = true)
+	public User findByUsernameWithRoles(String username) {
+		return userRepository.findWithUserRolesByUsername(username);
+	}
+
 	/**
 	 * Get the user account with the given email address.
 	 *
@@ -109,6 +190,9 @@ public class UserService {
 		if (!newUser) {
 			User existing = find(user.getId());
 
+			// The username may have changed, so evict the cached details under the old name too.
+			evictCachedUserDetails(existing.getUsername());
+
 			// Retain existing password when editing a user.
 			if (existing.getPassword() != null) {
 				user.setPassword(existing.getPassword());
@@ -120,7 +204,9 @@ public class UserService {
 			}
 		}
 
-		return userRepository.save(user);
+		User saved = userRepository.save(user);
+		evictCachedUserDetails(user.getUsername());
+		return saved;
 	}
 
 	/**
@@ -133,6 +219,63 @@ public class UserService {
 		return (List<User>) userRepository.findAll();
 	}
 
+	/**
+	 * Gets a page of user account summaries, optionally filtered by text, role, and account status. The text is
+	 * matched against the username, email address, and name. Sorting is limited to {@link #SORTABLE_PROPERTIES}, and
+	 * the page size is limited to {@link #MAXIMUM_PAGE_SIZE}.
+	 *
+	 * @param text
+	 *            text to search for, or null
+	 * @param roleId
+	 *            ID of a role the users must have, or null
+	 * @param status
+	 *            account status the users must have, or null
+	 * @param pageable
+	 *            requested page and sort order
+	 * @return a page of user summaries
+	 */
+	@Transactional(readOnly = true)
+	public Page<UserSummaryProjection> search(String text, Long roleId, UserStatus status, Pageable pageable) {
+		Specification<User> specification = Specification.allOf(UserSpecifications.matchesText(text),
+				UserSpecifications.hasRole(roleId), UserSpecifications.hasStatus(status, new Date()));
+		Pageable restricted = restrictPageable(pageable);
+		return userRepository.findBy(specification, query -> query.as(UserSummaryProjection.class).page(restricted));
+	}
+
+	/**
+	 * Gets the descriptions of the roles granted to each of the given users, using a single query.
+	 *
+	 * @param userIds
+	 *            IDs of the users
+	 * @return role descriptions keyed by user ID. Users without roles are omitted.
+	 */
+	@Transactional(readOnly = true)
+	public Map<Long, List<String>> findRoleDescriptions(Collection<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return Map.of();
+		}
+
+		return userRepository.findRoleSummariesByUserIds(userIds).stream()
+				.collect(Collectors.groupingBy(UserRoleSummaryProjection::getUserId, LinkedHashMap::new,
+						Collectors.mapping(UserRoleSummaryProjection::getDescription, Collectors.toList())));
+	}
+
+	/**
+	 * Limits the page size and removes sort orders on properties that may not be sorted by, falling back on sorting by
+	 * username.
+	 */
+	static Pageable restrictPageable(Pageable pageable) {
+		if (pageable == null || pageable.isUnpaged()) {
+			return PageRequest.of(0, MAXIMUM_PAGE_SIZE, DEFAULT_SORT);
+		}
+
+		List<Sort.Order> orders = pageable.getSort().stream()
+				.filter(order -> SORTABLE_PROPERTIES.contains(order.getProperty()))
+				.collect(Collectors.toList());
+		Sort sort = orders.isEmpty() ? DEFAULT_SORT : Sort.by(orders);
+		return PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAXIMUM_PAGE_SIZE), sort);
+	}
+
 	/**
 	 * Deletes the user account with the given ID.
 	 *
@@ -144,6 +287,7 @@ public class UserService {
 		User user = userRepository.findById(id).orElse(null);
 		if (user != null) {
 			userRepository.deleteById(id);
+			evictCachedUserDetails(user.getUsername());
 		}
 	}
 
@@ -163,6 +307,48 @@ public class UserService {
 		return incrementFailedAttempts(user);
 	}
 
+	/**
+	 * Atomically increments the number of failed login attempts for the account with the given username, locking the
+	 * account once the maximum number of attempts is reached. Unlike {@link #incrementFailedAttempts(String)}, the
+	 * user is not loaded first, and concurrent failures cannot lose increments.
+	 *
+	 * @param username
+	 *            the username provided on login
+	 * @return the new number of consecutive failed attempts, or 0 if no account has the given username
+	 */
+	@Transactional
+	public int incrementFailedAttemptCount(String username) {
+		Assert.hasText(username, "Username is required");
+		int updated = userRepository.incrementConsecutiveLoginFailures(username,
+				authenticationProperties.getMaxLoginAttempts());
+		if (updated == 0) {
+			return 0;
+		}
+
+		evictCachedUserDetails(username);
+		Integer failures = userRepository.findConsecutiveLoginFailuresByUsername(username);
+		if (failures != null && failures.equals(authenticationProperties.getMaxLoginAttempts())) {
+			recordLockout();
+		}
+		return failures == null ? 0 : failures;
+	}
+
+	/**
+	 * Atomically resets the number of failed login attempts for the account with the given username.
+	 *
+	 * @param username
+	 *            the username of the account
+	 * @return the new number of consecutive failed attempts, which is always 0
+	 */
+	@Transactional
+	public int resetFailedAttemptCount(String username) {
+		Assert.hasText(username, "Username is required");
+		if (userRepository.resetConsecutiveLoginFailures(username) > 0) {
+			evictCachedUserDetails(username);
+		}
+		return 0;
+	}
+
 	/**
 	 * Increments the number of failed login attempts for the specified user account.
 	 *
@@ -174,11 +360,15 @@ public class UserService {
 	public User incrementFailedAttempts(User user) {
 		Assert.notNull(user, "User may not be null");
 		user.setConsecutiveLoginFailures(user.getConsecutiveLoginFailures() + 1);
-		if (user.getConsecutiveLoginFailures() >= authenticationProperties.getMaxLoginAttempts()) {
+		if (user.getConsecutiveLoginFailures() >= authenticationProperties.getMaxLoginAttempts()
+				&& !Boolean.TRUE.equals(user.getAccountLocked())) {
 			user.setAccountLocked(true);
+			recordLockout();
 		}
 
-		return userRepository.save(user);
+		User saved = userRepository.save(user);
+		evictCachedUserDetails(user.getUsername());
+		return saved;
 	}
 
 	/**
@@ -233,6 +423,11 @@ public class UserService {
 	/**
 	 * Validates a password using the {@link PasswordConstraintValidator} as well as some other checks.
 	 *
+	 * The inexpensive checks (confirmation, username, password policy) run first. The password hash is then compared at
+	 * most once in the common cases: when the current password is verified, the "must not reuse the current password"
+	 * rule follows from whether the new and current passwords are equal. If the password policy is configured to fail
+	 * fast, the hash comparisons are skipped when any inexpensive check fails.
+	 *
 	 * @param user
 	 *            user account
 	 * @param currentPassword
@@ -246,38 +441,79 @@ public class UserService {
 	 */
 	public List<String> validatePassword(final User user, final String currentPassword, final String newPassword,
 			final String confirmPassword) {
-		List<String> reasons = new ArrayList<>();
-
-		// Current password must match existing password in the database if set.
-		if (currentPassword != null && !passwordEncoder.matches(currentPassword, user.getPassword())) {
-			reasons.add(Messages.CURRENT_PASSWORD_INCORRECT);
-		}
+		boolean failFast = Boolean.TRUE.equals(authenticationProperties.getPasswordPolicy().getFailFast());
 
 		// New password must equal password confirmation
-		if (!newPassword.equals(confirmPassword)) {
-			reasons.add(Messages.NEW_AND_CONFIRM_PASSWORDS_MISMATCH);
-		}
+		boolean confirmationMismatch = !newPassword.equals(confirmPassword);
 
 		// Rule: Prevents a password from containing username.
 		// TODO: Look into validating with http://www.passay.org/javadocs/org/passay/UsernameRule.html
-		if (newPassword.contains(user.getUsername())) {
-			reasons.add(Messages.PASSWORDS_MUST_NOT_INCLUDE_USERNAME);
+		boolean containsUsername = newPassword.contains(user.getUsername());
+
+		// Manually validate the password instead of using the @ValidPassword annotation.
+		// This will allow us to set a null password in order to distinguish LDAP users.
+		List<String> policyReasons = passwordConstraintValidator.validate(newPassword, null);
+
+		boolean currentIncorrect = false;
+		boolean reusesCurrent = false;
+		if (!failFast || !(confirmationMismatch || containsUsername || !policyReasons.isEmpty())) {
+			if (currentPassword == null) {
+				// Rule: Prevents using a previous password.
+				// TODO: Look into validating with http://www.passay.org/javadocs/org/passay/DigestHistoryRule.html
+				reusesCurrent = passwordEncoder.matches(newPassword, user.getPassword());
+			} else {
+				// Current password must match existing password in the database if set.
+				currentIncorrect = !passwordEncoder.matches(currentPassword, user.getPassword());
+				if (newPassword.equals(currentPassword)) {
+					reusesCurrent = !currentIncorrect;
+				} else if (currentIncorrect && !failFast) {
+					// The stored hash did not match the supplied current password, so the new password may still be
+					// the real current password. Otherwise the hash cannot also match a different new password.
+					reusesCurrent = passwordEncoder.matches(newPassword, user.getPassword());
+				}
+			}
 		}
 
-		// Rule: Prevents using a previous password.
-		// TODO: Look into validating with http://www.passay.org/javadocs/org/passay/DigestHistoryRule.html
-		if (passwordEncoder.matches(newPassword, user.getPassword())) {
+		List<String> reasons = new ArrayList<>();
+		if (currentIncorrect) {
+			reasons.add(Messages.CURRENT_PASSWORD_INCORRECT);
+		}
+		if (confirmationMismatch) {
+			reasons.add(Messages.NEW_AND_CONFIRM_PASSWORDS_MISMATCH);
+		}
+		if (containsUsername) {
+			reasons.add(Messages.PASSWORDS_MUST_NOT_INCLUDE_USERNAME);
+		}
+		if (reusesCurrent) {
 			reasons.add(Messages.MUST_NOT_USE_CURRENT_PASSWORD);
 		}
-
-		// Manually validate the password instead of using the @ValidPassword annotation.
-		// This will allow us to set a null password in order to distinguish LDAP users.
-		PasswordConstraintValidator validator = new PasswordConstraintValidator();
-		reasons.addAll(validator.validate(newPassword, null));
+		reasons.addAll(policyReasons);
 
 		return reasons;
 	}
 
+	/**
+	 * Replaces the stored password hash for the given username without changing credential expiration or other
+	 * account metadata. Used to re-encode hashes that use an outdated algorithm or cost when the user logs in.
+	 *
+	 * @param username
+	 *            the username of the account
+	 * @param encodedPassword
+	 *            the password, encoded with the current password encoder
+	 * @return true if an account was updated
+	 */
+	@Transactional
+	public boolean upgradePasswordHash(String username, String encodedPassword) {
+		Assert.hasText(username, "Username is required");
+		Assert.hasText(encodedPassword, "Encoded password is required");
+		if (userRepository.updatePasswordByUsername(username, encodedPassword) == 0) {
+			return false;
+		}
+
+		evictCachedUserDetails(username);
+		return true;
+	}
+
 	/**
 	 * Update a user's password per reset request.
 	 *
@@ -376,6 +612,28 @@ public class UserService {
 		return this.resetPassword(newPassword, confirmPassword, token);
 	}
 
+	/**
+	 * Counts an account lockout in the authentication metrics, if they are available.
+	 */
+	private void recordLockout() {
+		if (authenticationMetrics != null) {
+			authenticationMetrics.recordLockout();
+		}
+	}
+
+	/**
+	 * Removes cached authentication details for the given username once the change is committed, so that account
+	 * changes take effect immediately.
+	 *
+	 * @param username
+	 *            the username to evict
+	 */
+	private void evictCachedUserDetails(String username) {
+		if (userDetailsCache != null && username != null) {
+			userDetailsCache.evictAfterCommit(username);
+		}
+	}
+
 	/**
 	 * Determines whether the user can reset their password. They must be table based and not be disabled in any way.
 	 *
@@ -3,10 +3,12 @@ package org.octri.authentication.server.security.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.octri.authentication.server.security.UserDetailsCache;
 import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.entity.UserRole;
 import org.octri.authentication.server.security.entity.UserUserRole;
 import org.octri.authentication.server.security.repository.UserUserRoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,9 @@ public class UserUserRoleService {
 	@Resource
 	private UserUserRoleRepository userUserRoleRepository;
 
+	@Autowired(required = false)
+	private UserDetailsCache userDetailsCache;
+
 	/**
 	 * Finds a user role grant by ID.
 	 * 
@@ -69,7 +74,9 @@ public class UserUserRoleService {
 	 */
 	@Transactional
 	public UserUserRole save(UserUserRole userUserRole) {
-		return userUserRoleRepository.save(userUserRole);
+		UserUserRole saved = userUserRoleRepository.save(userUserRole);
+		evictCachedUserDetails(saved.getUser());
+		return saved;
 	}
 
 	/**
@@ -93,6 +100,20 @@ public class UserUserRoleService {
 		UserUserRole userUserRole = userUserRoleRepository.findById(id).orElse(null);
 		if (userUserRole != null) {
 			userUserRoleRepository.deleteById(id);
+			evictCachedUserDetails(userUserRole.getUser());
+		}
+	}
+
+	/**
+	 * Removes the user's cached authentication details once the change is committed, so that role changes take effect
+	 * on their next login.
+	 *
+	 * @param user
+	 *            user account whose grants changed
+	 */
+	private void evictCachedUserDetails(User user) {
+		if (userDetailsCache != null && user != null) {
+			userDetailsCache.evictAfterCommit(user.getUsername());
 		}
 	}
 
@@ -0,0 +1,64 @@
+package org.octri.authentication.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual-thread executors when the library runs on Java 21 or later. The library is compiled for Java 17, so
+ * the Java 21 APIs are called reflectively.
+ */
+public final class VirtualThreads {
+
+	private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+	private VirtualThreads() {
+		// utility class
+	}
+
+	/**
+	 * Checks whether the running JVM supports virtual threads.
+	 *
+	 * @return true if virtual threads are available, false if the JVM is older than Java 21
+	 */
+	public static boolean isAvailable() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates an executor that starts a new virtual thread for each task.
+	 *
+	 * @param namePrefix
+	 *            prefix for thread names; threads are numbered from zero
+	 * @return a new executor
+	 * @throws IllegalStateException
+	 *             if virtual threads are not available
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+		if (!isAvailable()) {
+			throw new IllegalStateException("Virtual threads require Java 21 or later");
+		}
+		try {
+			Object builder = OF_VIRTUAL.invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, factory);
+		} catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+				| InvocationTargetException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name) {
+		try {
+			return type.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+}
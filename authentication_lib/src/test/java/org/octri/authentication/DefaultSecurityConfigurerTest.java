@@ -0,0 +1,44 @@
+package org.octri.authentication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.config.AuthenticationRouteProperties;
+import org.octri.authentication.config.RateLimitProperties;
+import org.octri.authentication.server.security.ratelimit.InMemoryRateLimitStore;
+import org.octri.authentication.server.security.ratelimit.RateLimitingFilter;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DefaultSecurityConfigurerTest {
+
+	@Test
+	public void testRateLimitsLoginProcessingUrlWithCustomLoginPage() throws Exception {
+		var routes = new AuthenticationRouteProperties();
+		routes.setLoginUrl("/signin");
+		var rateLimitProperties = new RateLimitProperties();
+		rateLimitProperties.setMaxRequestsPerUsername(1);
+
+		var configurer = new DefaultSecurityConfigurer();
+		ReflectionTestUtils.setField(configurer, "routes", routes);
+		ReflectionTestUtils.setField(configurer, "rateLimitProperties", rateLimitProperties);
+		ReflectionTestUtils.setField(configurer, "rateLimitStore", new InMemoryRateLimitStore(100));
+		RateLimitingFilter filter = configurer.rateLimitingFilter();
+
+		assertEquals(200, login(filter, DefaultSecurityConfigurer.LOGIN_PROCESSING_URL).getStatus(),
+				"The first login should be allowed");
+		assertEquals(429, login(filter, DefaultSecurityConfigurer.LOGIN_PROCESSING_URL).getStatus(),
+				"Logins posted to the processing URL should be throttled when the login page is customized");
+	}
+
+	private static MockHttpServletResponse login(RateLimitingFilter filter, String url) throws Exception {
+		var request = new MockHttpServletRequest("POST", url);
+		request.setParameter("username", "foo");
+		var response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.octri.authentication.server.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.MutableClock;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class InMemoryUserDetailsCacheTest {
+
+	private MutableClock clock;
+	private InMemoryUserDetailsCache cache;
+
+	@BeforeEach
+	public void beforeEach() {
+		clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+		cache = new InMemoryUserDetailsCache(2, Duration.ofMinutes(5), clock);
+	}
+
+	@Test
+	public void testReturnsCachedDetailsUntilExpired() {
+		cache.put("foo", userDetails("foo"));
+		assertNotNull(cache.get("foo"), "Entry should be returned before it expires");
+
+		clock.advance(Duration.ofMinutes(5));
+		assertNull(cache.get("foo"), "Entry should not be returned after it expires");
+		assertEquals(1, cache.getHitCount(), "One lookup should be a hit");
+		assertEquals(1, cache.getMissCount(), "One lookup should be a miss");
+		assertEquals(1, cache.getEvictionCount(), "The expired entry should be counted as evicted");
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedEntryWhenFull() {
+		cache.put("foo", userDetails("foo"));
+		cache.put("bar", userDetails("bar"));
+		cache.get("foo");
+		cache.put("baz", userDetails("baz"));
+
+		assertEquals(2, cache.size(), "Cache should not grow beyond its maximum size");
+		assertNotNull(cache.get("foo"), "Recently used entry should be retained");
+		assertNull(cache.get("bar"), "Least recently used entry should be evicted");
+		assertEquals(1, cache.getEvictionCount(), "One entry should be counted as evicted");
+	}
+
+	@Test
+	public void testEvict() {
+		cache.put("foo", userDetails("foo"));
+		cache.put("bar", userDetails("bar"));
+
+		cache.evict("foo");
+		assertNull(cache.get("foo"), "Evicted entry should not be returned");
+		assertNotNull(cache.get("bar"), "Other entries should be retained");
+
+		cache.evictAll();
+		assertEquals(0, cache.size(), "All entries should be removed");
+	}
+
+	@Test
+	public void testEvictAfterCommit() {
+		cache.put("foo", userDetails("foo"));
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.evictAfterCommit("foo");
+			assertNotNull(cache.get("foo"), "Entry should be retained until the transaction commits");
+
+			TransactionSynchronizationUtils.triggerAfterCommit();
+			assertNull(cache.get("foo"), "Entry should be evicted after the transaction commits");
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		cache.put("bar", userDetails("bar"));
+		cache.evictAfterCommit("bar");
+		assertNull(cache.get("bar"), "Entry should be evicted immediately without a transaction");
+	}
+
+	@Test
+	public void testPublishesMetrics() {
+		var registry = new SimpleMeterRegistry();
+		cache.bindTo(registry);
+		cache.put("foo", userDetails("foo"));
+		cache.get("foo");
+		cache.get("bar");
+
+		assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+				.functionCounter().count(), "Hit count should be published");
+		assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+				.functionCounter().count(), "Miss count should be published");
+		assertEquals(1.0, registry.get("cache.size").tag("cache", "userDetails").gauge().value(),
+				"Cache size should be published");
+	}
+
+	private UserDetails userDetails(String username) {
+		return new AuthenticationUserDetails(1L, username, "password", true, true, true, true,
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+	}
+
+}
@@ -0,0 +1,147 @@
+package org.octri.authentication.server.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.config.LdapContextProperties;
+import org.springframework.ldap.core.support.LdapContextSource;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.LDAPException;
+
+public class LdapBatchUserLookupTest {
+
+	private static final String BASE_DN = "dc=example,dc=org";
+	private static final String MANAGER_DN = "cn=manager," + BASE_DN;
+	private static final String MANAGER_PASSWORD = "secret";
+
+	private InMemoryDirectoryServer server;
+	private LdapContextSource contextSource;
+	private LdapContextProperties ldapContextProperties;
+
+	@BeforeEach
+	public void beforeEach() throws LDAPException {
+		var config = new InMemoryDirectoryServerConfig(BASE_DN);
+		config.addAdditionalBindCredentials(MANAGER_DN, MANAGER_PASSWORD);
+		config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+		server = new InMemoryDirectoryServer(config);
+		server.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: example");
+		server.add("dn: ou=people," + BASE_DN, "objectClass: top", "objectClass: organizationalUnit",
+				"ou: people");
+		addUser("jsmith", "Jane", "Smith");
+		addUser("bjones", "Bob", "Jones");
+		addUser("cdoe", "Carol", "Doe");
+		server.startListening();
+
+		contextSource = new LdapContextSource();
+		contextSource.setUrl("ldap://localhost:" + server.getListenPort());
+		contextSource.setBase(BASE_DN);
+		contextSource.setUserDn(MANAGER_DN);
+		contextSource.setPassword(MANAGER_PASSWORD);
+		contextSource.afterPropertiesSet();
+
+		ldapContextProperties = new LdapContextProperties();
+		ldapContextProperties.setSearchBase("ou=people");
+		ldapContextProperties.setSearchFilter("(uid={0})");
+	}
+
+	@AfterEach
+	public void afterEach() {
+		server.shutDown(true);
+	}
+
+	@Test
+	public void testLooksUpUsersInChunks() {
+		ldapContextProperties.getBatchLookup().setChunkSize(2);
+		var lookup = new LdapBatchUserLookup(contextSource, ldapContextProperties);
+		try {
+			var result = lookup.lookup(List.of("jsmith", "nobody", "bjones", "cdoe"));
+			assertEquals(List.of("jsmith", "bjones", "cdoe"), List.copyOf(result.getFound().keySet()),
+					"Users in every chunk should be found, in the order requested");
+			assertEquals("Jane", result.getFound().get("jsmith").getFirstName(), "First name should be read");
+			assertEquals("Jones", result.getFound().get("bjones").getLastName(), "Last name should be read");
+			assertEquals("cdoe@example.org", result.getFound().get("cdoe").getEmail(), "Email should be read");
+			assertEquals(List.of("nobody"), result.getNotFound(), "Unknown usernames should be reported");
+			assertTrue(result.getFailed().isEmpty(), "No search should fail");
+		} finally {
+			lookup.destroy();
+		}
+	}
+
+	@Test
+	public void testMatchesUsernamesIgnoringCaseAndSkipsRepeats() {
+		var lookup = new LdapBatchUserLookup(contextSource, ldapContextProperties);
+		try {
+			var result = lookup.lookup(List.of("JSmith", "jsmith", " "));
+			assertEquals(1, result.getFound().size(), "A repeated username should be looked up once");
+			assertEquals("Jane", result.getFound().get("JSmith").getFirstName(),
+					"The user should be keyed by the username as first requested");
+			assertTrue(result.getNotFound().isEmpty(), "A blank username should be ignored");
+		} finally {
+			lookup.destroy();
+		}
+	}
+
+	@Test
+	public void testReportsFailedChunks() {
+		ldapContextProperties.setSearchBase("ou=missing");
+		var lookup = new LdapBatchUserLookup(contextSource, ldapContextProperties);
+		try {
+			var result = lookup.lookup(List.of("jsmith"));
+			assertEquals(List.of("jsmith"), result.getFailed(), "Usernames in a failed search should be reported");
+			assertTrue(result.getFound().isEmpty(), "No users should be found");
+		} finally {
+			lookup.destroy();
+		}
+	}
+
+	@Test
+	public void testChunkFilterEscapesUsernames() {
+		ldapContextProperties.setSearchFilter("(&(objectClass=person)(uid={0}))");
+		var lookup = new LdapBatchUserLookup(contextSource, ldapContextProperties);
+		try {
+			assertEquals("(|(&(objectClass=person)(uid=a))(&(objectClass=person)(uid=b\\2a\\29)))",
+					lookup.chunkFilter(List.of("a", "b*)")), "Each username should be escaped and ORed together");
+		} finally {
+			lookup.destroy();
+		}
+	}
+
+	@Test
+	public void testReadsUsernameAttributeFromFilter() {
+		assertEquals("uid", LdapBatchUserLookup.usernameAttribute("(uid={0})"), "Simple filter");
+		assertEquals("sAMAccountName",
+				LdapBatchUserLookup.usernameAttribute("(&(objectClass=user)(sAMAccountName={0}))"),
+				"Compound filter");
+		assertNull(LdapBatchUserLookup.usernameAttribute("(cn=*{0}*)"), "Filter without an equality term");
+	}
+
+	@Test
+	public void testRequiresUsernameAttribute() {
+		ldapContextProperties.setSearchFilter("(cn=*{0}*)");
+		var lookup = new LdapBatchUserLookup(contextSource, ldapContextProperties);
+		try {
+			assertThrows(IllegalStateException.class, () -> lookup.lookup(List.of("jsmith")),
+					"Lookup should fail when the username attribute is unknown");
+		} finally {
+			lookup.destroy();
+		}
+	}
+
+	private void addUser(String uid, String firstName, String lastName) throws LDAPException {
+		server.add("dn: uid=" + uid + ",ou=people," + BASE_DN, "objectClass: top", "objectClass: person",
+				"objectClass: organizationalPerson", "objectClass: inetOrgPerson", "uid: " + uid,
+				"cn: " + firstName + " " + lastName, "givenName: " + firstName, "sn: " + lastName,
+				"mail: " + uid + "@example.org");
+	}
+
+}
@@ -0,0 +1,137 @@
+package org.octri.authentication.server.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.MutableClock;
+import org.octri.authentication.config.LdapContextProperties;
+import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.Modification;
+import com.unboundid.ldap.sdk.ModificationType;
+
+public class LdapUserLookupTest {
+
+	private static final String BASE_DN = "dc=example,dc=org";
+	private static final String MANAGER_DN = "cn=manager," + BASE_DN;
+	private static final String MANAGER_PASSWORD = "secret";
+	private static final String USER_DN = "uid=jsmith,ou=people," + BASE_DN;
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+	private InMemoryDirectoryServer server;
+	private LdapContextSource contextSource;
+	private FilterBasedLdapUserSearch ldapSearch;
+
+	@BeforeEach
+	public void beforeEach() throws LDAPException {
+		var config = new InMemoryDirectoryServerConfig(BASE_DN);
+		config.addAdditionalBindCredentials(MANAGER_DN, MANAGER_PASSWORD);
+		config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+		server = new InMemoryDirectoryServer(config);
+		server.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: example");
+		server.add("dn: ou=people," + BASE_DN, "objectClass: top", "objectClass: organizationalUnit",
+				"ou: people");
+		server.add("dn: " + USER_DN, "objectClass: top", "objectClass: person", "objectClass: organizationalPerson",
+				"objectClass: inetOrgPerson", "uid: jsmith", "cn: Jane Smith", "givenName: Jane", "sn: Smith",
+				"mail: jsmith@example.org");
+		server.startListening();
+
+		contextSource = new LdapContextSource();
+		contextSource.setUrl("ldap://localhost:" + server.getListenPort());
+		contextSource.setBase(BASE_DN);
+		contextSource.setUserDn(MANAGER_DN);
+		contextSource.setPassword(MANAGER_PASSWORD);
+		contextSource.afterPropertiesSet();
+		ldapSearch = new FilterBasedLdapUserSearch("ou=people", "(uid={0})", contextSource);
+	}
+
+	@AfterEach
+	public void afterEach() {
+		server.shutDown(true);
+	}
+
+	@Test
+	public void testLooksUpUserAttributes() {
+		var lookup = new LdapUserLookup(ldapSearch, 10, Duration.ofMinutes(5));
+		var attributes = lookup.lookup("jsmith");
+		assertEquals("Jane", attributes.getFirstName(), "First name should be read from givenName");
+		assertEquals("Smith", attributes.getLastName(), "Last name should be read from sn");
+		assertEquals("jsmith@example.org", attributes.getEmail(), "Email should be read from mail");
+	}
+
+	@Test
+	public void testCachesResultsUntilTheyExpire() throws LDAPException {
+		var clock = new MutableClock(NOW);
+		var lookup = new LdapUserLookup(ldapSearch, 10, Duration.ofMinutes(5), clock);
+
+		lookup.lookup("jsmith");
+		changeEmail("jane.smith@example.org");
+		clock.advance(Duration.ofMinutes(1));
+		assertEquals("jsmith@example.org", lookup.lookup("jsmith").getEmail(),
+				"A cached result should be returned within the time to live");
+		clock.advance(Duration.ofMinutes(4));
+		assertEquals("jane.smith@example.org", lookup.lookup("jsmith").getEmail(),
+				"The directory should be searched again once the result expires");
+		assertEquals(1, lookup.getHitCount(), "One lookup should be answered from the cache");
+		assertEquals(2, lookup.getMissCount(), "Two lookups should search the directory");
+	}
+
+	@Test
+	public void testDoesNotCacheUsersThatWereNotFound() throws LDAPException {
+		var lookup = new LdapUserLookup(ldapSearch, 10, Duration.ofMinutes(5));
+		assertThrows(UsernameNotFoundException.class, () -> lookup.lookup("jdoe"),
+				"An unknown user should not be found");
+		assertEquals(0, lookup.size(), "A user that was not found should not be cached");
+
+		server.add("dn: uid=jdoe,ou=people," + BASE_DN, "objectClass: top", "objectClass: person",
+				"objectClass: organizationalPerson", "objectClass: inetOrgPerson", "uid: jdoe", "cn: John Doe",
+				"givenName: John", "sn: Doe", "mail: jdoe@example.org");
+		assertEquals("John", lookup.lookup("jdoe").getFirstName(),
+				"A user added to the directory should be found on the next lookup");
+		assertEquals(0, lookup.getHitCount(), "Neither lookup should be answered from the cache");
+	}
+
+	@Test
+	public void testDoesNotCacheWhenTimeToLiveIsZero() throws LDAPException {
+		var lookup = new LdapUserLookup(ldapSearch, 10, Duration.ZERO);
+		lookup.lookup("jsmith");
+		changeEmail("jane.smith@example.org");
+		assertEquals("jane.smith@example.org", lookup.lookup("jsmith").getEmail(),
+				"Every lookup should search the directory");
+		assertEquals(0, lookup.size(), "Nothing should be cached");
+	}
+
+	@Test
+	public void testPooledContextSourceReusesConnections() throws Exception {
+		var pool = new LdapContextProperties.Pool();
+		pool.setEnabled(true);
+		var pooledContextSource = new PooledLdapContextSource(contextSource, pool);
+		try {
+			var pooledSearch = new FilterBasedLdapUserSearch("ou=people", "(uid={0})", pooledContextSource);
+			var lookup = new LdapUserLookup(pooledSearch, 10, Duration.ZERO);
+			assertEquals("Jane", lookup.lookup("jsmith").getFirstName(), "Search should use a pooled connection");
+			assertEquals("Jane", lookup.lookup("jsmith").getFirstName(), "Search should reuse the connection");
+			assertEquals(0, pooledContextSource.getNumActive(), "Connections should be returned to the pool");
+			assertEquals(1, pooledContextSource.getNumIdle(), "One connection should be reused");
+		} finally {
+			pooledContextSource.destroy();
+		}
+	}
+
+	private void changeEmail(String email) throws LDAPException {
+		server.modify(USER_DN, new Modification(ModificationType.REPLACE, "mail", email));
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.octri.authentication.server.security.bulkimport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.export.ExportFormat;
+
+public class UserImportParserTest {
+
+	@Test
+	public void testParsesCsv() throws Exception {
+		String csv = "\uFEFFUsername,Email,First Name,last_name,Roles,Notes\r\n"
+				+ "foo,foo@example.com,Foo,\"Smith, Jr.\",ROLE_USER; ROLE_ADMIN,\"multi\nline \"\"note\"\"\"\r\n"
+				+ "\r\n"
+				+ "bar,,Bar,Baz,,\n";
+		List<UserImportRow> rows = parse(csv, ExportFormat.CSV, 10);
+
+		assertEquals(2, rows.size(), "Blank lines should be skipped");
+		var first = rows.get(0);
+		assertEquals(1, first.getRowNumber(), "Rows should be numbered from 1");
+		assertEquals("foo", first.getUsername(), "Should read the username ignoring the byte order mark");
+		assertEquals("Smith, Jr.", first.getLastName(), "Should read quoted fields with commas");
+		assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), first.getRoles(), "Should split roles on semicolons");
+
+		var second = rows.get(1);
+		assertEquals(2, second.getRowNumber(), "Row numbers should not count blank lines");
+		assertNull(second.getEmail(), "Blank values should be null");
+		assertEquals(List.of(), second.getRoles(), "Blank roles should be empty");
+	}
+
+	@Test
+	public void testParsesJson() throws Exception {
+		String json = "[{\"username\": \"foo\", \"firstName\": \"Foo\", \"roles\": [\"ROLE_USER\"]},"
+				+ "{\"username\": \"bar\", \"authentication_method\": \"LDAP\", \"roles\": \"ROLE_USER;ROLE_ADMIN\"}]";
+		List<UserImportRow> rows = parse(json, ExportFormat.JSON, 10);
+
+		assertEquals(2, rows.size(), "Should read every object");
+		assertEquals(List.of("ROLE_USER"), rows.get(0).getRoles(), "Should read an array of roles");
+		assertEquals("LDAP", rows.get(1).getAuthenticationMethod(), "Should match snake case properties");
+		assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), rows.get(1).getRoles(), "Should split a string of roles");
+	}
+
+	@Test
+	public void testRejectsMalformedFiles() {
+		assertThrows(UserManagementException.class, () -> parse("email\nfoo@example.com\n", ExportFormat.CSV, 10),
+				"CSV files must have a username column");
+		assertThrows(UserManagementException.class, () -> parse("username\n\"foo\n", ExportFormat.CSV, 10),
+				"Quoted fields must be terminated");
+		assertThrows(UserManagementException.class, () -> parse("{\"username\": \"foo\"}", ExportFormat.JSON, 10),
+				"JSON files must contain an array");
+		assertThrows(UserManagementException.class, () -> parse("[{\"username\": ", ExportFormat.JSON, 10),
+				"JSON files must be well formed");
+	}
+
+	@Test
+	public void testLimitsRows() {
+		assertThrows(UserManagementException.class, () -> parse("username\na\nb\nc\n", ExportFormat.CSV, 2),
+				"Should reject files with too many rows");
+	}
+
+	private static List<UserImportRow> parse(String content, ExportFormat format, int maximumRows)
+			throws UserManagementException, IOException {
+		var in = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		return UserImportParser.parse(in, format, maximumRows);
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.octri.authentication.server.security.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class ExportWriterTest {
+
+	private static final Date ATTEMPTED_AT = Date.from(Instant.parse("2024-05-01T12:30:00Z"));
+
+	private final ExportWriter<String[]> writer = new ExportWriter<>(List.of(
+			new ExportColumn<>("username", row -> row[0]),
+			new ExportColumn<>("message", row -> row[1]),
+			new ExportColumn<>("attemptedAt", row -> ATTEMPTED_AT),
+			new ExportColumn<>("successful", row -> row[1] == null)));
+
+	@Test
+	public void testWritesCsv() throws IOException {
+		var out = new ByteArrayOutputStream();
+		long count = writer.write(Stream.of(new String[] { "foo", "Bad, \"wrong\" password" },
+				new String[] { "bar", null }), ExportFormat.CSV, out);
+
+		assertEquals(2, count, "Should count the rows written");
+		assertEquals("username,message,attemptedAt,successful\r\n"
+				+ "foo,\"Bad, \"\"wrong\"\" password\",2024-05-01T12:30:00Z,false\r\n"
+				+ "bar,,2024-05-01T12:30:00Z,true\r\n",
+				out.toString(StandardCharsets.UTF_8), "Should quote fields containing commas or quotes");
+	}
+
+	@Test
+	public void testWritesJson() throws IOException {
+		var out = new ByteArrayOutputStream();
+		long count = writer.write(Stream.<String[]> of(new String[] { "foo", null }), ExportFormat.JSON, out);
+
+		assertEquals(1, count, "Should count the rows written");
+		assertEquals("[{\"username\":\"foo\",\"message\":null,\"attemptedAt\":\"2024-05-01T12:30:00Z\","
+				+ "\"successful\":true}]", out.toString(StandardCharsets.UTF_8), "Should write an array of objects");
+	}
+
+	@Test
+	public void testCsvFieldNeutralizesFormulas() {
+		assertEquals("'=SUM(A1:A2)", ExportWriter.csvField("=SUM(A1:A2)"), "Formulas should not be evaluated");
+		assertEquals("\"'@foo,bar\"", ExportWriter.csvField("@foo,bar"), "Prefixed fields should still be quoted");
+		assertEquals("plain", ExportWriter.csvField("plain"), "Plain fields should be unchanged");
+	}
+
+	@Test
+	public void testWritesPlainCsvWithoutDefusingFormulas() throws IOException {
+		var plainWriter = new ExportWriter<String[]>(List.of(new ExportColumn<>("value", row -> row[0])), false);
+		var out = new ByteArrayOutputStream();
+		plainWriter.write(Stream.of(new String[] { "-1" }, new String[] { "=a,b" }), ExportFormat.CSV, out);
+
+		assertEquals("value\r\n-1\r\n\"=a,b\"\r\n", out.toString(StandardCharsets.UTF_8),
+				"Fields should be written unchanged and quoted only when needed");
+	}
+
+}
@@ -0,0 +1,220 @@
+package org.octri.authentication.server.security.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.server.security.AuthenticationUserDetails;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.saml2.core.Saml2Error;
+import org.springframework.security.saml2.core.Saml2ErrorCodes;
+import org.springframework.security.saml2.provider.service.authentication.Saml2AuthenticationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+
+public class AuthenticationMetricsTest {
+
+	private SimpleMeterRegistry registry;
+
+	@BeforeEach
+	public void beforeEach() {
+		registry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	public void testLoginSuccessIsTaggedWithUsersMethod() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED, AuthenticationMethod.LDAP));
+		var userDetails = new AuthenticationUserDetails(1L, "ldapuser", "", true, true, true, true, List.of());
+		userDetails.setAuthenticationMethod(AuthenticationMethod.LDAP);
+
+		metrics.recordLoginSuccess(new UsernamePasswordAuthenticationToken(userDetails, null, List.of()),
+				new MockHttpServletRequest());
+		assertEquals(1.0, loginCount("LDAP", "success", AuthenticationMetrics.NO_ERROR),
+				"The login should be tagged with the user's authentication method");
+	}
+
+	@Test
+	public void testFormFailureUsesSingleEnabledMethod() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED, AuthenticationMethod.SAML));
+		metrics.recordLoginFailure(new BadCredentialsException("Bad credentials"));
+		metrics.recordLoginFailure(new LockedException("Locked"));
+
+		assertEquals(1.0, loginCount("TABLE_BASED", "failure", "BadCredentialsException"),
+				"Failures should be tagged with the only form method and the exception type");
+		assertEquals(1.0, loginCount("TABLE_BASED", "failure", "LockedException"),
+				"Each exception type should be counted separately");
+	}
+
+	@Test
+	public void testFormFailureIsUnattributedWhenBothFormMethodsEnabled() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED, AuthenticationMethod.LDAP));
+		metrics.recordLoginFailure(new BadCredentialsException("Bad credentials"));
+
+		assertEquals(1.0, loginCount(AuthenticationMetrics.FORM_METHOD, "failure", "BadCredentialsException"),
+				"The method of a failed form login cannot be known when both are enabled");
+	}
+
+	@Test
+	public void testSamlFailureIsTaggedWithErrorCode() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.SAML));
+		var exception = new Saml2AuthenticationException(
+				new Saml2Error(Saml2ErrorCodes.INVALID_ASSERTION, "User jdoe is not a member of the required group"));
+		metrics.recordLoginFailure(AuthenticationMethod.SAML, exception);
+
+		assertEquals(1.0, loginCount("SAML", "failure", Saml2ErrorCodes.INVALID_ASSERTION),
+				"SAML failures should be tagged with the error code rather than the description");
+	}
+
+	@Test
+	public void testActiveSessions() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED));
+		var request = new MockHttpServletRequest();
+		String sessionId = request.getSession().getId();
+		var authentication = new UsernamePasswordAuthenticationToken("user", null, List.of());
+
+		metrics.recordLoginSuccess(authentication, request);
+		assertEquals(1.0, registry.get(AuthenticationMetrics.ACTIVE_SESSIONS).gauge().value(),
+				"The logged in session should be active");
+
+		metrics.sessionDestroyed(sessionId);
+		assertEquals(0, metrics.getActiveSessionCount(), "The destroyed session should no longer be active");
+	}
+
+	@Test
+	public void testTimedPasswordEncoder() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED));
+		var encoder = metrics.timed(new BCryptPasswordEncoder(4));
+
+		String hash = encoder.encode("password");
+		assertTrue(encoder.matches("password", hash), "The timed encoder should match like its delegate");
+		assertEquals(1, registry.get(AuthenticationMetrics.PASSWORD_HASH).tags("operation", "encode", "outcome",
+				"success").timer().count(), "Encoding should be timed");
+		assertEquals(1, registry.get(AuthenticationMetrics.PASSWORD_HASH).tags("operation", "match", "outcome",
+				"success").timer().count(), "Matching should be timed");
+	}
+
+	@Test
+	public void testTimerRecordsFailureOutcome() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.SAML));
+		Converter<String, String> failing = source -> {
+			throw new IllegalStateException("Invalid response");
+		};
+		var timed = metrics.timed(AuthenticationMetrics.SAML_CONVERT, failing);
+
+		assertThrows(IllegalStateException.class, () -> timed.convert("response"),
+				"Exceptions should be passed through");
+		assertEquals(1, registry.get(AuthenticationMetrics.SAML_CONVERT).tag("outcome", "failure").timer().count(),
+				"The failed call should be timed");
+	}
+
+	@Test
+	public void testMeasurementsBeforeBindingAreDiscarded() {
+		var metrics = new AuthenticationMetrics(EnumSet.of(AuthenticationMethod.TABLE_BASED));
+		metrics.recordLockout();
+		metrics.bindTo(registry);
+		metrics.recordLockout();
+
+		assertEquals(1.0, registry.get(AuthenticationMetrics.LOCKOUTS).counter().count(),
+				"Only lockouts after binding should be published");
+	}
+
+	@Test
+	public void testObservationsAreNestedInsideProvider() {
+		var metrics = bind(EnumSet.of(AuthenticationMethod.TABLE_BASED));
+		var observationRegistry = ObservationRegistry.create();
+		List<Observation.Context> stopped = new ArrayList<>();
+		observationRegistry.observationConfig().observationHandler(new ObservationHandler<Observation.Context>() {
+
+			@Override
+			public void onStop(Observation.Context context) {
+				stopped.add(context);
+			}
+
+			@Override
+			public boolean supportsContext(Observation.Context context) {
+				return true;
+			}
+
+		});
+		metrics.setObservationRegistry(observationRegistry);
+
+		PasswordEncoder encoder = metrics.timed(new BCryptPasswordEncoder(4));
+		String hash = encoder.encode("password");
+		stopped.clear();
+		AuthenticationProvider provider = metrics.observed(new AuthenticationProvider() {
+
+			@Override
+			public Authentication authenticate(Authentication authentication) {
+				if (!encoder.matches(authentication.getCredentials().toString(), hash)) {
+					throw new BadCredentialsException("Bad credentials");
+				}
+				return authentication;
+			}
+
+			@Override
+			public boolean supports(Class<?> authentication) {
+				return true;
+			}
+
+		}, AuthenticationMethod.TABLE_BASED);
+
+		assertThrows(BadCredentialsException.class,
+				() -> provider.authenticate(new UsernamePasswordAuthenticationToken("user", "wrong")),
+				"The provider's exception should be passed through");
+		assertEquals(2, stopped.size(), "The provider and the password check should be observed");
+
+		Observation.Context hashContext = stopped.get(0);
+		Observation.Context providerContext = stopped.get(1);
+		assertEquals("authlib.auth.password.hash", hashContext.getName(), "The password check should stop first");
+		assertEquals("match", hashContext.getLowCardinalityKeyValue("operation").getValue(),
+				"The timer's tags should be key values");
+		assertEquals("success", hashContext.getLowCardinalityKeyValue("outcome").getValue(),
+				"A password that does not match is not an error");
+		assertNotNull(hashContext.getParentObservation(), "The password check should have a parent");
+		assertEquals(AuthenticationMetrics.PROVIDER_OBSERVATION,
+				hashContext.getParentObservation().getContextView().getName(),
+				"The password check should be nested inside the provider");
+
+		assertEquals(AuthenticationMetrics.PROVIDER_OBSERVATION, providerContext.getName(),
+				"The provider should be observed");
+		assertEquals("TABLE_BASED", providerContext.getLowCardinalityKeyValue("method").getValue(),
+				"The provider should be tagged with its method");
+		assertEquals("failure", providerContext.getLowCardinalityKeyValue("outcome").getValue(),
+				"A rejected login should be a failure");
+		assertTrue(providerContext.getError() instanceof BadCredentialsException, "The error should be recorded");
+		assertEquals("provider", providerContext.getContextualName(), "Span names should omit the prefix");
+	}
+
+	private AuthenticationMetrics bind(EnumSet<AuthenticationMethod> enabledMethods) {
+		var metrics = new AuthenticationMetrics(enabledMethods);
+		metrics.bindTo(registry);
+		return metrics;
+	}
+
+	private double loginCount(String method, String outcome, String error) {
+		return registry.get(AuthenticationMetrics.LOGINS)
+				.tags("method", method, "outcome", outcome, "error", error)
+				.counter()
+				.count();
+	}
+
+}
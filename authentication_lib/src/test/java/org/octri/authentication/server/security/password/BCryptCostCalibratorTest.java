@@ -0,0 +1,32 @@
+package org.octri.authentication.server.security.password;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class BCryptCostCalibratorTest {
+
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void testChoosesHighestStrengthWithinTarget() {
+		assertEquals(12, BCryptCostCalibrator.strengthFor(250 * MILLIS, 60 * MILLIS, 10),
+				"60ms at strength 10 should allow two doublings within 250ms");
+	}
+
+	@Test
+	public void testNeverGoesBelowMeasuredStrength() {
+		assertEquals(10, BCryptCostCalibrator.strengthFor(50 * MILLIS, 60 * MILLIS, 10),
+				"The measured strength is the minimum");
+	}
+
+	@Test
+	public void testCapsStrength() {
+		assertEquals(BCryptCostCalibrator.MAXIMUM_STRENGTH,
+				BCryptCostCalibrator.strengthFor(TimeUnit.HOURS.toNanos(1), 1, 10),
+				"Strength should not exceed the maximum");
+	}
+
+}
@@ -8,6 +8,7 @@ import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.octri.authentication.config.OctriAuthenticationProperties.PasswordPolicy;
 
 public class PasswordConstraintValidatorTest {
 
@@ -126,4 +127,24 @@ public class PasswordConstraintValidatorTest {
 		assertEquals(0, errors.size(), "The error list should be empty");
 	}
 
+	@Test
+	public void customPolicyIsApplied() {
+		var policy = new PasswordPolicy();
+		policy.setMinimumLength(12);
+		policy.setRequiredLowercase(1);
+		policy.setRequiredCharacteristics(2);
+		var strictValidator = new PasswordConstraintValidator(policy);
+
+		List<String> errors = strictValidator.validate("PASSW0RD!", null);
+		assertTrue(errors.contains(Messages.PASSWORD_TOO_SHORT), "The configured minimum length should be applied");
+		assertTrue(errors.contains(Messages.PASSWORD_INSUFFICIENT_LOWERCASE),
+				"The configured lowercase rule should be applied");
+		assertFalse(errors.contains(Messages.PASSWORD_INSUFFICIENT_CHARACTERISTICS),
+				"Capital letters and special characters are both present");
+		assertTrue(strictValidator.validate("Passw0rd!long", null).isEmpty(),
+				"A password meeting the custom policy should be valid");
+		assertFalse(strictValidator.validate("Passw0rdlong", null).isEmpty(),
+				"Both characteristics should be required");
+	}
+
 }
@@ -0,0 +1,92 @@
+package org.octri.authentication.server.security.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.MutableClock;
+
+public class InMemoryRateLimitStoreTest {
+
+	private static final Duration WINDOW = Duration.ofMinutes(1);
+	private static final String IP = RateLimitingFilter.IP_ADDRESS_PARTITION;
+	private static final String USER = RateLimitingFilter.USERNAME_PARTITION;
+
+	private MutableClock clock;
+	private InMemoryRateLimitStore store;
+
+	@BeforeEach
+	public void beforeEach() {
+		clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+		store = new InMemoryRateLimitStore(2, clock);
+	}
+
+	@Test
+	public void testRejectsRequestsOverLimit() {
+		assertTrue(store.tryAcquire(IP, "foo", 2, WINDOW), "First request should be allowed");
+		assertTrue(store.tryAcquire(IP, "foo", 2, WINDOW), "Second request should be allowed");
+		assertFalse(store.tryAcquire(IP, "foo", 2, WINDOW), "Third request should be rejected");
+		assertTrue(store.tryAcquire(IP, "bar", 2, WINDOW), "Other keys should be counted separately");
+	}
+
+	@Test
+	public void testPreviousWindowIsWeighted() {
+		store.tryAcquire(IP, "foo", 2, WINDOW);
+		store.tryAcquire(IP, "foo", 2, WINDOW);
+
+		clock.advance(Duration.ofSeconds(90));
+		assertTrue(store.tryAcquire(IP, "foo", 2, WINDOW), "Half of the previous window should still count");
+		assertFalse(store.tryAcquire(IP, "foo", 2, WINDOW), "Weighted count should reach the limit");
+
+		clock.advance(Duration.ofMinutes(2));
+		assertTrue(store.tryAcquire(IP, "foo", 2, WINDOW), "Old windows should no longer count");
+	}
+
+	@Test
+	public void testEvictsIdleKeysWhenFull() {
+		store.tryAcquire(IP, "foo", 2, WINDOW);
+		store.tryAcquire(IP, "bar", 2, WINDOW);
+
+		clock.advance(Duration.ofMinutes(2));
+		store.tryAcquire(IP, "baz", 2, WINDOW);
+		assertEquals(1, store.size(IP), "Idle keys should be evicted to make room");
+		assertEquals(0, store.getActiveEvictionCount(), "No key in use should be evicted");
+	}
+
+	@Test
+	public void testNewKeysAreLimitedWhenFull() {
+		assertTrue(store.tryAcquire(IP, "foo", 1, WINDOW), "First request for foo should be allowed");
+		assertTrue(store.tryAcquire(IP, "bar", 1, WINDOW), "First request for bar should be allowed");
+		clock.advance(Duration.ofSeconds(1));
+		assertFalse(store.tryAcquire(IP, "foo", 1, WINDOW), "Second request for foo should be rejected");
+
+		assertTrue(store.tryAcquire(IP, "baz", 1, WINDOW), "First request for a new key should be allowed when full");
+		assertFalse(store.tryAcquire(IP, "baz", 1, WINDOW), "A new key should be counted when the store is full");
+		assertFalse(store.tryAcquire(IP, "foo", 1, WINDOW), "The recently used key should still be limited");
+		assertEquals(2, store.size(IP), "The store should not grow beyond its maximum");
+		assertEquals(1, store.getActiveEvictionCount(), "The least recently used key should be evicted");
+	}
+
+	@Test
+	public void testPartitionsAreBoundedSeparately() {
+		for (int i = 0; i < 10; i++) {
+			clock.advance(Duration.ofMillis(1));
+			store.tryAcquire(IP, "10.0.0." + i, 1, WINDOW);
+		}
+		assertTrue(store.tryAcquire(USER, "foo", 1, WINDOW), "First request for the username should be allowed");
+		for (int i = 10; i < 20; i++) {
+			clock.advance(Duration.ofMillis(1));
+			store.tryAcquire(IP, "10.0.0." + i, 1, WINDOW);
+		}
+		assertFalse(store.tryAcquire(USER, "foo", 1, WINDOW),
+				"New IP addresses should not evict username counters");
+		assertEquals(2, store.size(IP), "The IP address partition should be bounded");
+		assertEquals(1, store.size(USER), "The username partition should be bounded separately");
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.octri.authentication.server.security.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.config.RateLimitProperties;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class RateLimitingFilterTest {
+
+	private RateLimitingFilter filter;
+
+	@BeforeEach
+	public void beforeEach() {
+		var properties = new RateLimitProperties();
+		properties.setMaxRequestsPerIpAddress(3);
+		properties.setMaxRequestsPerUsername(1);
+		filter = new RateLimitingFilter(new InMemoryRateLimitStore(100), properties, "/login");
+	}
+
+	@Test
+	public void testRejectsLoginsOverUsernameLimit() throws Exception {
+		assertEquals(200, login("foo", "10.0.0.1").getStatus(), "First login should be allowed");
+		var rejected = login("FOO", "10.0.0.2");
+		assertEquals(429, rejected.getStatus(), "Usernames should be compared case-insensitively");
+		assertNotNull(rejected.getHeader("Retry-After"), "Rejected requests should include Retry-After");
+	}
+
+	@Test
+	public void testRejectsLoginsOverIpLimit() throws Exception {
+		login("foo", "10.0.0.1");
+		login("bar", "10.0.0.1");
+		login("baz", "10.0.0.1");
+		assertEquals(429, login("qux", "10.0.0.1").getStatus(), "Fourth login from the same IP should be rejected");
+	}
+
+	@Test
+	public void testIgnoresOtherRequests() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			var request = new MockHttpServletRequest("GET", "/login");
+			var chain = new MockFilterChain();
+			filter.doFilter(request, new MockHttpServletResponse(), chain);
+			assertNotNull(chain.getRequest(), "GET requests should not be rate limited");
+		}
+	}
+
+	@Test
+	public void testCountsForgotPasswordSeparately() throws Exception {
+		login("foo@example.com", "10.0.0.1");
+
+		var request = new MockHttpServletRequest("POST", "/user/password/forgot");
+		request.setRemoteAddr("10.0.0.1");
+		request.setParameter("email", "foo@example.com");
+		var chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertNotNull(chain.getRequest(), "Forgot password requests should have their own counters");
+
+		chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertNull(chain.getRequest(), "Second forgot password request for the same email should be rejected");
+	}
+
+	private MockHttpServletResponse login(String username, String ipAddress) throws Exception {
+		var request = new MockHttpServletRequest("POST", "/login");
+		request.setRemoteAddr(ipAddress);
+		request.setParameter("username", username);
+		var response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+}
@@ -0,0 +1,304 @@
+package org.octri.authentication.server.security.saml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.octri.authentication.config.SamlProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.saml2.provider.service.registration.RelyingPartyRegistration;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+
+public class RefreshingRelyingPartyRegistrationRepositoryTest {
+
+	private static final String ENTITY_ID = "https://idp.example.com/idp";
+	private static final String NEW_ENTITY_ID = "https://idp.example.com/new-idp";
+
+	@TempDir
+	private Path directory;
+
+	private String metadata;
+	private Path metadataFile;
+	private Path cacheFile;
+	private SamlProperties samlProperties;
+	private RefreshingRelyingPartyRegistrationRepository repository;
+	private HttpServer server;
+	private final List<Headers> requests = new CopyOnWriteArrayList<>();
+	private volatile MetadataResponse response;
+	private volatile CountDownLatch requestLatch = new CountDownLatch(0);
+
+	@BeforeEach
+	public void beforeEach() throws IOException {
+		metadata = new ClassPathResource("saml/idp-metadata.xml").getContentAsString(StandardCharsets.UTF_8);
+		metadataFile = directory.resolve("idp-metadata.xml");
+		cacheFile = directory.resolve("cache").resolve("idp-metadata.xml");
+		samlProperties = new SamlProperties();
+		samlProperties.setIdpMetadataUri(metadataFile.toUri().toString());
+		samlProperties.setIdpMetadataCacheFile(cacheFile.toString());
+	}
+
+	@AfterEach
+	public void afterEach() {
+		if (repository != null) {
+			repository.destroy();
+		}
+		if (server != null) {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	public void testLoadsMetadataAndWritesCache() throws IOException {
+		Files.writeString(metadataFile, metadata);
+		repository = start();
+
+		assertEquals(ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"The registration should be built from the IdP metadata");
+		assertNull(repository.findByRegistrationId("other"), "Only the configured registration should be found");
+		assertEquals(cached(metadata), Files.readString(cacheFile),
+				"The metadata should be cached with the location it was loaded from");
+	}
+
+	@Test
+	public void testStartsFromCacheWhenIdpIsUnreachable() throws IOException {
+		Files.createDirectories(cacheFile.getParent());
+		Files.writeString(cacheFile, cached(metadata));
+		repository = start();
+
+		assertEquals(ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"The registration should be built from the cached metadata");
+		assertThrows(IOException.class, () -> repository.refresh(), "The IdP should be unreachable");
+		assertEquals(ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"The cached registration should stay in use");
+	}
+
+	@Test
+	public void testIgnoresCacheLoadedFromAnotherLocation() throws IOException {
+		Files.writeString(metadataFile, metadata);
+		Files.createDirectories(cacheFile.getParent());
+		Files.writeString(cacheFile, RefreshingRelyingPartyRegistrationRepository.CACHE_SOURCE_PREFIX
+				+ "https://other.example.com/metadata\n" + metadata.replace(ENTITY_ID, NEW_ENTITY_ID));
+		repository = start();
+
+		assertEquals(ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"Metadata cached from another location should not be used");
+		assertEquals(cached(metadata), Files.readString(cacheFile), "The cache should be replaced");
+	}
+
+	@Test
+	public void testStartupFailsWithoutCacheOrIdp() {
+		repository = new RefreshingRelyingPartyRegistrationRepository(samlProperties, this::build);
+		assertThrows(IllegalStateException.class, () -> repository.afterPropertiesSet(),
+				"Startup should fail when there is no metadata to start from");
+	}
+
+	@Test
+	public void testRefreshReplacesRegistrationWhenMetadataChanges() throws IOException {
+		Files.writeString(metadataFile, metadata);
+		repository = start();
+		RelyingPartyRegistration original = repository.findByRegistrationId("default");
+
+		repository.refresh();
+		assertSame(original, repository.findByRegistrationId("default"),
+				"The registration should not be rebuilt when the metadata has not changed");
+
+		String newMetadata = metadata.replace(ENTITY_ID, NEW_ENTITY_ID);
+		Files.writeString(metadataFile, newMetadata);
+		assertEquals(samlProperties.getIdpMetadataRefreshInterval(), repository.refresh(),
+				"Files should be read again after the refresh interval");
+		assertEquals(NEW_ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"The registration should be replaced");
+		assertEquals(ENTITY_ID, entityId(original), "The previous registration should not be modified");
+		assertEquals(cached(newMetadata), Files.readString(cacheFile), "The cache should be replaced");
+	}
+
+	@Test
+	public void testInvalidMetadataKeepsCurrentRegistration() throws IOException {
+		Files.writeString(metadataFile, metadata);
+		repository = start();
+		RelyingPartyRegistration original = repository.findByRegistrationId("default");
+
+		Files.writeString(metadataFile, "<html>Service unavailable</html>");
+		assertThrows(RuntimeException.class, () -> repository.refresh(), "Invalid metadata should not be parsed");
+		assertSame(original, repository.findByRegistrationId("default"),
+				"The current registration should stay in use");
+		assertEquals(cached(metadata), Files.readString(cacheFile), "The cache should not be replaced");
+	}
+
+	@Test
+	public void testHttpRefreshSendsValidatorsAndHandlesNotModified() throws IOException {
+		startServer();
+		response = new MetadataResponse(200, metadata, "ETag", "\"v1\"", "Last-Modified",
+				"Fri, 16 Oct 2026 12:00:00 GMT", "Cache-Control", "max-age=3600");
+		repository = start();
+		RelyingPartyRegistration original = repository.findByRegistrationId("default");
+		assertEquals(ENTITY_ID, entityId(original), "The registration should be built from the downloaded metadata");
+		assertNull(requests.get(0).getFirst("If-None-Match"), "The first request should not be conditional");
+
+		response = new MetadataResponse(304, null, "Cache-Control", "max-age=1800");
+		assertEquals(Duration.ofMinutes(30), repository.refresh(),
+				"The next refresh should follow the max-age of the response");
+		assertEquals("\"v1\"", requests.get(1).getFirst("If-None-Match"), "The ETag should be sent back");
+		assertEquals("Fri, 16 Oct 2026 12:00:00 GMT", requests.get(1).getFirst("If-Modified-Since"),
+				"The Last-Modified date should be sent back");
+		assertSame(original, repository.findByRegistrationId("default"),
+				"The registration should not be rebuilt when the metadata has not been modified");
+
+		String newMetadata = metadata.replace(ENTITY_ID, NEW_ENTITY_ID);
+		response = new MetadataResponse(200, newMetadata, "ETag", "\"v2\"");
+		assertEquals(samlProperties.getIdpMetadataRefreshInterval(), repository.refresh(),
+				"A response without caching headers should use the refresh interval");
+		assertEquals(NEW_ENTITY_ID, entityId(repository.findByRegistrationId("default")),
+				"The registration should be replaced");
+		assertEquals(cached(newMetadata), Files.readString(cacheFile), "The cache should be replaced");
+
+		repository.refresh();
+		assertEquals("\"v2\"", requests.get(3).getFirst("If-None-Match"), "The new ETag should be sent back");
+		assertNull(requests.get(3).getFirst("If-Modified-Since"),
+				"A Last-Modified date that is no longer returned should not be sent");
+	}
+
+	@Test
+	public void testHttpErrorKeepsCurrentRegistration() throws IOException {
+		startServer();
+		response = new MetadataResponse(200, metadata);
+		repository = start();
+		RelyingPartyRegistration original = repository.findByRegistrationId("default");
+
+		response = new MetadataResponse(503, null);
+		assertThrows(IOException.class, () -> repository.refresh(), "An error status should fail the refresh");
+		assertSame(original, repository.findByRegistrationId("default"),
+				"The current registration should stay in use");
+		assertEquals(cached(metadata), Files.readString(cacheFile), "The cache should not be replaced");
+	}
+
+	@Test
+	public void testSchedulesRefreshFromResponseHeaders() throws IOException, InterruptedException {
+		startServer();
+		samlProperties.setIdpMetadataMinRefreshInterval(Duration.ofMillis(100));
+		response = new MetadataResponse(200, metadata, "Cache-Control", "no-cache");
+		requestLatch = new CountDownLatch(3);
+		repository = start();
+
+		assertTrue(requestLatch.await(10, TimeUnit.SECONDS),
+				"A response that must not be cached should be refreshed after the minimum refresh interval");
+	}
+
+	@Test
+	public void testCacheLifetime() {
+		Instant now = Instant.parse("2026-10-17T12:00:00Z");
+		assertEquals(Duration.ofMinutes(30), lifetime(now, "Cache-Control", "public, max-age=1800"),
+				"max-age should give the lifetime");
+		assertEquals(Duration.ZERO, lifetime(now, "Cache-Control", "no-cache"),
+				"no-cache should require a refresh");
+		assertEquals(Duration.ofHours(2), lifetime(now, "Expires", "Sat, 17 Oct 2026 14:00:00 GMT"),
+				"Expires should be used without Cache-Control");
+		assertEquals(Duration.ZERO, lifetime(now, "Expires", "0"), "An invalid Expires header means expired");
+		assertNull(lifetime(now, "ETag", "\"abc\""), "A response without caching headers has no lifetime");
+	}
+
+	@Test
+	public void testNextRefreshIsLimitedToIntervals() {
+		repository = new RefreshingRelyingPartyRegistrationRepository(samlProperties, this::build);
+		assertEquals(samlProperties.getIdpMetadataRefreshInterval(), repository.nextRefresh(null),
+				"An unknown lifetime should use the refresh interval");
+		assertEquals(samlProperties.getIdpMetadataRefreshInterval(), repository.nextRefresh(Duration.ofDays(7)),
+				"A long lifetime should be limited to the refresh interval");
+		assertEquals(samlProperties.getIdpMetadataMinRefreshInterval(), repository.nextRefresh(Duration.ZERO),
+				"A short lifetime should be limited to the minimum refresh interval");
+		assertEquals(Duration.ofHours(1), repository.nextRefresh(Duration.ofHours(1)),
+				"A lifetime between the intervals should be used");
+	}
+
+	private void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/idp-metadata.xml", exchange -> {
+			requests.add(exchange.getRequestHeaders());
+			MetadataResponse current = response;
+			for (int i = 0; i < current.headers.length; i += 2) {
+				exchange.getResponseHeaders().add(current.headers[i], current.headers[i + 1]);
+			}
+			if (current.body == null) {
+				exchange.sendResponseHeaders(current.status, -1);
+			} else {
+				byte[] body = current.body.getBytes(StandardCharsets.UTF_8);
+				exchange.sendResponseHeaders(current.status, body.length);
+				try (OutputStream outputStream = exchange.getResponseBody()) {
+					outputStream.write(body);
+				}
+			}
+			exchange.close();
+			requestLatch.countDown();
+		});
+		server.start();
+		samlProperties.setIdpMetadataUri(
+				"http://localhost:" + server.getAddress().getPort() + "/idp-metadata.xml");
+	}
+
+	private RefreshingRelyingPartyRegistrationRepository start() {
+		var started = new RefreshingRelyingPartyRegistrationRepository(samlProperties, this::build);
+		started.afterPropertiesSet();
+		return started;
+	}
+
+	private RelyingPartyRegistration build(RelyingPartyRegistration.Builder builder) {
+		return builder.registrationId(samlProperties.getRegistrationId()).build();
+	}
+
+	private static String entityId(RelyingPartyRegistration registration) {
+		assertNotNull(registration, "The registration should be found");
+		return registration.getAssertingPartyMetadata().getEntityId();
+	}
+
+	private String cached(String cachedMetadata) {
+		return RefreshingRelyingPartyRegistrationRepository.CACHE_SOURCE_PREFIX + samlProperties.getIdpMetadataUri()
+				+ "\n" + cachedMetadata;
+	}
+
+	private static Duration lifetime(Instant now, String header, String value) {
+		var headers = HttpHeaders.of(Map.of(header, List.of(value)), (name, headerValue) -> true);
+		return RefreshingRelyingPartyRegistrationRepository.cacheLifetime(headers, now);
+	}
+
+	/**
+	 * A response returned by the test server: the status, the body or null for none, and header name and value pairs.
+	 */
+	private static class MetadataResponse {
+
+		private final int status;
+		private final String body;
+		private final String[] headers;
+
+		MetadataResponse(int status, String body, String... headers) {
+			this.status = status;
+			this.body = body;
+			this.headers = headers;
+		}
+
+	}
+
+}
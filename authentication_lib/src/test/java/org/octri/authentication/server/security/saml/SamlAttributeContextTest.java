@@ -0,0 +1,150 @@
+package org.octri.authentication.server.security.saml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.octri.authentication.config.SamlProperties;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.service.UserService;
+import org.opensaml.core.config.InitializationService;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.core.xml.schema.XSString;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.Attribute;
+import org.opensaml.saml.saml2.core.AttributeStatement;
+import org.opensaml.saml.saml2.core.AttributeValue;
+import org.springframework.security.saml2.core.Saml2ErrorCodes;
+
+public class SamlAttributeContextTest {
+
+	private static final String USERID_ATTRIBUTE = "urn:oid:0.9.2342.19200300.100.1.1";
+	private static final String GROUP_ATTRIBUTE = "urn:oid:1.3.6.1.4.1.5923.1.5.1.1";
+
+	@BeforeAll
+	public static void initializeOpenSaml() throws Exception {
+		InitializationService.initialize();
+	}
+
+	@Test
+	public void testAttributesAreExtractedOncePerAssertion() {
+		Assertion assertion = assertion("staff", "app-users");
+		SamlAttributeContext context = SamlAttributeContext.of(assertion);
+
+		assertSame(context, SamlAttributeContext.of(assertion), "The context should be stored with the assertion");
+		assertSame(context.getAttributes(), SamlAttributeContext.of(assertion).getAttributes(),
+				"The attributes should be extracted only once");
+		assertEquals(List.of("staff", "app-users"), context.getAttributes().get(GROUP_ATTRIBUTE),
+				"All values of the attribute should be extracted");
+		assertThrows(UnsupportedOperationException.class, () -> context.getAttributes().clear(),
+				"The shared attributes should not be modifiable");
+		assertNotSame(context, SamlAttributeContext.of(assertion("staff")),
+				"Each assertion should have its own context");
+	}
+
+	@Test
+	public void testUsername() {
+		SamlAttributeContext context = SamlAttributeContext.of(assertion("staff"));
+		assertEquals("foo", context.getUsername(USERID_ATTRIBUTE), "The username should be the first value");
+		assertEquals("foo", context.getUsername(USERID_ATTRIBUTE), "The username should be remembered");
+		assertNull(context.getUsername("missing"), "A missing attribute should have no username");
+		assertEquals("foo@example.com", context.getAttributeValue("urn:oid:0.9.2342.19200300.100.1.3"),
+				"Other attributes should be available by name");
+	}
+
+	@Test
+	public void testGroupMembershipCheck() {
+		var samlProperties = new SamlProperties();
+		samlProperties.setGroupAttribute(GROUP_ATTRIBUTE);
+		samlProperties.setRequiredGroup("app-users");
+		var validator = new GroupMembershipSamlAssertionValidator(samlProperties);
+
+		var member = validator.check(null, SamlAttributeContext.of(assertion("staff", "app-users")));
+		assertFalse(member.hasErrors(), "A member of the required group should be allowed");
+
+		var nonMember = validator.check(null, SamlAttributeContext.of(assertion("staff")));
+		assertTrue(nonMember.hasErrors(), "Other users should be denied");
+		assertEquals(Saml2ErrorCodes.INVALID_ASSERTION, nonMember.getErrors().iterator().next().getErrorCode(),
+				"The assertion should be reported as invalid");
+		assertEquals("foo is not a member of app-users",
+				nonMember.getErrors().iterator().next().getDescription(), "The message should name the user");
+	}
+
+	@Test
+	public void testResolvedUserIsShared() {
+		User user = new User();
+		user.setId(1L);
+		user.setUsername("foo");
+		user.setEnabled(true);
+		user.setAccountLocked(false);
+		UserService userService = mock(UserService.class);
+		when(userService.findByUsernameWithRoles("foo")).thenReturn(user);
+		var validator = new DatabaseUserSamlAssertionValidator(userService, new SamlProperties());
+
+		SamlAttributeContext context = SamlAttributeContext.of(assertion("staff"));
+		assertFalse(validator.check(null, context).hasErrors(), "An active user should be allowed");
+		assertSame(user, context.resolveUser(USERID_ATTRIBUTE, username -> fail("The user should not be found again")),
+				"The converter should reuse the user found by the validator");
+		verify(userService, times(1)).findByUsernameWithRoles("foo");
+	}
+
+	@Test
+	public void testMissingUserIsRemembered() {
+		SamlAttributeContext context = SamlAttributeContext.of(assertion("staff"));
+		assertNull(context.resolveUser(USERID_ATTRIBUTE, username -> null), "The user should not be found");
+		assertNull(context.resolveUser(USERID_ATTRIBUTE, username -> fail("The lookup should not be repeated")),
+				"A missing user should be remembered");
+	}
+
+	private static Assertion assertion(String... groups) {
+		AttributeStatement statement = build(AttributeStatement.DEFAULT_ELEMENT_NAME);
+		statement.getAttributes().add(attribute(USERID_ATTRIBUTE, "foo"));
+		statement.getAttributes().add(attribute("urn:oid:0.9.2342.19200300.100.1.3", "foo@example.com"));
+		statement.getAttributes().add(attribute(GROUP_ATTRIBUTE, groups));
+
+		Assertion assertion = build(Assertion.DEFAULT_ELEMENT_NAME);
+		assertion.getAttributeStatements().add(statement);
+		return assertion;
+	}
+
+	private static Attribute attribute(String name, String... values) {
+		Attribute attribute = build(Attribute.DEFAULT_ELEMENT_NAME);
+		attribute.setName(name);
+		for (String value : values) {
+			XSString xmlValue = build(AttributeValue.DEFAULT_ELEMENT_NAME, XSString.TYPE_NAME);
+			xmlValue.setValue(value);
+			attribute.getAttributeValues().add(xmlValue);
+		}
+		return attribute;
+	}
+
+	private static <T extends XMLObject> T build(QName elementName) {
+		return build(elementName, elementName);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends XMLObject> T build(QName elementName, QName typeName) {
+		var builder = XMLObjectProviderRegistrySupport.getBuilderFactory().getBuilderOrThrow(typeName);
+		if (elementName.equals(typeName)) {
+			return (T) builder.buildObject(elementName);
+		}
+		return (T) builder.buildObject(elementName, typeName);
+	}
+
+}
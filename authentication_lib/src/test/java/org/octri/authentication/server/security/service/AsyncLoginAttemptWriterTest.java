@@ -0,0 +1,137 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.LoginAttemptAuditProperties;
+import org.octri.authentication.config.LoginAttemptAuditProperties.BackpressurePolicy;
+import org.octri.authentication.server.security.entity.LoginAttempt;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncLoginAttemptWriterTest {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	private LoginAttemptAuditProperties auditProperties;
+
+	@BeforeEach
+	public void beforeEach() {
+		auditProperties = new LoginAttemptAuditProperties();
+		auditProperties.setAsyncEnabled(true);
+		auditProperties.setFlushInterval(Duration.ofSeconds(10));
+		auditProperties.setShutdownTimeout(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void testDestroyWritesAllQueuedAttemptsInBatches() {
+		auditProperties.setBatchSize(3);
+		var writer = new AsyncLoginAttemptWriter(jdbcTemplate, auditProperties);
+		writer.afterPropertiesSet();
+
+		for (int i = 0; i < 7; i++) {
+			assertTrue(writer.submit(attempt("user" + i)), "Attempt should be accepted");
+		}
+		writer.destroy();
+
+		ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+		verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(AsyncLoginAttemptWriter.INSERT_SQL), anyCollection(),
+				batchSizes.capture(), any());
+		assertEquals(7, batchSizes.getAllValues().stream().mapToInt(Integer::intValue).sum(),
+				"Every queued attempt should be written");
+		assertTrue(batchSizes.getAllValues().stream().allMatch(size -> size <= 3),
+				"No batch should exceed the configured batch size");
+		assertEquals(0, writer.getQueueDepth(), "The queue should be empty after shutdown");
+	}
+
+	@Test
+	public void testDropPolicyDropsWhenQueueIsFull() throws InterruptedException {
+		auditProperties.setQueueCapacity(1);
+		auditProperties.setBatchSize(1);
+		auditProperties.setBackpressurePolicy(BackpressurePolicy.DROP);
+		var release = blockFirstWrite();
+		var writer = new AsyncLoginAttemptWriter(jdbcTemplate, auditProperties);
+		writer.afterPropertiesSet();
+
+		assertTrue(writer.submit(attempt("first")), "First attempt should be accepted");
+		assertTrue(release.writing.await(5, TimeUnit.SECONDS), "Writer should start writing the first attempt");
+		assertTrue(writer.submit(attempt("second")), "Second attempt should be queued");
+		assertFalse(writer.submit(attempt("third")), "Third attempt should be dropped");
+		assertEquals(1, writer.getDroppedCount(), "One attempt should be counted as dropped");
+
+		release.proceed.countDown();
+		writer.destroy();
+	}
+
+	@Test
+	public void testCallerRunsPolicyWritesOnCallingThreadWhenQueueIsFull() throws InterruptedException {
+		auditProperties.setQueueCapacity(1);
+		auditProperties.setBatchSize(1);
+		auditProperties.setBackpressurePolicy(BackpressurePolicy.CALLER_RUNS);
+		var release = blockFirstWrite();
+		var writer = new AsyncLoginAttemptWriter(jdbcTemplate, auditProperties);
+		writer.afterPropertiesSet();
+
+		assertTrue(writer.submit(attempt("first")), "First attempt should be accepted");
+		assertTrue(release.writing.await(5, TimeUnit.SECONDS), "Writer should start writing the first attempt");
+		assertTrue(writer.submit(attempt("second")), "Second attempt should be queued");
+		assertTrue(writer.submit(attempt("third")), "Third attempt should be written by the caller");
+		assertEquals(0, writer.getDroppedCount(), "No attempts should be dropped");
+
+		release.proceed.countDown();
+		writer.destroy();
+	}
+
+	/**
+	 * Makes the first batch write block until released, so the queue can be filled deterministically.
+	 */
+	private WriteLatch blockFirstWrite() {
+		var latch = new WriteLatch();
+		var first = new AtomicBoolean(true);
+		when(jdbcTemplate.batchUpdate(eq(AsyncLoginAttemptWriter.INSERT_SQL), anyCollection(), anyInt(), any()))
+				.then(invocation -> {
+					if (first.getAndSet(false)) {
+						latch.writing.countDown();
+						latch.proceed.await(5, TimeUnit.SECONDS);
+					}
+					return new int[0][];
+				});
+		return latch;
+	}
+
+	private LoginAttempt attempt(String username) {
+		var attempt = new LoginAttempt();
+		attempt.setUsername(username);
+		attempt.setIpAddress("127.0.0.1");
+		attempt.setAttemptedAt(new Date());
+		attempt.setSuccessful(true);
+		return attempt;
+	}
+
+	private static class WriteLatch {
+		private final CountDownLatch writing = new CountDownLatch(1);
+		private final CountDownLatch proceed = new CountDownLatch(1);
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class BatchingQueueWriterTest {
+
+	@Test
+	public void testStopWritesQueuedItemsInBatches() {
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		var writer = new BatchingQueueWriter<Integer>("test-writer", 10, 2, Duration.ofSeconds(10), batches::add);
+		writer.start();
+		assertTrue(writer.isRunning(), "The writer should be running once started");
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(writer.offer(i), "Item should be queued");
+		}
+		writer.stop(Duration.ofSeconds(5));
+
+		assertFalse(writer.isRunning(), "The writer should not be running once stopped");
+		assertEquals(List.of(0, 1, 2, 3, 4), batches.stream().flatMap(List::stream).toList(),
+				"Every item should be written once, in order");
+		assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2),
+				"No batch should exceed the batch size");
+		assertEquals(0, writer.size(), "The queue should be empty after stopping");
+	}
+
+	@Test
+	public void testWritesPartialBatchAfterFlushInterval() throws InterruptedException {
+		var written = new CountDownLatch(1);
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		var writer = new BatchingQueueWriter<Integer>("test-writer", 10, 100, Duration.ofMillis(50), batch -> {
+			batches.add(batch);
+			written.countDown();
+		});
+		writer.start();
+
+		assertTrue(writer.offer(1), "Item should be queued");
+		assertTrue(written.await(5, TimeUnit.SECONDS), "A partial batch should be written after the flush interval");
+		assertEquals(List.of(List.of(1)), batches, "The partial batch should hold the queued item");
+		writer.stop(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void testItemQueuedAfterStopIsWritten() {
+		List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+		var writer = new BatchingQueueWriter<Integer>("test-writer", 10, 2, Duration.ofSeconds(10), batches::add);
+		writer.start();
+		writer.stop(Duration.ofSeconds(5));
+
+		assertTrue(writer.offer(1), "Item should be queued");
+		assertEquals(List.of(List.of(1)), batches, "An item queued after stopping should be written by the caller");
+		assertEquals(0, writer.size(), "No item should be left in the queue");
+	}
+
+	@Test
+	public void testOfferFailsWhenQueueIsFull() {
+		var writer = new BatchingQueueWriter<Integer>("test-writer", 1, 1, Duration.ofSeconds(10), batch -> {
+		});
+
+		assertTrue(writer.offer(1), "The first item should be queued");
+		assertFalse(writer.offer(2), "Items should be refused when the queue is full");
+		assertEquals(1, writer.size(), "Only the first item should be queued");
+	}
+
+}
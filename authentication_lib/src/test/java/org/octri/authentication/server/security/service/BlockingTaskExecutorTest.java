@@ -0,0 +1,51 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class BlockingTaskExecutorTest {
+
+	@Test
+	public void testLimitsConcurrentTasks() throws Exception {
+		var executor = new BlockingTaskExecutor(Executors.newCachedThreadPool(), 2);
+		var running = new AtomicInteger();
+		var maxRunning = new AtomicInteger();
+		var proceed = new CountDownLatch(1);
+
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			int task = i;
+			results.add(executor.supply(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					proceed.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				return task;
+			}));
+		}
+
+		Thread.sleep(100);
+		assertEquals(0, executor.getAvailablePermits(), "All permits should be in use");
+		proceed.countDown();
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS), "Each task should return its own result");
+		}
+		assertTrue(maxRunning.get() <= 2, "No more than two tasks should run at once");
+		assertEquals(2, executor.getAvailablePermits(), "Permits should be released when tasks finish");
+		executor.destroy();
+	}
+
+}
@@ -4,7 +4,9 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Optional;
@@ -45,6 +47,9 @@ public class EmailNotificationServiceTest {
 	@Mock
 	private HttpServletRequest request;
 
+	@Mock
+	private OutboundEmailQueue outboundEmailQueue;
+
 	private static final String DISPLAY_NAME = "ExampleApp";
 	private static final String SENDER_EMAIL = "exampleapp@example.com";
 	private static final String USER_EMAIL = "foo@example.com";
@@ -147,6 +152,21 @@ public class EmailNotificationServiceTest {
 				"The message has the expected subject.");
 	}
 
+	@Test
+	public void testPasswordResetTokenEmailIsQueuedWhenQueueEnabled() {
+		var messageBody = ArgumentCaptor.forClass(String.class);
+		when(outboundEmailQueue.enqueue(eq("password reset token"), eq(SENDER_EMAIL), eq(USER_EMAIL), anyString(),
+				anyString())).thenReturn(OutboundEmailQueue.EnqueueResult.QUEUED);
+		emailNotificationService.setOutboundEmailQueue(outboundEmailQueue);
+
+		emailNotificationService.sendPasswordResetTokenEmail(passwordResetToken, request, false);
+
+		verify(outboundEmailQueue).enqueue(eq("password reset token"), eq(SENDER_EMAIL), eq(USER_EMAIL),
+				anyString(), messageBody.capture());
+		assertTrue(messageBody.getValue().contains(RESET_URL), "The queued message includes the password reset URL.");
+		verifyNoInteractions(messageDeliveryService);
+	}
+
 	@Test
 	public void passwordResetTokenEmailThrowsExceptionIfEmailIsMissingOrBlank() {
 		user.setEmail(null);
@@ -0,0 +1,178 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.BatchUpdateException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.LdapDirectorySyncProperties;
+import org.octri.authentication.server.security.LdapBatchLookupResult;
+import org.octri.authentication.server.security.LdapBatchUserLookup;
+import org.octri.authentication.server.security.LdapUserAttributes;
+import org.octri.authentication.server.security.UserDetailsCache;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class LdapDirectorySyncJobTest {
+
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private LdapBatchUserLookup ldapBatchUserLookup;
+
+	@Mock
+	private UserDetailsCache userDetailsCache;
+
+	private LdapDirectorySyncProperties ldapDirectorySyncProperties;
+	private Clock clock;
+
+	@BeforeEach
+	public void beforeEach() {
+		ldapDirectorySyncProperties = new LdapDirectorySyncProperties();
+		ldapDirectorySyncProperties.setPageSize(2);
+		clock = Clock.fixed(NOW, ZoneOffset.UTC);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testUpdatesChangedUsersOnePageAtATime() throws SQLException {
+		stubPage(0L, user(1L, "jsmith", "Jane", "Smith", "jsmith@example.org"),
+				user(2L, "bjones", "Bob", "Jones", "bjones@example.org"));
+		stubPage(2L, user(3L, "cdoe", "Carol", "Doe", "cdoe@example.org"));
+		stubLookup(List.of("jsmith", "bjones"), Map.of(
+				"jsmith", new LdapUserAttributes("Jane", "Smith-Brown", "jane.smith@example.org"),
+				"bjones", new LdapUserAttributes("Bob", "Jones", "bjones@example.org")), List.of());
+		stubLookup(List.of("cdoe"), Map.of("cdoe", new LdapUserAttributes(" ", "D".repeat(51), null)), List.of());
+		when(jdbcTemplate.batchUpdate(eq(LdapDirectorySyncJob.UPDATE_SQL), anyList())).thenReturn(new int[] { 1 });
+
+		var job = new LdapDirectorySyncJob(jdbcTemplate, ldapBatchUserLookup, userDetailsCache,
+				ldapDirectorySyncProperties, clock);
+		assertEquals(1, job.sync(), "Only the user whose attributes changed should be updated");
+
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(eq(LdapDirectorySyncJob.UPDATE_SQL), rows.capture());
+		assertEquals(1, rows.getValue().size(), "Unchanged users should not be written");
+		assertArrayEquals(new Object[] { "Jane", "Smith-Brown", "jane.smith@example.org", Timestamp.from(NOW),
+				LdapDirectorySyncJob.UPDATED_BY, 1L, 0L }, rows.getValue().get(0),
+				"The directory values should be written with a version check");
+		verify(userDetailsCache).evict("jsmith");
+		verify(userDetailsCache, never()).evict("cdoe");
+	}
+
+	@Test
+	public void testUpdatesOneUserAtATimeWhenBatchFails() throws SQLException {
+		stubPage(0L, user(1L, "jsmith", "Jane", "Smith", "jsmith@example.org"),
+				user(2L, "bjones", "Bob", "Jones", "bjones@example.org"));
+		stubPage(2L);
+		stubLookup(List.of("jsmith", "bjones"), Map.of(
+				"jsmith", new LdapUserAttributes("Jane", "Smith", "taken@example.org"),
+				"bjones", new LdapUserAttributes("Robert", "Jones", "bjones@example.org")), List.of());
+		when(jdbcTemplate.batchUpdate(eq(LdapDirectorySyncJob.UPDATE_SQL), anyList()))
+				.thenThrow(new DuplicateKeyException("Duplicate entry for key 'user_email'"));
+		when(jdbcTemplate.update(eq(LdapDirectorySyncJob.UPDATE_SQL), any(Object[].class)))
+				.thenThrow(new DuplicateKeyException("Duplicate entry for key 'user_email'"))
+				.thenReturn(1);
+
+		var job = new LdapDirectorySyncJob(jdbcTemplate, ldapBatchUserLookup, null, ldapDirectorySyncProperties,
+				clock);
+		assertEquals(1, job.sync(), "The user without a conflict should still be updated");
+		verify(jdbcTemplate, times(2)).update(eq(LdapDirectorySyncJob.UPDATE_SQL), any(Object[].class));
+	}
+
+	@Test
+	public void testCountsRowsWrittenBeforeBatchFailed() throws SQLException {
+		stubPage(0L, user(1L, "jsmith", "Jane", "Smith", "jsmith@example.org"),
+				user(2L, "bjones", "Bob", "Jones", "bjones@example.org"));
+		stubPage(2L);
+		stubLookup(List.of("jsmith", "bjones"), Map.of(
+				"jsmith", new LdapUserAttributes("Jane", "Smith-Brown", "jsmith@example.org"),
+				"bjones", new LdapUserAttributes("Bob", "Jones", "taken@example.org")), List.of());
+		var batchException = new BatchUpdateException("Duplicate entry for key 'user_email'",
+				new int[] { 1, Statement.EXECUTE_FAILED });
+		when(jdbcTemplate.batchUpdate(eq(LdapDirectorySyncJob.UPDATE_SQL), anyList()))
+				.thenThrow(new DuplicateKeyException("Duplicate entry for key 'user_email'", batchException));
+		when(jdbcTemplate.update(eq(LdapDirectorySyncJob.UPDATE_SQL), any(Object[].class)))
+				.thenThrow(new DuplicateKeyException("Duplicate entry for key 'user_email'"));
+
+		var job = new LdapDirectorySyncJob(jdbcTemplate, ldapBatchUserLookup, null, ldapDirectorySyncProperties,
+				clock);
+		assertEquals(1, job.sync(), "The user written by the failed batch should be counted");
+		verify(jdbcTemplate, times(1)).update(eq(LdapDirectorySyncJob.UPDATE_SQL), any(Object[].class));
+		verify(jdbcTemplate).update(eq(LdapDirectorySyncJob.UPDATE_SQL), eq("Bob"), eq("Jones"),
+				eq("taken@example.org"), any(), any(), eq(2L), eq(0L));
+	}
+
+	@Test
+	public void testLeavesUsersNotFoundUnchanged() throws SQLException {
+		stubPage(0L, user(1L, "jsmith", "Jane", "Smith", "jsmith@example.org"));
+		stubLookup(List.of("jsmith"), Map.of(), List.of("jsmith"));
+
+		var job = new LdapDirectorySyncJob(jdbcTemplate, ldapBatchUserLookup, userDetailsCache,
+				ldapDirectorySyncProperties, clock);
+		assertEquals(0, job.sync(), "No user should be updated");
+		verify(jdbcTemplate, never()).batchUpdate(eq(LdapDirectorySyncJob.UPDATE_SQL), anyList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubPage(long afterId, ResultSet... users) throws SQLException {
+		when(jdbcTemplate.query(eq(LdapDirectorySyncJob.SELECT_SQL), any(RowMapper.class), eq(afterId), eq(2)))
+				.then(invocation -> {
+					RowMapper<Object> mapper = invocation.getArgument(1);
+					List<Object> page = new ArrayList<>();
+					for (int i = 0; i < users.length; i++) {
+						page.add(mapper.mapRow(users[i], i));
+					}
+					return page;
+				});
+	}
+
+	private void stubLookup(List<String> usernames, Map<String, LdapUserAttributes> found, List<String> notFound) {
+		var result = mock(LdapBatchLookupResult.class);
+		when(result.getFound()).thenReturn(found);
+		when(result.getNotFound()).thenReturn(notFound);
+		when(result.getFailed()).thenReturn(List.of());
+		when(ldapBatchUserLookup.lookup(usernames)).thenReturn(result);
+	}
+
+	private static ResultSet user(long id, String username, String firstName, String lastName, String email)
+			throws SQLException {
+		var resultSet = mock(ResultSet.class);
+		when(resultSet.getLong("id")).thenReturn(id);
+		when(resultSet.getLong("version")).thenReturn(0L);
+		when(resultSet.getString("username")).thenReturn(username);
+		when(resultSet.getString("first_name")).thenReturn(firstName);
+		when(resultSet.getString("last_name")).thenReturn(lastName);
+		when(resultSet.getString("email")).thenReturn(email);
+		return resultSet;
+	}
+
+}
@@ -0,0 +1,121 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.SessionEventProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class LogoutEventSinkTest {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	private SessionEventProperties sessionEventProperties;
+
+	@BeforeEach
+	public void beforeEach() {
+		sessionEventProperties = new SessionEventProperties();
+		sessionEventProperties.setLogoutFlushInterval(Duration.ofSeconds(10));
+		sessionEventProperties.setShutdownTimeout(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void testInsertSqlHasOneRowPerLogout() {
+		String sql = LogoutEventSink.insertSql(3);
+		assertTrue(sql.contains(
+				"(SELECT ? AS session_id, ? AS logged_out_at UNION ALL SELECT ?, ? UNION ALL SELECT ?, ?)"),
+				"Each logout should be one row of the derived table");
+		assertEquals(6, sql.chars().filter(c -> c == '?').count(), "There should be two parameters per logout");
+	}
+
+	@Test
+	public void testWritesQueuedLogoutsInBatches() {
+		sessionEventProperties.setLogoutBatchSize(2);
+		List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).then(invocation -> {
+			batchSizes.add((invocation.getArguments().length - 1) / 2);
+			return 0;
+		});
+
+		var sink = new LogoutEventSink(jdbcTemplate, null, sessionEventProperties);
+		sink.afterPropertiesSet();
+		for (int i = 0; i < 5; i++) {
+			assertTrue(sink.submit("session-" + i, new Date()), "Logout should be queued");
+		}
+		sink.destroy();
+
+		assertEquals(5, batchSizes.stream().mapToInt(Integer::intValue).sum(),
+				"Every queued logout should be written");
+		assertTrue(batchSizes.stream().allMatch(size -> size <= 2),
+				"No batch should exceed the configured batch size");
+		assertEquals(5, sink.getWrittenCount(), "Every logout should be counted as written");
+		assertEquals(0, sink.getQueueDepth(), "The queue should be empty after shutdown");
+	}
+
+	@Test
+	public void testDropsAndCountsWhenQueueIsFull() throws InterruptedException {
+		sessionEventProperties.setLogoutQueueCapacity(1);
+		sessionEventProperties.setLogoutBatchSize(1);
+		var writing = new CountDownLatch(1);
+		var proceed = new CountDownLatch(1);
+		var first = new AtomicBoolean(true);
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).then(invocation -> {
+			if (first.getAndSet(false)) {
+				writing.countDown();
+				proceed.await(5, TimeUnit.SECONDS);
+			}
+			return 1;
+		});
+
+		var sink = new LogoutEventSink(jdbcTemplate, null, sessionEventProperties);
+		var registry = new SimpleMeterRegistry();
+		sink.bindTo(registry);
+		sink.afterPropertiesSet();
+
+		assertTrue(sink.submit("first", new Date()), "First logout should be accepted");
+		assertTrue(writing.await(5, TimeUnit.SECONDS), "Writer should start writing the first logout");
+		assertTrue(sink.submit("second", new Date()), "Second logout should be queued");
+		assertFalse(sink.submit("third", new Date()), "Third logout should be dropped");
+		assertEquals(1, sink.getDroppedCount(), "One logout should be counted as dropped");
+		assertEquals(1.0, registry.get("authlib.session.logout.dropped").functionCounter().count(),
+				"Drop count should be published");
+		assertEquals(1.0, registry.get("authlib.session.logout.queue.size").gauge().value(),
+				"Queue depth should be published");
+
+		proceed.countDown();
+		sink.destroy();
+		assertEquals(2, sink.getWrittenCount(), "Queued logouts should be written on shutdown");
+	}
+
+	@Test
+	public void testWritesImmediatelyWhenNotRunning() {
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+		var sink = new LogoutEventSink(jdbcTemplate, null, sessionEventProperties);
+
+		assertTrue(sink.submit("session", new Date()), "Logout should be written");
+		assertEquals(1, sink.getWrittenCount(), "Logout should be written on the calling thread");
+	}
+
+}
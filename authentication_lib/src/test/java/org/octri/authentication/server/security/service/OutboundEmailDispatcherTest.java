@@ -0,0 +1,101 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.EmailQueueProperties;
+import org.octri.authentication.server.security.service.OutboundEmailQueue.QueuedEmail;
+import org.octri.messaging.service.MessageDeliveryService;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboundEmailDispatcherTest {
+
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+	@Mock
+	private OutboundEmailQueue queue;
+
+	@Mock
+	private MessageDeliveryService messageDeliveryService;
+
+	private EmailQueueProperties emailQueueProperties;
+	private Clock clock;
+
+	@BeforeEach
+	public void beforeEach() {
+		emailQueueProperties = new EmailQueueProperties();
+		emailQueueProperties.setBatchSize(10);
+		emailQueueProperties.setMaxAttempts(3);
+		emailQueueProperties.setInitialBackoff(Duration.ofSeconds(30));
+		emailQueueProperties.setMaxBackoff(Duration.ofMinutes(1));
+		emailQueueProperties.setMaxSendsPerMinute(0);
+		clock = Clock.fixed(NOW, ZoneOffset.UTC);
+	}
+
+	@Test
+	public void testSendsClaimedMessages() {
+		when(queue.claim(10, emailQueueProperties.getClaimTimeout(), 0))
+				.thenReturn(List.of(email(1L, 1), email(2L, 1)));
+		when(messageDeliveryService.sendEmail(anyString(), anyString(), anyString(), anyString()))
+				.thenReturn(Optional.empty());
+		var dispatcher = new OutboundEmailDispatcher(queue, messageDeliveryService, emailQueueProperties, clock);
+
+		assertEquals(2, dispatcher.dispatch(), "Both messages should be sent");
+		verify(queue).markSent(1L);
+		verify(queue).markSent(2L);
+	}
+
+	@Test
+	public void testRetriesWithBackoffThenFails() {
+		when(queue.claim(10, emailQueueProperties.getClaimTimeout(), 0))
+				.thenReturn(List.of(email(1L, 2), email(2L, 3)));
+		when(messageDeliveryService.sendEmail(anyString(), anyString(), anyString(), anyString()))
+				.thenThrow(new IllegalStateException("Connection refused"));
+		var dispatcher = new OutboundEmailDispatcher(queue, messageDeliveryService, emailQueueProperties, clock);
+
+		assertEquals(0, dispatcher.dispatch(), "No messages should be sent");
+		verify(queue).markForRetry(eq(1L), eq(NOW.plus(Duration.ofMinutes(1))), anyString());
+		verify(queue).markFailed(eq(2L), anyString());
+		verify(queue, never()).markSent(1L);
+	}
+
+	@Test
+	public void testBackoffDoublesUpToMaximum() {
+		var dispatcher = new OutboundEmailDispatcher(queue, messageDeliveryService, emailQueueProperties, clock);
+		assertEquals(Duration.ofSeconds(30), dispatcher.backoff(1), "The first retry should use the initial backoff");
+		assertEquals(Duration.ofMinutes(1), dispatcher.backoff(2), "The backoff should double after each attempt");
+		assertEquals(Duration.ofMinutes(1), dispatcher.backoff(40), "The backoff should not exceed the maximum");
+	}
+
+	@Test
+	public void testPassesSendRateLimitToClaim() {
+		emailQueueProperties.setMaxSendsPerMinute(12);
+		when(queue.claim(10, emailQueueProperties.getClaimTimeout(), 12)).thenReturn(List.of());
+		var dispatcher = new OutboundEmailDispatcher(queue, messageDeliveryService, emailQueueProperties, clock);
+
+		assertEquals(0, dispatcher.dispatch(), "Nothing should be sent when nothing is claimed");
+		verify(queue).claim(10, emailQueueProperties.getClaimTimeout(), 12);
+	}
+
+	private static QueuedEmail email(Long id, int attempt) {
+		return new QueuedEmail(id, "password reset token", "app@example.com", "user" + id + "@example.com",
+				"Subject", "Body", attempt);
+	}
+
+}
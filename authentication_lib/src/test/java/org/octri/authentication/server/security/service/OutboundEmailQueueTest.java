@@ -0,0 +1,91 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.EmailQueueProperties;
+import org.octri.authentication.server.security.service.OutboundEmailQueue.EnqueueResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboundEmailQueueTest {
+
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+	private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private OutboundEmailQueue queue;
+
+	@BeforeEach
+	public void beforeEach() {
+		queue = new OutboundEmailQueue(jdbcTemplate, transactionManager, new EmailQueueProperties(),
+				Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void testClaimLimitsToRemainingAllowanceUnderLock() {
+		when(jdbcTemplate.queryForObject(OutboundEmailQueue.SENT_OR_CLAIMED_SQL, Long.class,
+				Timestamp.from(NOW.minus(OutboundEmailQueue.RATE_PERIOD)), Timestamp.from(NOW))).thenReturn(9L);
+
+		assertTrue(queue.claim(10, CLAIM_TIMEOUT, 12).isEmpty(), "No messages are due");
+		verify(jdbcTemplate).queryForObject(OutboundEmailQueue.CLAIM_LOCK_SQL, Integer.class);
+		verify(jdbcTemplate).query(eq(OutboundEmailQueue.CLAIM_SELECT_SQL), any(RowMapper.class),
+				eq(Timestamp.from(NOW)), eq(3));
+	}
+
+	@Test
+	public void testClaimsNothingWhenSentAndClaimedMessagesReachLimit() {
+		when(jdbcTemplate.queryForObject(OutboundEmailQueue.SENT_OR_CLAIMED_SQL, Long.class,
+				Timestamp.from(NOW.minus(OutboundEmailQueue.RATE_PERIOD)), Timestamp.from(NOW))).thenReturn(12L);
+
+		assertTrue(queue.claim(10, CLAIM_TIMEOUT, 12).isEmpty(), "Nothing should be claimed at the limit");
+		verify(jdbcTemplate, never()).query(eq(OutboundEmailQueue.CLAIM_SELECT_SQL), any(RowMapper.class),
+				any(Object[].class));
+	}
+
+	@Test
+	public void testUnlimitedClaimDoesNotLock() {
+		queue.claim(10, CLAIM_TIMEOUT, 0);
+		verify(jdbcTemplate, never()).queryForObject(OutboundEmailQueue.CLAIM_LOCK_SQL, Integer.class);
+		verify(jdbcTemplate).query(eq(OutboundEmailQueue.CLAIM_SELECT_SQL), any(RowMapper.class),
+				eq(Timestamp.from(NOW)), eq(10));
+	}
+
+	@Test
+	public void testCoalescedMessageIsDueNow() {
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+		assertEquals(EnqueueResult.COALESCED,
+				queue.enqueue("password reset token", "app@example.com", "user@example.com", "Subject", "Body"),
+				"The waiting message should be replaced");
+		Timestamp now = Timestamp.from(NOW);
+		verify(jdbcTemplate).update(contains("next_attempt_at = ?"), eq(now), eq("app@example.com"), eq("Subject"),
+				eq("Body"), anyString(), eq(now), eq("user@example.com"), eq("password reset token"));
+	}
+
+}
@@ -0,0 +1,122 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.RetentionProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class RetentionPurgeJobTest {
+
+	private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	private RetentionProperties retentionProperties;
+	private Clock clock;
+
+	@BeforeEach
+	public void beforeEach() {
+		retentionProperties = new RetentionProperties();
+		retentionProperties.setChunkSize(2);
+		retentionProperties.setChunkPause(Duration.ZERO);
+		clock = Clock.fixed(NOW, ZoneOffset.UTC);
+	}
+
+	@Test
+	public void testDeletesInChunksUntilExhausted() {
+		when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(2))).thenReturn(2, 2, 1);
+		var job = new RetentionPurgeJob(jdbcTemplate, retentionProperties, clock);
+
+		long deleted = job.purgeLoginAttempts(Date.from(NOW));
+		assertEquals(5, deleted, "All matching rows should be counted");
+		verify(jdbcTemplate, times(3)).update(
+				eq("DELETE FROM login_attempt WHERE attempted_at < ? ORDER BY id LIMIT ?"), eq(Timestamp.from(NOW)),
+				eq(2));
+	}
+
+	@Test
+	public void testRunUsesConfiguredMaxAges() {
+		retentionProperties.setLoginAttemptMaxAge(Duration.ofDays(30));
+		retentionProperties.setSessionEventMaxAge(Duration.ZERO);
+		when(jdbcTemplate.update(anyString(), any(Timestamp.class), eq(2))).thenReturn(0);
+		var job = new RetentionPurgeJob(jdbcTemplate, retentionProperties, clock);
+
+		job.run();
+		verify(jdbcTemplate).update(eq("DELETE FROM login_attempt WHERE attempted_at < ? ORDER BY id LIMIT ?"),
+				eq(Timestamp.from(NOW.minus(Duration.ofDays(30)))), eq(2));
+		verify(jdbcTemplate, never()).update(eq("DELETE FROM session_event WHERE created_at < ? ORDER BY id LIMIT ?"),
+				any(Timestamp.class), eq(2));
+	}
+
+	@Test
+	public void testArchivesRowsBeforeDeleting(@TempDir Path archiveDirectory) throws IOException {
+		retentionProperties.setArchiveDirectory(archiveDirectory.toString());
+		String selectSql = "SELECT * FROM session_event WHERE created_at < ? ORDER BY id LIMIT ?";
+		String deleteSql = "DELETE FROM session_event WHERE created_at < ? AND id <= ?";
+		when(jdbcTemplate.queryForList(selectSql, Timestamp.from(NOW), 2))
+				.thenReturn(List.of(row(1L, "abc"), row(2L, "def")), List.of(row(3L, "=ghi")));
+		when(jdbcTemplate.update(eq(deleteSql), eq(Timestamp.from(NOW)), any())).thenReturn(2, 1);
+		var job = new RetentionPurgeJob(jdbcTemplate, retentionProperties, clock);
+
+		long deleted = job.purgeSessionEvents(Date.from(NOW));
+		assertEquals(3, deleted, "All archived rows should be deleted");
+		verify(jdbcTemplate).update(deleteSql, Timestamp.from(NOW), 2L);
+		verify(jdbcTemplate).update(deleteSql, Timestamp.from(NOW), 3L);
+
+		Path archive = archiveDirectory.resolve("session_event-20250601T120000Z.csv");
+		assertTrue(Files.exists(archive), "The archive file should be created");
+		assertEquals("id,session_id\r\n1,abc\r\n2,def\r\n3,=ghi\r\n",
+				Files.readString(archive, StandardCharsets.UTF_8),
+				"The archive should contain one header row followed by every deleted row, unchanged");
+	}
+
+	@Test
+	public void testArchiveNotCreatedWhenNothingToPurge(@TempDir Path archiveDirectory) throws IOException {
+		retentionProperties.setArchiveDirectory(archiveDirectory.toString());
+		when(jdbcTemplate.queryForList(anyString(), any(Timestamp.class), eq(2))).thenReturn(List.of());
+		var job = new RetentionPurgeJob(jdbcTemplate, retentionProperties, clock);
+
+		assertEquals(0, job.purgeLoginAttempts(Date.from(NOW)), "Nothing should be deleted");
+		try (var files = Files.list(archiveDirectory)) {
+			assertEquals(0, files.count(), "No archive file should be written");
+		}
+	}
+
+	private static Map<String, Object> row(Long id, String sessionId) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("session_id", sessionId);
+		return row;
+	}
+
+}
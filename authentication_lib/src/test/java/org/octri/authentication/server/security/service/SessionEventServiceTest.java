@@ -0,0 +1,103 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.server.security.AuthenticationUserDetails;
+import org.octri.authentication.server.security.entity.SessionEvent;
+import org.octri.authentication.server.security.entity.SessionEvent.EventType;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.repository.SessionEventRepository;
+import org.octri.authentication.server.security.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionEventServiceTest {
+
+	private static final String SESSION_ID = "session-1";
+
+	@Mock
+	private SessionEventRepository sessionEventRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private UserService userService;
+
+	@InjectMocks
+	private SessionEventService sessionEventService;
+
+	@AfterEach
+	public void afterEach() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void testLoginReferencesUserWithoutLoadingIt() {
+		authenticate(42L);
+		User reference = new User();
+		when(userRepository.getReferenceById(42L)).thenReturn(reference);
+
+		sessionEventService.logEvent(EventType.LOGIN, SESSION_ID, null);
+
+		ArgumentCaptor<SessionEvent> captor = ArgumentCaptor.forClass(SessionEvent.class);
+		verify(sessionEventRepository).save(captor.capture());
+		assertEquals(EventType.LOGIN, captor.getValue().getEvent(), "A login event should be saved");
+		assertEquals(SESSION_ID, captor.getValue().getSessionId(), "The event should have the session ID");
+		assertSame(reference, captor.getValue().getUser(), "The event should reference the user by ID");
+		verify(sessionEventRepository, never()).findFirstBySessionIdAndEvent(anyString(), any());
+		verifyNoInteractions(userService);
+	}
+
+	@Test
+	public void testRepeatedLoginIsIgnored() {
+		authenticate(42L);
+		when(userRepository.getReferenceById(42L)).thenReturn(new User());
+		when(sessionEventRepository.save(any(SessionEvent.class)))
+				.thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+		assertDoesNotThrow(() -> sessionEventService.logEvent(EventType.LOGIN, SESSION_ID, null),
+				"A login that was already recorded should be ignored");
+	}
+
+	@Test
+	public void testLoginNotRecordedWhenNotLoggedIn() {
+		sessionEventService.logEvent(EventType.LOGIN, SESSION_ID, null);
+		verifyNoInteractions(sessionEventRepository, userRepository);
+	}
+
+	@Test
+	public void testLogoutUsesSingleStatement() {
+		sessionEventService.logEvent(EventType.LOGOUT, SESSION_ID, null);
+		verify(sessionEventRepository).insertLogoutIfAbsent(eq(SESSION_ID), any(Date.class));
+		verify(sessionEventRepository, never()).findFirstBySessionIdAndEvent(anyString(), any());
+	}
+
+	private static void authenticate(long userId) {
+		var userDetails = new AuthenticationUserDetails(userId, "foo", "password", true, true, true, true, List.of());
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(userDetails, null, userDetails.getAuthorities()));
+	}
+
+}
@@ -0,0 +1,186 @@
+package org.octri.authentication.server.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.octri.authentication.config.OctriAuthenticationProperties;
+import org.octri.authentication.config.UserImportProperties;
+import org.octri.authentication.server.customizer.UserManagementCustomizer;
+import org.octri.authentication.server.security.bulkimport.UserImportResult;
+import org.octri.authentication.server.security.bulkimport.UserImportRow;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.entity.UserRole;
+import org.octri.authentication.server.security.repository.UserRepository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.servlet.ModelAndView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private UserRoleService userRoleService;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private UserImportService importService;
+	private UserRole userRole;
+
+	@BeforeEach
+	public void beforeEach() {
+		userRole = new UserRole();
+		userRole.setId(1L);
+		userRole.setRoleName("ROLE_USER");
+		userRole.setDescription("User");
+		when(userRoleService.findAll()).thenReturn(List.of(userRole));
+
+		var importProperties = new UserImportProperties();
+		importProperties.setBatchSize(2);
+		importService = new UserImportService(new OctriAuthenticationProperties(), importProperties, userRepository,
+				userRoleService, Set.of(AuthenticationMethod.TABLE_BASED),
+				Validation.buildDefaultValidatorFactory().getValidator(), jdbcTemplate, transactionManager);
+	}
+
+	@Test
+	public void testImportsValidRowsInBatches() {
+		stubUserInserts();
+
+		UserImportResult result = importService.importRows(List.of(
+				row(1, "foo", "foo@example.com", "ROLE_USER"),
+				row(2, "bar", "bar@example.com", "user"),
+				row(3, "baz", "baz@example.com")), "admin", new MockHttpServletRequest());
+
+		assertEquals(3, result.getImportedCount(), "All rows should be imported");
+		assertEquals(0, result.getFailedCount(), "No rows should fail");
+
+		// Two batches of users, and one batch of role grants for each
+		verify(jdbcTemplate, times(2)).batchUpdate(any(PreparedStatementCreator.class),
+				any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Object[]>> grants = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), grants.capture());
+		assertEquals(2, grants.getValue().size(), "The first batch should grant a role to both users");
+		assertEquals(100L, grants.getValue().get(0)[0], "Grants should use the generated user ID");
+		assertEquals(1L, grants.getValue().get(0)[1], "Grants should use the role ID");
+	}
+
+	@Test
+	public void testReportsRowErrors() {
+		stubUserInserts();
+		when(userRepository.findUsernamesIn(anyList())).thenReturn(List.of("EXISTING"));
+		when(userRepository.findEmailsIn(anyList())).thenReturn(List.of());
+
+		UserImportResult result = importService.importRows(List.of(
+				row(1, "existing", "existing@example.com"),
+				row(2, "foo", "foo@example.com", "ROLE_MISSING"),
+				row(3, "bar", "shared@example.com"),
+				row(4, "baz", "Shared@example.com"),
+				new UserImportRow(5, "qux", "qux@example.com", "Qux", null, null, "LDAP", List.of())),
+				"admin", new MockHttpServletRequest());
+
+		assertEquals(5, result.getTotalRows(), "Should count every row");
+		assertEquals(1, result.getImportedCount(), "Only the valid row should be imported");
+		var errors = result.getErrors();
+		assertEquals(List.of(1, 2, 4, 5), errors.stream().map(error -> error.getRowNumber()).toList(),
+				"Only invalid rows should be reported");
+		assertEquals(List.of("Username is already in use"), errors.get(0).getMessages(),
+				"Existing usernames should be matched ignoring case");
+		assertEquals(List.of("Unknown role: ROLE_MISSING"), errors.get(1).getMessages(),
+				"Unknown roles should be reported");
+		assertEquals(List.of("Email address is repeated from row 3"), errors.get(2).getMessages(),
+				"Repeated email addresses should be reported");
+		assertEquals(List.of("Authentication method is not enabled: LDAP", "Last name is required"),
+				errors.get(3).getMessages(), "All problems with a row should be reported");
+		verify(userRepository).findUsernamesIn(eq(List.of("existing", "bar")));
+	}
+
+	@Test
+	public void testCallsUserManagementCustomizer() {
+		stubUserInserts();
+		var request = new MockHttpServletRequest();
+		List<String> created = new ArrayList<>();
+		importService.setUserManagementCustomizer(new UserManagementCustomizer() {
+
+			@Override
+			public Optional<ModelAndView> beforeSaveAction(User user, ModelMap model, HttpServletRequest hookRequest) {
+				assertSame(request, hookRequest, "The import request should be passed to the hook");
+				user.setInstitution("OHSU");
+				return "bar".equals(user.getUsername()) ? Optional.of(new ModelAndView("rejected"))
+						: Optional.empty();
+			}
+
+			@Override
+			public ModelAndView postCreateAction(User user, ModelMap model, HttpServletRequest hookRequest) {
+				created.add(user.getUsername() + ":" + user.getId() + ":" + user.getInstitution());
+				return new ModelAndView(DEFAULT_REDIRECT);
+			}
+
+		});
+
+		UserImportResult result = importService.importRows(List.of(
+				row(1, "foo", "foo@example.com"),
+				row(2, "bar", "bar@example.com"),
+				row(3, "baz", "baz@example.com")), "admin", request);
+
+		assertEquals(2, result.getImportedCount(), "The rejected row should not be imported");
+		assertEquals(List.of("Rejected by the application"), result.getErrors().get(0).getMessages(),
+				"The rejected row should be reported");
+		assertEquals(List.of("foo:100:OHSU", "baz:101:OHSU"), created,
+				"The post create hook should see each saved user with its ID and the changes made before saving");
+	}
+
+	/**
+	 * Makes the user batch insert succeed, generating IDs starting from 100 for each batch.
+	 */
+	private void stubUserInserts() {
+		when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+				any(KeyHolder.class))).thenAnswer(invocation -> {
+					BatchPreparedStatementSetter setter = invocation.getArgument(1);
+					KeyHolder keyHolder = invocation.getArgument(2);
+					for (int i = 0; i < setter.getBatchSize(); i++) {
+						keyHolder.getKeyList().add(Map.of("GENERATED_KEY", 100L + i));
+					}
+					return new int[setter.getBatchSize()];
+				});
+	}
+
+	private static UserImportRow row(int rowNumber, String username, String email, String... roles) {
+		return new UserImportRow(rowNumber, username, email, "First", "Last", null, null, List.of(roles));
+	}
+
+}
@@ -6,7 +6,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -14,6 +17,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,16 +29,23 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.octri.authentication.config.OctriAuthenticationProperties;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
 import org.octri.authentication.server.security.entity.PasswordResetToken;
 import org.octri.authentication.server.security.entity.User;
 import org.octri.authentication.server.security.exception.InvalidPasswordException;
 import org.octri.authentication.server.security.exception.UserManagementException;
+import org.octri.authentication.server.security.metrics.AuthenticationMetrics;
 import org.octri.authentication.server.security.password.Messages;
 import org.octri.authentication.server.security.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.ldap.core.DirContextOperations;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
 
@@ -350,6 +361,88 @@ public class UserServiceTest {
 		assertTrue(reasons.isEmpty(), "Should return 0 errors");
 	}
 
+	@Test
+	public void testValidatePasswordComparesHashOnce() {
+		var reasons = userService.validatePassword(user, CURRENT_PASSWORD, VALID_PASSWORD, VALID_PASSWORD);
+		assertTrue(reasons.isEmpty(), "Should return 0 errors");
+		verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+	}
+
+	@Test
+	public void testValidatePasswordFailFastSkipsHashComparison() {
+		authenticationProperties.getPasswordPolicy().setFailFast(true);
+
+		var reasons = userService.validatePassword(user, "not-current-password", VALID_PASSWORD, "mismatch");
+		assertEquals(List.of(Messages.NEW_AND_CONFIRM_PASSWORDS_MISMATCH), reasons,
+				"Only the inexpensive check should be reported");
+		verify(passwordEncoder, never()).matches(anyString(), anyString());
+	}
+
+	@Test
+	public void testIncrementFailedAttemptCount() {
+		var maxAttempts = authenticationProperties.getMaxLoginAttempts();
+		when(userRepository.incrementConsecutiveLoginFailures(USERNAME, maxAttempts)).thenReturn(1);
+		when(userRepository.findConsecutiveLoginFailuresByUsername(USERNAME)).thenReturn(2);
+
+		assertEquals(2, userService.incrementFailedAttemptCount(USERNAME), "Should return the updated count");
+	}
+
+	@Test
+	public void testIncrementFailedAttemptCountCountsLockout() {
+		var registry = new SimpleMeterRegistry();
+		var metrics = new AuthenticationMetrics(EnumSet.of(AuthenticationMethod.TABLE_BASED));
+		metrics.bindTo(registry);
+		userService.setAuthenticationMetrics(metrics);
+
+		var maxAttempts = authenticationProperties.getMaxLoginAttempts();
+		when(userRepository.incrementConsecutiveLoginFailures(USERNAME, maxAttempts)).thenReturn(1);
+		when(userRepository.findConsecutiveLoginFailuresByUsername(USERNAME)).thenReturn(maxAttempts, maxAttempts + 1);
+
+		userService.incrementFailedAttemptCount(USERNAME);
+		userService.incrementFailedAttemptCount(USERNAME);
+		assertEquals(1.0, registry.get(AuthenticationMetrics.LOCKOUTS).counter().count(),
+				"Only the failure that locks the account should be counted");
+	}
+
+	@Test
+	public void testIncrementFailedAttemptCountForUnknownUser() {
+		var maxAttempts = authenticationProperties.getMaxLoginAttempts();
+		when(userRepository.incrementConsecutiveLoginFailures(USERNAME, maxAttempts)).thenReturn(0);
+
+		assertEquals(0, userService.incrementFailedAttemptCount(USERNAME), "Unknown users should have no failures");
+		verify(userRepository, never()).findConsecutiveLoginFailuresByUsername(anyString());
+	}
+
+	@Test
+	public void testUpgradePasswordHash() {
+		when(userRepository.updatePasswordByUsername(USERNAME, "{bcrypt}new-hash")).thenReturn(1);
+		assertTrue(userService.upgradePasswordHash(USERNAME, "{bcrypt}new-hash"), "Should report the update");
+
+		when(userRepository.updatePasswordByUsername("unknown", "{bcrypt}new-hash")).thenReturn(0);
+		assertFalse(userService.upgradePasswordHash("unknown", "{bcrypt}new-hash"),
+				"Unknown users should not be updated");
+	}
+
+	@Test
+	public void testRestrictPageableRemovesUnsortableProperties() {
+		var requested = PageRequest.of(2, 25, Sort.by(Sort.Order.desc("password"), Sort.Order.desc("email")));
+		var restricted = UserService.restrictPageable(requested);
+
+		assertEquals(2, restricted.getPageNumber(), "Should keep the page number");
+		assertEquals(25, restricted.getPageSize(), "Should keep the page size");
+		assertEquals(Sort.by(Sort.Order.desc("email")), restricted.getSort(), "Should only sort by listed columns");
+	}
+
+	@Test
+	public void testRestrictPageableDefaults() {
+		var restricted = UserService.restrictPageable(PageRequest.of(0, 5000, Sort.by("password")));
+		assertEquals(UserService.MAXIMUM_PAGE_SIZE, restricted.getPageSize(), "Should limit the page size");
+		assertEquals(Sort.by("username"), restricted.getSort(), "Should fall back on sorting by username");
+
+		restricted = UserService.restrictPageable(Pageable.unpaged());
+		assertEquals(UserService.MAXIMUM_PAGE_SIZE, restricted.getPageSize(), "Should page unpaged requests");
+	}
+
 	private User copyUser(User original) {
 		var copy = new User();
 		copy.setId(original.getId());
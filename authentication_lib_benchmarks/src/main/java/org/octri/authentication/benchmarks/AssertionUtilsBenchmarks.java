@@ -0,0 +1,98 @@
+package org.octri.authentication.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.octri.authentication.server.security.saml.AssertionUtils;
+import org.opensaml.core.config.InitializationService;
+import org.opensaml.core.xml.XMLObject;
+import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
+import org.opensaml.core.xml.schema.XSString;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.Attribute;
+import org.opensaml.saml.saml2.core.AttributeStatement;
+import org.opensaml.saml.saml2.core.AttributeValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks extraction of attributes from a SAML assertion similar to one issued by a campus IdP.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssertionUtilsBenchmarks {
+
+	private Assertion assertion;
+
+	/**
+	 * Initializes OpenSAML and builds the assertion.
+	 *
+	 * @throws Exception
+	 *             if OpenSAML cannot be initialized
+	 */
+	@Setup
+	public void setup() throws Exception {
+		InitializationService.initialize();
+
+		AttributeStatement statement = build(AttributeStatement.DEFAULT_ELEMENT_NAME);
+		statement.getAttributes().add(attribute("urn:oid:0.9.2342.19200300.100.1.1", "foo"));
+		statement.getAttributes().add(attribute("urn:oid:0.9.2342.19200300.100.1.3", "foo@example.com"));
+		statement.getAttributes().add(attribute("urn:oid:2.5.4.42", "Foo"));
+		statement.getAttributes().add(attribute("urn:oid:2.5.4.4", "Bar"));
+		statement.getAttributes().add(attribute("urn:oid:1.3.6.1.4.1.5923.1.5.1.1", "staff", "researchers",
+				"app-users", "app-admins", "vpn-users"));
+
+		assertion = build(Assertion.DEFAULT_ELEMENT_NAME);
+		assertion.getAttributeStatements().add(statement);
+	}
+
+	/**
+	 * Extracts all attributes from the assertion.
+	 *
+	 * @return attribute map
+	 */
+	@Benchmark
+	public Map<String, List<Object>> getAssertionAttributes() {
+		return AssertionUtils.getAssertionAttributes(assertion);
+	}
+
+	private static Attribute attribute(String name, String... values) {
+		Attribute attribute = build(Attribute.DEFAULT_ELEMENT_NAME);
+		attribute.setName(name);
+		for (String value : values) {
+			XSString xmlValue = build(AttributeValue.DEFAULT_ELEMENT_NAME, XSString.TYPE_NAME);
+			xmlValue.setValue(value);
+			attribute.getAttributeValues().add(xmlValue);
+		}
+		return attribute;
+	}
+
+	private static <T extends XMLObject> T build(QName elementName) {
+		return build(elementName, elementName);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends XMLObject> T build(QName elementName, QName typeName) {
+		var builder = XMLObjectProviderRegistrySupport.getBuilderFactory().getBuilderOrThrow(typeName);
+		if (elementName.equals(typeName)) {
+			return (T) builder.buildObject(elementName);
+		}
+		return (T) builder.buildObject(elementName, typeName);
+	}
+
+}
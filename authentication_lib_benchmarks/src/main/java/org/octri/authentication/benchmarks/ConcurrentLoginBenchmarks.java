@@ -0,0 +1,130 @@
+package org.octri.authentication.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.octri.authentication.server.security.TableBasedAuthenticationProvider;
+import org.octri.authentication.utils.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Benchmarks login throughput when many logins wait on I/O at once. Each login goes through the library's
+ * {@link TableBasedAuthenticationProvider}, user details service, and configured password encoder over an embedded H2
+ * database built from the library's entities. A simulated round trip to a remote database or directory server is
+ * added before the user is loaded, and the encoder uses a low BCrypt strength so that waiting, not hashing, dominates.
+ *
+ * The platform executor is a fixed pool the size of Tomcat's default request thread pool. The virtual executor starts
+ * a virtual thread per login, as the library does when octri.authentication.virtual-threads.enabled is true. The
+ * virtual executor requires Java 21 or later.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentLoginBenchmarks {
+
+	private static final int LOGINS = 2000;
+	private static final int PLATFORM_THREADS = 200;
+	private static final int BCRYPT_STRENGTH = 4;
+
+	private static final String USERNAME = LibraryLoginContext.USERNAME;
+	private static final String PASSWORD = LibraryLoginContext.PASSWORD;
+
+	@Param({ "platform", "virtual" })
+	private String executorType;
+
+	@Param({ "5", "50" })
+	private long ioLatencyMillis;
+
+	private LibraryLoginContext context;
+	private TableBasedAuthenticationProvider provider;
+	private ExecutorService executor;
+
+	/**
+	 * Starts the library, adds a user with two roles, configures the provider, and starts the executor.
+	 */
+	@Setup
+	public void setup() {
+		context = new LibraryLoginContext(
+				Map.of("octri.authentication.password-encoder.bcrypt-strength", BCRYPT_STRENGTH));
+
+		var libraryUserDetailsService = context.userDetailsService();
+		UserDetailsService userDetailsService = username -> {
+			simulateNetworkLatency();
+			return libraryUserDetailsService.loadUserByUsername(username);
+		};
+
+		provider = new TableBasedAuthenticationProvider(userDetailsService);
+		provider.setPasswordEncoder(context.passwordEncoder());
+
+		executor = "virtual".equals(executorType) ? VirtualThreads.newThreadPerTaskExecutor("benchmark-login-")
+				: Executors.newFixedThreadPool(PLATFORM_THREADS);
+	}
+
+	/**
+	 * Stops the executor and closes the library context.
+	 */
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+		context.close();
+	}
+
+	/**
+	 * Submits a burst of logins and waits for all of them to complete.
+	 *
+	 * @return the number of successful logins
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 * @throws ExecutionException
+	 *             if a login fails
+	 */
+	@Benchmark
+	@OperationsPerInvocation(LOGINS)
+	public int concurrentLogins() throws InterruptedException, ExecutionException {
+		List<Future<Boolean>> results = new ArrayList<>(LOGINS);
+		for (int i = 0; i < LOGINS; i++) {
+			results.add(executor.submit(() -> provider
+					.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD))
+					.isAuthenticated()));
+		}
+		int authenticated = 0;
+		for (Future<Boolean> result : results) {
+			if (result.get()) {
+				authenticated++;
+			}
+		}
+		return authenticated;
+	}
+
+	private void simulateNetworkLatency() {
+		try {
+			Thread.sleep(ioLatencyMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
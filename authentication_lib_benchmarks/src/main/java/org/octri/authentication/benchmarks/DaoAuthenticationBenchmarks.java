@@ -0,0 +1,98 @@
+package org.octri.authentication.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.octri.authentication.server.security.TableBasedAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Benchmarks form authentication end-to-end through the library's {@link TableBasedAuthenticationProvider}: loading
+ * the user and roles with {@code AuthenticationUserDetailsService} from an embedded H2 database built from the
+ * library's entities, and checking the hash with the default password encoder. The BCrypt cost dominates, so this
+ * shows what a login costs at the default strength.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoAuthenticationBenchmarks {
+
+	private static final String USERNAME = LibraryLoginContext.USERNAME;
+	private static final String PASSWORD = LibraryLoginContext.PASSWORD;
+
+	private LibraryLoginContext context;
+	private TableBasedAuthenticationProvider provider;
+
+	/**
+	 * Starts the library with its default password encoder and adds a user with two roles.
+	 */
+	@Setup
+	public void setup() {
+		context = new LibraryLoginContext(Map.of());
+		provider = context.authenticationProvider();
+	}
+
+	/**
+	 * Closes the library context and drops the database.
+	 */
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Authenticates with the correct password.
+	 *
+	 * @return the authenticated token
+	 */
+	@Benchmark
+	public Authentication authenticateValidCredentials() {
+		return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, PASSWORD));
+	}
+
+	/**
+	 * Authenticates with an incorrect password.
+	 *
+	 * @return the exception describing the failure
+	 */
+	@Benchmark
+	public Object authenticateBadCredentials() {
+		try {
+			return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, "wrong"));
+		} catch (BadCredentialsException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Authenticates a username that does not exist. The provider still hashes the password to avoid leaking which
+	 * usernames exist through timing.
+	 *
+	 * @return the exception describing the failure
+	 */
+	@Benchmark
+	public Object authenticateUnknownUser() {
+		try {
+			return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("unknown", PASSWORD));
+		} catch (BadCredentialsException e) {
+			return e;
+		}
+	}
+
+}
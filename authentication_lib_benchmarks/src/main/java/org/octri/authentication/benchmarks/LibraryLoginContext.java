@@ -0,0 +1,141 @@
+package org.octri.authentication.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.octri.authentication.config.OctriAuthenticationConfiguration;
+import org.octri.authentication.config.TableBasedAuthenticationConfiguration;
+import org.octri.authentication.server.security.AuthenticationUserDetailsService;
+import org.octri.authentication.server.security.TableBasedAuthenticationProvider;
+import org.octri.authentication.server.security.entity.AuthenticationMethod;
+import org.octri.authentication.server.security.entity.User;
+import org.octri.authentication.server.security.entity.UserRole;
+import org.octri.authentication.server.security.password.PasswordConstraintValidator;
+import org.octri.authentication.server.security.repository.UserRepository;
+import org.octri.authentication.server.security.service.PasswordResetTokenService;
+import org.octri.authentication.server.security.service.UserService;
+import org.octri.authentication.server.security.service.UserUserRoleService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Starts the parts of the library that run during a table-based login: the {@link TableBasedAuthenticationProvider},
+ * the {@link AuthenticationUserDetailsService} and the services behind it, and the configured password encoder. They
+ * use an embedded H2 database in MySQL mode whose schema Hibernate creates from the library's entities. One
+ * table-based user with two roles is created.
+ */
+final class LibraryLoginContext implements AutoCloseable {
+
+	static final String USERNAME = "foo";
+	static final String PASSWORD = "Correct.Horse1";
+
+	private static final Map<String, Object> DEFAULT_PROPERTIES = Map.of(
+			"octri.authentication.enable-table-based", "true",
+			"octri.authentication.enable-ldap", "false",
+			"octri.authentication.base-url", "http://localhost:8080",
+			"octri.authentication.account-message-email", "benchmark@example.com",
+			"spring.datasource.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+			"spring.jpa.hibernate.ddl-auto", "create-drop",
+			"spring.jpa.properties.hibernate.auto_quote_keyword", "true",
+			"spring.jpa.open-in-view", "false");
+
+	private final ConfigurableApplicationContext context;
+
+	/**
+	 * Starts the context and creates the user.
+	 *
+	 * @param properties
+	 *            properties that add to or override the defaults, such as password encoder settings
+	 */
+	LibraryLoginContext(Map<String, ?> properties) {
+		var merged = new HashMap<>(DEFAULT_PROPERTIES);
+		merged.putAll(properties);
+		context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.properties(merged)
+				.run();
+		createUser();
+	}
+
+	/**
+	 * @return the provider the library configures for table-based logins
+	 */
+	TableBasedAuthenticationProvider authenticationProvider() {
+		return context.getBean(TableBasedAuthenticationProvider.class);
+	}
+
+	/**
+	 * @return the library's user details service
+	 */
+	AuthenticationUserDetailsService userDetailsService() {
+		return context.getBean(AuthenticationUserDetailsService.class);
+	}
+
+	/**
+	 * @return the password encoder the library configures
+	 */
+	PasswordEncoder passwordEncoder() {
+		return context.getBean(PasswordEncoder.class);
+	}
+
+	/**
+	 * Closes the context, which drops the database.
+	 */
+	@Override
+	public void close() {
+		context.close();
+	}
+
+	private void createUser() {
+		var user = new User();
+		user.setUsername(USERNAME);
+		user.setPassword(passwordEncoder().encode(PASSWORD));
+		user.setFirstName("Foo");
+		user.setLastName("Bar");
+		user.setEmail("foo@example.com");
+		user.setAuthenticationMethod(AuthenticationMethod.TABLE_BASED);
+		// The roles are saved with the user
+		user.setUserRoles(List.of(role("ROLE_USER", "Basic User"), role("ROLE_ADMIN", "Administrator")));
+		context.getBean(UserRepository.class).save(user);
+	}
+
+	private static UserRole role(String roleName, String description) {
+		var role = new UserRole();
+		role.setRoleName(roleName);
+		role.setDescription(description);
+		return role;
+	}
+
+	/**
+	 * Configures the database and JPA the way a consuming application's Spring Boot starters would, then imports the
+	 * library configuration and services used to log in.
+	 */
+	@Configuration(proxyBeanMethods = false)
+	@ImportAutoConfiguration({ PropertyPlaceholderAutoConfiguration.class, DataSourceAutoConfiguration.class,
+			HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class })
+	@EntityScan(basePackageClasses = User.class)
+	@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+	@EnableJpaAuditing
+	@Import({ OctriAuthenticationConfiguration.class, TableBasedAuthenticationConfiguration.class,
+			AuthenticationUserDetailsService.class, UserService.class, UserUserRoleService.class,
+			PasswordResetTokenService.class, PasswordConstraintValidator.class })
+	static class BenchmarkConfiguration {
+	}
+
+}
@@ -0,0 +1,105 @@
+package org.octri.authentication.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.octri.authentication.server.security.password.PasswordConstraintValidator;
+import org.octri.authentication.server.security.password.RandomDictionary;
+import org.octri.authentication.server.security.password.StructuredPasswordGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks password validation and generation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmarks {
+
+	private static final String DICTIONARY = "dictionaries/combined.txt";
+
+	private PasswordConstraintValidator validator;
+	private RandomDictionary dictionary;
+	private StructuredPasswordGenerator generator;
+
+	/**
+	 * Loads the default dictionary and creates the objects under test.
+	 *
+	 * @throws IOException
+	 *             if the dictionary cannot be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		validator = new PasswordConstraintValidator();
+		dictionary = new RandomDictionary(readDictionary());
+		generator = new StructuredPasswordGenerator(dictionary);
+	}
+
+	/**
+	 * Validates a password that satisfies every rule.
+	 *
+	 * @return validation errors
+	 */
+	@Benchmark
+	public List<String> validateValidPassword() {
+		return validator.validate("Correct.Horse1", null);
+	}
+
+	/**
+	 * Validates a password that fails several rules.
+	 *
+	 * @return validation errors
+	 */
+	@Benchmark
+	public List<String> validateInvalidPassword() {
+		return validator.validate("short", null);
+	}
+
+	/**
+	 * Generates a password using the default format.
+	 *
+	 * @return generated password
+	 */
+	@Benchmark
+	public String generatePassword() {
+		return generator.generate();
+	}
+
+	/**
+	 * Selects a random word using the default word length range.
+	 *
+	 * @return random word
+	 */
+	@Benchmark
+	public String randomWord() {
+		return dictionary.getRandom(generator.getMinWordLength(), generator.getMaxWordLength());
+	}
+
+	private static List<String> readDictionary() throws IOException {
+		var stream = PasswordBenchmarks.class.getClassLoader().getResourceAsStream(DICTIONARY);
+		if (stream == null) {
+			throw new IOException("Dictionary not found on classpath: " + DICTIONARY);
+		}
+		try (var reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+}
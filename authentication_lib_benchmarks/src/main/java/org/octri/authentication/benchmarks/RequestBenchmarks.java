@@ -0,0 +1,104 @@
+package org.octri.authentication.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.octri.authentication.RequestUtils;
+import org.octri.authentication.server.security.SecurityHelper;
+import org.octri.authentication.server.security.SecurityHelper.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Benchmarks helpers that run on every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBenchmarks {
+
+	private static final List<Role> ADMIN_ROLES = List.of(Role.ROLE_ADMIN, Role.ROLE_SUPER);
+
+	private HttpServletRequest directRequest;
+	private HttpServletRequest proxiedRequest;
+	private SecurityHelper securityHelper;
+
+	/**
+	 * Creates requests and the security context used by the benchmarks.
+	 */
+	@Setup
+	public void setup() {
+		directRequest = request(Map.of(), "192.0.2.10");
+		proxiedRequest = request(Map.of("X-Forwarded-For", "203.0.113.7, 198.51.100.1"), "10.0.0.1");
+
+		var authentication = new UsernamePasswordAuthenticationToken("foo", null,
+				AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_SUPER"));
+		securityHelper = new SecurityHelper(new SecurityContextImpl(authentication));
+	}
+
+	/**
+	 * Resolves the client IP address of a request without proxy headers.
+	 *
+	 * @return client IP address
+	 */
+	@Benchmark
+	public String clientIpAddressDirect() {
+		return RequestUtils.getClientIpAddr(directRequest);
+	}
+
+	/**
+	 * Resolves the client IP address of a request forwarded through a chain of proxies.
+	 *
+	 * @return client IP address
+	 */
+	@Benchmark
+	public String clientIpAddressForwarded() {
+		return RequestUtils.getClientIpAddr(proxiedRequest);
+	}
+
+	/**
+	 * Checks whether the user has one of the administrative roles.
+	 *
+	 * @return true if the user has an administrative role
+	 */
+	@Benchmark
+	public boolean hasAnyRole() {
+		return securityHelper.hasAnyRole(ADMIN_ROLES);
+	}
+
+	/**
+	 * Creates a minimal request that only answers header and remote address lookups.
+	 */
+	private static HttpServletRequest request(Map<String, String> headers, String remoteAddr) {
+		return (HttpServletRequest) Proxy.newProxyInstance(RequestBenchmarks.class.getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getHeader":
+							return headers.get(args[0]);
+						case "getRemoteAddr":
+							return remoteAddr;
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+}
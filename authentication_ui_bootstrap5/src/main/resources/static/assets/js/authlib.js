@@ -189,19 +189,6 @@
     // jQuery plugins
     //
 
-    // DataTables
-    if (typeof $.fn.DataTable !== 'undefined') {
-      $('.authlib-user-list .users-table').DataTable({
-        columnDefs: [
-          {
-            targets: 0,
-            orderable: false
-          }
-        ],
-        order: [[1, 'asc']]
-      });
-    }
-
     // Date picker
     if (typeof $.fn.datepicker !== 'undefined') {
       $('input[name=accountExpirationDate]').datepicker();
@@ -0,0 +1,17 @@
+-- -----------------------------------------------------------------------------
+-- Add indexes for the login attempt, session event, and password reset token
+-- lookups. username and error_type are TEXT, so they are indexed by prefix.
+-- -----------------------------------------------------------------------------
+
+ALTER TABLE `login_attempt`
+	ADD INDEX `login_attempt_username_idx` (`username`(255), `successful`, `attempted_at`),
+	ADD INDEX `login_attempt_error_type_idx` (`error_type`(255), `successful`, `attempted_at`),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE `session_event`
+	ADD INDEX `session_event_session_id_event_idx` (`session_id`, `event`),
+	ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE `password_reset_token`
+	ADD INDEX `password_reset_token_user_expiry_date_idx` (`user`, `expiry_date`),
+	ALGORITHM=INPLACE, LOCK=NONE;
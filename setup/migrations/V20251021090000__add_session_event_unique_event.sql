@@ -0,0 +1,18 @@
+-- -----------------------------------------------------------------------------
+-- Allow at most one LOGIN and one LOGOUT event per session, so that session
+-- events can be recorded with a single insert-if-absent statement. A session
+-- may have several IMPERSONATION events, so they are excluded from the index.
+-- The unique index also serves lookups by session ID, so the non-unique
+-- session ID and event index is dropped. Requires MySQL 8.0.13 or later.
+-- -----------------------------------------------------------------------------
+
+-- Remove duplicate LOGIN and LOGOUT events, keeping the earliest of each
+DELETE `duplicate` FROM `session_event` `duplicate`
+	JOIN `session_event` `original` ON `original`.`session_id` = `duplicate`.`session_id`
+		AND `original`.`event` = `duplicate`.`event`
+		AND `original`.`id` < `duplicate`.`id`
+	WHERE `duplicate`.`event` IN ('LOGIN', 'LOGOUT');
+
+ALTER TABLE `session_event`
+	ADD UNIQUE INDEX `session_event_session_id_event_uk` (`session_id`, (IF(`event` = 'IMPERSONATION', NULL, `event`))),
+	DROP INDEX `session_event_session_id_event_idx`;
@@ -0,0 +1,38 @@
+-- -----------------------------------------------------------------------------
+-- Create the table used to queue account emails when
+-- octri.authentication.email-queue.enabled is true. SELECT ... FOR UPDATE
+-- SKIP LOCKED is used to claim messages, which requires MySQL 8.0.1 or later.
+-- When the send rate is limited, dispatchers lock the single row of
+-- outbound_email_claim_lock while they claim, so that the limit applies across
+-- application instances.
+-- -----------------------------------------------------------------------------
+DROP TABLE IF EXISTS `outbound_email`;
+CREATE TABLE `outbound_email` (
+	`id` bigint NOT NULL AUTO_INCREMENT,
+	`version` int NOT NULL,
+	`created_at` datetime NOT NULL,
+	`updated_at` datetime NOT NULL,
+	`message_type` varchar(64) NOT NULL,
+	`from_address` varchar(320),
+	`to_address` varchar(320) NOT NULL,
+	`subject` varchar(998),
+	`body` text,
+	`content_hash` char(64) NOT NULL,
+	`status` enum('PENDING', 'SENDING', 'SENT', 'FAILED') NOT NULL,
+	`attempts` int NOT NULL DEFAULT 0,
+	`next_attempt_at` datetime NOT NULL,
+	`sent_at` datetime,
+	`last_error` varchar(1000),
+	primary key(`id`),
+	INDEX `outbound_email_status_next_attempt_at_idx` (`status`, `next_attempt_at`),
+	INDEX `outbound_email_to_address_message_type_idx` (`to_address`, `message_type`),
+	INDEX `outbound_email_status_sent_at_idx` (`status`, `sent_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+DROP TABLE IF EXISTS `outbound_email_claim_lock`;
+CREATE TABLE `outbound_email_claim_lock` (
+	`id` tinyint NOT NULL,
+	primary key(`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+INSERT INTO `outbound_email_claim_lock` (`id`) VALUES (1);
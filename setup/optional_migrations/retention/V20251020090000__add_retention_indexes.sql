@@ -0,0 +1,4 @@
+-- Index the timestamp columns used by the retention purge job, so that each chunked
+-- DELETE ... WHERE <timestamp> < ? LIMIT n reads only the rows it removes
+CREATE INDEX `login_attempt_attempted_at_idx` ON `login_attempt` (`attempted_at`);
+CREATE INDEX `session_event_created_at_idx` ON `session_event` (`created_at`);